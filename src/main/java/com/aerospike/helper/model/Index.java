@@ -91,9 +91,32 @@ public class Index {
 
 	public IndexType getType() {
 		String indexTypeString = values.get("type");
-		if (indexTypeString.equalsIgnoreCase("TEXT"))
+		if (indexTypeString.equalsIgnoreCase("TEXT") || indexTypeString.equalsIgnoreCase("STRING"))
 			return IndexType.STRING;
 		else
 			return IndexType.NUMERIC;
 	}
+
+	public String getNamespace() {
+		return values.get("ns");
+	}
+
+	/**
+	 * @return the Set the index is restricted to, or null if it covers the whole Namespace
+	 */
+	public String getSet() {
+		String set = values.get("set");
+		if (set == null || set.isEmpty() || set.equalsIgnoreCase("NULL"))
+			return null;
+		return set;
+	}
+
+	/**
+	 * @return true if the index is built on a List or Map bin rather than on a scalar value
+	 */
+	public boolean isCollectionIndex() {
+		String collectionType = values.get("indextype");
+		return collectionType != null && !collectionType.equalsIgnoreCase("NONE")
+				&& !collectionType.equalsIgnoreCase("DEFAULT");
+	}
 }
@@ -113,6 +113,13 @@ public class Module {
 		return result;
 	}
 
+	/**
+	 * @return the SHA-1 of the module content as listed by the cluster, or null if not listed
+	 */
+	public String getHash() {
+		return values == null ? null : values.get("hash");
+	}
+
 	public String getSource() {
 		return source;
 	}
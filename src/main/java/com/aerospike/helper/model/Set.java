@@ -109,6 +109,24 @@ public class Set {
         }
     }
 
+    /**
+     * @return the number of objects in the set as reported by the cluster, or -1 if unknown
+     */
+    public long getObjectCount() {
+        if (values == null)
+            return -1;
+        NameValuePair objects = values.get("objects");
+        if (objects == null)
+            objects = values.get("n_objects");
+        if (objects == null || objects.value == null)
+            return -1;
+        try {
+            return Long.parseLong(objects.value.toString());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
     public void setValues(Map<String, NameValuePair> newValues) {
         this.values = newValues;
     }
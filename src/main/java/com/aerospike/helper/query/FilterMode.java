@@ -0,0 +1,33 @@
+/* Copyright 2012-2015 Aerospike, Inc.
+ *
+ * Portions may be licensed to Aerospike, Inc. under one or more contributor
+ * license agreements.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.aerospike.helper.query;
+
+/**
+ * Selects how Qualifiers not served by a secondary index are evaluated.
+ *
+ * @author Peter Milne
+ */
+public enum FilterMode {
+	/**
+	 * Qualifiers are translated to Lua and evaluated by the as_utility stream UDF on the cluster
+	 */
+	LUA,
+	/**
+	 * Qualifiers are compiled to Java predicates and evaluated on the records streamed
+	 * by a plain query. Qualifiers that cannot be compiled are still evaluated in Lua.
+	 */
+	CLIENT
+}
@@ -0,0 +1,64 @@
+/* Copyright 2012-2015 Aerospike, Inc.
+ *
+ * Portions may be licensed to Aerospike, Inc. under one or more contributor
+ * license agreements.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.aerospike.helper.query;
+
+import java.io.IOException;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+import com.aerospike.client.query.KeyRecord;
+
+/**
+ * KeyRecordIterator returning only the records of another iterator that match a predicate
+ *
+ * @author Peter Milne
+ */
+class FilteringKeyRecordIterator extends KeyRecordIterator {
+	private final KeyRecordIterator source;
+	private final Predicate<KeyRecord> predicate;
+	private KeyRecord nextRecord;
+
+	FilteringKeyRecordIterator(String namespace, KeyRecordIterator source, Predicate<KeyRecord> predicate) {
+		super(namespace);
+		this.source = source;
+		this.predicate = predicate;
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (nextRecord == null && source.hasNext()) {
+			KeyRecord candidate = source.next();
+			if (candidate != null && predicate.test(candidate))
+				nextRecord = candidate;
+		}
+		return nextRecord != null;
+	}
+
+	@Override
+	public KeyRecord next() {
+		if (!hasNext())
+			throw new NoSuchElementException();
+		KeyRecord result = nextRecord;
+		nextRecord = null;
+		return result;
+	}
+
+	@Override
+	public void close() throws IOException {
+		nextRecord = null;
+		source.close();
+	}
+}
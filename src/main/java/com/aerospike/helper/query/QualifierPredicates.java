@@ -0,0 +1,289 @@
+/* Copyright 2012-2015 Aerospike, Inc.
+ *
+ * Portions may be licensed to Aerospike, Inc. under one or more contributor
+ * license agreements.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.aerospike.helper.query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import com.aerospike.client.Value;
+import com.aerospike.client.query.KeyRecord;
+
+/**
+ * Compiles Qualifiers into Java predicates over KeyRecords, following the
+ * semantics of the Lua filter: a missing Bin only matches NOTEQ, and values of
+ * different types never match.
+ *
+ * @author Peter Milne
+ */
+public final class QualifierPredicates {
+
+	private QualifierPredicates() {
+	}
+
+	/**
+	 * Compiles a single Qualifier.
+	 *
+	 * @param qualifier the Qualifier
+	 * @return the predicate, or null if the Qualifier can only be evaluated in Lua
+	 */
+	public static Predicate<KeyRecord> compile(Qualifier qualifier) {
+		Function<KeyRecord, Object> field = fieldAccessor(qualifier);
+		if (field == null || qualifier.getOperation() == null)
+			return null;
+		final Object value1 = valueOf(qualifier.getValue1());
+		final Object value2 = valueOf(qualifier.getValue2());
+
+		switch (qualifier.getOperation()) {
+			case EQ:
+				return new BinPredicate(field) {
+					@Override
+					boolean matches(Object binValue) {
+						return valueEquals(binValue, value1);
+					}
+				};
+			case NOTEQ:
+				return new BinPredicate(field) {
+					@Override
+					boolean matches(Object binValue) {
+						return !valueEquals(binValue, value1);
+					}
+				};
+			case GT:
+				return new BinPredicate(field) {
+					@Override
+					boolean matches(Object binValue) {
+						return comparable(binValue, value1) && compare(binValue, value1) > 0;
+					}
+				};
+			case GTEQ:
+				return new BinPredicate(field) {
+					@Override
+					boolean matches(Object binValue) {
+						return comparable(binValue, value1) && compare(binValue, value1) >= 0;
+					}
+				};
+			case LT:
+				return new BinPredicate(field) {
+					@Override
+					boolean matches(Object binValue) {
+						return comparable(binValue, value1) && compare(binValue, value1) < 0;
+					}
+				};
+			case LTEQ:
+				return new BinPredicate(field) {
+					@Override
+					boolean matches(Object binValue) {
+						return comparable(binValue, value1) && compare(binValue, value1) <= 0;
+					}
+				};
+			case BETWEEN:
+				return new BinPredicate(field) {
+					@Override
+					boolean matches(Object binValue) {
+						return between(binValue, value1, value2);
+					}
+				};
+			case START_WITH:
+				return new BinPredicate(field) {
+					@Override
+					boolean matches(Object binValue) {
+						return binValue instanceof String && value1 instanceof String
+								&& ((String) binValue).startsWith((String) value1);
+					}
+				};
+			case ENDS_WITH:
+				return new BinPredicate(field) {
+					@Override
+					boolean matches(Object binValue) {
+						if ("".equals(value1))
+							return true;
+						return binValue instanceof String && value1 instanceof String
+								&& ((String) binValue).endsWith((String) value1);
+					}
+				};
+			case LIST_CONTAINS:
+				return new BinPredicate(field) {
+					@Override
+					boolean matches(Object binValue) {
+						return binValue instanceof List && anyEquals((List<?>) binValue, value1);
+					}
+				};
+			case MAP_KEYS_CONTAINS:
+				return new BinPredicate(field) {
+					@Override
+					boolean matches(Object binValue) {
+						return binValue instanceof Map && anyEquals(((Map<?, ?>) binValue).keySet(), value1);
+					}
+				};
+			case MAP_VALUES_CONTAINS:
+				return new BinPredicate(field) {
+					@Override
+					boolean matches(Object binValue) {
+						return binValue instanceof Map && anyEquals(((Map<?, ?>) binValue).values(), value1);
+					}
+				};
+			case LIST_BETWEEN:
+				return new BinPredicate(field) {
+					@Override
+					boolean matches(Object binValue) {
+						return binValue instanceof List && anyBetween((List<?>) binValue, value1, value2);
+					}
+				};
+			case MAP_KEYS_BETWEEN:
+				return new BinPredicate(field) {
+					@Override
+					boolean matches(Object binValue) {
+						return binValue instanceof Map && anyBetween(((Map<?, ?>) binValue).keySet(), value1, value2);
+					}
+				};
+			case MAP_VALUES_BETWEEN:
+				return new BinPredicate(field) {
+					@Override
+					boolean matches(Object binValue) {
+						return binValue instanceof Map && anyBetween(((Map<?, ?>) binValue).values(), value1, value2);
+					}
+				};
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * Compiles Qualifiers into one predicate matching records that satisfy all of them.
+	 * Qualifiers that cannot be compiled are added to notCompiled.
+	 *
+	 * @param qualifiers  the Qualifiers, null elements are skipped
+	 * @param notCompiled receives the Qualifiers left for Lua
+	 * @return the predicate, or null if no Qualifier could be compiled
+	 */
+	public static Predicate<KeyRecord> compileAll(Qualifier[] qualifiers, List<Qualifier> notCompiled) {
+		Predicate<KeyRecord> result = null;
+		for (Qualifier qualifier : qualifiers) {
+			if (qualifier == null)
+				continue;
+			Predicate<KeyRecord> predicate = compile(qualifier);
+			if (predicate == null) {
+				notCompiled.add(qualifier);
+				continue;
+			}
+			result = result == null ? predicate : result.and(predicate);
+		}
+		return result;
+	}
+
+	/*
+	 * Only plain Bin qualifiers and the generation can be read from a streamed
+	 * record; the primary key is not returned by a query and the expiry needs the
+	 * server clock. Unknown subclasses may override the Lua translation.
+	 */
+	private static Function<KeyRecord, Object> fieldAccessor(Qualifier qualifier) {
+		final String field = qualifier.getField();
+		if (qualifier.getClass() == Qualifier.class) {
+			return new Function<KeyRecord, Object>() {
+				@Override
+				public Object apply(KeyRecord r) {
+					return r.record == null || r.record.bins == null ? null : r.record.bins.get(field);
+				}
+			};
+		}
+		if (qualifier.getClass() == GenerationQualifier.class) {
+			return new Function<KeyRecord, Object>() {
+				@Override
+				public Object apply(KeyRecord r) {
+					return r.record == null ? null : (Object) Long.valueOf(r.record.generation);
+				}
+			};
+		}
+		return null;
+	}
+
+	private static Object valueOf(Value value) {
+		return value == null ? null : value.getObject();
+	}
+
+	private static boolean valueEquals(Object binValue, Object value) {
+		if (binValue == null || value == null)
+			return false;
+		if (binValue instanceof Number && value instanceof Number)
+			return compareNumbers((Number) binValue, (Number) value) == 0;
+		return binValue.equals(value);
+	}
+
+	private static boolean comparable(Object binValue, Object value) {
+		if (binValue == null || value == null)
+			return false;
+		if (binValue instanceof Number && value instanceof Number)
+			return true;
+		return binValue instanceof String && value instanceof String;
+	}
+
+	/*
+	 * callers check comparable() first
+	 */
+	private static int compare(Object binValue, Object value) {
+		if (binValue instanceof Number)
+			return compareNumbers((Number) binValue, (Number) value);
+		return ((String) binValue).compareTo((String) value);
+	}
+
+	private static boolean between(Object binValue, Object low, Object high) {
+		return comparable(binValue, low) && comparable(binValue, high)
+				&& compare(binValue, low) >= 0 && compare(binValue, high) <= 0;
+	}
+
+	private static int compareNumbers(Number left, Number right) {
+		if (left instanceof Double || left instanceof Float || right instanceof Double || right instanceof Float)
+			return Double.compare(left.doubleValue(), right.doubleValue());
+		return Long.compare(left.longValue(), right.longValue());
+	}
+
+	private static boolean anyEquals(Collection<?> values, Object value) {
+		for (Object element : values) {
+			if (valueEquals(element, value))
+				return true;
+		}
+		return false;
+	}
+
+	private static boolean anyBetween(Collection<?> values, Object low, Object high) {
+		for (Object element : values) {
+			if (between(element, low, high))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * A predicate over the value of the Bin, or the generation, a Qualifier reads.
+	 */
+	private abstract static class BinPredicate implements Predicate<KeyRecord> {
+		private final Function<KeyRecord, Object> field;
+
+		BinPredicate(Function<KeyRecord, Object> field) {
+			this.field = field;
+		}
+
+		@Override
+		public boolean test(KeyRecord r) {
+			return matches(field.apply(r));
+		}
+
+		abstract boolean matches(Object binValue);
+	}
+}
@@ -15,13 +15,23 @@
  */
 package com.aerospike.helper.query;
 
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.function.Predicate;
 
 import org.apache.log4j.Logger;
 
@@ -65,6 +75,9 @@ public class QueryEngine implements Closeable {
 	protected static Logger log = Logger.getLogger(QueryEngine.class);
 	protected AerospikeClient client;
 	protected Map<String, Index> indexCache;
+	protected Map<String, Index> qualifiedIndexCache;
+	protected QueryPlanner planner;
+	protected FilterMode filterMode = FilterMode.LUA;
 	protected Map<String, Module> moduleCache;
 	protected TreeMap<String, Namespace> namespaceCache;
 	
@@ -107,6 +120,46 @@ public class QueryEngine implements Closeable {
 	public QueryEngine() {
 		super();
 		Value.UseDoubleType = true; // Note: this supports the Double particle type
+		this.planner = new QueryPlanner(this);
+	}
+
+	/**
+	 * Gets the QueryPlanner choosing the secondary index Filter of each query
+	 *
+	 * @return the QueryPlanner
+	 */
+	public QueryPlanner getQueryPlanner() {
+		return planner;
+	}
+
+	/**
+	 * Gets the FilterMode used when a select does not specify one
+	 *
+	 * @return the default FilterMode
+	 */
+	public FilterMode getFilterMode() {
+		return filterMode;
+	}
+
+	/**
+	 * Sets the FilterMode used when a select does not specify one
+	 *
+	 * @param filterMode the default FilterMode, LUA if null
+	 */
+	public void setFilterMode(FilterMode filterMode) {
+		this.filterMode = filterMode == null ? FilterMode.LUA : filterMode;
+	}
+
+	/**
+	 * Explains how a query with the given Qualifiers would be executed, without running it
+	 *
+	 * @param namespace  Namespace storing the data
+	 * @param set        Set storing the data
+	 * @param qualifiers Zero or more Qualifiers
+	 * @return the QueryPlan
+	 */
+	public QueryPlan explain(String namespace, String set, Qualifier... qualifiers) {
+		return planner.plan(namespace, set, qualifiers);
 	}
 
 	/**
@@ -190,12 +243,26 @@ public class QueryEngine implements Closeable {
 	 * @return A KeyRecordIterator to iterate over the results
 	 */
 	public KeyRecordIterator select(String namespace, String set, Filter filter, Qualifier... qualifiers) {
+		return select(namespace, set, filter, this.filterMode, qualifiers);
+	}
+
+	/**
+	 * Select records filtered by a Filter and Qualifiers
+	 *
+	 * @param namespace  Namespace to storing the data
+	 * @param set		Set storing the data
+	 * @param filter	 Aerospike Filter to be used
+	 * @param filterMode How Qualifiers not served by an index are evaluated, the engine default if null
+	 * @param qualifiers Zero or more Qualifiers for the update query
+	 * @return A KeyRecordIterator to iterate over the results
+	 */
+	public KeyRecordIterator select(String namespace, String set, Filter filter, FilterMode filterMode, Qualifier... qualifiers) {
 		Statement stmt = new Statement();
 		stmt.setNamespace(namespace);
 		stmt.setSetName(set);
 		if (filter != null)
 			stmt.setFilters(filter);
-		return select(stmt, qualifiers);
+		return select(stmt, false, null, filterMode, qualifiers);
 	}
 
 	/**
@@ -218,6 +285,22 @@ public class QueryEngine implements Closeable {
 	 * @return A KeyRecordIterator to iterate over the results
 	 */
 	public KeyRecordIterator select(Statement stmt, boolean metaOnly, Node node, Qualifier... qualifiers) {
+		return select(stmt, metaOnly, node, this.filterMode, qualifiers);
+	}
+
+	/**
+	 * Select records filtered by Qualifiers
+	 *
+	 * @param stmt	   A Statement object containing Namespace, Set and the Bins to be returned.
+	 * @param metaOnly   Set to true to return only the record meta data
+	 * @param node       The Node to query, or null to query the whole cluster
+	 * @param filterMode How Qualifiers not served by an index are evaluated, the engine default if null
+	 * @param qualifiers Zero or more Qualifiers for the update query
+	 * @return A KeyRecordIterator to iterate over the results
+	 */
+	public KeyRecordIterator select(Statement stmt, boolean metaOnly, Node node, FilterMode filterMode, Qualifier... qualifiers) {
+		if (filterMode == null)
+			filterMode = this.filterMode;
 		KeyRecordIterator results = null;
 		/*
 		 * no filters
@@ -251,30 +334,79 @@ public class QueryEngine implements Closeable {
 			return results;
 		}
 		/*
-		 *  query with filters
+		 *  query with filters, unless the caller supplied one the planner
+		 *  picks the most selective indexed qualifier
 		 */
-		Map<String, Object> originArgs = new HashMap<String, Object>();
-		originArgs.put("includeAllFields", 1);
+		Qualifier[] residualQualifiers = qualifiers;
+		if (stmt.getFilters() == null || stmt.getFilters().length == 0) {
+			QueryPlan plan = planner.plan(stmt.getNamespace(), stmt.getSetName(), qualifiers);
+			if (log.isDebugEnabled())
+				log.debug("Query plan: " + plan);
+			if (plan.getFilter() != null) {
+				stmt.setFilters(plan.getFilter());
+				residualQualifiers = plan.getResidualQualifiers();
+			}
+		}
 
-		for (int i = 0; i < qualifiers.length; i++) {
-			Qualifier qualifier = qualifiers[i];
-			if (isIndexedBin(qualifier)) {
-				Filter filter = qualifier.asFilter();
-				if (filter != null) {
-					stmt.setFilters(filter);
-					qualifiers[i] = null;
-					break;
-				}
+		/*
+		 * in client mode the qualifiers that can be compiled are evaluated
+		 * on the streamed records, only the rest is left to Lua
+		 */
+		Predicate<KeyRecord> clientPredicate = null;
+		List<String> predicateBins = null;
+		if (filterMode == FilterMode.CLIENT) {
+			List<Qualifier> luaQualifiers = new ArrayList<Qualifier>();
+			clientPredicate = QualifierPredicates.compileAll(residualQualifiers, luaQualifiers);
+			if (clientPredicate != null) {
+				predicateBins = binNames(residualQualifiers, luaQualifiers);
+				residualQualifiers = luaQualifiers.toArray(new Qualifier[luaQualifiers.size()]);
 			}
 		}
 
-		String filterFuncStr = buildFilterFunction(qualifiers);
+		/*
+		 * the index and the compiled predicates answer the whole query
+		 */
+		if (residualQualifiers.length == 0 && (!metaOnly || clientPredicate != null)) {
+			if (metaOnly && !predicateBins.isEmpty())
+				stmt.setBinNames(predicateBins.toArray(new String[predicateBins.size()]));
+			else if (!metaOnly && stmt.getBinNames() != null && clientPredicate != null)
+				stmt.setBinNames(union(stmt.getBinNames(), predicateBins));
+			RecordSet recordSet = null;
+			if (node != null)
+				recordSet = this.client.queryNode(null, stmt, node);
+			else
+				recordSet = this.client.query(null, stmt);
+			results = new KeyRecordIterator(stmt.getNamespace(), recordSet);
+			return clientPredicate == null ? results : new FilteringKeyRecordIterator(stmt.getNamespace(), results, clientPredicate);
+		}
+
+		Map<String, Object> originArgs = new HashMap<String, Object>();
+
+		String filterFuncStr = buildFilterFunction(residualQualifiers);
 		originArgs.put("filterFuncStr", filterFuncStr);
 
-		if (metaOnly)
+		if (metaOnly && clientPredicate != null) {
+			/*
+			 * the compiled predicates need the bins they test
+			 */
+			originArgs.put("selectFields", predicateBins);
+			originArgs.put("includeAllFields", 0);
+			stmt.setAggregateFunction(this.getClass().getClassLoader(), AS_UTILITY_PATH, QUERY_MODULE, "select_records", Value.get(originArgs));
+		} else if (metaOnly) {
+			originArgs.put("includeAllFields", 1);
 			stmt.setAggregateFunction(this.getClass().getClassLoader(), AS_UTILITY_PATH, QUERY_MODULE, "query_meta", Value.get(originArgs));
-		else
+		} else if (stmt.getBinNames() != null) {
+			/*
+			 * only the selected bins, and those the compiled predicates test,
+			 * are sent back
+			 */
+			originArgs.put("selectFields", Arrays.asList(clientPredicate == null ? stmt.getBinNames() : union(stmt.getBinNames(), predicateBins)));
+			originArgs.put("includeAllFields", 0);
 			stmt.setAggregateFunction(this.getClass().getClassLoader(), AS_UTILITY_PATH, QUERY_MODULE, "select_records", Value.get(originArgs));
+		} else {
+			originArgs.put("includeAllFields", 1);
+			stmt.setAggregateFunction(this.getClass().getClassLoader(), AS_UTILITY_PATH, QUERY_MODULE, "select_records", Value.get(originArgs));
+		}
 		ResultSet resultSet = null;
 
 		if (node != null) {
@@ -283,9 +415,96 @@ public class QueryEngine implements Closeable {
 			resultSet = this.client.queryAggregate(null, stmt);
 		}
 		results = new KeyRecordIterator(stmt.getNamespace(), resultSet);
-		return results;
+		return clientPredicate == null ? results : new FilteringKeyRecordIterator(stmt.getNamespace(), results, clientPredicate);
+	}
+
+	/**
+	 * Counts the records matching the Qualifiers without returning them. The
+	 * Qualifiers are evaluated on the server, only the number of matching records
+	 * is sent back.
+	 *
+	 * @param namespace  Namespace storing the data
+	 * @param set        Set storing the data
+	 * @param qualifiers Zero or more Qualifiers
+	 * @return the number of matching records
+	 */
+	public long count(String namespace, String set, Qualifier... qualifiers) {
+		Statement stmt = new Statement();
+		stmt.setNamespace(namespace);
+		stmt.setSetName(set);
+		return count(stmt, qualifiers);
+	}
+
+	/**
+	 * Counts the records matching the Qualifiers without returning them
+	 *
+	 * @param stmt       A Statement object containing Namespace and Set
+	 * @param qualifiers Zero or more Qualifiers
+	 * @return the number of matching records
+	 */
+	public long count(Statement stmt, Qualifier... qualifiers) {
+		/*
+		 * singleton using primary key
+		 */
+		if (qualifiers != null && qualifiers.length == 1 && qualifiers[0] instanceof KeyQualifier) {
+			KeyQualifier kq = (KeyQualifier) qualifiers[0];
+			return this.client.exists(null, kq.makeKey(stmt.getNamespace(), stmt.getSetName())) ? 1 : 0;
+		}
+
+		Qualifier[] residualQualifiers = qualifiers == null ? new Qualifier[0] : qualifiers;
+		if (residualQualifiers.length > 0 && (stmt.getFilters() == null || stmt.getFilters().length == 0)) {
+			QueryPlan plan = planner.plan(stmt.getNamespace(), stmt.getSetName(), residualQualifiers);
+			if (log.isDebugEnabled())
+				log.debug("Count plan: " + plan);
+			if (plan.getFilter() != null) {
+				stmt.setFilters(plan.getFilter());
+				residualQualifiers = plan.getResidualQualifiers();
+			}
+		}
+
+		Map<String, Object> originArgs = new HashMap<String, Object>();
+		if (residualQualifiers.length > 0)
+			originArgs.put("filterFuncStr", buildFilterFunction(residualQualifiers));
+		stmt.setAggregateFunction(this.getClass().getClassLoader(), AS_UTILITY_PATH, QUERY_MODULE, "count_records", Value.get(originArgs));
+
+		ResultSet resultSet = this.client.queryAggregate(null, stmt);
+		try {
+			long count = 0;
+			while (resultSet.next()) {
+				Object result = resultSet.getObject();
+				if (result instanceof Number)
+					count += ((Number) result).longValue();
+			}
+			return count;
+		} finally {
+			resultSet.close();
+		}
 	}
 
+	/*
+	 * names of the bins read by the compiled qualifiers
+	 */
+	private static List<String> binNames(Qualifier[] qualifiers, List<Qualifier> notCompiled) {
+		List<String> binNames = new ArrayList<String>();
+		for (Qualifier qualifier : qualifiers) {
+			if (qualifier == null || qualifier.getClass() != Qualifier.class || notCompiled.contains(qualifier))
+				continue;
+			if (!binNames.contains(qualifier.getField()))
+				binNames.add(qualifier.getField());
+		}
+		return binNames;
+	}
+
+	private static String[] union(String[] binNames, List<String> predicateBins) {
+		Set<String> union = new LinkedHashSet<String>(Arrays.asList(binNames));
+		union.addAll(predicateBins);
+		return union.toArray(new String[union.size()]);
+	}
+
+	/**
+	 * @deprecated the QueryPlanner decides which Qualifier uses an index, see {@link #explain(String, String, Qualifier...)}
+	 */
+	@Deprecated
 	protected boolean isIndexedBin(Qualifier qualifier) {
 		Index index = this.indexCache.get(qualifier.getField());
 		if (index == null)
@@ -490,13 +709,113 @@ public class QueryEngine implements Closeable {
 		return sb.toString();
 	}
 
-	private void registerUDF() {
-		if (!this.moduleCache.containsKey(QUERY_MODULE + ".lua")) { // register the as_utility udf module
+	/**
+	 * Counts the objects of a set from the statistics of the nodes, without reading any record. The objects of all
+	 * nodes are summed and divided by the replication factor of the namespace, so that replicas are not counted.
+	 *
+	 * @param namespace the namespace of the set
+	 * @param setName   the name of the set
+	 * @return the number of objects in the set
+	 */
+	public long countObjects(String namespace, String setName) {
+		Node[] nodes = client.getNodes();
+		if (nodes.length == 0)
+			return 0;
+		long objects = 0;
+		for (Node node : nodes) {
+			String setInfo = Info.request(getInfoPolicy(), node, "sets/" + namespace + "/" + setName);
+			objects += infoValue(setInfo, ":", "objects", "n_objects");
+		}
+		String namespaceInfo = Info.request(getInfoPolicy(), nodes[0], "namespace/" + namespace);
+		long replicationFactor = infoValue(namespaceInfo, ";", "effective_replication_factor", "replication-factor",
+				"repl-factor");
+		return objects / Math.max(1, Math.min(replicationFactor, nodes.length));
+	}
 
-			RegisterTask task = this.client.register(null, this.getClass().getClassLoader(),
-					AS_UTILITY_PATH,
-					QUERY_MODULE + ".lua", Language.LUA);
-			task.isDone();
+	/*
+	 * the first of the named numeric values of an info response, 0 if none is listed
+	 */
+	static long infoValue(String info, String separator, String... names) {
+		if (info == null || info.isEmpty())
+			return 0;
+		Map<String, String> values = new HashMap<String, String>();
+		for (String part : info.trim().split(separator)) {
+			String[] kv = part.split("=", 2);
+			if (kv.length == 2)
+				values.put(kv[0], kv[1]);
+		}
+		for (String name : names) {
+			String value = values.get(name);
+			if (value != null) {
+				try {
+					return Long.parseLong(value.trim());
+				} catch (NumberFormatException e) {
+					// try the next name
+				}
+			}
+		}
+		return 0;
+	}
+
+	/*
+	 * registers the as_utility udf module unless the cluster already has the bundled version, so that functions added
+	 * to the module reach clusters running an older one
+	 */
+	void registerUDF() {
+		byte[] bundled = bundledModule();
+		Module registered = this.moduleCache.get(AS_UTILITY_PATH);
+		if (registered != null && !isStale(registered, bundled)) {
+			return;
+		}
+		if (registered != null)
+			log.info("Registering the bundled " + AS_UTILITY_PATH + " over a stale version");
+
+		RegisterTask task = this.client.register(null, this.getClass().getClassLoader(),
+				AS_UTILITY_PATH,
+				AS_UTILITY_PATH, Language.LUA);
+		task.waitTillComplete();
+		this.moduleCache.put(AS_UTILITY_PATH, new Module("filename=" + AS_UTILITY_PATH + ",hash=" + sha1(bundled) + ",type=LUA"));
+	}
+
+	/*
+	 * the cluster lists the SHA-1 of the content of each module, modules listed without it are compared by content
+	 */
+	static boolean isStale(Module registered, byte[] bundled) {
+		String hash = registered.getHash();
+		if (hash != null)
+			return !hash.equalsIgnoreCase(sha1(bundled));
+		return registered.getSource() == null || !registered.getSource().equals(new String(bundled, StandardCharsets.UTF_8));
+	}
+
+	private byte[] bundledModule() {
+		InputStream in = this.getClass().getClassLoader().getResourceAsStream(AS_UTILITY_PATH);
+		if (in == null)
+			throw new IllegalStateException("Cannot find " + AS_UTILITY_PATH + " on the classpath");
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			for (int read = in.read(buffer); read != -1; read = in.read(buffer))
+				out.write(buffer, 0, read);
+			return out.toByteArray();
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot read " + AS_UTILITY_PATH, e);
+		} finally {
+			try {
+				in.close();
+			} catch (IOException e) {
+				// nothing was written
+			}
+		}
+	}
+
+	static String sha1(byte[] content) {
+		try {
+			StringBuilder hex = new StringBuilder();
+			for (byte b : MessageDigest.getInstance("SHA-1").digest(content))
+				hex.append(String.format("%02x", b & 0xFF));
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
 		}
 	}
 
@@ -598,8 +917,8 @@ public class QueryEngine implements Closeable {
 		/*
 		 * cache index by Bin name
 		 */
-		if (this.indexCache == null)
-			this.indexCache = new TreeMap<String, Index>();
+		Map<String, Index> indexes = new TreeMap<String, Index>();
+		Map<String, Index> qualifiedIndexes = new TreeMap<String, Index>();
 
 		Node[] nodes = client.getNodes();
 		for (Node node : nodes) {
@@ -611,7 +930,8 @@ public class QueryEngine implements Closeable {
 						for (String oneIndexString : indexList) {
 							Index index = new Index(oneIndexString);
 							String indexBin = index.getBin();
-							this.indexCache.put(indexBin, index);
+							indexes.put(indexBin, index);
+							qualifiedIndexes.put(indexKey(index.getNamespace(), index.getSet(), indexBin), index);
 						}
 					}
 					break;
@@ -620,6 +940,10 @@ public class QueryEngine implements Closeable {
 				}
 			}
 		}
+		this.indexCache = indexes;
+		this.qualifiedIndexCache = qualifiedIndexes;
+		if (this.planner != null)
+			this.planner.clearStats();
 	}
 
 	/**
@@ -632,6 +956,26 @@ public class QueryEngine implements Closeable {
 		return this.indexCache.get(binName);
 	}
 
+	/**
+	 * Gets the index usable for a Bin of a Set, either one restricted to the Set or one
+	 * covering the whole Namespace
+	 *
+	 * @param namespace The Namespace storing the data
+	 * @param set       The Set storing the data
+	 * @param binName   The name of the indexed Bin
+	 * @return An Index model object, or null if the Bin is not indexed
+	 */
+	public synchronized Index getIndex(String namespace, String set, String binName) {
+		Index index = this.qualifiedIndexCache.get(indexKey(namespace, set, binName));
+		if (index == null && set != null)
+			index = this.qualifiedIndexCache.get(indexKey(namespace, null, binName));
+		return index;
+	}
+
+	private static String indexKey(String namespace, String set, String binName) {
+		return namespace + ":" + (set == null ? "" : set) + ":" + binName;
+	}
+
 	/**
 	 * refreshes the Module cache from the cluster. The Module cache contains a list of register UDF modules.
 	 */
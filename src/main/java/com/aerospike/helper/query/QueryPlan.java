@@ -0,0 +1,182 @@
+/* Copyright 2012-2015 Aerospike, Inc.
+ *
+ * Portions may be licensed to Aerospike, Inc. under one or more contributor
+ * license agreements.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.aerospike.helper.query;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.aerospike.client.query.Filter;
+import com.aerospike.helper.model.Index;
+
+/**
+ * Describes how the QueryEngine executes a query: either a primary key lookup,
+ * a secondary index query using one Qualifier as the server side Filter, or a
+ * scan of the whole Set. The remaining Qualifiers are evaluated by the Lua filter.
+ *
+ * @author Peter Milne
+ */
+public class QueryPlan {
+
+	public enum Strategy {
+		PRIMARY_KEY,
+		SECONDARY_INDEX,
+		SCAN
+	}
+
+	private final String namespace;
+	private final String set;
+	private final Strategy strategy;
+	private final Candidate chosen;
+	private final Qualifier[] residualQualifiers;
+	private final long setRecords;
+	private final List<Candidate> candidates;
+
+	public QueryPlan(String namespace, String set, Strategy strategy, Candidate chosen,
+					 Qualifier[] residualQualifiers, long setRecords, List<Candidate> candidates) {
+		this.namespace = namespace;
+		this.set = set;
+		this.strategy = strategy;
+		this.chosen = chosen;
+		this.residualQualifiers = residualQualifiers;
+		this.setRecords = setRecords;
+		this.candidates = candidates == null ? Collections.<Candidate>emptyList() : Collections.unmodifiableList(candidates);
+	}
+
+	public String getNamespace() {
+		return namespace;
+	}
+
+	public String getSet() {
+		return set;
+	}
+
+	public Strategy getStrategy() {
+		return strategy;
+	}
+
+	/**
+	 * @return the Qualifier executed as the secondary index Filter, or null
+	 */
+	public Qualifier getIndexQualifier() {
+		return chosen == null ? null : chosen.getQualifier();
+	}
+
+	/**
+	 * @return the Index used, or null
+	 */
+	public Index getIndex() {
+		return chosen == null ? null : chosen.getIndex();
+	}
+
+	/**
+	 * @return the Filter sent to the server, or null
+	 */
+	public Filter getFilter() {
+		return chosen == null ? null : chosen.getFilter();
+	}
+
+	/**
+	 * @return the Qualifiers left to the Lua filter, never null
+	 */
+	public Qualifier[] getResidualQualifiers() {
+		return residualQualifiers;
+	}
+
+	/**
+	 * @return the estimated number of records read from the server
+	 */
+	public long getEstimatedRecords() {
+		switch (strategy) {
+			case PRIMARY_KEY:
+				return 1;
+			case SECONDARY_INDEX:
+				return chosen.getEstimatedRecords();
+			default:
+				return setRecords;
+		}
+	}
+
+	/**
+	 * @return the number of records in the Set, or -1 if unknown
+	 */
+	public long getSetRecords() {
+		return setRecords;
+	}
+
+	/**
+	 * @return every Qualifier that could have been served by an index, with its estimate
+	 */
+	public List<Candidate> getCandidates() {
+		return candidates;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(strategy).append(" on ").append(namespace).append('.').append(set);
+		if (chosen != null) {
+			sb.append(" using index ").append(chosen.getIndex().getName())
+					.append(" for ").append(chosen.getQualifier().getField())
+					.append(' ').append(chosen.getQualifier().getOperation());
+		}
+		sb.append(", estimated records ").append(getEstimatedRecords());
+		sb.append(", set records ").append(setRecords);
+		sb.append(", residual qualifiers ").append(residualQualifiers.length);
+		if (!candidates.isEmpty()) {
+			sb.append(", candidates ").append(candidates);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * A Qualifier that can be executed as a secondary index Filter, with the
+	 * estimated number of records it selects.
+	 */
+	public static class Candidate {
+		private final Qualifier qualifier;
+		private final Index index;
+		private final Filter filter;
+		private final long estimatedRecords;
+
+		public Candidate(Qualifier qualifier, Index index, Filter filter, long estimatedRecords) {
+			this.qualifier = qualifier;
+			this.index = index;
+			this.filter = filter;
+			this.estimatedRecords = estimatedRecords;
+		}
+
+		public Qualifier getQualifier() {
+			return qualifier;
+		}
+
+		public Index getIndex() {
+			return index;
+		}
+
+		public Filter getFilter() {
+			return filter;
+		}
+
+		public long getEstimatedRecords() {
+			return estimatedRecords;
+		}
+
+		@Override
+		public String toString() {
+			return index.getName() + "(" + qualifier.getField() + " " + qualifier.getOperation() + ")=" + estimatedRecords;
+		}
+	}
+}
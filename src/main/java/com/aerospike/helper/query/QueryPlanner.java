@@ -0,0 +1,263 @@
+/* Copyright 2012-2015 Aerospike, Inc.
+ *
+ * Portions may be licensed to Aerospike, Inc. under one or more contributor
+ * license agreements.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.aerospike.helper.query;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.log4j.Logger;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.Info;
+import com.aerospike.client.cluster.Node;
+import com.aerospike.client.command.ParticleType;
+import com.aerospike.client.query.Filter;
+import com.aerospike.client.query.IndexType;
+import com.aerospike.helper.model.Index;
+import com.aerospike.helper.model.Namespace;
+import com.aerospike.helper.model.Set;
+import com.aerospike.helper.query.Qualifier.FilterOperation;
+
+/**
+ * Chooses which Qualifier of a query is executed as the secondary index Filter.
+ * Every EQ or BETWEEN Qualifier on an indexed Bin is a candidate; its selectivity
+ * is estimated from the index statistics ("sindex/&lt;namespace&gt;/&lt;index&gt;")
+ * and the Set object count, and the candidate selecting the fewest records wins.
+ * Index statistics are cached for a configurable time.
+ *
+ * @author Peter Milne
+ */
+public class QueryPlanner {
+
+	protected static Logger log = Logger.getLogger(QueryPlanner.class);
+
+	private static final long DEFAULT_STATS_TTL_MILLIS = 60000L;
+	/*
+	 * fallbacks when the index statistics do not tell the number of distinct values
+	 */
+	private static final long UNKNOWN_EQ_SELECTIVITY = 10;
+	private static final long UNKNOWN_RANGE_SELECTIVITY = 4;
+
+	private final QueryEngine queryEngine;
+	private final Map<String, IndexStats> statsCache = new ConcurrentHashMap<String, IndexStats>();
+	private volatile long statsTtlMillis = DEFAULT_STATS_TTL_MILLIS;
+
+	public QueryPlanner(QueryEngine queryEngine) {
+		this.queryEngine = queryEngine;
+	}
+
+	/**
+	 * Sets how long index statistics are cached before they are requested again
+	 *
+	 * @param statsTtlMillis time to live in milliseconds, 0 disables caching
+	 */
+	public void setStatsTtlMillis(long statsTtlMillis) {
+		this.statsTtlMillis = statsTtlMillis;
+	}
+
+	/**
+	 * Discards the cached index statistics
+	 */
+	public void clearStats() {
+		statsCache.clear();
+	}
+
+	/**
+	 * Plans a query on the given Namespace and Set. The Qualifiers are not modified.
+	 *
+	 * @param namespace  Namespace storing the data
+	 * @param set        Set storing the data
+	 * @param qualifiers Zero or more Qualifiers
+	 * @return the QueryPlan
+	 */
+	public QueryPlan plan(String namespace, String set, Qualifier... qualifiers) {
+		long setRecords = setRecords(namespace, set);
+		if (qualifiers == null || qualifiers.length == 0) {
+			return new QueryPlan(namespace, set, QueryPlan.Strategy.SCAN, null, new Qualifier[0], setRecords, null);
+		}
+		if (qualifiers.length == 1 && qualifiers[0] instanceof KeyQualifier) {
+			return new QueryPlan(namespace, set, QueryPlan.Strategy.PRIMARY_KEY, null, new Qualifier[0], setRecords, null);
+		}
+
+		List<QueryPlan.Candidate> candidates = new ArrayList<QueryPlan.Candidate>();
+		QueryPlan.Candidate best = null;
+		for (Qualifier qualifier : qualifiers) {
+			if (qualifier == null || qualifier instanceof KeyQualifier)
+				continue;
+			Index index = queryEngine.getIndex(namespace, set, qualifier.getField());
+			if (index == null || !isSupported(index, qualifier))
+				continue;
+			Filter filter = qualifier.asFilter();
+			if (filter == null)
+				continue;
+			QueryPlan.Candidate candidate = new QueryPlan.Candidate(qualifier, index, filter,
+					estimate(namespace, index, qualifier, setRecords));
+			candidates.add(candidate);
+			if (best == null || candidate.getEstimatedRecords() < best.getEstimatedRecords())
+				best = candidate;
+		}
+
+		List<Qualifier> residual = new ArrayList<Qualifier>(qualifiers.length);
+		for (Qualifier qualifier : qualifiers) {
+			if (qualifier != null && (best == null || qualifier != best.getQualifier()))
+				residual.add(qualifier);
+		}
+		return new QueryPlan(namespace, set,
+				best == null ? QueryPlan.Strategy.SCAN : QueryPlan.Strategy.SECONDARY_INDEX,
+				best, residual.toArray(new Qualifier[residual.size()]), setRecords, candidates);
+	}
+
+	/*
+	 * The server can only use an index whose type matches the value and which is
+	 * not built on a collection
+	 */
+	private boolean isSupported(Index index, Qualifier qualifier) {
+		if (index.isCollectionIndex())
+			return false;
+		FilterOperation operation = qualifier.getOperation();
+		if (operation == FilterOperation.EQ) {
+			boolean numeric = qualifier.getValue1().getType() == ParticleType.INTEGER;
+			return numeric ? index.getType() == IndexType.NUMERIC : index.getType() == IndexType.STRING;
+		}
+		if (operation == FilterOperation.BETWEEN) {
+			return index.getType() == IndexType.NUMERIC
+					&& qualifier.getValue1().getType() == ParticleType.INTEGER
+					&& qualifier.getValue2() != null
+					&& qualifier.getValue2().getType() == ParticleType.INTEGER;
+		}
+		return false;
+	}
+
+	/**
+	 * Estimates the number of records selected by using the Qualifier as Filter.
+	 * EQ selects entries/keys records on average. BETWEEN over integers selects at
+	 * most one average value per integer in the range, capped by a fixed fraction
+	 * of the index entries.
+	 */
+	protected long estimate(String namespace, Index index, Qualifier qualifier, long setRecords) {
+		IndexStats stats = getIndexStats(namespace, index);
+		long entries = stats != null && stats.entries > 0 ? stats.entries : setRecords;
+		if (entries < 0)
+			entries = Long.MAX_VALUE / 2;
+		long perValue = stats != null && stats.keys > 0 ? Math.max(1, (entries + stats.keys - 1) / stats.keys) : -1;
+
+		if (qualifier.getOperation() == FilterOperation.EQ) {
+			return perValue > 0 ? perValue : Math.max(1, entries / UNKNOWN_EQ_SELECTIVITY);
+		}
+		long estimate = Math.max(1, entries / UNKNOWN_RANGE_SELECTIVITY);
+		if (perValue > 0) {
+			long width = qualifier.getValue2().toLong() - qualifier.getValue1().toLong() + 1;
+			if (width > 0 && width < entries / perValue)
+				estimate = Math.min(estimate, width * perValue);
+		}
+		return estimate;
+	}
+
+	protected IndexStats getIndexStats(String namespace, Index index) {
+		String cacheKey = namespace + ":" + index.getName();
+		IndexStats stats = statsCache.get(cacheKey);
+		long now = System.currentTimeMillis();
+		if (stats == null || now - stats.timestamp > statsTtlMillis) {
+			stats = fetchIndexStats(namespace, index);
+			/*
+			 * missing statistics are cached as well, so that the nodes are
+			 * not asked again on every plan until the entry expires
+			 */
+			if (stats == null)
+				stats = new IndexStats(-1, -1, now);
+			statsCache.put(cacheKey, stats);
+		}
+		return stats.keys < 0 ? null : stats;
+	}
+
+	/**
+	 * Requests the index statistics from every active node. Entries are summed,
+	 * the number of distinct keys is taken from the node reporting the most.
+	 */
+	protected IndexStats fetchIndexStats(String namespace, Index index) {
+		long keys = 0;
+		long entries = 0;
+		boolean found = false;
+		for (Node node : queryEngine.client.getNodes()) {
+			if (!node.isActive())
+				continue;
+			try {
+				String info = Info.request(queryEngine.getInfoPolicy(), node, "sindex/" + namespace + "/" + index.getName());
+				Map<String, String> values = parseInfo(info);
+				keys = Math.max(keys, parseLong(values.get("keys")));
+				long nodeEntries = parseLong(values.get("entries"));
+				if (nodeEntries == 0)
+					nodeEntries = parseLong(values.get("objects"));
+				entries += nodeEntries;
+				found = true;
+			} catch (AerospikeException e) {
+				log.debug("Cannot read statistics of index " + index.getName(), e);
+			}
+		}
+		return found ? new IndexStats(keys, entries, System.currentTimeMillis()) : null;
+	}
+
+	private long setRecords(String namespace, String set) {
+		Namespace ns = queryEngine.getNamespace(namespace);
+		if (ns == null || set == null)
+			return -1;
+		for (Set candidate : ns.getSets()) {
+			if (set.equals(candidate.getName()))
+				return candidate.getObjectCount();
+		}
+		return -1;
+	}
+
+	private static Map<String, String> parseInfo(String info) {
+		Map<String, String> values = new HashMap<String, String>();
+		if (info == null)
+			return values;
+		for (String part : info.split(";")) {
+			int separator = part.indexOf('=');
+			if (separator > 0)
+				values.put(part.substring(0, separator).trim(), part.substring(separator + 1).trim());
+		}
+		return values;
+	}
+
+	private static long parseLong(String value) {
+		if (value == null)
+			return 0;
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * Statistics of a secondary index summed over the cluster
+	 */
+	protected static class IndexStats {
+		final long keys;
+		final long entries;
+		final long timestamp;
+
+		public IndexStats(long keys, long entries, long timestamp) {
+			this.keys = keys;
+			this.entries = entries;
+			this.timestamp = timestamp;
+		}
+	}
+}
@@ -1,15 +1,49 @@
 package org.springframework.data.aerospike.cache;
 
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.cache.Cache;
 import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
 
 import com.aerospike.client.AerospikeClient;
+import com.aerospike.client.AerospikeException;
 import com.aerospike.client.Bin;
+import com.aerospike.client.Info;
 import com.aerospike.client.Key;
 import com.aerospike.client.Operation;
 import com.aerospike.client.Record;
+import com.aerospike.client.ResultCode;
+import com.aerospike.client.ScanCallback;
+import com.aerospike.client.async.AsyncClient;
+import com.aerospike.client.cluster.Node;
+import com.aerospike.client.listener.WriteListener;
 import com.aerospike.client.policy.RecordExistsAction;
+import com.aerospike.client.policy.ScanPolicy;
 import com.aerospike.client.policy.WritePolicy;
 
 /**
@@ -18,13 +52,34 @@ import com.aerospike.client.policy.WritePolicy;
  */
 public class AerospikeCache implements Cache {
 
-	private static final String VALUE = "value";
+	protected static final String VALUE = "value";
+	private static final Logger LOG = LoggerFactory.getLogger(AerospikeCache.class);
+
+	private static final int DEFAULT_CLEAR_CONCURRENCY = 4;
+	private static final int MAX_BATCH_SIZE = 5000;
+	private static final int MAX_IN_FLIGHT_WRITES = 256;
+	private static final String LOCK_SET_SUFFIX = "-locks";
+	private static final String LOCK = "lock";
+	private static final long LOCK_POLL_MILLIS = 20;
+	private static final long CITRUSLEAF_EPOCH_SECONDS = 1262304000L;
+
+	private static ExecutorService clearExecutor;
 
 	protected AerospikeClient client;
 	protected String namespace;
 	protected String set;
 	protected WritePolicy createOnly;
 	protected WritePolicy create;
+	protected NearCache nearCache;
+	protected boolean generationChecks;
+	protected int clearConcurrency = DEFAULT_CLEAR_CONCURRENCY;
+	protected boolean synchronousClear;
+	protected long loadLockTimeoutMillis;
+	protected double earlyRefreshBeta;
+	private final ConcurrentMap<String, FutureTask<Object>> loads = new ConcurrentHashMap<String, FutureTask<Object>>();
+	private volatile long loadNanos;
+	private volatile boolean truncateUnsupported;
+	private volatile CacheClearTask clearTask;
 
 	public AerospikeCache(String namespace, String set, AerospikeClient client,
 						  long expiration){
@@ -39,6 +94,74 @@ public class AerospikeCache implements Cache {
 		this.create.expiration = (int) expiration;
 	}
 
+	/**
+	 * Keeps the values read last in the given in-process cache, in front of Aerospike. Values written or evicted through
+	 * other processes are seen once their entry expires, or on the next read when checking generations.
+	 *
+	 * @param nearCache can be {@literal null} to read every value from Aerospike.
+	 * @param generationChecks whether each read answered by the near cache first reads the header of the record to
+	 *          compare its generation, which still saves reading and converting the value.
+	 */
+	public void setNearCache(NearCache nearCache, boolean generationChecks) {
+		this.nearCache = nearCache;
+		this.generationChecks = generationChecks;
+	}
+
+	public NearCache getNearCache() {
+		return nearCache;
+	}
+
+	/**
+	 * Configures how many nodes are scanned at once to clear the cache when the cluster cannot truncate its set.
+	 *
+	 * @param clearConcurrency must be greater than zero, defaults to four.
+	 */
+	public void setClearConcurrency(int clearConcurrency) {
+		Assert.isTrue(clearConcurrency > 0, "Clear concurrency must be greater than zero!");
+		this.clearConcurrency = clearConcurrency;
+	}
+
+	/**
+	 * @param synchronousClear whether {@link #clear()} waits until the cache is cleared, disabled by default.
+	 */
+	public void setSynchronousClear(boolean synchronousClear) {
+		this.synchronousClear = synchronousClear;
+	}
+
+	/**
+	 * Coordinates the loads of {@link #get(Object, Callable)} across processes with a lock record per key, so that one
+	 * process loads a missing value while the others wait for it. The lock record is created only if absent and expires
+	 * after the timeout, after which waiting processes load the value themselves. An early refresh of a value that has
+	 * not expired yet does not wait: if another process holds the lock, the current value is returned.
+	 *
+	 * @param loadLockTimeoutMillis how long a load may hold its lock, zero to coordinate loads within this process only,
+	 *          the default.
+	 */
+	public void setLoadLockTimeout(long loadLockTimeoutMillis) {
+		Assert.isTrue(loadLockTimeoutMillis >= 0, "Load lock timeout must not be negative!");
+		this.loadLockTimeoutMillis = loadLockTimeoutMillis;
+	}
+
+	/**
+	 * Makes {@link #get(Object, Callable)} reload values before they expire, with a probability growing as the
+	 * expiration nears and with the time loads take, so that hot keys are reloaded by a single caller rather than
+	 * missed by all at once. Only applies to caches whose values expire.
+	 *
+	 * @param earlyRefreshBeta greater values reload earlier, {@code 1.0} is a good start, zero disables early
+	 *          reloads, the default.
+	 */
+	public void setEarlyRefreshBeta(double earlyRefreshBeta) {
+		Assert.isTrue(earlyRefreshBeta >= 0, "Early refresh beta must not be negative!");
+		this.earlyRefreshBeta = earlyRefreshBeta;
+	}
+
+	/**
+	 * @return the progress of the last clear of this cache, {@literal null} if it was never cleared.
+	 */
+	public CacheClearTask getClearTask() {
+		return clearTask;
+	}
+
 	protected Key getKey(Object key){
 		return new Key(namespace, set, key.toString());
 	}
@@ -47,21 +170,224 @@ public class AerospikeCache implements Cache {
 		return (record != null ? new SimpleValueWrapper(record.getValue(VALUE)) : null);
 	}
 
+	/*
+	 * the entry of the near cache, null if there is none or it is stale
+	 */
+	protected NearCache.Entry getNear(Object key) {
+		if (nearCache == null) {
+			return null;
+		}
+		NearCache.Entry entry = nearCache.get(key.toString());
+		if (entry != null && generationChecks) {
+			Record header = client.getHeader(null, getKey(key));
+			if (header == null || header.generation != entry.getGeneration()) {
+				nearCache.rejectStale(key.toString());
+				return null;
+			}
+		}
+		return entry;
+	}
+
+	/*
+	 * the stamp to take before reading a value to cache in the near cache
+	 */
+	protected long nearStamp(Object key) {
+		return nearCache != null ? nearCache.stamp(key.toString()) : 0;
+	}
+
+	/*
+	 * caches the value unless the key was written or evicted in this process since the stamp was taken
+	 */
+	protected void putNear(Object key, Object value, Record record, long stamp) {
+		if (nearCache != null && record != null) {
+			nearCache.put(key.toString(), value, record.generation, stamp);
+		}
+	}
+
+	protected void invalidateNear(Object key) {
+		if (nearCache != null) {
+			nearCache.invalidate(key.toString());
+		}
+	}
+
+	/**
+	 * Clears the cache in the background, unless configured to clear synchronously. Values written while clearing may
+	 * survive it.
+	 *
+	 * @see #clearAsync()
+	 */
 	@Override
 	public void clear() {
-		// TODO Auto-generated method stub
+		CacheClearTask task = clearAsync();
+		if (synchronousClear) {
+			try {
+				task.waitTillComplete();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Starts clearing the cache. The set of the cache is truncated on the server where supported, since Aerospike 3.12,
+	 * otherwise its records are scanned and deleted by up to {@link #setClearConcurrency(int)} nodes at once.
+	 *
+	 * @return the progress of the clear.
+	 */
+	public CacheClearTask clearAsync() {
+		if (nearCache != null) {
+			nearCache.clear();
+		}
+		final CacheClearTask task = new CacheClearTask(getName());
+		this.clearTask = task;
+		clearExecutor().execute(new Runnable() {
+
+			@Override
+			public void run() {
+				try {
+					if (truncate()) {
+						task.truncated();
+					}
+					else {
+						scanAndDelete(task);
+					}
+					/*
+					 * values read while the records were being deleted may have been cached near meanwhile
+					 */
+					if (nearCache != null) {
+						nearCache.clear();
+					}
+					task.complete(null);
+				}
+				catch (RuntimeException e) {
+					task.complete(e);
+				}
+			}
+		});
+		return task;
+	}
+
+	private static synchronized ExecutorService clearExecutor() {
+		if (clearExecutor == null) {
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("aerospike-cache-clear-");
+			threadFactory.setDaemon(true);
+			clearExecutor = Executors.newCachedThreadPool(threadFactory);
+		}
+		return clearExecutor;
+	}
+
+	/*
+	 * servers that do not know the truncate command are not asked again, other failures fall back to a scan this time
+	 */
+	private boolean truncate() {
+		Node[] nodes = client.getNodes();
+		if (truncateUnsupported || nodes.length == 0) {
+			return false;
+		}
+		String response;
+		try {
+			response = Info.request(nodes[0], "truncate:namespace=" + namespace + ";set=" + set);
+		}
+		catch (AerospikeException e) {
+			LOG.warn("Cannot truncate set {} of namespace {}, deleting its records instead", set, namespace, e);
+			return false;
+		}
+		if (response != null && response.trim().equalsIgnoreCase("ok")) {
+			return true;
+		}
+		if (isUnknownCommand(response)) {
+			truncateUnsupported = true;
+		}
+		else {
+			LOG.warn("Truncating set {} of namespace {} failed with {}, deleting its records instead", set, namespace,
+					response);
+		}
+		return false;
+	}
+
+	/**
+	 * @param response the response of a node to an info command.
+	 * @return whether the node does not know the command, older servers answer with nothing or an error naming it
+	 *         unrecognized.
+	 */
+	static boolean isUnknownCommand(String response) {
+		if (response == null || response.trim().isEmpty()) {
+			return true;
+		}
+		String error = response.toLowerCase(Locale.ENGLISH);
+		return error.contains("unrecognized") || error.contains("unknown command") || error.contains("unknown-command");
+	}
+
+	private void scanAndDelete(final CacheClearTask task) {
+		Node[] nodes = client.getNodes();
+		task.scanning(nodes.length);
+		if (nodes.length == 0) {
+			return;
+		}
+		final ScanPolicy scanPolicy = new ScanPolicy();
+		scanPolicy.includeBinData = false;
+		List<Callable<Void>> scans = new ArrayList<Callable<Void>>();
+		for (final Node node : nodes) {
+			scans.add(new Callable<Void>() {
+
+				@Override
+				public Void call() {
+					client.scanNode(scanPolicy, node, namespace, set, new ScanCallback() {
+
+						@Override
+						public void scanCallback(Key key, Record record) throws AerospikeException {
+							if (client.delete(null, key)) {
+								task.deleted();
+							}
+						}
+					});
+					task.nodeCompleted();
+					return null;
+				}
+			});
+		}
+
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("aerospike-cache-clear-scan-");
+		threadFactory.setDaemon(true);
+		ExecutorService scanners = Executors.newFixedThreadPool(Math.min(clearConcurrency, nodes.length), threadFactory);
+		try {
+			for (Future<Void> scan : scanners.invokeAll(scans)) {
+				scan.get();
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while clearing " + getName(), e);
+		}
+		catch (ExecutionException e) {
+			throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+					: new IllegalStateException(e.getCause());
+		}
+		finally {
+			scanners.shutdownNow();
+		}
 	}
 
 	@Override
 	public void evict(Object key) {
 		this.client.delete(null, getKey(key));
+		invalidateNear(key);
 
 	}
 
 	@Override
 	public ValueWrapper get(Object key) {
+		NearCache.Entry entry = getNear(key);
+		if (entry != null) {
+			return new SimpleValueWrapper(entry.getValue());
+		}
+		long stamp = nearStamp(key);
 		Record record =  client.get(null, getKey(key));
 		ValueWrapper vr = toWrapper(record);
+		if (vr != null) {
+			putNear(key, vr.get(), record, stamp);
+		}
 		return vr;
 	}
 
@@ -71,6 +397,300 @@ public class AerospikeCache implements Cache {
 		return (T) client.get(null, getKey(key));
 	}
 
+	/**
+	 * Returns the cached value of the key, loading and caching it if missing. Concurrent calls for the same key in this
+	 * process wait for a single load, and so do calls in other processes if a {@link #setLoadLockTimeout(long) load lock
+	 * timeout} is set.
+	 *
+	 * @param valueLoader loads the value if it is not cached.
+	 * @throws ValueLoadingException if the value loader failed.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		NearCache.Entry entry = getNear(key);
+		if (entry != null) {
+			return (T) entry.getValue();
+		}
+		Key dbKey = getKey(key);
+		long stamp = nearStamp(key);
+		Record record = client.get(null, dbKey);
+		if (record == null) {
+			return (T) load(key, valueLoader, null);
+		}
+		Object value = readValue(dbKey, record, Object.class);
+		if (refreshEarly(record) && !loads.containsKey(key.toString())) {
+			return (T) load(key, valueLoader, record);
+		}
+		putNear(key, value, record, stamp);
+		return (T) value;
+	}
+
+	/*
+	 * XFetch: reloads when the time to load, scaled by beta and an exponentially distributed factor, reaches the
+	 * expiration
+	 */
+	private boolean refreshEarly(Record record) {
+		if (earlyRefreshBeta == 0 || record.expiration == 0 || loadNanos == 0) {
+			return false;
+		}
+		long timeToLiveMillis = TimeUnit.SECONDS.toMillis(record.expiration + CITRUSLEAF_EPOCH_SECONDS)
+				- System.currentTimeMillis();
+		double gap = TimeUnit.NANOSECONDS.toMillis(loadNanos) * earlyRefreshBeta
+				* -Math.log(1 - ThreadLocalRandom.current().nextDouble());
+		return gap >= timeToLiveMillis;
+	}
+
+	/*
+	 * single flight per key, the caller starting the load runs it
+	 */
+	private Object load(final Object key, final Callable<?> valueLoader, final Record previous) {
+		FutureTask<Object> load = new FutureTask<Object>(new Callable<Object>() {
+
+			@Override
+			public Object call() throws Exception {
+				return loadAndPut(key, valueLoader, previous);
+			}
+		});
+		FutureTask<Object> running = loads.putIfAbsent(key.toString(), load);
+		if (running == null) {
+			try {
+				load.run();
+			}
+			finally {
+				loads.remove(key.toString(), load);
+			}
+			running = load;
+		}
+		try {
+			return running.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ValueLoadingException(key, e);
+		}
+		catch (ExecutionException e) {
+			throw new ValueLoadingException(key, e.getCause());
+		}
+	}
+
+	private Object loadAndPut(Object key, Callable<?> valueLoader, Record previous) throws Exception {
+		Key lockKey = null;
+		if (loadLockTimeoutMillis > 0) {
+			lockKey = new Key(namespace, set + LOCK_SET_SUFFIX, key.toString());
+			long deadline = System.currentTimeMillis() + loadLockTimeoutMillis;
+			while (!tryLock(lockKey)) {
+				Key dbKey = getKey(key);
+				if (previous != null) {
+					/*
+					 * another process refreshes the value early, the current one has not expired yet
+					 */
+					return readValue(dbKey, previous, Object.class);
+				}
+				long stamp = nearStamp(key);
+				Record record = client.get(null, dbKey);
+				if (record != null) {
+					Object value = readValue(dbKey, record, Object.class);
+					putNear(key, value, record, stamp);
+					return value;
+				}
+				if (System.currentTimeMillis() >= deadline) {
+					lockKey = null;
+					break;
+				}
+				Thread.sleep(LOCK_POLL_MILLIS);
+			}
+		}
+		try {
+			long start = System.nanoTime();
+			Object value = valueLoader.call();
+			long elapsed = System.nanoTime() - start;
+			loadNanos = loadNanos == 0 ? elapsed : (loadNanos * 7 + elapsed) / 8;
+			put(key, value);
+			return value;
+		}
+		finally {
+			if (lockKey != null) {
+				client.delete(null, lockKey);
+			}
+		}
+	}
+
+	private boolean tryLock(Key lockKey) {
+		WritePolicy lockPolicy = new WritePolicy(createOnly);
+		lockPolicy.expiration = (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(loadLockTimeoutMillis + 999));
+		try {
+			client.put(lockPolicy, lockKey, new Bin(LOCK, 1));
+			return true;
+		}
+		catch (AerospikeException e) {
+			if (e.getResultCode() == ResultCode.KEY_EXISTS_ERROR) {
+				return false;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Reads the values of the given keys with batch reads, the values held by the near cache are not read unless it
+	 * checks generations.
+	 *
+	 * @param keys must not be {@literal null}.
+	 * @param type the type of the values, must not be {@literal null}.
+	 * @return the cached values by key, without the keys that are not cached.
+	 * @throws IllegalStateException if a value is not of the given type.
+	 */
+	@SuppressWarnings("unchecked")
+	public <K, T> Map<K, T> getAll(Collection<K> keys, Class<T> type) {
+		Assert.notNull(keys, "Keys must not be null!");
+		Assert.notNull(type, "Type must not be null!");
+
+		Map<K, T> values = new LinkedHashMap<K, T>();
+		List<K> misses = new ArrayList<K>();
+		for (K key : new LinkedHashSet<K>(keys)) {
+			NearCache.Entry entry = nearCache != null && !generationChecks ? nearCache.get(key.toString()) : null;
+			if (entry != null && type.isInstance(entry.getValue())) {
+				values.put(key, (T) entry.getValue());
+				continue;
+			}
+			if (entry != null) {
+				nearCache.rejectStale(key.toString());
+			}
+			misses.add(key);
+		}
+
+		for (int from = 0; from < misses.size(); from += MAX_BATCH_SIZE) {
+			List<K> batch = misses.subList(from, Math.min(from + MAX_BATCH_SIZE, misses.size()));
+			Key[] dbKeys = new Key[batch.size()];
+			long[] stamps = new long[batch.size()];
+			for (int i = 0; i < dbKeys.length; i++) {
+				dbKeys[i] = getKey(batch.get(i));
+				stamps[i] = nearStamp(batch.get(i));
+			}
+			Record[] records = client.get(null, dbKeys);
+			for (int i = 0; i < records.length; i++) {
+				if (records[i] == null) {
+					continue;
+				}
+				Object value = readValue(dbKeys[i], records[i], type);
+				if (value != null && !type.isInstance(value)) {
+					throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+				}
+				values.put(batch.get(i), (T) value);
+				putNear(batch.get(i), value, records[i], stamps[i]);
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * Reads the values of the given keys and loads the values that are not cached with a single call of the loader,
+	 * caching them. The values are stored like {@link #put(Object, Object)} stores them, so that methods annotated
+	 * with {@link org.springframework.cache.annotation.Cacheable} for a single key read them.
+	 *
+	 * @param keys must not be {@literal null}.
+	 * @param type the type of the values, must not be {@literal null}.
+	 * @param loader loads the values of the keys that are not cached, the keys it returns no value for stay uncached.
+	 * @return the values by key.
+	 */
+	public <K, T> Map<K, T> getAll(Collection<K> keys, Class<T> type,
+			Function<? super Collection<K>, ? extends Map<K, ? extends T>> loader) {
+		Assert.notNull(loader, "Loader must not be null!");
+
+		Map<K, T> values = getAll(keys, type);
+		Set<K> misses = new LinkedHashSet<K>(keys);
+		misses.removeAll(values.keySet());
+		if (misses.isEmpty()) {
+			return values;
+		}
+		Map<K, ? extends T> loaded = loader.apply(misses);
+		if (loaded != null && !loaded.isEmpty()) {
+			putAll(loaded);
+			values.putAll(loaded);
+		}
+		return values;
+	}
+
+	/**
+	 * Writes the given values, asynchronously with a bounded number of writes in flight when the client is an
+	 * {@link AsyncClient}, and waits until all are written.
+	 *
+	 * @param values the values by key, must not be {@literal null}.
+	 * @throws AerospikeException the first failure of a write, after the other writes completed.
+	 */
+	public void putAll(Map<?, ?> values) {
+		Assert.notNull(values, "Values must not be null!");
+
+		if (client instanceof AsyncClient) {
+			final Semaphore window = new Semaphore(MAX_IN_FLIGHT_WRITES);
+			final AtomicReference<AerospikeException> failure = new AtomicReference<AerospikeException>();
+			WriteListener listener = new WriteListener() {
+
+				@Override
+				public void onSuccess(Key key) {
+					window.release();
+				}
+
+				@Override
+				public void onFailure(AerospikeException exception) {
+					failure.compareAndSet(null, exception);
+					window.release();
+				}
+			};
+			try {
+				for (Map.Entry<?, ?> entry : values.entrySet()) {
+					window.acquireUninterruptibly();
+					try {
+						((AsyncClient) client).put(create, listener, getKey(entry.getKey()),
+								writeBins(entry.getKey(), entry.getValue()));
+					}
+					catch (AerospikeException e) {
+						listener.onFailure(e);
+					}
+				}
+			}
+			finally {
+				window.acquireUninterruptibly(MAX_IN_FLIGHT_WRITES);
+				window.release(MAX_IN_FLIGHT_WRITES);
+				invalidateNear(values.keySet());
+			}
+			if (failure.get() != null) {
+				throw failure.get();
+			}
+		}
+		else {
+			try {
+				for (Map.Entry<?, ?> entry : values.entrySet()) {
+					client.put(create, getKey(entry.getKey()), writeBins(entry.getKey(), entry.getValue()));
+				}
+			}
+			finally {
+				invalidateNear(values.keySet());
+			}
+		}
+	}
+
+	private void invalidateNear(Collection<?> keys) {
+		for (Object key : keys) {
+			invalidateNear(key);
+		}
+	}
+
+	/**
+	 * Reads the value of a record.
+	 *
+	 * @param type the type the value is read as.
+	 */
+	protected Object readValue(Key dbKey, Record record, Class<?> type) {
+		return record.getValue(VALUE);
+	}
+
+	/**
+	 * @return the bins storing the value.
+	 */
+	protected Bin[] writeBins(Object key, Object value) {
+		return new Bin[] { new Bin(VALUE, value) };
+	}
+
 	@Override
 	public String getName() {
 		return this.namespace+":"+this.set;
@@ -83,13 +703,32 @@ public class AerospikeCache implements Cache {
 
 	@Override
 	public void put(Object key, Object value) {
-		client.put(create, getKey(key), new Bin(VALUE, value));
+		client.put(create, getKey(key), writeBins(key, value));
+		invalidateNear(key);
 	}
 
 	@Override
 	public ValueWrapper putIfAbsent(Object key, Object value) {
 		Record record = client.operate(this.createOnly, getKey(key), Operation.put(new Bin(VALUE, value)), Operation.get(VALUE));
+		invalidateNear(key);
 		return toWrapper(record);
 	}
 
+	/**
+	 * Thrown by {@link AerospikeCache#get(Object, Callable)} when the value loader failed.
+	 */
+	@SuppressWarnings("serial")
+	public static class ValueLoadingException extends RuntimeException {
+
+		private final Object key;
+
+		public ValueLoadingException(Object key, Throwable cause) {
+			super("Value for key '" + key + "' could not be loaded", cause);
+			this.key = key;
+		}
+
+		public Object getKey() {
+			return key;
+		}
+	}
 }
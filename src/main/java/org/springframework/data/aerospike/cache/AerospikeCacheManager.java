@@ -17,6 +17,7 @@
 package org.springframework.data.aerospike.cache;
 
 import com.aerospike.client.AerospikeClient;
+import com.aerospike.client.Bin;
 import com.aerospike.client.Key;
 import com.aerospike.client.Record;
 import com.aerospike.client.policy.WritePolicy;
@@ -28,6 +29,7 @@ import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
 import org.springframework.data.aerospike.convert.AerospikeConverter;
 import org.springframework.data.aerospike.convert.AerospikeData;
 import org.springframework.data.aerospike.convert.MappingAerospikeConverter;
+import org.springframework.data.aerospike.mapping.AerospikeMetadataBin;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 
@@ -74,6 +76,122 @@ public class AerospikeCacheManager extends AbstractTransactionSupportingCacheMan
 
 	private Long defaultExpiration = TimeUnit.MINUTES.toSeconds(1);
 
+	private long nearCacheMaxWeight;
+	private NearCache.Weigher nearCacheWeigher = NearCache.SINGLETON_WEIGHER;
+	private long nearCacheTimeToLive = TimeUnit.SECONDS.toMillis(5);
+	private Map<String, Long> nearCacheTimeToLives = Collections.emptyMap();
+	private boolean nearCacheGenerationChecks;
+	private Integer clearConcurrency;
+	private boolean synchronousClear;
+	private long loadLockTimeout;
+	private double earlyRefreshBeta;
+	private CacheValueCodec cacheValueCodec;
+	private Map<String, CacheValueCodec> cacheValueCodecs = Collections.emptyMap();
+
+	/**
+	 * Keeps the values each cache read last in an in-process {@link NearCache} in front of Aerospike. Disabled by
+	 * default.
+	 *
+	 * @param nearCacheMaxWeight the maximum weight of the entries of each cache, zero to disable the near caches.
+	 */
+	public void setNearCacheMaxWeight(long nearCacheMaxWeight) {
+		Assert.isTrue(nearCacheMaxWeight >= 0, "Near cache max weight must not be negative!");
+		this.nearCacheMaxWeight = nearCacheMaxWeight;
+	}
+
+	/**
+	 * @param nearCacheWeigher must not be {@literal null}, defaults to {@link NearCache#SINGLETON_WEIGHER} so that the
+	 *          max weight bounds the number of entries.
+	 */
+	public void setNearCacheWeigher(NearCache.Weigher nearCacheWeigher) {
+		Assert.notNull(nearCacheWeigher, "Near cache weigher must not be null!");
+		this.nearCacheWeigher = nearCacheWeigher;
+	}
+
+	/**
+	 * Configures how long the near caches keep their entries, which bounds how long values written or evicted through
+	 * other processes stay visible. The time to live of a cache never exceeds its expiration.
+	 *
+	 * @param nearCacheTimeToLive in milliseconds, greater than zero, defaults to five seconds.
+	 */
+	public void setNearCacheTimeToLive(long nearCacheTimeToLive) {
+		Assert.isTrue(nearCacheTimeToLive > 0, "Near cache time to live must be greater than zero!");
+		this.nearCacheTimeToLive = nearCacheTimeToLive;
+	}
+
+	/**
+	 * @param nearCacheTimeToLives the time to live in milliseconds of the near caches by cache name, caches not listed
+	 *          use {@link #setNearCacheTimeToLive(long)}.
+	 */
+	public void setNearCacheTimeToLives(Map<String, Long> nearCacheTimeToLives) {
+		Assert.notNull(nearCacheTimeToLives, "Near cache time to lives must not be null!");
+		this.nearCacheTimeToLives = nearCacheTimeToLives;
+	}
+
+	/**
+	 * @param nearCacheGenerationChecks whether reads answered by a near cache first compare the generation of the record,
+	 *          reading its header only. Disabled by default.
+	 */
+	public void setNearCacheGenerationChecks(boolean nearCacheGenerationChecks) {
+		this.nearCacheGenerationChecks = nearCacheGenerationChecks;
+	}
+
+	/**
+	 * @param clearConcurrency how many nodes are scanned at once to clear a cache when the cluster cannot truncate.
+	 * @see AerospikeCache#setClearConcurrency(int)
+	 */
+	public void setClearConcurrency(int clearConcurrency) {
+		Assert.isTrue(clearConcurrency > 0, "Clear concurrency must be greater than zero!");
+		this.clearConcurrency = clearConcurrency;
+	}
+
+	/**
+	 * @param synchronousClear whether clearing a cache waits until it is cleared, disabled by default.
+	 * @see AerospikeCache#setSynchronousClear(boolean)
+	 */
+	public void setSynchronousClear(boolean synchronousClear) {
+		this.synchronousClear = synchronousClear;
+	}
+
+	/**
+	 * @param loadLockTimeout how long, in milliseconds, a load of a missing value may lock its key for other processes,
+	 *          zero to coordinate loads within this process only, the default.
+	 * @see AerospikeCache#setLoadLockTimeout(long)
+	 */
+	public void setLoadLockTimeout(long loadLockTimeout) {
+		Assert.isTrue(loadLockTimeout >= 0, "Load lock timeout must not be negative!");
+		this.loadLockTimeout = loadLockTimeout;
+	}
+
+	/**
+	 * @param earlyRefreshBeta how eagerly values are reloaded before they expire, zero to disable, the default.
+	 * @see AerospikeCache#setEarlyRefreshBeta(double)
+	 */
+	public void setEarlyRefreshBeta(double earlyRefreshBeta) {
+		Assert.isTrue(earlyRefreshBeta >= 0, "Early refresh beta must not be negative!");
+		this.earlyRefreshBeta = earlyRefreshBeta;
+	}
+
+	/**
+	 * Stores the values of the caches as single blobs encoded by the given codec, rather than as the bins the converter
+	 * writes.
+	 *
+	 * @param cacheValueCodec can be {@literal null} to write values through the converter, the default.
+	 * @see CompactCacheValueCodec
+	 * @see CompressingCacheValueCodec
+	 */
+	public void setCacheValueCodec(CacheValueCodec cacheValueCodec) {
+		this.cacheValueCodec = cacheValueCodec;
+	}
+
+	/**
+	 * @param cacheValueCodecs the codecs by cache name, caches not listed use {@link #setCacheValueCodec(CacheValueCodec)}.
+	 */
+	public void setCacheValueCodecs(Map<String, CacheValueCodec> cacheValueCodecs) {
+		Assert.notNull(cacheValueCodecs, "Cache value codecs must not be null!");
+		this.cacheValueCodecs = cacheValueCodecs;
+	}
+
 
 	/**
 	 * Create a new {@link AerospikeCacheManager} instance with no caches and with the
@@ -165,7 +283,32 @@ public class AerospikeCacheManager extends AbstractTransactionSupportingCacheMan
 	}
 
 	protected AerospikeCache createCache(String cacheName, long expiration) {
-		return new AerospikeSerializingCache(namespace, cacheName, expiration , aerospikeClient);
+		CacheValueCodec codec = cacheValueCodecs.get(cacheName);
+		AerospikeCache cache = new AerospikeSerializingCache(namespace, cacheName, expiration , aerospikeClient,
+				codec != null ? codec : cacheValueCodec);
+		if (nearCacheMaxWeight > 0) {
+			cache.setNearCache(createNearCache(cacheName, expiration), nearCacheGenerationChecks);
+		}
+		if (clearConcurrency != null) {
+			cache.setClearConcurrency(clearConcurrency);
+		}
+		cache.setSynchronousClear(synchronousClear);
+		cache.setLoadLockTimeout(loadLockTimeout);
+		cache.setEarlyRefreshBeta(earlyRefreshBeta);
+		return cache;
+	}
+
+	protected NearCache createNearCache(String cacheName, long expiration) {
+		Long timeToLive = nearCacheTimeToLives.get(cacheName);
+		long timeToLiveMillis = timeToLive != null ? timeToLive : nearCacheTimeToLive;
+		/*
+		 * zero and negative expirations keep the records for the namespace
+		 * default or forever
+		 */
+		if (expiration > 0) {
+			timeToLiveMillis = Math.min(timeToLiveMillis, TimeUnit.SECONDS.toMillis(expiration));
+		}
+		return new NearCache(nearCacheMaxWeight, timeToLiveMillis, nearCacheWeigher);
 	}
 
 	@Override
@@ -202,23 +345,69 @@ public class AerospikeCacheManager extends AbstractTransactionSupportingCacheMan
 
 	public class AerospikeSerializingCache extends AerospikeCache {
 
+		private final CacheValueCodec codec;
+
 		public AerospikeSerializingCache(String namespace, String setName, long expiration, AerospikeClient aerospikeClient) {
+			this(namespace, setName, expiration, aerospikeClient, null);
+		}
+
+		/**
+		 * @param codec encodes the values into a single bin, {@literal null} to write them through the converter.
+		 */
+		public AerospikeSerializingCache(String namespace, String setName, long expiration, AerospikeClient aerospikeClient,
+				CacheValueCodec codec) {
 			super(namespace, setName, aerospikeClient, expiration);
+			this.codec = codec;
 		}
 
+		@SuppressWarnings("unchecked")
 		@Override
 		public <T> T get(Object key, Class<T> type) {
+			NearCache.Entry entry = getNear(key);
+			if (entry != null) {
+				if (type.isInstance(entry.getValue())) {
+					return (T) entry.getValue();
+				}
+				// read as another type before
+				nearCache.rejectStale(key.toString());
+			}
 			Key dbKey = getKey(key);
+			long stamp = nearStamp(key);
 			Record record =  client.get(null, dbKey);
 			if (record != null) {
-				AerospikeData data = AerospikeData.forRead(dbKey, null);
-				data.setRecord(record);
-				T value = aerospikeConverter.read(type,  data);
+				T value = (T) readValue(dbKey, record, type);
+				putNear(key, value, record, stamp);
 				return value;
 			}
 			return null;
 		}
 
+		@Override
+		protected Object readValue(Key dbKey, Record record, Class<?> type) {
+			Object blob = record.getValue(VALUE);
+			/*
+			 * records written before the codec was enabled still hold the bins of the converter
+			 */
+			if (codec != null && blob instanceof byte[]
+					&& !record.bins.containsKey(AerospikeMetadataBin.AEROSPIKE_META_DATA)) {
+				return codec.decode((byte[]) blob, type);
+			}
+			AerospikeData data = AerospikeData.forRead(dbKey, null);
+			data.setRecord(record);
+			return aerospikeConverter.read(type,  data);
+		}
+
+		@Override
+		protected Bin[] writeBins(Object key, Object value) {
+			if (codec != null) {
+				return new Bin[] { new Bin(VALUE, codec.encode(value)) };
+			}
+			AerospikeData data = AerospikeData.forWrite(set);
+			data.setID(key.toString());
+			aerospikeConverter.write(value, data);
+			return data.getBinsAsArray();
+		}
+
 		@Override
 		public ValueWrapper get(Object key) {
 			Object value = get(key, Object.class);
@@ -226,20 +415,19 @@ public class AerospikeCacheManager extends AbstractTransactionSupportingCacheMan
 		}
 
 		private void serializeAndPut(WritePolicy writePolicy, Object key, Object value) {
-			AerospikeData data = AerospikeData.forWrite(set);
-			data.setID(key.toString());
-			aerospikeConverter.write(value, data);
-			client.put(writePolicy, getKey(key), data.getBinsAsArray());
+			client.put(writePolicy, getKey(key), writeBins(key, value));
 		}
 
 		@Override
 		public void put(Object key, Object value) {
 			serializeAndPut(create, key, value);
+			invalidateNear(key);
 		}
 
 		@Override
 		public ValueWrapper putIfAbsent(Object key, Object value) {
 			serializeAndPut(createOnly, key, value);
+			invalidateNear(key);
 			return get(key);
 		}
 	}
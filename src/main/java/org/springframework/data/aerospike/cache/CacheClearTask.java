@@ -0,0 +1,140 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.aerospike.cache;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of clearing an {@link AerospikeCache}. The set of the cache is truncated on the server when the cluster
+ * supports it, otherwise the records are scanned and deleted node by node.
+ *
+ * @author Peter Milne
+ * @see AerospikeCache#clearAsync()
+ */
+public class CacheClearTask {
+
+	private final String name;
+	private final CountDownLatch done = new CountDownLatch(1);
+	private final AtomicLong deleted = new AtomicLong();
+	private final AtomicInteger completedNodes = new AtomicInteger();
+	private volatile int nodeCount;
+	private volatile boolean truncated;
+	private volatile RuntimeException failure;
+
+	CacheClearTask(String name) {
+		this.name = name;
+	}
+
+	void truncated() {
+		this.truncated = true;
+	}
+
+	void scanning(int nodeCount) {
+		this.nodeCount = nodeCount;
+	}
+
+	void deleted() {
+		deleted.incrementAndGet();
+	}
+
+	void nodeCompleted() {
+		completedNodes.incrementAndGet();
+	}
+
+	void complete(RuntimeException failure) {
+		this.failure = failure;
+		done.countDown();
+	}
+
+	/**
+	 * @return whether the set was truncated on the server rather than scanned.
+	 */
+	public boolean isTruncated() {
+		return truncated;
+	}
+
+	/**
+	 * @return the number of records deleted by the scan so far, zero when the set was truncated.
+	 */
+	public long getDeletedCount() {
+		return deleted.get();
+	}
+
+	/**
+	 * @return the number of nodes scanned, zero when the set was truncated.
+	 */
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * @return the number of nodes whose records were all deleted.
+	 */
+	public int getCompletedNodeCount() {
+		return completedNodes.get();
+	}
+
+	public boolean isDone() {
+		return done.getCount() == 0;
+	}
+
+	/**
+	 * @return the exception the clear failed with, {@literal null} while running or if it succeeded.
+	 */
+	public RuntimeException getFailure() {
+		return failure;
+	}
+
+	/**
+	 * Waits until the cache is cleared.
+	 *
+	 * @throws RuntimeException the exception the clear failed with.
+	 */
+	public void waitTillComplete() throws InterruptedException {
+		done.await();
+		rethrowFailure();
+	}
+
+	/**
+	 * Waits until the cache is cleared or the timeout elapses.
+	 *
+	 * @return whether the cache was cleared in time.
+	 * @throws RuntimeException the exception the clear failed with.
+	 */
+	public boolean waitTillComplete(long timeout, TimeUnit unit) throws InterruptedException {
+		if (!done.await(timeout, unit)) {
+			return false;
+		}
+		rethrowFailure();
+		return true;
+	}
+
+	private void rethrowFailure() {
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "CacheClearTask [" + name + (truncated ? ", truncated" : ", deleted " + deleted + " on "
+				+ completedNodes + "/" + nodeCount + " nodes") + (isDone() ? ", done" : "") + "]";
+	}
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.aerospike.cache;
+
+/**
+ * Encodes the values of an {@link AerospikeCacheManager.AerospikeSerializingCache} into the single blob bin of their
+ * record, instead of the bins and metadata written by the converter.
+ *
+ * @author Peter Milne
+ * @see AerospikeCacheManager#setCacheValueCodec(CacheValueCodec)
+ */
+public interface CacheValueCodec {
+
+	/**
+	 * @param value the value to cache, can be {@literal null}.
+	 * @return the blob to store.
+	 */
+	byte[] encode(Object value);
+
+	/**
+	 * @param blob a blob returned by {@link #encode(Object)}.
+	 * @param type the type the value is read as, {@link Object} when unknown.
+	 * @return the cached value.
+	 */
+	Object decode(byte[] blob, Class<?> type);
+}
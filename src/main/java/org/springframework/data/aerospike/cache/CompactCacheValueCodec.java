@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.aerospike.cache;
+
+import org.springframework.data.aerospike.convert.MappingAerospikeConverter;
+import org.springframework.util.Assert;
+
+/**
+ * {@link CacheValueCodec} writing values in the binary encoding of
+ * {@link org.springframework.data.aerospike.mapping.Encoding#COMPACT} properties: variable length numbers, and entities
+ * as their property values following a table of their types. Integral numbers are read as {@link Long} unless read
+ * as another type.
+ *
+ * @author Peter Milne
+ */
+public class CompactCacheValueCodec implements CacheValueCodec {
+
+	private final MappingAerospikeConverter converter;
+
+	/**
+	 * @param converter maps the entities written, must not be {@literal null}.
+	 */
+	public CompactCacheValueCodec(MappingAerospikeConverter converter) {
+		Assert.notNull(converter, "Converter must not be null!");
+		this.converter = converter;
+	}
+
+	@Override
+	public byte[] encode(Object value) {
+		return converter.writeCompact(value);
+	}
+
+	@Override
+	public Object decode(byte[] blob, Class<?> type) {
+		return converter.readCompact(blob, type);
+	}
+}
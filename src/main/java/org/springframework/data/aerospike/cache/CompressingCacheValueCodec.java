@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.aerospike.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.springframework.util.Assert;
+
+/**
+ * {@link CacheValueCodec} compressing the blobs of another codec that reach a size threshold, with
+ * {@link Deflater#BEST_SPEED} deflate. Every blob starts with a flag telling whether it is compressed, compressed blobs
+ * follow it with their uncompressed size.
+ *
+ * @author Peter Milne
+ */
+public class CompressingCacheValueCodec implements CacheValueCodec {
+
+	private static final byte RAW = 0;
+	private static final byte DEFLATED = 1;
+
+	private final CacheValueCodec codec;
+	private final int threshold;
+
+	/**
+	 * @param codec encodes the values, must not be {@literal null}.
+	 * @param threshold the size in bytes from which blobs are compressed, must not be negative.
+	 */
+	public CompressingCacheValueCodec(CacheValueCodec codec, int threshold) {
+		Assert.notNull(codec, "Codec must not be null!");
+		Assert.isTrue(threshold >= 0, "Threshold must not be negative!");
+		this.codec = codec;
+		this.threshold = threshold;
+	}
+
+	@Override
+	public byte[] encode(Object value) {
+		byte[] blob = codec.encode(value);
+		if (blob.length < threshold) {
+			byte[] raw = new byte[blob.length + 1];
+			raw[0] = RAW;
+			System.arraycopy(blob, 0, raw, 1, blob.length);
+			return raw;
+		}
+
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try {
+			deflater.setInput(blob);
+			deflater.finish();
+			ByteArrayOutputStream out = new ByteArrayOutputStream(blob.length / 2 + 16);
+			out.write(DEFLATED);
+			for (int shift = 24; shift >= 0; shift -= 8) {
+				out.write(blob.length >>> shift);
+			}
+			byte[] buffer = new byte[Math.min(blob.length + 16, 8192)];
+			while (!deflater.finished()) {
+				out.write(buffer, 0, deflater.deflate(buffer));
+			}
+			return out.toByteArray();
+		}
+		finally {
+			deflater.end();
+		}
+	}
+
+	@Override
+	public Object decode(byte[] blob, Class<?> type) {
+		if (blob.length == 0 || (blob[0] != RAW && blob[0] != DEFLATED)) {
+			throw new IllegalArgumentException("Unknown compression " + (blob.length == 0 ? "" : blob[0]));
+		}
+		if (blob[0] == RAW) {
+			return codec.decode(Arrays.copyOfRange(blob, 1, blob.length), type);
+		}
+
+		int length = 0;
+		for (int i = 1; i < 5; i++) {
+			length = (length << 8) | (blob[i] & 0xFF);
+		}
+		byte[] inflated = new byte[length];
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(blob, 5, blob.length - 5);
+			int offset = 0;
+			while (offset < length && !inflater.finished()) {
+				int inflatedLength = inflater.inflate(inflated, offset, length - offset);
+				if (inflatedLength == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					throw new IllegalArgumentException("Truncated compressed blob");
+				}
+				offset += inflatedLength;
+			}
+		}
+		catch (DataFormatException e) {
+			throw new IllegalArgumentException("Corrupt compressed blob", e);
+		}
+		finally {
+			inflater.end();
+		}
+		return codec.decode(inflated, type);
+	}
+}
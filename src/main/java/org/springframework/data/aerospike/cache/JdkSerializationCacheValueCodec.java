@@ -0,0 +1,41 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.aerospike.cache;
+
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+
+/**
+ * {@link CacheValueCodec} writing values with Java serialization, for values of types that are not mapped entities.
+ *
+ * @author Peter Milne
+ */
+public class JdkSerializationCacheValueCodec implements CacheValueCodec {
+
+	private final SerializingConverter serializer = new SerializingConverter();
+	private final DeserializingConverter deserializer = new DeserializingConverter();
+
+	@Override
+	public byte[] encode(Object value) {
+		return serializer.convert(value);
+	}
+
+	@Override
+	public Object decode(byte[] blob, Class<?> type) {
+		return deserializer.convert(blob);
+	}
+}
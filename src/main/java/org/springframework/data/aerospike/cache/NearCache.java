@@ -0,0 +1,320 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.aerospike.cache;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+import org.springframework.util.Assert;
+
+/**
+ * In-process cache of the values an {@link AerospikeCache} read last, answering repeated reads of hot keys without a
+ * round trip. Entries expire after a fixed time to live and, once the total weight of the entries exceeds the maximum,
+ * the least recently read of a sample of entries is evicted, approximating LRU. Reads take no lock, only writes going
+ * over the maximum weight serialise on eviction. Values written or evicted through another process stay visible here
+ * until they expire, unless the {@link AerospikeCache} checks their generation.
+ *
+ * @author Peter Milne
+ * @see AerospikeCacheManager#setNearCacheMaxWeight(long)
+ */
+public class NearCache {
+
+	/**
+	 * Weighs the entries of a {@link NearCache}.
+	 */
+	public interface Weigher {
+
+		/**
+		 * @return the weight of the entry, at least one.
+		 */
+		int weigh(Object key, Object value);
+	}
+
+	/**
+	 * Weighs every entry one, bounding the number of entries.
+	 */
+	public static final Weigher SINGLETON_WEIGHER = new Weigher() {
+
+		@Override
+		public int weigh(Object key, Object value) {
+			return 1;
+		}
+	};
+
+	private static final int EVICTION_SAMPLE_SIZE = 8;
+	private static final int STAMP_STRIPES = 64;
+
+	private final long maxWeight;
+	private final long timeToLiveNanos;
+	private final Weigher weigher;
+	private final LongSupplier nanoClock;
+	private final ConcurrentHashMap<Object, Entry> entries = new ConcurrentHashMap<Object, Entry>();
+	private final AtomicLong weight = new AtomicLong();
+	private final AtomicLongArray invalidations = new AtomicLongArray(STAMP_STRIPES);
+	private final Object evictionLock = new Object();
+	private Iterator<Entry> evictionHand;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	private final AtomicLong expirations = new AtomicLong();
+
+	/**
+	 * @param maxWeight the maximum total weight of the entries, greater than zero.
+	 * @param timeToLiveMillis how long an entry is kept, greater than zero.
+	 * @param weigher must not be {@literal null}, {@link #SINGLETON_WEIGHER} bounds the number of entries.
+	 */
+	public NearCache(long maxWeight, long timeToLiveMillis, Weigher weigher) {
+		this(maxWeight, timeToLiveMillis, weigher, new LongSupplier() {
+
+			@Override
+			public long getAsLong() {
+				return System.nanoTime();
+			}
+		});
+	}
+
+	NearCache(long maxWeight, long timeToLiveMillis, Weigher weigher, LongSupplier nanoClock) {
+		Assert.isTrue(maxWeight > 0, "Max weight must be greater than zero!");
+		Assert.isTrue(timeToLiveMillis > 0, "Time to live must be greater than zero!");
+		Assert.notNull(weigher, "Weigher must not be null!");
+		this.maxWeight = maxWeight;
+		this.timeToLiveNanos = TimeUnit.MILLISECONDS.toNanos(timeToLiveMillis);
+		this.weigher = weigher;
+		this.nanoClock = nanoClock;
+	}
+
+	/**
+	 * @return the entry of the key, {@literal null} if there is none or it expired.
+	 */
+	public Entry get(Object key) {
+		Entry entry = entries.get(key);
+		if (entry != null) {
+			long now = nanoClock.getAsLong();
+			if (entry.expiresAt - now <= 0) {
+				if (remove(entry)) {
+					expirations.incrementAndGet();
+				}
+				entry = null;
+			}
+			else if (entry.readAt != now) {
+				entry.readAt = now;
+			}
+		}
+		(entry != null ? hits : misses).incrementAndGet();
+		return entry;
+	}
+
+	/**
+	 * Caches the value read from the record of the given generation, evicting the least recently read entries beyond
+	 * the maximum weight.
+	 */
+	public void put(Object key, Object value, int generation) {
+		store(key, value, generation);
+	}
+
+	/**
+	 * Returns the invalidation stamp of the key. A value read from Aerospike after taking the stamp is only cached by
+	 * {@link #put(Object, Object, int, long)} if the key was not invalidated meanwhile, so that a read racing a local
+	 * write cannot cache the value the write replaced.
+	 */
+	public long stamp(Object key) {
+		return invalidations.get(stripe(key));
+	}
+
+	/**
+	 * Caches the value read from the record of the given generation unless the key was invalidated since the stamp was
+	 * taken.
+	 *
+	 * @param stamp the {@link #stamp(Object)} of the key taken before reading the value.
+	 * @return whether the value was cached.
+	 */
+	public boolean put(Object key, Object value, int generation, long stamp) {
+		int stripe = stripe(key);
+		if (invalidations.get(stripe) != stamp) {
+			return false;
+		}
+		Entry entry = store(key, value, generation);
+		/*
+		 * an invalidation after the check above may have missed the entry, invalidate bumps the stamp before removing
+		 */
+		if (invalidations.get(stripe) != stamp) {
+			remove(entry);
+			return false;
+		}
+		return true;
+	}
+
+	private Entry store(Object key, Object value, int generation) {
+		int entryWeight = Math.max(1, weigher.weigh(key, value));
+		long now = nanoClock.getAsLong();
+		Entry entry = new Entry(key, value, generation, now + timeToLiveNanos, entryWeight, now);
+		Entry previous = entries.put(key, entry);
+		if (weight.addAndGet(entryWeight - (previous != null ? previous.weight : 0)) > maxWeight) {
+			evict(entry);
+		}
+		return entry;
+	}
+
+	private static int stripe(Object key) {
+		int hash = key.hashCode();
+		return ((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % STAMP_STRIPES;
+	}
+
+	/*
+	 * evicts the least recently read of a sample of entries until the weight is within the maximum, sparing the entry
+	 * just put unless it is the only one
+	 */
+	private void evict(Entry put) {
+		synchronized (evictionLock) {
+			while (weight.get() > maxWeight && !entries.isEmpty()) {
+				Entry victim = null;
+				for (int i = 0; i < EVICTION_SAMPLE_SIZE; i++) {
+					if (evictionHand == null || !evictionHand.hasNext()) {
+						evictionHand = entries.values().iterator();
+						if (!evictionHand.hasNext()) {
+							break;
+						}
+					}
+					Entry candidate = evictionHand.next();
+					if (candidate == put && entries.size() > 1) {
+						continue;
+					}
+					if (victim == null || candidate.readAt - victim.readAt < 0) {
+						victim = candidate;
+					}
+				}
+				if (victim != null && remove(victim)) {
+					evictions.incrementAndGet();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Drops the entry of the key after its record was written or deleted.
+	 */
+	public void invalidate(Object key) {
+		invalidations.incrementAndGet(stripe(key));
+		Entry removed = entries.remove(key);
+		if (removed != null) {
+			weight.addAndGet(-removed.weight);
+		}
+	}
+
+	/**
+	 * Drops an entry returned by {@link #get(Object)} that turned out to be stale, counting the read as a miss.
+	 */
+	public void rejectStale(Object key) {
+		invalidate(key);
+		hits.decrementAndGet();
+		misses.incrementAndGet();
+	}
+
+	/**
+	 * Drops all entries.
+	 */
+	public void clear() {
+		for (int i = 0; i < STAMP_STRIPES; i++) {
+			invalidations.incrementAndGet(i);
+		}
+		for (Object key : entries.keySet()) {
+			invalidate(key);
+		}
+	}
+
+	/*
+	 * removes the entry unless it was replaced meanwhile
+	 */
+	private boolean remove(Entry entry) {
+		if (entries.remove(entry.key, entry)) {
+			weight.addAndGet(-entry.weight);
+			return true;
+		}
+		return false;
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public long getWeight() {
+		return weight.get();
+	}
+
+	/**
+	 * @return the number of reads answered by this cache.
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * @return the number of reads passed on to Aerospike.
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * @return the number of entries evicted to stay within the maximum weight.
+	 */
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+
+	/**
+	 * @return the number of entries dropped after their time to live.
+	 */
+	public long getExpirationCount() {
+		return expirations.get();
+	}
+
+	/**
+	 * A cached value and the generation of the record it was read from.
+	 */
+	public static final class Entry {
+
+		private final Object key;
+		private final Object value;
+		private final int generation;
+		private final long expiresAt;
+		private final int weight;
+		private volatile long readAt;
+
+		Entry(Object key, Object value, int generation, long expiresAt, int weight, long readAt) {
+			this.key = key;
+			this.value = value;
+			this.generation = generation;
+			this.expiresAt = expiresAt;
+			this.weight = weight;
+			this.readAt = readAt;
+		}
+
+		public Object getValue() {
+			return value;
+		}
+
+		public int getGeneration() {
+			return generation;
+		}
+	}
+}
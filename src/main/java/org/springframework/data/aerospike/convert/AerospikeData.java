@@ -51,15 +51,19 @@ public class AerospikeData implements Serializable {
 	private Key key;
 	private Record record;
 	private final String namespace;
-	private final List<Bin> bins;
+	private List<Bin> bins;
 	private AerospikeMetadataBin metaData;
 
 	private AerospikeData(Key key, Record record, String namespace, List<Bin> bins, String[] binNames) {
+		this(key, record, namespace, bins, new AerospikeMetadataBin());
+	}
+
+	private AerospikeData(Key key, Record record, String namespace, List<Bin> bins, AerospikeMetadataBin metaData) {
 		this.key = key;
 		this.record = record;
 		this.namespace = namespace;
 		this.bins = bins;
-		this.metaData =  new AerospikeMetadataBin();
+		this.metaData = metaData;
 	}
 
 	public static AerospikeData forRead(Key key, String[] binNames) {
@@ -67,7 +71,19 @@ public class AerospikeData implements Serializable {
 	}
 
 	public static AerospikeData forWrite(String namespace) {
-		return new AerospikeData(null, null, namespace, new ArrayList<Bin>(), null);
+		return new AerospikeData(null, null, namespace, new ArrayList<Bin>(), (String[]) null);
+	}
+
+	/**
+	 * Creates the data of an entity whose bins are returned by
+	 * {@link MappingAerospikeConverter#writeBins(Object, AerospikeData)} rather than collected here, so the list of
+	 * bins is only allocated if bins are added.
+	 * 
+	 * @param namespace the namespace of the key.
+	 * @param expectedBins number of bins the entity is expected to have, sizes the metadata map.
+	 */
+	public static AerospikeData forWrite(String namespace, int expectedBins) {
+		return new AerospikeData(null, null, namespace, null, new AerospikeMetadataBin(expectedBins + 1));
 	}
 
 	/**
@@ -127,19 +143,27 @@ public class AerospikeData implements Serializable {
 	 * @return the bins
 	 */
 	public List<Bin> getBins() {
-		return bins;
+		return bins != null ? bins : Collections.<Bin>emptyList();
 	}
 
 	public Bin[] getBinsAsArray() {
-		return getBins().toArray(new Bin[bins.size()]);
+		List<Bin> bins = getBins();
+		return bins.toArray(new Bin[bins.size()]);
 	}
 
 	public void add(List<Bin> bins) {
-		this.bins.addAll(bins);
+		writableBins().addAll(bins);
 	}
 
 	public void add(Bin bin) {
-		this.bins.add(bin);
+		writableBins().add(bin);
+	}
+
+	private List<Bin> writableBins() {
+		if (bins == null) {
+			bins = new ArrayList<Bin>();
+		}
+		return bins;
 	}
 
 	public void addMetaDataToBin() {
@@ -200,7 +224,7 @@ public class AerospikeData implements Serializable {
 
 	@SuppressWarnings({ "unused", "rawtypes" })
 	public static Map convertToMap(AerospikeData aerospikeData, SimpleTypeHolder simpleTypeHolder){
-		HashMap<String, Object> map = new HashMap<String, Object>(aerospikeData.bins.size()+2);
+		HashMap<String, Object> map = new HashMap<String, Object>(aerospikeData.getBins().size()+2);
 		map.put(AerospikeMetadataBin.TYPE_BIN_NAME, aerospikeData.getMetaData().getAerospikeMetaDataUsingKey(AerospikeMetadataBin.TYPE_BIN_NAME));
 		map.put(AerospikeMetadataBin.SPRING_ID_BIN, aerospikeData.getMetaData().getAerospikeMetaDataUsingKey(AerospikeMetadataBin.SPRING_ID_BIN));
 
@@ -227,7 +251,7 @@ public class AerospikeData implements Serializable {
 			key = new Key("namespace", "setname", "key");
 		}
 		AerospikeData aerospikeData = AerospikeData.forRead(key,null);
-		HashMap<String, Object> recordBins = new HashMap<String, Object>(aerospikeData.bins.size());
+		HashMap<String, Object> recordBins = new HashMap<String, Object>(aerospikeData.getBins().size());
 		for (Map.Entry<String, Object> binEntry : map.entrySet() ) {
 			String property = binEntry.getKey();
 			if(ignore.contains(property)==false){
@@ -0,0 +1,554 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.aerospike.convert;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.core.CollectionFactory;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.data.aerospike.mapping.AerospikePersistentEntity;
+import org.springframework.data.aerospike.mapping.AerospikePersistentProperty;
+import org.springframework.data.convert.EntityInstantiators;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mapping.PreferredConstructor;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.mapping.model.MappingException;
+import org.springframework.data.mapping.model.PersistentEntityParameterValueProvider;
+import org.springframework.data.mapping.model.PropertyValueProvider;
+import org.springframework.data.mapping.model.SimpleTypeHolder;
+import org.springframework.data.util.TypeInformation;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Encodes the values of {@link org.springframework.data.aerospike.mapping.Encoding#COMPACT} properties into byte
+ * arrays. Every value is written as a tag followed by its payload: numbers as zig-zag variable length integers,
+ * collections and maps as their size followed by their elements, and nested entities as a reference into a table of
+ * types. A type is defined once per blob by its class name and property names, its objects only write their property
+ * values in that order. Decoding is driven by the declared types of the properties, property names that no longer
+ * exist are skipped.
+ *
+ * @author Peter Milne
+ */
+final class CompactCodec {
+
+	private static final byte VERSION = 1;
+
+	private static final byte NULL = 0;
+	private static final byte STRING = 1;
+	private static final byte LONG = 2;
+	private static final byte DOUBLE = 3;
+	private static final byte TRUE = 4;
+	private static final byte FALSE = 5;
+	private static final byte BYTES = 6;
+	private static final byte DATE = 7;
+	private static final byte LIST = 8;
+	private static final byte MAP = 9;
+	private static final byte ENTITY = 10;
+
+	private static final Comparator<AerospikePersistentProperty> BY_NAME = new Comparator<AerospikePersistentProperty>() {
+
+		@Override
+		public int compare(AerospikePersistentProperty left, AerospikePersistentProperty right) {
+			return left.getName().compareTo(right.getName());
+		}
+	};
+
+	private final MappingContext<? extends AerospikePersistentEntity<?>, AerospikePersistentProperty> mappingContext;
+	private final ConversionService conversionService;
+	private final EntityInstantiators instantiators;
+	private final SimpleTypeHolder simpleTypeHolder;
+	private final ConcurrentMap<Class<?>, AerospikePersistentProperty[]> schemas = new ConcurrentHashMap<Class<?>, AerospikePersistentProperty[]>();
+
+	CompactCodec(MappingContext<? extends AerospikePersistentEntity<?>, AerospikePersistentProperty> mappingContext,
+			ConversionService conversionService, EntityInstantiators instantiators, SimpleTypeHolder simpleTypeHolder) {
+		this.mappingContext = mappingContext;
+		this.conversionService = conversionService;
+		this.instantiators = instantiators;
+		this.simpleTypeHolder = simpleTypeHolder;
+	}
+
+	/**
+	 * @param value the value of a property, must not be {@literal null}.
+	 * @return the blob to store in the bin of the property.
+	 */
+	byte[] encode(Object value) {
+		Encoder encoder = new Encoder();
+		encoder.out.write(VERSION);
+		encoder.write(value);
+		return encoder.out.toByteArray();
+	}
+
+	/**
+	 * Decodes a blob. Blobs of {@link List}, {@link Collection} and {@link Map} properties are returned as views that
+	 * decode the blob on their first access.
+	 *
+	 * @param blob the content of the bin.
+	 * @param type the type of the property.
+	 * @return the value of the property.
+	 */
+	Object read(byte[] blob, TypeInformation<?> type) {
+		Class<?> rawType = type.getType();
+		if (rawType == List.class || rawType == Collection.class) {
+			return new LazyList(blob, type);
+		}
+		if (rawType == Map.class) {
+			return new LazyMap(blob, type);
+		}
+		return decode(blob, type);
+	}
+
+	Object decode(byte[] blob, TypeInformation<?> type) {
+		if (blob.length == 0 || blob[0] != VERSION) {
+			throw new MappingException("Unsupported compact encoding " + (blob.length == 0 ? "" : blob[0]));
+		}
+		Decoder decoder = new Decoder(blob);
+		decoder.position = 1;
+		return decoder.read(type);
+	}
+
+	/*
+	 * the persistent properties of an entity in a stable order
+	 */
+	private AerospikePersistentProperty[] schema(Class<?> type) {
+		AerospikePersistentProperty[] schema = schemas.get(type);
+		if (schema == null) {
+			final List<AerospikePersistentProperty> properties = new ArrayList<AerospikePersistentProperty>();
+			mappingContext.getPersistentEntity(type).doWithProperties(new PropertyHandler<AerospikePersistentProperty>() {
+
+				@Override
+				public void doWithPersistentProperty(AerospikePersistentProperty property) {
+					properties.add(property);
+				}
+			});
+			schema = properties.toArray(new AerospikePersistentProperty[properties.size()]);
+			Arrays.sort(schema, BY_NAME);
+			schemas.putIfAbsent(type, schema);
+		}
+		return schema;
+	}
+
+	private class Encoder {
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+		final Map<Class<?>, Integer> types = new HashMap<Class<?>, Integer>();
+
+		void write(Object value) {
+			if (value == null) {
+				out.write(NULL);
+			}
+			else if (value instanceof String) {
+				out.write(STRING);
+				writeString((String) value);
+			}
+			else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+				out.write(LONG);
+				writeVarLong(((Number) value).longValue());
+			}
+			else if (value instanceof Double || value instanceof Float) {
+				out.write(DOUBLE);
+				writeFixedLong(Double.doubleToLongBits(((Number) value).doubleValue()));
+			}
+			else if (value instanceof Boolean) {
+				out.write(((Boolean) value) ? TRUE : FALSE);
+			}
+			else if (value instanceof byte[]) {
+				out.write(BYTES);
+				byte[] bytes = (byte[]) value;
+				writeVarLong(bytes.length);
+				out.write(bytes, 0, bytes.length);
+			}
+			else if (value instanceof Date) {
+				out.write(DATE);
+				writeVarLong(((Date) value).getTime());
+			}
+			else if (value instanceof Collection) {
+				Collection<?> collection = (Collection<?>) value;
+				out.write(LIST);
+				writeVarLong(collection.size());
+				for (Object element : collection) {
+					write(element);
+				}
+			}
+			else if (value instanceof Object[]) {
+				write(Arrays.asList((Object[]) value));
+			}
+			else if (value instanceof Map) {
+				Map<?, ?> map = (Map<?, ?>) value;
+				out.write(MAP);
+				writeVarLong(map.size());
+				for (Map.Entry<?, ?> entry : map.entrySet()) {
+					write(entry.getKey());
+					write(entry.getValue());
+				}
+			}
+			else if (value instanceof Enum || value instanceof Character
+					|| (simpleTypeHolder.isSimpleType(value.getClass()) && conversionService.canConvert(value.getClass(), String.class))) {
+				out.write(STRING);
+				writeString(value instanceof Enum ? ((Enum<?>) value).name() : conversionService.convert(value, String.class));
+			}
+			else {
+				writeEntity(value);
+			}
+		}
+
+		private void writeEntity(Object value) {
+			Class<?> type = value.getClass();
+			AerospikePersistentProperty[] schema = schema(type);
+			out.write(ENTITY);
+			Integer index = types.get(type);
+			if (index == null) {
+				writeVarLong(types.size());
+				types.put(type, types.size());
+				writeString(type.getName());
+				writeVarLong(schema.length);
+				for (AerospikePersistentProperty property : schema) {
+					writeString(property.getName());
+				}
+			}
+			else {
+				writeVarLong(index);
+			}
+			PersistentPropertyAccessor accessor = mappingContext.getPersistentEntity(type).getPropertyAccessor(value);
+			for (AerospikePersistentProperty property : schema) {
+				write(accessor.getProperty(property));
+			}
+		}
+
+		private void writeString(String value) {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			writeVarLong(bytes.length);
+			out.write(bytes, 0, bytes.length);
+		}
+
+		private void writeVarLong(long value) {
+			long zigZag = (value << 1) ^ (value >> 63);
+			while ((zigZag & ~0x7FL) != 0) {
+				out.write((int) ((zigZag & 0x7F) | 0x80));
+				zigZag >>>= 7;
+			}
+			out.write((int) zigZag);
+		}
+
+		private void writeFixedLong(long value) {
+			for (int shift = 56; shift >= 0; shift -= 8) {
+				out.write((int) (value >>> shift));
+			}
+		}
+	}
+
+	private class Decoder {
+
+		final byte[] blob;
+		final List<DecodedType> types = new ArrayList<DecodedType>();
+		int position;
+
+		Decoder(byte[] blob) {
+			this.blob = blob;
+		}
+
+		Object read(TypeInformation<?> type) {
+			byte tag = blob[position++];
+			switch (tag) {
+				case NULL:
+					return null;
+				case STRING:
+					return convert(readString(), type);
+				case LONG:
+					return convert(readVarLong(), type);
+				case DOUBLE:
+					return convert(Double.longBitsToDouble(readFixedLong()), type);
+				case TRUE:
+					return convert(Boolean.TRUE, type);
+				case FALSE:
+					return convert(Boolean.FALSE, type);
+				case BYTES:
+					int length = (int) readVarLong();
+					byte[] bytes = Arrays.copyOfRange(blob, position, position + length);
+					position += length;
+					return bytes;
+				case DATE:
+					return convert(new Date(readVarLong()), type);
+				case LIST:
+					return readCollection(type);
+				case MAP:
+					return readMap(type);
+				case ENTITY:
+					return readEntity();
+				default:
+					throw new MappingException("Unknown tag " + tag + " in compact encoding");
+			}
+		}
+
+		private Object convert(Object value, TypeInformation<?> type) {
+			if (type == null) {
+				return value;
+			}
+			Class<?> target = ClassUtils.resolvePrimitiveIfNecessary(type.getType());
+			return target.isInstance(value) ? value : conversionService.convert(value, target);
+		}
+
+		private Object readCollection(TypeInformation<?> type) {
+			int size = (int) readVarLong();
+			TypeInformation<?> elementType = type == null ? null : type.getComponentType();
+			Class<?> rawType = type == null ? List.class : type.getType();
+			Collection<Object> collection = rawType.isArray() || !Collection.class.isAssignableFrom(rawType)
+					? new ArrayList<Object>(size)
+					: CollectionFactory.<Object> createCollection(rawType, elementType == null ? null : elementType.getType(),
+							size);
+			for (int i = 0; i < size; i++) {
+				collection.add(read(elementType));
+			}
+			return rawType.isArray() ? conversionService.convert(collection, rawType) : collection;
+		}
+
+		private Object readMap(TypeInformation<?> type) {
+			int size = (int) readVarLong();
+			TypeInformation<?> keyType = type == null ? null : type.getComponentType();
+			TypeInformation<?> valueType = type == null ? null : type.getMapValueType();
+			Class<?> rawType = type == null || !Map.class.isAssignableFrom(type.getType()) ? Map.class : type.getType();
+			Map<Object, Object> map = CollectionFactory.<Object, Object> createMap(rawType,
+					keyType == null ? null : keyType.getType(), size);
+			for (int i = 0; i < size; i++) {
+				Object key = read(keyType);
+				map.put(key, read(valueType));
+			}
+			return map;
+		}
+
+		private Object readEntity() {
+			int index = (int) readVarLong();
+			if (index == types.size()) {
+				types.add(readType());
+			}
+			else if (index > types.size()) {
+				throw new MappingException("Unknown type " + index + " in compact encoding");
+			}
+			DecodedType type = types.get(index);
+
+			final AerospikePersistentProperty[] properties = type.properties;
+			final Object[] values = new Object[properties.length];
+			for (int i = 0; i < properties.length; i++) {
+				values[i] = read(properties[i] == null ? null : properties[i].getTypeInformation());
+			}
+
+			AerospikePersistentEntity<?> entity = type.entity;
+			PropertyValueProvider<AerospikePersistentProperty> provider = new PropertyValueProvider<AerospikePersistentProperty>() {
+
+				@Override
+				@SuppressWarnings("unchecked")
+				public <T> T getPropertyValue(AerospikePersistentProperty property) {
+					for (int i = 0; i < properties.length; i++) {
+						if (property.equals(properties[i])) {
+							return (T) values[i];
+						}
+					}
+					return null;
+				}
+			};
+			Object instance = instantiators.getInstantiatorFor(entity).createInstance(entity,
+					new PersistentEntityParameterValueProvider<AerospikePersistentProperty>(entity, provider, null));
+
+			PersistentPropertyAccessor accessor = entity.getPropertyAccessor(instance);
+			PreferredConstructor<?, AerospikePersistentProperty> constructor = entity.getPersistenceConstructor();
+			for (int i = 0; i < properties.length; i++) {
+				if (properties[i] != null && values[i] != null
+						&& (constructor == null || !constructor.isConstructorParameter(properties[i]))) {
+					accessor.setProperty(properties[i], values[i]);
+				}
+			}
+			return accessor.getBean();
+		}
+
+		private DecodedType readType() {
+			String className = readString();
+			Class<?> type;
+			try {
+				type = ClassUtils.forName(className, ClassUtils.getDefaultClassLoader());
+			}
+			catch (ClassNotFoundException e) {
+				throw new MappingException("Cannot decode compact encoding of " + className, e);
+			}
+			AerospikePersistentEntity<?> entity = mappingContext.getPersistentEntity(type);
+			AerospikePersistentProperty[] properties = new AerospikePersistentProperty[(int) readVarLong()];
+			for (int i = 0; i < properties.length; i++) {
+				properties[i] = entity.getPersistentProperty(readString());
+			}
+			return new DecodedType(entity, properties);
+		}
+
+		private String readString() {
+			int length = (int) readVarLong();
+			String value = new String(blob, position, length, StandardCharsets.UTF_8);
+			position += length;
+			return value;
+		}
+
+		private long readVarLong() {
+			long zigZag = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = blob[position++];
+				zigZag |= (long) (b & 0x7F) << shift;
+				shift += 7;
+			}
+			while ((b & 0x80) != 0);
+			return (zigZag >>> 1) ^ -(zigZag & 1);
+		}
+
+		private long readFixedLong() {
+			long value = 0;
+			for (int i = 0; i < 8; i++) {
+				value = (value << 8) | (blob[position++] & 0xFF);
+			}
+			return value;
+		}
+	}
+
+	private static class DecodedType {
+
+		final AerospikePersistentEntity<?> entity;
+		final AerospikePersistentProperty[] properties;
+
+		DecodedType(AerospikePersistentEntity<?> entity, AerospikePersistentProperty[] properties) {
+			this.entity = entity;
+			this.properties = properties;
+		}
+	}
+
+	/**
+	 * A list decoding its blob on first access.
+	 */
+	private class LazyList extends AbstractList<Object> {
+
+		private final byte[] blob;
+		private final TypeInformation<?> type;
+		private List<Object> list;
+
+		LazyList(byte[] blob, TypeInformation<?> type) {
+			this.blob = blob;
+			this.type = type;
+		}
+
+		@SuppressWarnings("unchecked")
+		private List<Object> list() {
+			if (list == null) {
+				Object decoded = decode(blob, type);
+				if (decoded instanceof List) {
+					list = (List<Object>) decoded;
+				}
+				else {
+					list = decoded == null ? new ArrayList<Object>() : new ArrayList<Object>((Collection<Object>) decoded);
+				}
+			}
+			return list;
+		}
+
+		@Override
+		public Object get(int index) {
+			return list().get(index);
+		}
+
+		@Override
+		public int size() {
+			return list().size();
+		}
+
+		@Override
+		public Object set(int index, Object element) {
+			return list().set(index, element);
+		}
+
+		@Override
+		public void add(int index, Object element) {
+			list().add(index, element);
+		}
+
+		@Override
+		public Object remove(int index) {
+			return list().remove(index);
+		}
+	}
+
+	/**
+	 * A map decoding its blob on first access.
+	 */
+	private class LazyMap extends AbstractMap<Object, Object> {
+
+		private final byte[] blob;
+		private final TypeInformation<?> type;
+		private Map<Object, Object> map;
+
+		LazyMap(byte[] blob, TypeInformation<?> type) {
+			this.blob = blob;
+			this.type = type;
+		}
+
+		@SuppressWarnings("unchecked")
+		private Map<Object, Object> map() {
+			if (map == null) {
+				Object decoded = decode(blob, type);
+				map = decoded == null ? new HashMap<Object, Object>() : (Map<Object, Object>) decoded;
+			}
+			return map;
+		}
+
+		@Override
+		public Set<Map.Entry<Object, Object>> entrySet() {
+			return map().entrySet();
+		}
+
+		@Override
+		public Object get(Object key) {
+			return map().get(key);
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return map().containsKey(key);
+		}
+
+		@Override
+		public Object put(Object key, Object value) {
+			return map().put(key, value);
+		}
+
+		@Override
+		public Object remove(Object key) {
+			return map().remove(key);
+		}
+
+		@Override
+		public int size() {
+			return map().size();
+		}
+	}
+}
@@ -0,0 +1,564 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.aerospike.convert;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.aerospike.mapping.AerospikePersistentEntity;
+import org.springframework.data.aerospike.mapping.AerospikePersistentProperty;
+import org.springframework.data.aerospike.mapping.CachingAerospikePersistentProperty;
+import org.springframework.data.aerospike.mapping.Encoding;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mapping.PreferredConstructor;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.mapping.model.SimpleTypeHolder;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import com.aerospike.client.Bin;
+import com.aerospike.client.Value;
+
+/**
+ * Reads and writes the records of one entity type through {@link MethodHandle}s bound once to its no-argument
+ * constructor and to the fields or accessors of its properties, instead of creating a
+ * {@link PersistentPropertyAccessor} and walking the properties with a {@link PropertyHandler} for every record. Bins
+ * of strings, numbers and booleans are assigned directly; other values, and values that do not have the stored type
+ * of their property, are converted the way {@link MappingAerospikeConverter} converts them.
+ *
+ * @author Peter Milne
+ */
+final class CompiledEntityMapper {
+
+	private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+	private final AerospikePersistentEntity<?> entity;
+	private final MethodHandle constructor;
+	private final Slot id;
+	private final Slot[] slots;
+	private final MappingAerospikeConverter converter;
+	private final SimpleTypeHolder simpleTypeHolder;
+
+	private CompiledEntityMapper(AerospikePersistentEntity<?> entity, MethodHandle constructor, Slot id, Slot[] slots,
+			MappingAerospikeConverter converter, SimpleTypeHolder simpleTypeHolder) {
+		this.entity = entity;
+		this.constructor = constructor;
+		this.id = id;
+		this.slots = slots;
+		this.converter = converter;
+		this.simpleTypeHolder = simpleTypeHolder;
+	}
+
+	/**
+	 * Binds a mapper to the given entity.
+	 *
+	 * @return the mapper, {@literal null} if the entity needs constructor arguments or has a property that cannot be
+	 *         assigned directly.
+	 */
+	static CompiledEntityMapper of(AerospikePersistentEntity<?> entity, final MappingAerospikeConverter converter,
+			SimpleTypeHolder simpleTypeHolder) {
+		final MethodHandles.Lookup lookup = MethodHandles.lookup();
+		MethodHandle constructor = constructor(entity, lookup);
+		if (constructor == null) {
+			return null;
+		}
+
+		final AerospikePersistentProperty idProperty = entity.getIdProperty();
+		final List<Slot> slots = new ArrayList<Slot>();
+		final Slot[] id = new Slot[1];
+		final boolean[] supported = { true };
+		entity.doWithProperties(new PropertyHandler<AerospikePersistentProperty>() {
+
+			@Override
+			public void doWithPersistentProperty(AerospikePersistentProperty property) {
+				Slot slot = supported[0] ? slot(property, lookup, converter) : null;
+				if (slot == null) {
+					supported[0] = false;
+				}
+				else if (property.equals(idProperty)) {
+					id[0] = slot;
+				}
+				else {
+					slots.add(slot);
+				}
+			}
+		});
+		if (!supported[0] || (idProperty != null && id[0] == null)) {
+			return null;
+		}
+		return new CompiledEntityMapper(entity, constructor, id[0], slots.toArray(new Slot[slots.size()]), converter,
+				simpleTypeHolder);
+	}
+
+	private static MethodHandle constructor(AerospikePersistentEntity<?> entity, MethodHandles.Lookup lookup) {
+		PreferredConstructor<?, AerospikePersistentProperty> preferred = entity.getPersistenceConstructor();
+		if (preferred == null || Modifier.isAbstract(entity.getType().getModifiers())) {
+			return null;
+		}
+		Constructor<?> constructor = preferred.getConstructor();
+		if (constructor.getParameterTypes().length != 0) {
+			return null;
+		}
+		try {
+			ReflectionUtils.makeAccessible(constructor);
+			return lookup.unreflectConstructor(constructor).asType(CONSTRUCTOR_TYPE);
+		}
+		catch (IllegalAccessException e) {
+			return null;
+		}
+	}
+
+	private static Slot slot(AerospikePersistentProperty property, MethodHandles.Lookup lookup,
+			MappingAerospikeConverter converter) {
+		if (!property.isWritable()) {
+			return null;
+		}
+		MethodHandle getter;
+		MethodHandle setter;
+		try {
+			Field field = property.getField();
+			if (!property.usePropertyAccess() && field != null) {
+				if (Modifier.isFinal(field.getModifiers())) {
+					return null;
+				}
+				ReflectionUtils.makeAccessible(field);
+				getter = lookup.unreflectGetter(field);
+				setter = lookup.unreflectSetter(field);
+			}
+			else {
+				Method read = property.getGetter();
+				Method write = property.getSetter();
+				if (read == null || write == null) {
+					return null;
+				}
+				ReflectionUtils.makeAccessible(read);
+				ReflectionUtils.makeAccessible(write);
+				getter = lookup.unreflect(read);
+				setter = lookup.unreflect(write);
+			}
+		}
+		catch (IllegalAccessException e) {
+			return null;
+		}
+		Class<?> type = property.getType();
+		if (Kind.isPrimitive(type) && property.getEncoding() != Encoding.COMPACT) {
+			return new Slot(property, getter.asType(MethodType.methodType(type, Object.class)),
+					setter.asType(MethodType.methodType(void.class, Object.class, type)), converter.getReadConverter(property));
+		}
+		return new Slot(property, getter.asType(GETTER_TYPE), setter.asType(SETTER_TYPE),
+				converter.getReadConverter(property));
+	}
+
+	/**
+	 * Creates an entity from an existing record.
+	 */
+	Object read(AerospikeData data) {
+		Object instance = invoke(constructor);
+		Map<String, Object> bins = data.getRecord().bins;
+		if (id != null) {
+			Object springId = data.getSpringId();
+			if (springId != null) {
+				id.set(instance, id.reader.convert(springId));
+			}
+		}
+		if (bins == null) {
+			return instance;
+		}
+		for (Slot slot : slots) {
+			Object value = bins.get(slot.binName);
+			if (value != null && !(slot.primitive && slot.setPrimitive(instance, value))) {
+				Object converted = slot.kind.read(value);
+				slot.set(instance, converted != null ? converted : convert(slot, value));
+			}
+		}
+		return instance;
+	}
+
+	/*
+	 * the conversion of the reflective read: nested entities are stored as
+	 * maps holding their id, everything else goes through the converter of
+	 * the property
+	 */
+	@SuppressWarnings("rawtypes")
+	private Object convert(Slot slot, Object value) {
+		if (slot.compact && value instanceof byte[]) {
+			return converter.getCompactCodec().read((byte[]) value, slot.property.getTypeInformation());
+		}
+		if (value instanceof Map && ((Map) value).containsKey(MappingAerospikeConverter.SPRING_ID_BIN)) {
+			AerospikeData aerospikeData = AerospikeData.convertToAerospikeData((Map) value);
+			return aerospikeData == null ? null : converter.read(slot.type, aerospikeData);
+		}
+		return slot.reader.convert(value);
+	}
+
+	/**
+	 * Writes the bins and metadata of an entity.
+	 */
+	void write(Object source, AerospikeData data, List<Bin> bins) {
+		if (id != null) {
+			Object value = id.get(source);
+			data.setID(value != null ? value.toString() : null);
+			data.addMetaDataItem(MappingAerospikeConverter.SPRING_ID_BIN, value);
+			data.addMetaDataItem(id.binName, id.type);
+			bins.add(new Bin(id.binName, value));
+		}
+		PersistentPropertyAccessor accessor = null;
+		for (Slot slot : slots) {
+			if (slot.primitive) {
+				data.addMetaDataItem(slot.binName, slot.type);
+				bins.add(slot.getPrimitive(source));
+				continue;
+			}
+			Object value = slot.get(source);
+			if (value != null && slot.compact) {
+				converter.writeCompactInternal(value, data, slot.property, bins);
+			}
+			else if (converter.encodesTemporal(value)) {
+				converter.writeTemporalInternal(value, data, slot.property, bins);
+			}
+			else if (value == null || slot.kind != Kind.OBJECT || simpleTypeHolder.isSimpleType(value.getClass())) {
+				data.addMetaDataItem(slot.binName, slot.type);
+				bins.add(new Bin(slot.binName, value));
+			}
+			else {
+				if (accessor == null) {
+					accessor = entity.getPropertyAccessor(source);
+				}
+				converter.writePropertyInternal(value, data, slot.property, accessor, bins);
+			}
+		}
+	}
+
+	private static Object invoke(MethodHandle constructor) {
+		try {
+			return constructor.invokeExact();
+		}
+		catch (RuntimeException e) {
+			throw e;
+		}
+		catch (Error e) {
+			throw e;
+		}
+		catch (Throwable e) {
+			throw new IllegalStateException("Cannot instantiate entity", e);
+		}
+	}
+
+	private static class Slot {
+
+		final AerospikePersistentProperty property;
+		final String binName;
+		final Class<?> type;
+		final Kind kind;
+		final boolean compact;
+		final Converter<Object, Object> reader;
+		final boolean primitive;
+		private final MethodHandle getter;
+		private final MethodHandle setter;
+
+		Slot(AerospikePersistentProperty property, MethodHandle getter, MethodHandle setter,
+				Converter<Object, Object> reader) {
+			this.property = property;
+			this.binName = ((CachingAerospikePersistentProperty) property).getFieldName();
+			this.type = property.getType();
+			this.compact = property.getEncoding() == Encoding.COMPACT;
+			this.kind = compact ? Kind.OBJECT : Kind.of(this.type);
+			this.reader = reader;
+			this.primitive = getter.type().returnType().isPrimitive();
+			this.getter = getter;
+			this.setter = setter;
+		}
+
+		Object get(Object instance) {
+			if (primitive) {
+				return getPrimitive(instance).value.getObject();
+			}
+			try {
+				return getter.invokeExact(instance);
+			}
+			catch (RuntimeException e) {
+				throw e;
+			}
+			catch (Error e) {
+				throw e;
+			}
+			catch (Throwable e) {
+				throw new IllegalStateException("Cannot read property " + property.getName(), e);
+			}
+		}
+
+		/*
+		 * the bin of a primitive property, written without boxing its value
+		 */
+		Bin getPrimitive(Object instance) {
+			try {
+				switch (kind) {
+					case INT:
+						return new Bin(binName, (int) getter.invokeExact(instance));
+					case SHORT:
+						/*
+						 * the client has no short value, the reflective write stores the boxed value the same way
+						 */
+						return new Bin(binName, (Object) Short.valueOf((short) getter.invokeExact(instance)));
+					case LONG:
+						return new Bin(binName, (long) getter.invokeExact(instance));
+					case DOUBLE:
+						return new Bin(binName, Value.get((double) getter.invokeExact(instance)));
+					case FLOAT:
+						return new Bin(binName, Value.get((float) getter.invokeExact(instance)));
+					default:
+						return new Bin(binName, Value.get((boolean) getter.invokeExact(instance)));
+				}
+			}
+			catch (RuntimeException e) {
+				throw e;
+			}
+			catch (Error e) {
+				throw e;
+			}
+			catch (Throwable e) {
+				throw new IllegalStateException("Cannot read property " + property.getName(), e);
+			}
+		}
+
+		/*
+		 * assigns a stored Long or Double to a primitive property without
+		 * boxing it again, false if the value needs to be converted,
+		 * including values out of the range of the property so that they
+		 * fail like in the reflective read
+		 */
+		boolean setPrimitive(Object instance, Object value) {
+			try {
+				switch (kind) {
+					case INT:
+						if (Kind.fits(value, Integer.MIN_VALUE, Integer.MAX_VALUE)) {
+							setter.invokeExact(instance, ((Number) value).intValue());
+							return true;
+						}
+						return false;
+					case SHORT:
+						if (Kind.fits(value, Short.MIN_VALUE, Short.MAX_VALUE)) {
+							setter.invokeExact(instance, ((Number) value).shortValue());
+							return true;
+						}
+						return false;
+					case LONG:
+						if (value instanceof Long) {
+							setter.invokeExact(instance, ((Long) value).longValue());
+							return true;
+						}
+						return false;
+					case DOUBLE:
+						if (value instanceof Double) {
+							setter.invokeExact(instance, ((Double) value).doubleValue());
+							return true;
+						}
+						return false;
+					case FLOAT:
+						if (value instanceof Double) {
+							setter.invokeExact(instance, ((Double) value).floatValue());
+							return true;
+						}
+						return false;
+					default:
+						if (value instanceof Long) {
+							setter.invokeExact(instance, ((Long) value).longValue() != 0L);
+							return true;
+						}
+						if (value instanceof Boolean) {
+							setter.invokeExact(instance, ((Boolean) value).booleanValue());
+							return true;
+						}
+						return false;
+				}
+			}
+			catch (RuntimeException e) {
+				throw e;
+			}
+			catch (Error e) {
+				throw e;
+			}
+			catch (Throwable e) {
+				throw new IllegalStateException("Cannot set property " + property.getName(), e);
+			}
+		}
+
+		void set(Object instance, Object value) {
+			if (value == null) {
+				return;
+			}
+			try {
+				if (!primitive) {
+					setter.invokeExact(instance, value);
+				}
+				else if (kind == Kind.INT) {
+					setter.invokeExact(instance, ((Number) value).intValue());
+				}
+				else if (kind == Kind.SHORT) {
+					setter.invokeExact(instance, ((Number) value).shortValue());
+				}
+				else if (kind == Kind.LONG) {
+					setter.invokeExact(instance, ((Number) value).longValue());
+				}
+				else if (kind == Kind.DOUBLE) {
+					setter.invokeExact(instance, ((Number) value).doubleValue());
+				}
+				else if (kind == Kind.FLOAT) {
+					setter.invokeExact(instance, ((Number) value).floatValue());
+				}
+				else {
+					setter.invokeExact(instance, ((Boolean) value).booleanValue());
+				}
+			}
+			catch (RuntimeException e) {
+				throw e;
+			}
+			catch (Error e) {
+				throw e;
+			}
+			catch (Throwable e) {
+				throw new IllegalStateException("Cannot set property " + property.getName(), e);
+			}
+		}
+	}
+
+	/**
+	 * The types assigned without conversion. {@link #read(Object)} returns {@literal null} when a stored value has
+	 * another type or does not fit the type.
+	 */
+	private enum Kind {
+
+		STRING {
+			@Override
+			Object read(Object value) {
+				return value instanceof String ? value : null;
+			}
+		},
+		LONG {
+			@Override
+			Object read(Object value) {
+				return value instanceof Long ? value : null;
+			}
+		},
+		INT {
+			@Override
+			Object read(Object value) {
+				return fits(value, Integer.MIN_VALUE, Integer.MAX_VALUE) ? (Object) ((Number) value).intValue() : null;
+			}
+		},
+		SHORT {
+			@Override
+			Object read(Object value) {
+				return fits(value, Short.MIN_VALUE, Short.MAX_VALUE) ? (Object) ((Number) value).shortValue() : null;
+			}
+		},
+		BYTE {
+			@Override
+			Object read(Object value) {
+				return fits(value, Byte.MIN_VALUE, Byte.MAX_VALUE) ? (Object) ((Number) value).byteValue() : null;
+			}
+		},
+		DOUBLE {
+			@Override
+			Object read(Object value) {
+				return value instanceof Double ? value : null;
+			}
+		},
+		FLOAT {
+			@Override
+			Object read(Object value) {
+				return value instanceof Double ? (Object) ((Double) value).floatValue() : null;
+			}
+		},
+		BOOLEAN {
+			@Override
+			Object read(Object value) {
+				if (value instanceof Boolean) {
+					return value;
+				}
+				return value instanceof Long ? (Object) (((Long) value).longValue() != 0L) : null;
+			}
+		},
+		OBJECT {
+			@Override
+			Object read(Object value) {
+				return null;
+			}
+		};
+
+		abstract Object read(Object value);
+
+		/**
+		 * Whether properties of the given type are assigned and written through primitive accessors.
+		 */
+		static boolean isPrimitive(Class<?> type) {
+			return type == int.class || type == short.class || type == long.class || type == double.class
+					|| type == float.class || type == boolean.class;
+		}
+
+		/**
+		 * Whether the value is an integer within the given range, so that narrowing it loses nothing. Other values are
+		 * left to the converter of the property, which rejects overflows.
+		 */
+		static boolean fits(Object value, long min, long max) {
+			if (!(value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)) {
+				return false;
+			}
+			long longValue = ((Number) value).longValue();
+			return longValue >= min && longValue <= max;
+		}
+
+		static Kind of(Class<?> type) {
+			Class<?> boxed = ClassUtils.resolvePrimitiveIfNecessary(type);
+			if (boxed == String.class) {
+				return STRING;
+			}
+			if (boxed == Long.class) {
+				return LONG;
+			}
+			if (boxed == Integer.class) {
+				return INT;
+			}
+			if (boxed == Short.class) {
+				return SHORT;
+			}
+			if (boxed == Byte.class) {
+				return BYTE;
+			}
+			if (boxed == Double.class) {
+				return DOUBLE;
+			}
+			if (boxed == Float.class) {
+				return FLOAT;
+			}
+			if (boxed == Boolean.class) {
+				return BOOLEAN;
+			}
+			return OBJECT;
+		}
+	}
+}
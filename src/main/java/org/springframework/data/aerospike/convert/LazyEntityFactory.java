@@ -0,0 +1,235 @@
+/**
+ *
+ */
+package org.springframework.data.aerospike.convert;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.cglib.proxy.Callback;
+import org.springframework.cglib.proxy.CallbackFilter;
+import org.springframework.cglib.proxy.Enhancer;
+import org.springframework.cglib.proxy.Factory;
+import org.springframework.cglib.proxy.MethodInterceptor;
+import org.springframework.cglib.proxy.MethodProxy;
+import org.springframework.cglib.proxy.NoOp;
+import org.springframework.data.aerospike.mapping.AerospikePersistentEntity;
+import org.springframework.data.aerospike.mapping.AerospikePersistentProperty;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mapping.PreferredConstructor;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.util.ReflectionUtils;
+
+import com.aerospike.client.Record;
+
+/**
+ * Creates entities that keep the bins of their record and convert each property on first access through its getter.
+ * Setting a property through its setter drops its bin, calling any other method of the entity converts all the
+ * remaining properties first. Fields read directly, bypassing the methods of the entity, are not converted.
+ * <p>
+ * Only entities with a constructor without arguments can be created lazily. The constructor runs before the
+ * interception is enabled, so properties without a bin keep the values of their field initializers as when read
+ * eagerly.
+ *
+ * @author Peter Milne
+ */
+final class LazyEntityFactory {
+
+	/*
+	 * leaves finalize() alone so that the entities are not finalizable
+	 */
+	private static final CallbackFilter FINALIZE_FILTER = new CallbackFilter() {
+
+		@Override
+		public int accept(Method method) {
+			return method.getName().equals("finalize") && method.getParameterTypes().length == 0 ? 1 : 0;
+		}
+	};
+
+	private final MappingAerospikeConverter converter;
+	private final ConcurrentMap<Class<?>, LazyType> types = new ConcurrentHashMap<Class<?>, LazyType>();
+
+	LazyEntityFactory(MappingAerospikeConverter converter) {
+		this.converter = converter;
+	}
+
+	/**
+	 * Creates the entity of an existing record.
+	 *
+	 * @return the entity, {@literal null} if its type cannot be created lazily.
+	 */
+	Object create(AerospikePersistentEntity<?> entity, AerospikeData data) {
+		LazyType type = lazyType(entity);
+		if (type.constructor == null) {
+			return null;
+		}
+		Object instance = BeanUtils.instantiateClass(type.constructor);
+		PersistentPropertyAccessor accessor = entity.getPropertyAccessor(instance);
+		AerospikePersistentProperty idProperty = entity.getIdProperty();
+		if (idProperty != null && data.getSpringId() != null) {
+			accessor.setProperty(idProperty, converter.getReadConverter(idProperty).convert(data.getSpringId()));
+		}
+		((Factory) instance).setCallbacks(new Callback[] { new Loader(type, data.getRecord(), accessor), NoOp.INSTANCE });
+		return instance;
+	}
+
+	/**
+	 * Converts the remaining properties of an entity created by this factory, does nothing for other objects.
+	 */
+	static void load(Object instance) {
+		if (instance instanceof Factory) {
+			Callback callback = ((Factory) instance).getCallback(0);
+			if (callback instanceof Loader) {
+				((Loader) callback).loadAll();
+			}
+		}
+	}
+
+	private LazyType lazyType(AerospikePersistentEntity<?> entity) {
+		LazyType type = types.get(entity.getType());
+		if (type == null) {
+			type = new LazyType(entity);
+			LazyType existing = types.putIfAbsent(entity.getType(), type);
+			type = existing != null ? existing : type;
+		}
+		return type;
+	}
+
+	/**
+	 * The constructor of the proxy class of an entity type and the properties behind its accessors.
+	 */
+	private static class LazyType {
+
+		final Constructor<?> constructor;
+		final AerospikePersistentProperty[] properties;
+		final Map<Method, Integer> getters = new HashMap<Method, Integer>();
+		final Map<Method, Integer> setters = new HashMap<Method, Integer>();
+
+		LazyType(AerospikePersistentEntity<?> entity) {
+			final List<AerospikePersistentProperty> properties = new ArrayList<AerospikePersistentProperty>();
+			entity.doWithProperties(new PropertyHandler<AerospikePersistentProperty>() {
+
+				@Override
+				public void doWithPersistentProperty(AerospikePersistentProperty property) {
+					if (!property.isIdProperty()) {
+						properties.add(property);
+					}
+				}
+			});
+			this.properties = properties.toArray(new AerospikePersistentProperty[properties.size()]);
+			for (int i = 0; i < this.properties.length; i++) {
+				if (this.properties[i].getGetter() != null) {
+					getters.put(this.properties[i].getGetter(), i);
+				}
+				if (this.properties[i].getSetter() != null) {
+					setters.put(this.properties[i].getSetter(), i);
+				}
+			}
+			this.constructor = proxyConstructor(entity);
+		}
+
+		private static Constructor<?> proxyConstructor(AerospikePersistentEntity<?> entity) {
+			Class<?> type = entity.getType();
+			PreferredConstructor<?, AerospikePersistentProperty> constructor = entity.getPersistenceConstructor();
+			if (Modifier.isFinal(type.getModifiers()) || Modifier.isAbstract(type.getModifiers()) || constructor == null
+					|| constructor.getConstructor().getParameterTypes().length != 0) {
+				return null;
+			}
+			try {
+				Enhancer enhancer = new Enhancer();
+				enhancer.setSuperclass(type);
+				enhancer.setClassLoader(type.getClassLoader());
+				enhancer.setCallbackTypes(new Class<?>[] { MethodInterceptor.class, NoOp.class });
+				enhancer.setCallbackFilter(FINALIZE_FILTER);
+				enhancer.setUseCache(false);
+				Constructor<?> proxyConstructor = enhancer.createClass().getDeclaredConstructor();
+				ReflectionUtils.makeAccessible(proxyConstructor);
+				return proxyConstructor;
+			}
+			catch (NoSuchMethodException e) {
+				return null;
+			}
+			catch (RuntimeException e) {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Converts the properties of one entity as they are accessed.
+	 */
+	private class Loader implements MethodInterceptor {
+
+		private final LazyType type;
+		private final PersistentPropertyAccessor accessor;
+		private Record record;
+		private boolean[] loaded;
+		private volatile boolean complete;
+
+		Loader(LazyType type, Record record, PersistentPropertyAccessor accessor) {
+			this.type = type;
+			this.record = record;
+			this.accessor = accessor;
+			this.loaded = new boolean[type.properties.length];
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.springframework.cglib.proxy.MethodInterceptor#intercept(java.lang.Object, java.lang.reflect.Method, java.lang.Object[], org.springframework.cglib.proxy.MethodProxy)
+		 */
+		@Override
+		public Object intercept(Object instance, Method method, Object[] args, MethodProxy proxy) throws Throwable {
+			if (!complete) {
+				Integer index = type.getters.get(method);
+				if (index != null) {
+					load(index);
+				}
+				else if ((index = type.setters.get(method)) != null) {
+					skip(index);
+				}
+				else {
+					loadAll();
+				}
+			}
+			return proxy.invokeSuper(instance, args);
+		}
+
+		synchronized void loadAll() {
+			if (complete) {
+				return;
+			}
+			for (int i = 0; i < loaded.length; i++) {
+				load(i);
+			}
+			complete = true;
+			record = null;
+			loaded = null;
+		}
+
+		private synchronized void load(int index) {
+			if (complete || loaded[index]) {
+				return;
+			}
+			loaded[index] = true;
+			AerospikePersistentProperty property = type.properties[index];
+			Object value = converter.readPropertyValue(property, record);
+			if (value != null) {
+				accessor.setProperty(property, value);
+			}
+		}
+
+		private synchronized void skip(int index) {
+			if (!complete) {
+				loaded[index] = true;
+			}
+		}
+	}
+}
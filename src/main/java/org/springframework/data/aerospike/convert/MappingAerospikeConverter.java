@@ -21,8 +21,7 @@ import com.aerospike.client.Value;
 import com.aerospike.client.Value.MapValue;
 import org.springframework.context.ApplicationContext;
 import org.springframework.core.convert.ConversionService;
-import org.springframework.core.convert.TypeDescriptor;
-import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.core.convert.converter.Converter;
 import org.springframework.data.aerospike.mapping.*;
 import org.springframework.data.convert.*;
 import org.springframework.data.mapping.PersistentPropertyAccessor;
@@ -39,7 +38,11 @@ import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 
+import java.lang.reflect.Array;
+import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * An implementation of {@link AerospikeConverter} to read domain objects from {@link AerospikeData} and write domain
@@ -51,14 +54,31 @@ public class MappingAerospikeConverter implements AerospikeConverter {
 
 	private final AerospikeMappingContext mappingContext;
 	private final SimpleTypeHolder simpleTypeHolder;
-	private final ConversionService conversionService;
+	private final PropertyConverter.Lookup conversionService;
 	private final EntityInstantiators entityInstantiators;
+	private final TypeAliasRegistry typeAliases;
 	private final TypeMapper<AerospikeData> typeMapper;
+	private final CompactCodec compactCodec;
+	private final LazyEntityFactory lazyEntities;
+	private final TemporalConverter temporalConverter;
 	public static final String SPRING_ID_BIN = "SpringID";
 
 	protected ApplicationContext applicationContext;
 	protected final SpelExpressionParser spelExpressionParser = new SpelExpressionParser();
 
+	private boolean compiledMappers;
+	private boolean omitNonPolymorphicTypeHints;
+	private final ConcurrentMap<Class<?>, CompiledEntityMapper> mappers = new ConcurrentHashMap<Class<?>, CompiledEntityMapper>();
+	private final Set<Class<?>> uncompiledTypes = Collections.newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
+	private final ConcurrentMap<Class<?>, Integer> binCounts = new ConcurrentHashMap<Class<?>, Integer>();
+	private final ThreadLocal<ArrayList<Bin>> binBuffers = new ThreadLocal<ArrayList<Bin>>() {
+
+		@Override
+		protected ArrayList<Bin> initialValue() {
+			return new ArrayList<Bin>();
+		}
+	};
+
 	/**
 	 * Creates a new {@link MappingAerospikeConverter}.
 	 */
@@ -66,7 +86,7 @@ public class MappingAerospikeConverter implements AerospikeConverter {
 	public MappingAerospikeConverter() {
 		this.mappingContext = new AerospikeMappingContext();
 
-		DefaultConversionService defaultConversionService = new DefaultConversionService();
+		PropertyConverter.Lookup defaultConversionService = new PropertyConverter.Lookup();
 		defaultConversionService.addConverter(new LongToBoolean());
 
 		defaultConversionService.addConverter(new StringToLocalDateTimeConverter());
@@ -75,12 +95,135 @@ public class MappingAerospikeConverter implements AerospikeConverter {
 		defaultConversionService.addConverterFactory(new EnumToStringConverterFactory());
 		defaultConversionService.addConverterFactory(new StringToEnumConverterFactory());
 
+		this.temporalConverter = new TemporalConverter();
+		defaultConversionService.addConverter(temporalConverter);
+
 		this.conversionService = defaultConversionService;
 		this.entityInstantiators = new EntityInstantiators();
 		this.simpleTypeHolder = AerospikeSimpleTypes.HOLDER;
 
-		this.typeMapper = new DefaultTypeMapper<AerospikeData>(AerospikeTypeAliasAccessor.INSTANCE, mappingContext,
-				Arrays.asList(new SimpleTypeInformationMapper()));
+		this.typeAliases = new TypeAliasRegistry(Arrays.asList(new MappingContextTypeInformationMapper(mappingContext),
+				new SimpleTypeInformationMapper()));
+		this.typeMapper = new DefaultTypeMapper<AerospikeData>(AerospikeTypeAliasAccessor.INSTANCE,
+				Arrays.asList(typeAliases));
+		this.compactCodec = new CompactCodec(mappingContext, conversionService, entityInstantiators, simpleTypeHolder);
+		this.lazyEntities = new LazyEntityFactory(this);
+	}
+
+	/**
+	 * Reads and writes entities through mappers bound once per entity type to its constructor and properties.
+	 * Entities that need constructor arguments, or have final fields or properties without accessors, keep being
+	 * mapped reflectively.
+	 *
+	 * @param compiledMappers whether to use the compiled mappers, disabled by default.
+	 */
+	public void setCompiledMappers(boolean compiledMappers) {
+		this.compiledMappers = compiledMappers;
+	}
+
+	/**
+	 * Stores the type of entities under a short alias instead of their class name. Aliases declared with
+	 * {@link org.springframework.data.annotation.TypeAlias} are used without being registered.
+	 *
+	 * @param type the type of the entities.
+	 * @param alias the alias, must not be used for another type.
+	 */
+	public void registerTypeAlias(Class<?> type, String alias) {
+		typeAliases.register(type, alias);
+	}
+
+	/**
+	 * Configures how {@link java.time.LocalDateTime}, {@link java.time.Instant}, {@link java.time.ZonedDateTime} and
+	 * {@link Date} properties are written. {@link java.time.LocalDateTime} values written as strings keep being read
+	 * after switching to an epoch encoding.
+	 *
+	 * @param temporalEncoding must not be {@literal null}, defaults to {@link TemporalEncoding#STRING}.
+	 */
+	public void setTemporalEncoding(TemporalEncoding temporalEncoding) {
+		Assert.notNull(temporalEncoding, "Temporal encoding must not be null!");
+		this.temporalConverter.setEncoding(temporalEncoding);
+	}
+
+	public TemporalEncoding getTemporalEncoding() {
+		return temporalConverter.getEncoding();
+	}
+
+	/**
+	 * Skips the type hint of entities whose type is known when they are read: final classes, and nested entities of
+	 * exactly the declared type of their property. Such records can only be read as that type.
+	 *
+	 * @param omitNonPolymorphicTypeHints whether to skip the type hints, disabled by default.
+	 */
+	public void setOmitNonPolymorphicTypeHints(boolean omitNonPolymorphicTypeHints) {
+		this.omitNonPolymorphicTypeHints = omitNonPolymorphicTypeHints;
+	}
+
+	/*
+	 * writes the type hint unless the type is known on read
+	 */
+	private void writeType(TypeInformation<?> type, Class<?> declaredType, AerospikeData data) {
+		if (omitNonPolymorphicTypeHints
+				&& (Modifier.isFinal(type.getType().getModifiers()) || type.getType().equals(declaredType))) {
+			return;
+		}
+		typeMapper.writeType(type, data);
+	}
+
+	/**
+	 * Builds the mapping metadata of the given entity types and of the entities they reference, together with the
+	 * converters of their properties, the compiled mappers if enabled and their type aliases, so that the first reads
+	 * and writes of the entities do not pay for it.
+	 *
+	 * @param types the entity types, must not be {@literal null}.
+	 */
+	public void warmUp(Collection<Class<?>> types) {
+		Assert.notNull(types, "Types must not be null!");
+
+		for (Class<?> type : types) {
+			mappingContext.getPersistentEntity(type);
+		}
+		for (AerospikePersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+			if (simpleTypeHolder.isSimpleType(entity.getType())) {
+				continue;
+			}
+			entity.doWithProperties(new PropertyHandler<AerospikePersistentProperty>() {
+
+				@Override
+				public void doWithPersistentProperty(AerospikePersistentProperty persistentProperty) {
+					CachingAerospikePersistentProperty property = (CachingAerospikePersistentProperty) persistentProperty;
+					property.getFieldName();
+					property.isIdProperty();
+					property.isAssociation();
+					property.usePropertyAccess();
+					property.getEncoding();
+					PropertyConverter.forReading(property, conversionService);
+					PropertyConverter.forWriting(property, conversionService);
+				}
+			});
+			compiledMapper(entity);
+			typeAliases.resolveTypeFrom(typeAliases.createAliasFor(entity.getTypeInformation()));
+		}
+	}
+
+	/*
+	 * the mapper of the entity, or null if it is mapped reflectively
+	 */
+	private CompiledEntityMapper compiledMapper(AerospikePersistentEntity<?> entity) {
+		if (!compiledMappers) {
+			return null;
+		}
+		Class<?> type = entity.getType();
+		CompiledEntityMapper mapper = mappers.get(type);
+		if (mapper != null || uncompiledTypes.contains(type)) {
+			return mapper;
+		}
+		mapper = CompiledEntityMapper.of(entity, this, simpleTypeHolder);
+		if (mapper == null) {
+			uncompiledTypes.add(type);
+			return null;
+		}
+		CompiledEntityMapper existing = mappers.putIfAbsent(type, mapper);
+		return existing != null ? existing : mapper;
 	}
 
 	/*
@@ -106,15 +249,34 @@ public class MappingAerospikeConverter implements AerospikeConverter {
 	 * @see org.springframework.data.convert.EntityReader#read(java.lang.Class, S)
 	 */
 	@Override
-	@SuppressWarnings("unchecked")
 	public <R> R read(Class<R> type, final AerospikeData data) {
+		return read(type, data, null);
+	}
+
+	/**
+	 * Reads only the given properties of an entity, the record is expected to hold just their bins. Constructor
+	 * parameters outside of the projection are passed as {@literal null} or the default of their primitive type.
+	 *
+	 * @param type the type of the entity.
+	 * @param data the record to read.
+	 * @param properties names of the properties to populate, {@literal null} for all of them.
+	 * @return the entity or {@literal null} if the record does not exist.
+	 */
+	@SuppressWarnings("unchecked")
+	public <R> R read(Class<R> type, final AerospikeData data, final Collection<String> properties) {
 
 		TypeInformation<?> readType = typeMapper.readType(data, ClassTypeInformation.from(type));
 		TypeInformation<?> typeToUse = type.isAssignableFrom(readType.getType()) ? readType : ClassTypeInformation
 				.from(type);
 
 		final AerospikePersistentEntity<?> entity = mappingContext.getPersistentEntity(typeToUse);
-		final RecordReadingPropertyValueProvider recordReadingPropertyValueProvider = new RecordReadingPropertyValueProvider(data.getRecord(), getConversionService(), simpleTypeHolder);
+		if (properties == null) {
+			CompiledEntityMapper mapper = compiledMapper(entity);
+			if (mapper != null) {
+				return data.getRecord() == null ? null : (R) mapper.read(data);
+			}
+		}
+		final RecordReadingPropertyValueProvider recordReadingPropertyValueProvider = new RecordReadingPropertyValueProvider(data.getRecord(), conversionService, compactCodec, properties != null);
 
 		EntityInstantiator instantiator = entityInstantiators.getInstantiatorFor(entity);
 		Object instance = instantiator.createInstance(entity, new PersistentEntityParameterValueProvider<AerospikePersistentProperty>(entity, recordReadingPropertyValueProvider, null));
@@ -127,6 +289,9 @@ public class MappingAerospikeConverter implements AerospikeConverter {
 				@SuppressWarnings("rawtypes")
 				@Override
 				public void doWithPersistentProperty(AerospikePersistentProperty persistentProperty) {
+					if (properties != null && !persistentProperty.isIdProperty() && !properties.contains(persistentProperty.getName())) {
+						return;
+					}
 					PreferredConstructor<?, AerospikePersistentProperty> constructor = entity.getPersistenceConstructor();
 					Record record = data.getRecord();
 					if (record == null) return;
@@ -167,6 +332,40 @@ public class MappingAerospikeConverter implements AerospikeConverter {
 		return (R) instance;
 	}
 
+	/**
+	 * Reads an entity converting each of its properties when it is first accessed through its getter, see
+	 * {@link LazyEntityFactory}. Entities without a constructor without arguments are read right away.
+	 *
+	 * @param type the type of the entity.
+	 * @param data the record to read.
+	 * @return the entity or {@literal null} if the record does not exist.
+	 */
+	@SuppressWarnings("unchecked")
+	public <R> R readLazily(Class<R> type, AerospikeData data) {
+		if (data.getRecord() == null) {
+			return null;
+		}
+		TypeInformation<?> readType = typeMapper.readType(data, ClassTypeInformation.from(type));
+		TypeInformation<?> typeToUse = type.isAssignableFrom(readType.getType()) ? readType : ClassTypeInformation
+				.from(type);
+
+		Object instance = lazyEntities.create(mappingContext.getPersistentEntity(typeToUse), data);
+		return instance != null ? (R) instance : read(type, data);
+	}
+
+	/*
+	 * the value of a single property of an entity read lazily
+	 */
+	@SuppressWarnings("rawtypes")
+	Object readPropertyValue(AerospikePersistentProperty property, Record record) {
+		Object value = record.getValue(((CachingAerospikePersistentProperty) property).getFieldName());
+		if (value instanceof HashMap<?, ?> && ((Map) value).containsKey(MappingAerospikeConverter.SPRING_ID_BIN)) {
+			AerospikeData aerospikeData = AerospikeData.convertToAerospikeData((Map) value);
+			return aerospikeData == null ? null : read(property.getType(), aerospikeData);
+		}
+		return new RecordReadingPropertyValueProvider(record, conversionService, compactCodec, false).getPropertyValue(property);
+	}
+
 	@SuppressWarnings("unchecked")
 	public <R> R read(Object instance, final AerospikeData data) {
 		Class<R> type = (Class<R>) instance.getClass();
@@ -175,7 +374,7 @@ public class MappingAerospikeConverter implements AerospikeConverter {
 				.from(type);
 
 		final AerospikePersistentEntity<?> entity = mappingContext.getPersistentEntity(typeToUse);
-		final RecordReadingPropertyValueProvider recordReadingPropertyValueProvider = new RecordReadingPropertyValueProvider(data.getRecord(), getConversionService(), simpleTypeHolder);
+		final RecordReadingPropertyValueProvider recordReadingPropertyValueProvider = new RecordReadingPropertyValueProvider(data.getRecord(), conversionService, compactCodec, false);
 
 		if (data.getRecord() != null) {
 
@@ -236,6 +435,55 @@ public class MappingAerospikeConverter implements AerospikeConverter {
 		data.addMetaDataToBin();
 	}
 
+	/**
+	 * Creates the {@link AerospikeData} to pass to {@link #writeBins(Object, AerospikeData)}, with a metadata map sized
+	 * by the number of bins the last entity of the same type had and without a list of bins.
+	 *
+	 * @param namespace the namespace of the key.
+	 * @param source the entity to write, must not be {@literal null}.
+	 * @return the data to write the entity into.
+	 */
+	public AerospikeData forWrite(String namespace, Object source) {
+		Assert.notNull(source, "Source must not be null!");
+		Integer binCount = binCounts.get(source.getClass());
+		return binCount != null ? AerospikeData.forWrite(namespace, binCount) : AerospikeData.forWrite(namespace);
+	}
+
+	/**
+	 * Writes an entity into a correctly sized array of bins instead of collecting them in the given
+	 * {@link AerospikeData}, which only receives the key, set name and metadata. The bins are gathered in a buffer
+	 * reused by the calling thread, so a write with data from {@link #forWrite(String, Object)} allocates the bins,
+	 * their array and the metadata map only.
+	 *
+	 * @param source the entity to write, must not be {@literal null}.
+	 * @param data must not be {@literal null}.
+	 * @return the bins of the entity including the metadata bin.
+	 */
+	public Bin[] writeBins(Object source, AerospikeData data) {
+		Assert.notNull(source, "Source must not be null!");
+		Class<?> entityType = source.getClass();
+		Integer binCount = binCounts.get(entityType);
+
+		ArrayList<Bin> buffer = binBuffers.get();
+		if (!buffer.isEmpty()) {
+			/*
+			 * a conversion writing another entity on the same thread
+			 */
+			buffer = new ArrayList<Bin>();
+		}
+		try {
+			writeInternal(source, data, ClassTypeInformation.from(entityType), buffer);
+			buffer.add(data.getMetaData().getAerospikeMetaDataBin());
+			if (binCount == null || binCount != buffer.size()) {
+				binCounts.put(entityType, buffer.size());
+			}
+			return buffer.toArray(new Bin[buffer.size()]);
+		}
+		finally {
+			buffer.clear();
+		}
+	}
+
 	/**
 	 * @param obj
 	 * @param data
@@ -264,7 +512,7 @@ public class MappingAerospikeConverter implements AerospikeConverter {
 
 		writeInternal(obj, data, entity, bins);
 
-		typeMapper.writeType(entity.getTypeInformation(), data);
+		writeType(entity.getTypeInformation(), null, data);
 
 		if (data.getSetName() == null) {
 			data.setSetName(entity.getSetName());
@@ -286,6 +534,14 @@ public class MappingAerospikeConverter implements AerospikeConverter {
 			throw new MappingException("No mapping metadata found for entity of type " + obj.getClass().getName());
 		}
 
+		LazyEntityFactory.load(obj);
+
+		CompiledEntityMapper mapper = compiledMapper(entity);
+		if (mapper != null) {
+			mapper.write(obj, data, bins);
+			return;
+		}
+
 		final PersistentPropertyAccessor accessor = entity.getPropertyAccessor(obj);
 		final CachingAerospikePersistentProperty idProperty = (CachingAerospikePersistentProperty) entity.getIdProperty();
 		if (idProperty != null) {
@@ -306,7 +562,11 @@ public class MappingAerospikeConverter implements AerospikeConverter {
 
 				Object propertyObj = accessor.getProperty(persistentProperty);
 
-				if (propertyObj == null || simpleTypeHolder.isSimpleType(propertyObj.getClass())) {
+				if (propertyObj != null && persistentProperty.getEncoding() == Encoding.COMPACT) {
+					writeCompactInternal(propertyObj, data, persistentProperty, bins);
+				} else if (encodesTemporal(propertyObj)) {
+					writeTemporalInternal(propertyObj, data, persistentProperty, bins);
+				} else if (propertyObj == null || simpleTypeHolder.isSimpleType(propertyObj.getClass())) {
 					writeSimpleInternal(propertyObj, data, persistentProperty, accessor, bins);
 				} else {
 					writePropertyInternal(propertyObj, data, persistentProperty, accessor, bins);
@@ -343,16 +603,18 @@ public class MappingAerospikeConverter implements AerospikeConverter {
 			data.addMetaDataItem(fieldName, propertyObj.getClass());
 			Value value = new MapValue((Map<?, ?>) accessor.getProperty(persistentProperty));
 			bins.add(new Bin(fieldName, value));
-		} else if (conversionService.canConvert(propertyObj.getClass(), String.class)) {
-			Value value = new Value.StringValue(conversionService.convert(propertyObj, String.class));
-			bins.add(new Bin(fieldName, value));
 		} else {
+			Object converted = PropertyConverter.forWriting((CachingAerospikePersistentProperty) persistentProperty, conversionService).convert(propertyObj);
+			if (converted != propertyObj) {
+				bins.add(new Bin(fieldName, new Value.StringValue((String) converted)));
+				return;
+			}
 			AerospikePersistentEntity<?> childEntity = mappingContext.getPersistentEntity(propertyObj.getClass());
 			AerospikeData childData = AerospikeData.forWrite(data.getNamespace());
 			final List<Bin> childBins = new ArrayList<Bin>();
 			writeInternal(propertyObj, childData, childEntity, childBins);
 
-			typeMapper.writeType(childEntity.getTypeInformation(), childData);
+			writeType(childEntity.getTypeInformation(), persistentProperty.getType(), childData);
 			if (data.getSetName() == null) {
 				data.setSetName(childEntity.getSetName());
 			}
@@ -406,6 +668,75 @@ public class MappingAerospikeConverter implements AerospikeConverter {
 
 	}
 
+	/**
+	 * Writes the value of an {@link Encoding#COMPACT} property as a single blob.
+	 *
+	 * @param propertyObj must not be {@literal null}.
+	 * @param data
+	 * @param persistentProperty
+	 * @param bins
+	 */
+	protected void writeCompactInternal(Object propertyObj, AerospikeData data, AerospikePersistentProperty persistentProperty, List<Bin> bins) {
+		String fieldName = ((CachingAerospikePersistentProperty) persistentProperty).getFieldName();
+		data.addMetaDataItem(fieldName, persistentProperty.getType());
+		bins.add(new Bin(fieldName, compactCodec.encode(propertyObj)));
+	}
+
+	/*
+	 * whether the value is written as an epoch number
+	 */
+	boolean encodesTemporal(Object propertyObj) {
+		return propertyObj != null && temporalConverter.getEncoding() != TemporalEncoding.STRING
+				&& TemporalEncoding.isTemporal(propertyObj.getClass());
+	}
+
+	/**
+	 * Writes a temporal value as an integer in the configured {@link TemporalEncoding}.
+	 *
+	 * @param propertyObj must not be {@literal null}.
+	 * @param data
+	 * @param persistentProperty
+	 * @param bins
+	 */
+	protected void writeTemporalInternal(Object propertyObj, AerospikeData data, AerospikePersistentProperty persistentProperty, List<Bin> bins) {
+		String fieldName = ((CachingAerospikePersistentProperty) persistentProperty).getFieldName();
+		data.addMetaDataItem(fieldName, persistentProperty.getType());
+		bins.add(new Bin(fieldName, temporalConverter.getEncoding().encode(propertyObj)));
+	}
+
+	/**
+	 * Writes a value into a single blob in the encoding of {@link Encoding#COMPACT} properties.
+	 *
+	 * @param value a simple value, collection, map or entity, can be {@literal null}.
+	 * @return the blob.
+	 */
+	public byte[] writeCompact(Object value) {
+		return compactCodec.encode(value);
+	}
+
+	/**
+	 * Reads a blob written by {@link #writeCompact(Object)}, converting simple values to the given type.
+	 *
+	 * @param blob must not be {@literal null}.
+	 * @param type the type to read, {@link Object} to read the types written.
+	 */
+	@SuppressWarnings("unchecked")
+	public <R> R readCompact(byte[] blob, Class<R> type) {
+		Assert.notNull(blob, "Blob must not be null!");
+		return (R) compactCodec.decode(blob, ClassTypeInformation.from(type));
+	}
+
+	CompactCodec getCompactCodec() {
+		return compactCodec;
+	}
+
+	/*
+	 * the converter of stored values to the type of the property
+	 */
+	Converter<Object, Object> getReadConverter(AerospikePersistentProperty property) {
+		return PropertyConverter.forReading((CachingAerospikePersistentProperty) property, conversionService);
+	}
+
 	/**
 	 * @param collection
 	 * @param type
@@ -432,7 +763,7 @@ public class MappingAerospikeConverter implements AerospikeConverter {
 				final List<Bin> childBins = new ArrayList<Bin>();
 				writeInternal(element, childData, entity, childBins);
 
-				typeMapper.writeType(entity.getTypeInformation(), childData);
+				writeType(entity.getTypeInformation(), null, childData);
 				childData.add(childBins);
 				childData.addMetaDataToBin();
 				map = AerospikeData.convertToMap(childData, simpleTypeHolder);
@@ -459,20 +790,23 @@ public class MappingAerospikeConverter implements AerospikeConverter {
 	private static class RecordReadingPropertyValueProvider implements PropertyValueProvider<AerospikePersistentProperty> {
 
 		private final Record record;
-		private final ConversionService conversionService;
-		@SuppressWarnings("unused")
-		private final SimpleTypeHolder simpleTypeHolder;
+		private final PropertyConverter.Lookup conversionService;
+		private final CompactCodec compactCodec;
+		private final boolean defaultPrimitives;
 
 		/**
 		 * Creates a new {@link RecordReadingPropertyValueProvider} for the given {@link Record}.
 		 *
 		 * @param record			must not be {@literal null}.
 		 * @param conversionService
+		 * @param compactCodec      decodes the bins of {@link Encoding#COMPACT} properties.
+		 * @param defaultPrimitives whether missing bins of primitive properties read as the default of their type.
 		 */
-		public RecordReadingPropertyValueProvider(Record record, ConversionService conversionService, SimpleTypeHolder simpleTypeHolder) {
+		public RecordReadingPropertyValueProvider(Record record, PropertyConverter.Lookup conversionService, CompactCodec compactCodec, boolean defaultPrimitives) {
 			this.record = record;
 			this.conversionService = conversionService;
-			this.simpleTypeHolder = simpleTypeHolder;
+			this.compactCodec = compactCodec;
+			this.defaultPrimitives = defaultPrimitives;
 		}
 
 		/*
@@ -486,8 +820,14 @@ public class MappingAerospikeConverter implements AerospikeConverter {
 			if (record == null) return value;
 			Object propertyObject = record.getValue(((CachingAerospikePersistentProperty) property).getFieldName());
 
-			if (propertyObject != null) {
-				value = (T) conversionService.convert(propertyObject, TypeDescriptor.valueOf(propertyObject.getClass()), TypeDescriptor.valueOf(property.getType()));
+			if (propertyObject instanceof byte[] && property.getEncoding() == Encoding.COMPACT) {
+				value = (T) compactCodec.read((byte[]) propertyObject, property.getTypeInformation());
+			}
+			else if (propertyObject != null) {
+				value = (T) PropertyConverter.forReading((CachingAerospikePersistentProperty) property, conversionService).convert(propertyObject);
+			}
+			else if (defaultPrimitives && property.getType().isPrimitive()) {
+				value = (T) Array.get(Array.newInstance(property.getType(), 1), 0);
 			}
 			return value;
 		}
@@ -501,7 +841,7 @@ public class MappingAerospikeConverter implements AerospikeConverter {
 			T value = null;
 			if (record == null) return value;
 			if (propertyObject != null) {
-				value = (T) conversionService.convert(propertyObject, TypeDescriptor.valueOf(propertyObject.getClass()), TypeDescriptor.valueOf(property.getType()));
+				value = (T) PropertyConverter.forReading((CachingAerospikePersistentProperty) property, conversionService).convert(propertyObject);
 			}
 			return value;
 		}
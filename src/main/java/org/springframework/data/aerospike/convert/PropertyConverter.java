@@ -0,0 +1,119 @@
+/**
+ *
+ */
+package org.springframework.data.aerospike.convert;
+
+import org.springframework.core.convert.ConversionFailedException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.convert.converter.GenericConverter;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.aerospike.mapping.CachingAerospikePersistentProperty;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Converts the values of a single property to a fixed target type. Values that already are of the target type are
+ * returned as they are, the converter of any other type is looked up once and kept as long as the values are of that
+ * type, which they almost always are for the bins of one property.
+ *
+ * @author Peter Milne
+ */
+final class PropertyConverter implements Converter<Object, Object> {
+
+	private final Lookup lookup;
+	private final TypeDescriptor targetType;
+	private final Class<?> targetClass;
+	private final boolean convertibleOnly;
+	private volatile Resolved resolved;
+
+	private PropertyConverter(Lookup lookup, TypeDescriptor targetType, boolean convertibleOnly) {
+		this.lookup = lookup;
+		this.targetType = targetType;
+		this.targetClass = ClassUtils.resolvePrimitiveIfNecessary(targetType.getType());
+		this.convertibleOnly = convertibleOnly;
+	}
+
+	/**
+	 * The converter of stored values to the type of the property, created on first use.
+	 */
+	static Converter<Object, Object> forReading(CachingAerospikePersistentProperty property, Lookup lookup) {
+		Converter<Object, Object> converter = property.getReadConverter();
+		if (converter == null) {
+			converter = new PropertyConverter(lookup, TypeDescriptor.valueOf(property.getType()), false);
+			property.setReadConverter(converter);
+		}
+		return converter;
+	}
+
+	/**
+	 * The converter of values of the property to strings, created on first use. Values that cannot be converted are
+	 * returned as they are.
+	 */
+	static Converter<Object, Object> forWriting(CachingAerospikePersistentProperty property, Lookup lookup) {
+		Converter<Object, Object> converter = property.getWriteConverter();
+		if (converter == null) {
+			converter = new PropertyConverter(lookup, TypeDescriptor.valueOf(String.class), true);
+			property.setWriteConverter(converter);
+		}
+		return converter;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.core.convert.converter.Converter#convert(java.lang.Object)
+	 */
+	@Override
+	public Object convert(Object source) {
+		if (source == null || targetClass.isInstance(source)) {
+			return source;
+		}
+		Resolved resolved = this.resolved;
+		if (resolved == null || resolved.sourceType.getType() != source.getClass()) {
+			TypeDescriptor sourceType = TypeDescriptor.valueOf(source.getClass());
+			resolved = new Resolved(sourceType, lookup.getConverter(sourceType, targetType));
+			this.resolved = resolved;
+		}
+		if (resolved.converter == null) {
+			if (convertibleOnly) {
+				return source;
+			}
+			return lookup.convert(source, resolved.sourceType, targetType);
+		}
+		try {
+			return resolved.converter.convert(source, resolved.sourceType, targetType);
+		}
+		catch (ConversionFailedException e) {
+			throw e;
+		}
+		catch (RuntimeException e) {
+			throw new ConversionFailedException(resolved.sourceType, targetType, source, e);
+		}
+	}
+
+	private static final class Resolved {
+
+		final TypeDescriptor sourceType;
+		final GenericConverter converter;
+
+		Resolved(TypeDescriptor sourceType, GenericConverter converter) {
+			this.sourceType = sourceType;
+			this.converter = converter;
+		}
+	}
+
+	/**
+	 * {@link ConversionService} exposing the converter it uses for a pair of types.
+	 */
+	static class Lookup extends DefaultConversionService {
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.springframework.core.convert.support.GenericConversionService#getConverter(org.springframework.core.convert.TypeDescriptor, org.springframework.core.convert.TypeDescriptor)
+		 */
+		@Override
+		protected GenericConverter getConverter(TypeDescriptor sourceType, TypeDescriptor targetType) {
+			return super.getConverter(sourceType, targetType);
+		}
+	}
+}
@@ -0,0 +1,64 @@
+/**
+ *
+ */
+package org.springframework.data.aerospike.convert;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.convert.converter.GenericConverter;
+
+/**
+ * Reads temporal values stored as epoch numbers in the {@link TemporalEncoding} configured on the converter. Numbers
+ * stored while it is {@link TemporalEncoding#STRING} are taken to be milliseconds.
+ *
+ * @author Peter Milne
+ */
+final class TemporalConverter implements GenericConverter {
+
+	private static final Set<ConvertiblePair> CONVERTIBLE_TYPES = new HashSet<ConvertiblePair>();
+
+	static {
+		for (Class<?> type : new Class<?>[] { LocalDateTime.class, Instant.class, ZonedDateTime.class, Date.class }) {
+			CONVERTIBLE_TYPES.add(new ConvertiblePair(Long.class, type));
+		}
+	}
+
+	private volatile TemporalEncoding encoding = TemporalEncoding.STRING;
+
+	TemporalEncoding getEncoding() {
+		return encoding;
+	}
+
+	void setEncoding(TemporalEncoding encoding) {
+		this.encoding = encoding;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.core.convert.converter.GenericConverter#getConvertibleTypes()
+	 */
+	@Override
+	public Set<ConvertiblePair> getConvertibleTypes() {
+		return CONVERTIBLE_TYPES;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.core.convert.converter.GenericConverter#convert(java.lang.Object, org.springframework.core.convert.TypeDescriptor, org.springframework.core.convert.TypeDescriptor)
+	 */
+	@Override
+	public Object convert(Object source, TypeDescriptor sourceType, TypeDescriptor targetType) {
+		if (source == null) {
+			return null;
+		}
+		TemporalEncoding encoding = this.encoding;
+		return (encoding == TemporalEncoding.STRING ? TemporalEncoding.EPOCH_MILLIS : encoding).decode((Long) source,
+				targetType.getType());
+	}
+}
@@ -0,0 +1,127 @@
+/**
+ *
+ */
+package org.springframework.data.aerospike.convert;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Date;
+
+/**
+ * How {@link LocalDateTime}, {@link Instant}, {@link ZonedDateTime} and {@link Date} properties are stored. The
+ * epoch encodings store integer bins that secondary indexes can range over, build the bounds of such a
+ * {@link com.aerospike.client.query.Filter#range(String, long, long)} with {@link #encode(Object)}.
+ * {@link LocalDateTime} values are taken to be in UTC and {@link ZonedDateTime} values are read back in UTC. Subclasses
+ * of {@link Date} such as {@link Timestamp} are stored like dates.
+ *
+ * @author Peter Milne
+ * @see MappingAerospikeConverter#setTemporalEncoding(TemporalEncoding)
+ */
+public enum TemporalEncoding {
+
+	/**
+	 * {@link LocalDateTime} values are stored as ISO-8601 strings, other types as the converter stored them so far.
+	 */
+	STRING,
+
+	/**
+	 * Milliseconds since the epoch, anything finer is dropped.
+	 */
+	EPOCH_MILLIS,
+
+	/**
+	 * Nanoseconds since the epoch, which covers the years 1678 to 2262.
+	 */
+	EPOCH_NANOS;
+
+	private static final long NANOS_PER_SECOND = 1000000000L;
+
+	/**
+	 * Whether values of the given type are stored with this encoding.
+	 */
+	public static boolean isTemporal(Class<?> type) {
+		return type == LocalDateTime.class || type == Instant.class || type == ZonedDateTime.class
+				|| Date.class.isAssignableFrom(type);
+	}
+
+	/**
+	 * @param temporal a {@link LocalDateTime}, {@link Instant}, {@link ZonedDateTime} or {@link Date}.
+	 * @return the value stored in the bin.
+	 * @throws UnsupportedOperationException for {@link #STRING}.
+	 */
+	public long encode(Object temporal) {
+		Instant instant = toInstant(temporal);
+		switch (this) {
+			case EPOCH_MILLIS:
+				return instant.toEpochMilli();
+			case EPOCH_NANOS:
+				return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), NANOS_PER_SECOND), instant.getNano());
+			default:
+				throw new UnsupportedOperationException("Temporal values are not stored as numbers by " + this);
+		}
+	}
+
+	/**
+	 * @param value the value of the bin.
+	 * @param type {@link LocalDateTime}, {@link Instant}, {@link ZonedDateTime}, {@link Date} or a subclass of it with a
+	 *          constructor taking epoch milliseconds.
+	 * @return the temporal value.
+	 * @throws UnsupportedOperationException for {@link #STRING}.
+	 */
+	public Object decode(long value, Class<?> type) {
+		Instant instant;
+		switch (this) {
+			case EPOCH_MILLIS:
+				instant = Instant.ofEpochMilli(value);
+				break;
+			case EPOCH_NANOS:
+				instant = Instant.ofEpochSecond(Math.floorDiv(value, NANOS_PER_SECOND), Math.floorMod(value, NANOS_PER_SECOND));
+				break;
+			default:
+				throw new UnsupportedOperationException("Temporal values are not stored as numbers by " + this);
+		}
+		if (type == LocalDateTime.class) {
+			return LocalDateTime.ofEpochSecond(instant.getEpochSecond(), instant.getNano(), ZoneOffset.UTC);
+		}
+		if (type == ZonedDateTime.class) {
+			return ZonedDateTime.ofInstant(instant, ZoneOffset.UTC);
+		}
+		if (type == Date.class) {
+			return new Date(instant.toEpochMilli());
+		}
+		if (type == Timestamp.class) {
+			return Timestamp.from(instant);
+		}
+		if (Date.class.isAssignableFrom(type)) {
+			try {
+				return type.getConstructor(long.class).newInstance(instant.toEpochMilli());
+			}
+			catch (ReflectiveOperationException e) {
+				throw new IllegalArgumentException("Cannot create a " + type.getName() + " from epoch milliseconds", e);
+			}
+		}
+		return instant;
+	}
+
+	private static Instant toInstant(Object temporal) {
+		if (temporal instanceof Instant) {
+			return (Instant) temporal;
+		}
+		if (temporal instanceof LocalDateTime) {
+			return ((LocalDateTime) temporal).toInstant(ZoneOffset.UTC);
+		}
+		if (temporal instanceof ZonedDateTime) {
+			return ((ZonedDateTime) temporal).toInstant();
+		}
+		if (temporal instanceof Timestamp) {
+			return ((Timestamp) temporal).toInstant();
+		}
+		if (temporal instanceof Date) {
+			return Instant.ofEpochMilli(((Date) temporal).getTime());
+		}
+		throw new IllegalArgumentException("Not a temporal value: " + temporal);
+	}
+}
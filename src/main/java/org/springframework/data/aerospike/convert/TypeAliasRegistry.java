@@ -0,0 +1,95 @@
+/**
+ *
+ */
+package org.springframework.data.aerospike.convert;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.data.convert.TypeInformationMapper;
+import org.springframework.data.util.ClassTypeInformation;
+import org.springframework.data.util.TypeInformation;
+import org.springframework.util.Assert;
+
+/**
+ * {@link TypeInformationMapper} for short type aliases registered up front. Types without a registered alias are
+ * handed to the given mappers, typically the {@link org.springframework.data.annotation.TypeAlias} and class name
+ * ones, and the types they resolve are cached so that an alias is only looked up once.
+ *
+ * @author Peter Milne
+ */
+public class TypeAliasRegistry implements TypeInformationMapper {
+
+	private final List<? extends TypeInformationMapper> mappers;
+	private final ConcurrentMap<Class<?>, String> aliases = new ConcurrentHashMap<Class<?>, String>();
+	private final ConcurrentMap<Object, TypeInformation<?>> types = new ConcurrentHashMap<Object, TypeInformation<?>>();
+
+	/**
+	 * @param mappers the mappers of the types without a registered alias, in the order they are asked.
+	 */
+	public TypeAliasRegistry(List<? extends TypeInformationMapper> mappers) {
+		Assert.notNull(mappers, "Mappers must not be null!");
+		this.mappers = mappers;
+	}
+
+	/**
+	 * Stores the type under the given alias instead of its class name.
+	 *
+	 * @param type the type, must not be {@literal null}.
+	 * @param alias the alias, must not be {@literal null} nor used for another type.
+	 */
+	public void register(Class<?> type, String alias) {
+		Assert.notNull(type, "Type must not be null!");
+		Assert.hasText(alias, "Alias must not be empty!");
+
+		TypeInformation<?> existing = types.putIfAbsent(alias, ClassTypeInformation.from(type));
+		if (existing != null && !existing.getType().equals(type)) {
+			throw new IllegalArgumentException(
+					String.format("Alias %s is already used for %s!", alias, existing.getType().getName()));
+		}
+		aliases.put(type, alias);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.convert.TypeInformationMapper#createAliasFor(org.springframework.data.util.TypeInformation)
+	 */
+	@Override
+	public Object createAliasFor(TypeInformation<?> type) {
+		String alias = aliases.get(type.getType());
+		if (alias != null) {
+			return alias;
+		}
+		for (TypeInformationMapper mapper : mappers) {
+			Object candidate = mapper.createAliasFor(type);
+			if (candidate != null) {
+				return candidate;
+			}
+		}
+		return null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.convert.TypeInformationMapper#resolveTypeFrom(java.lang.Object)
+	 */
+	@Override
+	public TypeInformation<?> resolveTypeFrom(Object alias) {
+		if (alias == null) {
+			return null;
+		}
+		TypeInformation<?> type = types.get(alias);
+		if (type != null) {
+			return type;
+		}
+		for (TypeInformationMapper mapper : mappers) {
+			type = mapper.resolveTypeFrom(alias);
+			if (type != null) {
+				types.putIfAbsent(alias, type);
+				return type;
+			}
+		}
+		return null;
+	}
+}
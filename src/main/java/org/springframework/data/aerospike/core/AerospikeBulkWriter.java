@@ -0,0 +1,239 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.aerospike.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.aerospike.convert.AerospikeData;
+import org.springframework.data.aerospike.convert.MappingAerospikeConverter;
+import org.springframework.data.aerospike.mapping.AerospikePersistentEntity;
+
+import com.aerospike.client.AerospikeClient;
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.Bin;
+import com.aerospike.client.Key;
+import com.aerospike.client.async.AsyncClient;
+import com.aerospike.client.listener.WriteListener;
+import com.aerospike.client.policy.WritePolicy;
+
+/**
+ * Writes a batch of entities with a bounded number of writes in flight. Entities are converted on the given
+ * {@link Executor}; when the client is an {@link AsyncClient} the writes are issued asynchronously, otherwise each
+ * worker performs a blocking put. Failures are collected per record. Entities with the same id are written one after
+ * the other in the order of the batch, so the last one wins.
+ *
+ * @author Peter Milne
+ */
+class AerospikeBulkWriter {
+
+	private final AerospikeClient client;
+	private final MappingAerospikeConverter converter;
+	private final AerospikeExceptionTranslator exceptionTranslator;
+	private final String namespace;
+	private final Executor executor;
+	private final int maxInFlight;
+
+	AerospikeBulkWriter(AerospikeClient client, MappingAerospikeConverter converter,
+			AerospikeExceptionTranslator exceptionTranslator, String namespace, Executor executor, int maxInFlight) {
+		this.client = client;
+		this.converter = converter;
+		this.exceptionTranslator = exceptionTranslator;
+		this.namespace = namespace;
+		this.executor = executor;
+		this.maxInFlight = maxInFlight;
+	}
+
+	/**
+	 * Writes all non-null entities and waits until every write has completed.
+	 *
+	 * @param entities the entities to write.
+	 * @param policy the write policy, may be {@literal null} for the client default.
+	 * @param setName overrides the set name derived from the entity, may be {@literal null}.
+	 * @return the outcome of the batch.
+	 */
+	BulkWriteResult write(Iterable<?> entities, WritePolicy policy, String setName) {
+		BulkWrite bulkWrite = new BulkWrite(policy, setName);
+
+		for (Object entity : entities) {
+			if (entity == null) {
+				continue;
+			}
+			bulkWrite.submit(entity);
+		}
+
+		return bulkWrite.await();
+	}
+
+	private RuntimeException translate(RuntimeException e) {
+		if (e instanceof AerospikeException) {
+			DataAccessException translatedException = exceptionTranslator.translateExceptionIfPossible(e);
+			return translatedException == null ? e : translatedException;
+		}
+		return e;
+	}
+
+	/**
+	 * State of a single {@link AerospikeBulkWriter#write} call. Every submitted entity holds one permit of the window
+	 * until its write has completed, so acquiring the whole window waits for all outstanding writes. Entities whose id
+	 * is already being written wait in the lane of that id until the previous write has completed.
+	 */
+	private class BulkWrite {
+
+		private final WritePolicy policy;
+		private final String setName;
+		private final Semaphore window = new Semaphore(maxInFlight);
+		private final AtomicLong successCount = new AtomicLong();
+		private final ConcurrentLinkedQueue<BulkWriteResult.Failure> failures = new ConcurrentLinkedQueue<BulkWriteResult.Failure>();
+		private final Map<Object, Deque<Object>> lanes = new HashMap<Object, Deque<Object>>();
+
+		BulkWrite(WritePolicy policy, String setName) {
+			this.policy = policy;
+			this.setName = setName;
+		}
+
+		void submit(Object entity) {
+			window.acquireUninterruptibly();
+			Object lane = laneOf(entity);
+			if (lane != null) {
+				synchronized (lanes) {
+					Deque<Object> waiting = lanes.get(lane);
+					if (waiting != null) {
+						waiting.add(entity);
+						return;
+					}
+					lanes.put(lane, new ArrayDeque<Object>());
+				}
+			}
+			execute(entity, lane);
+		}
+
+		/*
+		 * the set and id of the entity, null if it has none and cannot be written anyway, its write reports why
+		 */
+		private Object laneOf(Object entity) {
+			try {
+				AerospikePersistentEntity<?> persistentEntity = converter.getMappingContext().getPersistentEntity(
+						entity.getClass());
+				if (persistentEntity == null) {
+					return null;
+				}
+				Object id = persistentEntity.getIdentifierAccessor(entity).getIdentifier();
+				return id == null ? null : Arrays.asList(setName != null ? setName : persistentEntity.getSetName(), id);
+			}
+			catch (RuntimeException e) {
+				return null;
+			}
+		}
+
+		private void execute(final Object entity, final Object lane) {
+			try {
+				executor.execute(new Runnable() {
+
+					@Override
+					public void run() {
+						write(entity, lane);
+					}
+				});
+			}
+			catch (RejectedExecutionException e) {
+				failed(entity, lane, e);
+			}
+		}
+
+		private void write(final Object entity, final Object lane) {
+			try {
+				AerospikeData data = converter.forWrite(namespace, entity);
+				Bin[] bins = converter.writeBins(entity, data);
+				if (setName != null) {
+					data.setSetName(setName);
+				}
+				Key key = data.getKey();
+				if (key == null) {
+					failed(entity, lane, new IllegalArgumentException("Entity " + entity + " has no id"));
+					return;
+				}
+				if (client instanceof AsyncClient) {
+					((AsyncClient) client).put(policy, new WriteListener() {
+
+						@Override
+						public void onSuccess(Key key) {
+							succeeded(lane);
+						}
+
+						@Override
+						public void onFailure(AerospikeException exception) {
+							failed(entity, lane, exception);
+						}
+					}, key, bins);
+				}
+				else {
+					client.put(policy, key, bins);
+					succeeded(lane);
+				}
+			}
+			catch (RuntimeException e) {
+				failed(entity, lane, e);
+			}
+		}
+
+		private void succeeded(Object lane) {
+			successCount.incrementAndGet();
+			completed(lane);
+		}
+
+		private void failed(Object entity, Object lane, RuntimeException e) {
+			failures.add(new BulkWriteResult.Failure(entity, translate(e)));
+			completed(lane);
+		}
+
+		/*
+		 * releases the permit of the completed write and starts the next write of its lane, which holds its own permit
+		 */
+		private void completed(Object lane) {
+			window.release();
+			if (lane == null) {
+				return;
+			}
+			Object next;
+			synchronized (lanes) {
+				next = lanes.get(lane).poll();
+				if (next == null) {
+					lanes.remove(lane);
+				}
+			}
+			if (next != null) {
+				execute(next, lane);
+			}
+		}
+
+		BulkWriteResult await() {
+			window.acquireUninterruptibly(maxInFlight);
+			window.release(maxInFlight);
+			return new BulkWriteResult(successCount.get(), new ArrayList<BulkWriteResult.Failure>(failures));
+		}
+	}
+}
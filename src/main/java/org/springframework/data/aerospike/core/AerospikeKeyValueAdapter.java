@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.function.Function;
 
 import org.springframework.data.aerospike.convert.AerospikeConverter;
 import org.springframework.data.aerospike.convert.AerospikeData;
@@ -34,10 +35,12 @@ import com.aerospike.client.AerospikeClient;
 import com.aerospike.client.Key;
 import com.aerospike.client.Record;
 import com.aerospike.client.Value;
+import com.aerospike.client.cluster.Node;
 import com.aerospike.client.policy.RecordExistsAction;
 import com.aerospike.client.policy.WritePolicy;
-import com.aerospike.client.query.RecordSet;
+import com.aerospike.client.query.KeyRecord;
 import com.aerospike.client.query.Statement;
+import com.aerospike.helper.query.KeyRecordIterator;
 
 /**
  * An Aerospike-specific {@link KeyValueAdapter} to implement core sore interactions to be used by the
@@ -47,6 +50,8 @@ import com.aerospike.client.query.Statement;
  */
 public class AerospikeKeyValueAdapter extends AbstractKeyValueAdapter {
 
+	private static final int MAX_BUFFERED_RECORDS = 8192;
+
 	private final AerospikeConverter converter;
 	private final AerospikeClient client;
 
@@ -138,32 +143,36 @@ public class AerospikeKeyValueAdapter extends AbstractKeyValueAdapter {
 	 */
 	@Override
 	public Collection<?> getAllOf(Serializable keyspace) {
-		
-		Statement statement = new Statement();
-		statement.setNamespace(namespace);
-		statement.setSetName(keyspace.toString());
 
-		
+		final String set = keyspace.toString();
 		List<Object> result = new ArrayList<Object>();
-		RecordSet recordSet = client.query(null, statement);
-		
-		while (recordSet.next()) {
-
-			//AerospikeData data = AerospikeData.forRead(recordSet.getKey(), recordSet.getRecord());
-			//result.add(converter.read(Object.class, data));
+		CloseableIterator<Object> iterator = new ParallelEntityIterator<Object>(client.getNodes(),
+				new Function<Node, KeyRecordIterator>() {
+
+					@Override
+					public KeyRecordIterator apply(Node node) {
+						Statement statement = new Statement();
+						statement.setNamespace(namespace);
+						statement.setSetName(set);
+						return new KeyRecordIterator(namespace, client.queryNode(null, statement, node));
+					}
+				}, new Function<KeyRecord, Object>() {
+
+					@Override
+					public Object apply(KeyRecord keyRecord) {
+						AerospikeData data = AerospikeData.forRead(keyRecord.key, null);
+						data.setRecord(keyRecord.record);
+						return converter.read(Object.class, data);
+					}
+				}, null, null, MAX_BUFFERED_RECORDS).start();
+		try {
+			while (iterator.hasNext()) {
+				result.add(iterator.next());
+			}
+		}
+		finally {
+			iterator.close();
 		}
-
-//		final List<Object> result = new ArrayList<Object>();
-//		String set = keyspace.toString();
-//		client.scanAll(null, namespace, set, new ScanCallback() {
-//			
-//			@Override
-//			public void scanCallback(Key key, Record record) throws AerospikeException {
-//				AerospikeData data = AerospikeData.forRead(key, record);
-//				Object converted = converter.read(Object.class, data);
-//				result.add(converted);
-//			}
-//		});
 		return result;
 	}
 
@@ -16,6 +16,7 @@
 package org.springframework.data.aerospike.core;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -23,10 +24,12 @@ import org.springframework.data.aerospike.repository.query.Query;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.keyvalue.core.KeyValueCallback;
 import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.util.CloseableIterator;
 
 import com.aerospike.client.Value;
 import com.aerospike.client.query.Filter;
 import com.aerospike.client.query.IndexType;
+import com.aerospike.helper.query.QueryPlan;
 
 /**
  * Aerospike specific data access operations.
@@ -71,13 +74,101 @@ public interface AerospikeOperations {//extends KeyValueOperations {
 	
 	<T> T delete(Serializable id, Class<T> type);
 	<T> T delete(T objectToDelete);
+
+	/**
+	 * Deletes the objects matching the given query. Only the keys of the records are read, offset, rows and sort of the
+	 * query are ignored.
+	 * 
+	 * @param query must not be {@literal null}.
+	 * @param type must not be {@literal null}.
+	 * @return the number of deleted objects.
+	 */
+	long delete(Query<?> query, Class<?> type);
 	
+	/**
+	 * Finds the objects matching the given query. The query runs once and all matching objects are returned in memory;
+	 * use {@link #stream(Query, Class)} to iterate over large results.
+	 * 
+	 * @param query must not be {@literal null}.
+	 * @param type must not be {@literal null}.
+	 * @return the matching objects.
+	 */
 	<T> Iterable<T> find(Query<?> query, Class<T> type);
+
+	/**
+	 * Runs the given query and returns its objects as they are read. A sort with a row limit keeps only offset plus rows
+	 * objects in memory, a sort without a limit spills to disk past a configurable threshold.
+	 * 
+	 * @param query must not be {@literal null}.
+	 * @param type must not be {@literal null}.
+	 * @return an iterator over the matching objects, to be closed when it is not read to the end.
+	 */
+	<T> CloseableIterator<T> stream(Query<?> query, Class<T> type);
+
+	/**
+	 * Tells how the given query would be executed: which qualifier is sent to the cluster as secondary index filter,
+	 * chosen by its estimated selectivity, and which qualifiers are left to the Lua filter.
+	 * 
+	 * @param query must not be {@literal null}.
+	 * @param type must not be {@literal null}.
+	 * @return the query plan.
+	 */
+	QueryPlan explain(Query<?> query, Class<?> type);
 	<T> List<T> findAll(Class<T> type);
 
+	/**
+	 * Streams all objects of the given type, querying every cluster node in parallel and converting the records
+	 * concurrently. The order of the results is undefined; the iterator must be closed when it is not read to the end.
+	 * 
+	 * @param type must not be {@literal null}.
+	 * @return an iterator over the objects of the given type.
+	 */
+	<T> CloseableIterator<T> findAllParallel(Class<T> type);
+
 	<T> T findById(Serializable id, Class<T> type);
 	<T> T findById(Serializable id, Class<T> type, Class<T> domainType);
 
+	/**
+	 * Reads only the bins of the given properties, the other properties of the returned object are left unset.
+	 * 
+	 * @param id must not be {@literal null}.
+	 * @param type must not be {@literal null}.
+	 * @param fields names of the properties to read, {@literal null} to read all of them.
+	 * @return
+	 */
+	<T> T findById(Serializable id, Class<T> type, Collection<String> fields);
+
+	/**
+	 * Reads the records for the given ids with batch reads instead of one round trip per id. The result keeps the
+	 * order of the given ids, ids without a matching record are skipped.
+	 * 
+	 * @param ids must not be {@literal null}.
+	 * @param type must not be {@literal null}.
+	 * @return
+	 */
+	<T> List<T> findByIds(Collection<?> ids, Class<T> type);
+
+	/**
+	 * Inserts the given objects with a bounded number of writes in flight, using the CREATE_ONLY policy. Objects that
+	 * cannot be written are reported in the result and do not abort the remaining writes. Objects with the same id are
+	 * written one after the other in the given order, so only the first of them is inserted.
+	 * 
+	 * @param objectsToInsert must not be {@literal null}, {@literal null} elements are skipped.
+	 * @return the outcome of the bulk write.
+	 */
+	BulkWriteResult bulkInsert(Iterable<?> objectsToInsert);
+
+	/**
+	 * Saves the given objects into the set of the given domain type with a bounded number of writes in flight.
+	 * Objects that cannot be written are reported in the result and do not abort the remaining writes. Objects with the
+	 * same id are written one after the other in the given order, so the last of them is saved.
+	 * 
+	 * @param objectsToSave must not be {@literal null}, {@literal null} elements are skipped.
+	 * @param domainType must not be {@literal null}.
+	 * @return the outcome of the bulk write.
+	 */
+	BulkWriteResult bulkSave(Iterable<?> objectsToSave, Class<?> domainType);
+
 	<T> T add(T objectToAddTo, Map<String, Long> values);
 	<T> T add(T objectToAddTo, String binName, int value);
 
@@ -90,12 +181,25 @@ public interface AerospikeOperations {//extends KeyValueOperations {
 	
 
 	/**
-	 * @param query
-	 * @param javaType
-	 * @return
+	 * Counts the objects matching the given query on the server, without reading them. Offset, rows and sort of the
+	 * query are ignored.
+	 * 
+	 * @param query must not be {@literal null}.
+	 * @param javaType must not be {@literal null}.
+	 * @return the number of matching objects.
 	 */
 	int count(Query<?> query, Class<?> javaType);
 
+	/**
+	 * Tells whether any object matches the given query. Only the keys of the records are read, offset, rows and sort of
+	 * the query are ignored.
+	 * 
+	 * @param query must not be {@literal null}.
+	 * @param type must not be {@literal null}.
+	 * @return whether a matching object exists.
+	 */
+	boolean exists(Query<?> query, Class<?> type);
+
 	/**
 	 * Execute operation against underlying store.
 	 * 
@@ -105,6 +209,10 @@ public interface AerospikeOperations {//extends KeyValueOperations {
 	<T> T execute(KeyValueCallback<T> action);
 
 	/**
+	 * Reads all objects of the given type in the given order. Records beyond the sort spill threshold are sorted on
+	 * disk, but the sorted objects are all returned in memory; use {@link #stream(Query, Class)} to iterate over large
+	 * sets.
+	 * 
 	 * @param sort
 	 * @param type
 	 * @return
@@ -120,6 +228,29 @@ public interface AerospikeOperations {//extends KeyValueOperations {
 	 */
 	<T> Iterable<T> findInRange(int offset, int rows, Sort sort, Class<T> type);
 
+	/**
+	 * Reads the next slice of a scan over all objects of the given type. The scan reads the cluster nodes one after the
+	 * other and returns the records of a node in the order of their digests; the continuation of a slice tells the node
+	 * and the digest of the last record returned, so the next slice resumes after it no matter what was written in
+	 * between.
+	 * <p>
+	 * This is not server-side pagination: the client cannot resume a scan, so each slice scans all the keys of its node
+	 * again, without their bins, and keeps the {@code size} digests that follow the continuation in memory; only the
+	 * bins of the returned records are read. Paging through {@code N} objects in slices of {@code size} therefore
+	 * scans about {@code N * N / size} keys. Use {@link #stream(Query, Class)} to read all objects once.
+	 * <p>
+	 * Slices are best-effort: objects written while paging are returned only if their digest follows the position of
+	 * the scan, and objects that migrate to another node while paging may be skipped or returned twice.
+	 * 
+	 * @param continuation the continuation of the previous slice, {@literal null} for the first slice.
+	 * @param size the maximum number of objects in the slice, must be greater than zero.
+	 * @param type must not be {@literal null}.
+	 * @return the slice, its continuation is {@literal null} after the last one.
+	 * @throws org.springframework.dao.InvalidDataAccessApiUsageException if the continuation is invalid or its node left
+	 *           the cluster.
+	 */
+	<T> ContinuationSlice<T> findAll(String continuation, int size, Class<T> type);
+
 	/**
 	 * @param type
 	 * @return
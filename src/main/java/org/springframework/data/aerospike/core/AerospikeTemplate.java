@@ -15,16 +15,29 @@
  */
 package org.springframework.data.aerospike.core;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,19 +47,21 @@ import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.aerospike.convert.AerospikeData;
 import org.springframework.data.aerospike.convert.MappingAerospikeConverter;
 import org.springframework.data.aerospike.mapping.AerospikeMappingContext;
+import org.springframework.data.aerospike.mapping.AerospikeMetadataBin;
 import org.springframework.data.aerospike.mapping.AerospikePersistentEntity;
 import org.springframework.data.aerospike.mapping.AerospikePersistentProperty;
 import org.springframework.data.aerospike.mapping.AerospikeSimpleTypes;
 import org.springframework.data.aerospike.mapping.BasicAerospikePersistentEntity;
+import org.springframework.data.aerospike.mapping.CachingAerospikePersistentProperty;
 import org.springframework.data.aerospike.repository.query.AerospikeQueryCreator;
 import org.springframework.data.aerospike.repository.query.Query;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.data.domain.Sort.Order;
-import org.springframework.data.keyvalue.core.IterableConverter;
 import org.springframework.data.keyvalue.core.KeyValueCallback;
 import org.springframework.data.mapping.context.MappingContext;
 import org.springframework.data.util.CloseableIterator;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.comparator.CompoundComparator;
@@ -54,13 +69,13 @@ import org.springframework.util.comparator.CompoundComparator;
 import com.aerospike.client.AerospikeClient;
 import com.aerospike.client.AerospikeException;
 import com.aerospike.client.Bin;
-import com.aerospike.client.Info;
 import com.aerospike.client.Key;
 import com.aerospike.client.Operation;
 import com.aerospike.client.Record;
 import com.aerospike.client.ScanCallback;
 import com.aerospike.client.Value;
 import com.aerospike.client.cluster.Node;
+import com.aerospike.client.policy.BatchPolicy;
 import com.aerospike.client.policy.RecordExistsAction;
 import com.aerospike.client.policy.ScanPolicy;
 import com.aerospike.client.policy.WritePolicy;
@@ -70,9 +85,11 @@ import com.aerospike.client.query.KeyRecord;
 import com.aerospike.client.query.ResultSet;
 import com.aerospike.client.query.Statement;
 import com.aerospike.client.task.IndexTask;
+import com.aerospike.helper.query.FilterMode;
 import com.aerospike.helper.query.KeyRecordIterator;
 import com.aerospike.helper.query.Qualifier;
 import com.aerospike.helper.query.QueryEngine;
+import com.aerospike.helper.query.QueryPlan;
 
 /**
  * Primary implementation of {@link AerospikeOperations}.
@@ -82,8 +99,14 @@ import com.aerospike.helper.query.QueryEngine;
  */
 public class AerospikeTemplate implements AerospikeOperations {
 
+	private static final Logger LOG = LoggerFactory.getLogger(AerospikeTemplate.class);
+
 	private static final MappingAerospikeConverter DEFAULT_CONVERTER = new MappingAerospikeConverter();
 	private static final AerospikeExceptionTranslator DEFAULT_EXCEPTION_TRANSLATOR = new DefaultAerospikeExceptionTranslator();
+	private static final int DEFAULT_MAX_BATCH_SIZE = 5000;
+	private static final int DEFAULT_MAX_IN_FLIGHT_WRITES = 256;
+	private static final int DEFAULT_MAX_BUFFERED_SCAN_RECORDS = 8192;
+	private static final int DEFAULT_SORT_SPILL_THRESHOLD = 100000;
 	
 	private final MappingContext<BasicAerospikePersistentEntity<?>, AerospikePersistentProperty> mappingContext;
 	private final AerospikeClient client;
@@ -94,6 +117,17 @@ public class AerospikeTemplate implements AerospikeOperations {
 	private AerospikeExceptionTranslator exceptionTranslator;
 	private WritePolicy insertPolicy;
 	private WritePolicy updatePolicy;
+	private BatchPolicy batchPolicy;
+	private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+	private int maxInFlightWrites = DEFAULT_MAX_IN_FLIGHT_WRITES;
+	private Executor bulkWriteExecutor;
+	private boolean parallelScan;
+	private boolean lazyLoading;
+	private int maxBufferedScanRecords = DEFAULT_MAX_BUFFERED_SCAN_RECORDS;
+	private int sortSpillThreshold = DEFAULT_SORT_SPILL_THRESHOLD;
+	private File sortSpillDirectory;
+	private Executor scanReaderExecutor;
+	private ForkJoinPool scanConversionPool;
 
 	/**
 	 * Creates a new {@link AerospikeTemplate} for the given
@@ -151,11 +185,10 @@ public class AerospikeTemplate implements AerospikeOperations {
 	@Override
 	public void insert(Serializable id, Object objectToInsert) {
 		try {
-			AerospikeData data = AerospikeData.forWrite(this.namespace);
-			converter.write(objectToInsert, data);
+			AerospikeData data = converter.forWrite(this.namespace, objectToInsert);
+			Bin[] bins = converter.writeBins(objectToInsert, data);
 			data.setID(id);
 			Key key = data.getKey();
-			Bin[] bins = data.getBinsAsArray();
 			client.put(this.insertPolicy, key, bins);
 		}
 		catch (AerospikeException o_O) {
@@ -172,6 +205,7 @@ public class AerospikeTemplate implements AerospikeOperations {
 		IndexTask task = client.createIndex(null, this.namespace,
 				domainType.getSimpleName(), indexName, binName, indexType);
 		task.waitTillComplete();
+		queryEngine.refreshIndexes();
 	}
 
 	/*
@@ -188,12 +222,11 @@ public class AerospikeTemplate implements AerospikeOperations {
 		Assert.notNull(domainType, "Domain Type must not be null!");
 		Assert.notNull(objectToInsert, "Object to insert must not be null!");
 		try {
-			AerospikeData data = AerospikeData.forWrite(this.namespace);
-			converter.write(objectToInsert, data);
+			AerospikeData data = converter.forWrite(this.namespace, objectToInsert);
+			Bin[] bins = converter.writeBins(objectToInsert, data);
 			data.setID(id);
 			data.setSetName(AerospikeSimpleTypes.getColletionName(domainType));
 			Key key = data.getKey();
-			Bin[] bins = data.getBinsAsArray();
 			client.put(null, key, bins);
 		}
 		catch (AerospikeException o_O) {
@@ -226,11 +259,10 @@ public class AerospikeTemplate implements AerospikeOperations {
 		Assert.notNull(id, "Id must not be null!");
 		Assert.notNull(objectToInsert, "Object to insert must not be null!");
 		try {
-			AerospikeData data = AerospikeData.forWrite(this.namespace);
-			converter.write(objectToInsert, data);
+			AerospikeData data = converter.forWrite(this.namespace, objectToInsert);
+			Bin[] bins = converter.writeBins(objectToInsert, data);
 			data.setID(id);
 			Key key = data.getKey();
-			Bin[] bins = data.getBinsAsArray();
 			client.put(null, key, bins);
 		}
 		catch (AerospikeException o_O) {
@@ -240,24 +272,55 @@ public class AerospikeTemplate implements AerospikeOperations {
 		}
 	}
 
+	/**
+	 * Inserts all given objects as a bulk write. All objects are attempted, the exception of the first failed write is
+	 * rethrown afterwards. Use {@link #bulkInsert(Iterable)} to inspect every failure.
+	 * 
+	 * @param objectsToSave must not be {@literal null}.
+	 */
 	public <T> void insertAll(Collection<? extends T> objectsToSave) {
-		for (T element : objectsToSave) {
-			if (element == null) {
-				continue;
-			}
+		BulkWriteResult result = bulkInsert(objectsToSave);
+		if (result.hasFailures()) {
+			throw result.getFailures().get(0).getCause();
+		}
+	}
+
+	@Override
+	public BulkWriteResult bulkInsert(Iterable<?> objectsToInsert) {
+		Assert.notNull(objectsToInsert, "Objects to insert must not be null!");
+		return bulkWriter().write(objectsToInsert, this.insertPolicy, null);
+	}
+
+	@Override
+	public BulkWriteResult bulkSave(Iterable<?> objectsToSave, Class<?> domainType) {
+		Assert.notNull(objectsToSave, "Objects to save must not be null!");
+		Assert.notNull(domainType, "Domain type must not be null!");
+		return bulkWriter().write(objectsToSave, null, AerospikeSimpleTypes.getColletionName(domainType));
+	}
+
+	private AerospikeBulkWriter bulkWriter() {
+		return new AerospikeBulkWriter(this.client, this.converter, this.exceptionTranslator, this.namespace,
+				getBulkWriteExecutor(), this.maxInFlightWrites);
+	}
 
-			insert(element);
+	private synchronized Executor getBulkWriteExecutor() {
+		if (this.bulkWriteExecutor == null) {
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("aerospike-bulk-write-");
+			threadFactory.setDaemon(true);
+			ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+					threadFactory);
+			this.bulkWriteExecutor = executor;
 		}
+		return this.bulkWriteExecutor;
 	}
 
 	@Override
 	public <T> T insert(T objectToInsert) {
 		Assert.notNull(objectToInsert, "Object to insert must not be null!");
 		try {
-			AerospikeData data = AerospikeData.forWrite(this.namespace);
-			converter.write(objectToInsert, data);
+			AerospikeData data = converter.forWrite(this.namespace, objectToInsert);
+			Bin[] bins = converter.writeBins(objectToInsert, data);
 			Key key = data.getKey();
-			Bin[] bins = data.getBinsAsArray();
 			client.put(this.insertPolicy, key, bins);
 		}
 		catch (AerospikeException o_O) {
@@ -272,10 +335,9 @@ public class AerospikeTemplate implements AerospikeOperations {
 	public void update(Object objectToUpdate) {
 		Assert.notNull(objectToUpdate, "Object to update must not be null!");
 		try {
-			AerospikeData data = AerospikeData.forWrite(this.namespace);
-			converter.write(objectToUpdate, data);
+			AerospikeData data = converter.forWrite(this.namespace, objectToUpdate);
+			Bin[] bins = converter.writeBins(objectToUpdate, data);
 			Key key = data.getKey();
-			Bin[] bins = data.getBinsAsArray();
 			client.put(this.updatePolicy, key, bins);
 		}
 		catch (AerospikeException o_O) {
@@ -290,10 +352,10 @@ public class AerospikeTemplate implements AerospikeOperations {
 		Assert.notNull(id, "Id must not be null!");
 		Assert.notNull(objectToUpdate, "Object to update must not be null!");
 		try {
-			AerospikeData data = AerospikeData.forWrite(this.namespace);
-			converter.write(objectToUpdate, data);
+			AerospikeData data = converter.forWrite(this.namespace, objectToUpdate);
+			Bin[] bins = converter.writeBins(objectToUpdate, data);
 			data.setID(id);
-			client.put(this.updatePolicy, data.getKey(), data.getBinsAsArray());
+			client.put(this.updatePolicy, data.getKey(), bins);
 		}
 		catch (AerospikeException o_O) {
 			DataAccessException translatedException = exceptionTranslator
@@ -307,6 +369,10 @@ public class AerospikeTemplate implements AerospikeOperations {
 		try {
 			ScanPolicy scanPolicy = new ScanPolicy();
 			scanPolicy.includeBinData = false;
+			/*
+			 * the callback deletes on the scan thread of each node
+			 */
+			scanPolicy.concurrentNodes = true;
 			final AtomicLong count = new AtomicLong();
 			client.scanAll(scanPolicy, namespace, type.getSimpleName(),
 					new ScanCallback() {
@@ -315,20 +381,19 @@ public class AerospikeTemplate implements AerospikeOperations {
 						public void scanCallback(Key key, Record record)
 								throws AerospikeException {
 
-							if (client.delete(null, key))
-								count.addAndGet(1);
+							if (!client.delete(null, key))
+								return;
+							long deleted = count.incrementAndGet();
 							/*
-							 * after 10,000 records delete, return print the
-							 * count.
+							 * after 10,000 records delete, log the count.
 							 */
-							if (count.get() % 10000 == 0) {
-								System.out.println("Deleted " + count.get());
+							if (deleted % 10000 == 0) {
+								LOG.debug("Deleted {} records from set {}", deleted, type.getSimpleName());
 							}
 
 						}
 					}, new String[] {});
-			System.out.println("Deleted " + count + " records from set "
-					+ type.getSimpleName());
+			LOG.debug("Deleted {} records from set {}", count, type.getSimpleName());
 		}
 		catch (AerospikeException o_O) {
 			DataAccessException translatedException = exceptionTranslator
@@ -379,19 +444,46 @@ public class AerospikeTemplate implements AerospikeOperations {
 		// the list is unbounded and could contain billions of elements
 		// we need to find another solution
 		final List<T> scanList = new ArrayList<T>();
-		Iterable<T> results = findAllUsingQuery(type, null, (Qualifier[])null);
-		Iterator<T> iterator = results.iterator();
+		CloseableIterator<T> iterator = this.parallelScan ? findAllParallel(type)
+				: (EntityIterator<T>) findAllUsingQuery(type, null, (Qualifier[]) null).iterator();
 		try {
 			while (iterator.hasNext()) {
 				scanList.add(iterator.next());
 			}
 		}
+		catch (AerospikeException o_O) {
+			DataAccessException translatedException = exceptionTranslator
+					.translateExceptionIfPossible(o_O);
+			throw translatedException == null ? o_O : translatedException;
+		}
 		finally {
-			((EntityIterator<T>) iterator).close();
+			iterator.close();
 		}
 		return scanList;
 	}
 
+	@Override
+	public <T> CloseableIterator<T> findAllParallel(final Class<T> type) {
+		Assert.notNull(type, "Type must not be null!");
+		final String setName = getSetName(type);
+		return parallelQuery(new Function<Node, KeyRecordIterator>() {
+
+			@Override
+			public KeyRecordIterator apply(Node node) {
+				Statement statement = new Statement();
+				statement.setNamespace(namespace);
+				statement.setSetName(setName);
+				return queryEngine.select(statement, false, node);
+			}
+		}, entityMapper(type));
+	}
+
+	private <T> CloseableIterator<T> parallelQuery(Function<Node, KeyRecordIterator> query,
+			Function<KeyRecord, T> mapper) {
+		return new ParallelEntityIterator<T>(client.getNodes(), query, mapper, this.scanReaderExecutor,
+				this.scanConversionPool, this.maxBufferedScanRecords).start();
+	}
+
 	@Override
 	public <T> T findOne(Serializable id, Class<T> type) {
 		Assert.notNull(id, "Id must not be null!");
@@ -418,6 +510,112 @@ public class AerospikeTemplate implements AerospikeOperations {
 		}
 	}
 
+	@Override
+	public <T> T findById(Serializable id, Class<T> type, Collection<String> fields) {
+		Assert.notNull(id, "Id must not be null!");
+		if (fields == null) {
+			return findById(id, type);
+		}
+		try {
+			AerospikePersistentEntity<?> entity = converter.getMappingContext()
+					.getPersistentEntity(type);
+			Key key = new Key(this.namespace, entity.getSetName(),
+					id.toString());
+			String[] binNames = binNamesOf(type, fields);
+			AerospikeData data = AerospikeData.forRead(key, binNames);
+			Record record = this.client.get(null, key, binNames);
+			data.setRecord(record);
+			return converter.read(type, data, fields);
+		}
+		catch (AerospikeException o_O) {
+			DataAccessException translatedException = exceptionTranslator
+					.translateExceptionIfPossible(o_O);
+			throw translatedException == null ? o_O : translatedException;
+		}
+	}
+
+	/*
+	 * the bins of the given properties, the metadata bin holding the id and
+	 * type alias of the record is always read
+	 */
+	private String[] binNamesOf(Class<?> type, Collection<String> fields) {
+		AerospikePersistentEntity<?> entity = converter.getMappingContext()
+				.getPersistentEntity(type);
+		Set<String> binNames = new LinkedHashSet<String>();
+		binNames.add(AerospikeMetadataBin.AEROSPIKE_META_DATA);
+		AerospikePersistentProperty idProperty = entity.getIdProperty();
+		if (idProperty != null) {
+			binNames.add(((CachingAerospikePersistentProperty) idProperty).getFieldName());
+		}
+		for (String field : fields) {
+			AerospikePersistentProperty property = entity.getPersistentProperty(field);
+			if (property == null) {
+				throw new InvalidDataAccessApiUsageException("No property " + field + " found on " + type.getName());
+			}
+			binNames.add(((CachingAerospikePersistentProperty) property).getFieldName());
+		}
+		return binNames.toArray(new String[binNames.size()]);
+	}
+
+	/*
+	 * the properties a sorted query reads, sorting needs the top level
+	 * property of every sort path
+	 */
+	private static List<String> fieldsOf(Query<?> query) {
+		List<String> fields = query.getFields();
+		if (fields == null || query.getSort() == null) {
+			return fields;
+		}
+		Set<String> sorted = new LinkedHashSet<String>(fields);
+		for (Order order : query.getSort()) {
+			String property = order.getProperty();
+			int dot = property.indexOf('.');
+			sorted.add(dot < 0 ? property : property.substring(0, dot));
+		}
+		return new ArrayList<String>(sorted);
+	}
+
+	@Override
+	public <T> List<T> findByIds(Collection<?> ids, Class<T> type) {
+		Assert.notNull(ids, "List of ids must not be null!");
+		Assert.notNull(type, "Type must not be null!");
+		if (ids.isEmpty()) {
+			return Collections.emptyList();
+		}
+		try {
+			AerospikePersistentEntity<?> entity = converter.getMappingContext()
+					.getPersistentEntity(type);
+			List<?> idList = ids instanceof List ? (List<?>) ids : new ArrayList<Object>(ids);
+			List<T> result = new ArrayList<T>(idList.size());
+
+			for (int from = 0; from < idList.size(); from += this.maxBatchSize) {
+				int to = Math.min(from + this.maxBatchSize, idList.size());
+				Key[] keys = new Key[to - from];
+				for (int i = from; i < to; i++) {
+					Object id = idList.get(i);
+					Assert.notNull(id, "Id must not be null!");
+					keys[i - from] = new Key(this.namespace, entity.getSetName(),
+							id.toString());
+				}
+				Record[] records = this.client.get(this.batchPolicy, keys);
+				for (int i = 0; i < keys.length; i++) {
+					if (records[i] == null) {
+						continue;
+					}
+					AerospikeData data = AerospikeData.forRead(keys[i], null);
+					data.setRecord(records[i]);
+					result.add(converter.read(type, data));
+				}
+			}
+			return result;
+		}
+		catch (AerospikeException o_O) {
+			DataAccessException translatedException = exceptionTranslator
+					.translateExceptionIfPossible(o_O);
+			throw translatedException == null ? o_O : translatedException;
+		}
+	}
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public <T> Iterable<T> aggregate(Filter filter, Class<T> outputType,
@@ -452,6 +650,135 @@ public class AerospikeTemplate implements AerospikeOperations {
 				? DEFAULT_EXCEPTION_TRANSLATOR : exceptionTranslator;
 	}
 
+	/**
+	 * Configures the {@link BatchPolicy} used for batch reads.
+	 * 
+	 * @param batchPolicy can be {@literal null} to use the client default.
+	 */
+	public void setBatchPolicy(BatchPolicy batchPolicy) {
+		this.batchPolicy = batchPolicy;
+	}
+
+	/**
+	 * Configures the maximum number of keys sent to the cluster in one batch read. Larger id collections are split into
+	 * several batches.
+	 * 
+	 * @param maxBatchSize must be greater than zero.
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		Assert.isTrue(maxBatchSize > 0, "Max batch size must be greater than zero!");
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	/**
+	 * Configures the maximum number of writes a bulk write keeps in flight at any time.
+	 * 
+	 * @param maxInFlightWrites must be greater than zero.
+	 */
+	public void setMaxInFlightWrites(int maxInFlightWrites) {
+		Assert.isTrue(maxInFlightWrites > 0, "Max in-flight writes must be greater than zero!");
+		this.maxInFlightWrites = maxInFlightWrites;
+	}
+
+	/**
+	 * Configures the {@link Executor} converting entities during bulk writes. Defaults to a pool of daemon threads, one
+	 * per available processor. When the template was created with an
+	 * {@link com.aerospike.client.async.AsyncClient} the writes themselves are issued asynchronously, otherwise the
+	 * executor threads perform blocking puts.
+	 * 
+	 * @param bulkWriteExecutor must not be {@literal null}.
+	 */
+	public synchronized void setBulkWriteExecutor(Executor bulkWriteExecutor) {
+		Assert.notNull(bulkWriteExecutor, "Bulk write executor must not be null!");
+		this.bulkWriteExecutor = bulkWriteExecutor;
+	}
+
+	/**
+	 * Makes {@link #findAll(Class)} query every cluster node in parallel, see {@link #findAllParallel(Class)}.
+	 * Disabled by default.
+	 * 
+	 * @param parallelScan whether full set reads fan out per node.
+	 */
+	public void setParallelScan(boolean parallelScan) {
+		this.parallelScan = parallelScan;
+	}
+
+	/**
+	 * Makes the unsorted results of {@link #stream(Query, Class)}, and of {@link #findAll(Class)} without a parallel
+	 * scan, convert the properties of each entity when they are first accessed through their getters. Disabled by
+	 * default.
+	 * 
+	 * @param lazyLoading whether streamed entities are read lazily.
+	 * @see MappingAerospikeConverter#readLazily(Class, AerospikeData)
+	 */
+	public void setLazyLoading(boolean lazyLoading) {
+		this.lazyLoading = lazyLoading;
+	}
+
+	/**
+	 * Configures how many records a parallel scan reads ahead of its consumer.
+	 * 
+	 * @param maxBufferedScanRecords must be greater than zero.
+	 */
+	public void setMaxBufferedScanRecords(int maxBufferedScanRecords) {
+		Assert.isTrue(maxBufferedScanRecords > 0, "Max buffered scan records must be greater than zero!");
+		this.maxBufferedScanRecords = maxBufferedScanRecords;
+	}
+
+	/**
+	 * Configures the {@link Executor} running the per node readers of a parallel scan. It needs one thread per node for
+	 * the duration of the scan. Defaults to a shared cached pool of daemon threads.
+	 * 
+	 * @param scanReaderExecutor can be {@literal null} to use the default.
+	 */
+	public void setScanReaderExecutor(Executor scanReaderExecutor) {
+		this.scanReaderExecutor = scanReaderExecutor;
+	}
+
+	/**
+	 * Configures how many records a sorted query without a row limit keeps in memory. Larger results are sorted in runs
+	 * spilled to temporary files and merged while iterating.
+	 * 
+	 * @param sortSpillThreshold must be greater than zero.
+	 */
+	public void setSortSpillThreshold(int sortSpillThreshold) {
+		Assert.isTrue(sortSpillThreshold > 0, "Sort spill threshold must be greater than zero!");
+		this.sortSpillThreshold = sortSpillThreshold;
+	}
+
+	/**
+	 * Configures the directory of the files spilled by sorted queries.
+	 * 
+	 * @param sortSpillDirectory can be {@literal null} to use the default temporary directory.
+	 */
+	public void setSortSpillDirectory(File sortSpillDirectory) {
+		this.sortSpillDirectory = sortSpillDirectory;
+	}
+
+	/**
+	 * Configures the {@link ForkJoinPool} converting the records of a parallel scan.
+	 * 
+	 * @param scanConversionPool can be {@literal null} to use the common pool.
+	 */
+	public void setScanConversionPool(ForkJoinPool scanConversionPool) {
+		this.scanConversionPool = scanConversionPool;
+	}
+
+	/**
+	 * Builds the mapping metadata of the given entity types in the mapping context of this template and in its
+	 * converter ahead of their first use.
+	 *
+	 * @param types the entity types, must not be {@literal null}.
+	 * @see MappingAerospikeConverter#warmUp(Collection)
+	 */
+	public void warmUp(Collection<Class<?>> types) {
+		Assert.notNull(types, "Types must not be null!");
+		for (Class<?> type : types) {
+			mappingContext.getPersistentEntity(type);
+		}
+		converter.warmUp(types);
+	}
+
 	@Override
 	public String getSetName(Class<?> entityClass) {
 		AerospikePersistentEntity<?> entity = converter.getMappingContext()
@@ -460,9 +787,31 @@ public class AerospikeTemplate implements AerospikeOperations {
 	}
 
 	@Override
-	public <T> Iterable<T> findAll(Sort sort, Class<T> type) {
-		// TODO Auto-generated method stub
-		return null;
+	public <T> Iterable<T> findAll(final Sort sort, final Class<T> type) {
+		Assert.notNull(type, "Type must not be null!");
+		if (sort == null) {
+			return findAll(type);
+		}
+		/*
+		 * callers of an Iterable never close its iterator, so the run files are read back and deleted here
+		 */
+		KeyRecordIterator records = queryEngine.select(namespace, getSetName(type), null, (Qualifier[]) null);
+		CloseableIterator<T> sorted = null;
+		try {
+			sorted = new EntitySorter<T>(CompiledPropertyComparator.of(type, sort), entityMapper(type),
+					sortSpillThreshold, sortSpillDirectory).sort(records);
+			List<T> result = new ArrayList<T>();
+			while (sorted.hasNext()) {
+				result.add(sorted.next());
+			}
+			return result;
+		}
+		finally {
+			if (sorted != null) {
+				sorted.close();
+			}
+			closeQuietly(records);
+		}
 	}
 
 	@SuppressWarnings("unused")
@@ -476,15 +825,71 @@ public class AerospikeTemplate implements AerospikeOperations {
 				: ClassUtils.isAssignable(requiredType, candidate.getClass());
 	}
 
+	@Override
 	public boolean exists(Query<?> query, Class<?> entityClass) {
 		if (query == null) {
 			throw new InvalidDataAccessApiUsageException(
 					"Query passed in to exist can't be null");
 		}
+		Assert.notNull(entityClass, "Type must not be null!");
+
+		KeyRecordIterator records = selectKeys(query, entityClass);
+		try {
+			return records.hasNext();
+		}
+		catch (AerospikeException o_O) {
+			DataAccessException translatedException = exceptionTranslator
+					.translateExceptionIfPossible(o_O);
+			throw translatedException == null ? o_O : translatedException;
+		}
+		finally {
+			closeQuietly(records);
+		}
+	}
 
-		Iterator<?> iterator = (Iterator<?>) find(query, entityClass).iterator();
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.springframework.data.aerospike.core.AerospikeOperations#delete(org.
+	 * springframework.data.aerospike.repository.query.Query, java.lang.Class)
+	 */
+	@Override
+	public long delete(Query<?> query, Class<?> type) {
+		Assert.notNull(query, "Query must not be null!");
+		Assert.notNull(type, "Type must not be null!");
 
-		return iterator.hasNext();
+		KeyRecordIterator records = selectKeys(query, type);
+		try {
+			long deleted = 0;
+			while (records.hasNext()) {
+				if (client.delete(null, records.next().key)) {
+					deleted++;
+				}
+			}
+			return deleted;
+		}
+		catch (AerospikeException o_O) {
+			DataAccessException translatedException = exceptionTranslator
+					.translateExceptionIfPossible(o_O);
+			throw translatedException == null ? o_O : translatedException;
+		}
+		finally {
+			closeQuietly(records);
+		}
+	}
+
+	/*
+	 * the keys of the records matching the query, the records come back
+	 * without their bins, or with the metadata bin only when the query
+	 * engine streams them rather than running them through query_meta
+	 */
+	private KeyRecordIterator selectKeys(Query<?> query, Class<?> type) {
+		Statement statement = new Statement();
+		statement.setNamespace(this.namespace);
+		statement.setSetName(getSetName(type));
+		statement.setBinNames(AerospikeMetadataBin.AEROSPIKE_META_DATA);
+		return this.queryEngine.select(statement, true, null, query.getFilterMode(), qualifiersOf(query));
 	}
 
 	/*
@@ -513,16 +918,19 @@ public class AerospikeTemplate implements AerospikeOperations {
 	 * org.springframework.data.aerospike.core.AerospikeOperations#count(org.
 	 * springframework.data.aerospike.repository.query.Query, java.lang.Class)
 	 */
-	@SuppressWarnings("rawtypes")
 	@Override
 	public int count(Query<?> query, Class<?> type) {
 		Assert.notNull(query, "Query must not be null!");
 		Assert.notNull(type, "Type must not be null!");
-		int i = 0;
-		Iterator iterator = (Iterator<?>) find(query, type).iterator();
-		for (; iterator.hasNext(); ++i)
-			iterator.next();
-		return i;
+		try {
+			long count = queryEngine.count(this.namespace, getSetName(type), qualifiersOf(query));
+			return (int) Math.min(count, Integer.MAX_VALUE);
+		}
+		catch (AerospikeException o_O) {
+			DataAccessException translatedException = exceptionTranslator
+					.translateExceptionIfPossible(o_O);
+			throw translatedException == null ? o_O : translatedException;
+		}
 	}
 
 	/*
@@ -532,29 +940,110 @@ public class AerospikeTemplate implements AerospikeOperations {
 	 * org.springframework.data.aerospike.core.AerospikeOperations#find(org.
 	 * springframework.data.aerospike.repository.query.Query, java.lang.Class)
 	 */
-	@SuppressWarnings({ "rawtypes", "unchecked" })
 	@Override
 	public <T> Iterable<T> find(Query<?> query, Class<T> type) {
 		Assert.notNull(query, "Query must not be null!");
 		Assert.notNull(type, "Type must not be null!");
-		List<Qualifier> qualifiers = null;
-		Filter secondaryFilter = null;
-		qualifiers = query.getQueryObject();
-		if (qualifiers != null && qualifiers.size() > 0) {
-			secondaryFilter = qualifiers.get(0).asFilter();
-			if (secondaryFilter != null) {
-				qualifiers.remove(0);
+
+		/*
+		 * callers of an Iterable never close its iterator, so the records are read here and the query closed
+		 */
+		CloseableIterator<T> results = stream(query, type);
+		try {
+			List<T> result = new ArrayList<T>();
+			while (results.hasNext()) {
+				result.add(results.next());
+			}
+			return result;
+		}
+		finally {
+			results.close();
+		}
+	}
+
+	@Override
+	public <T> CloseableIterator<T> stream(Query<?> query, Class<T> type) {
+		Assert.notNull(query, "Query must not be null!");
+		Assert.notNull(type, "Type must not be null!");
+
+		int offset = Math.max(query.getOffset(), 0);
+		int rows = query.getRows();
+		List<String> fields = fieldsOf(query);
+		Statement statement = new Statement();
+		statement.setNamespace(this.namespace);
+		statement.setSetName(getSetName(type));
+		if (fields != null) {
+			statement.setBinNames(binNamesOf(type, fields));
+		}
+		KeyRecordIterator records = this.queryEngine.select(statement, false, null, query.getFilterMode(),
+				qualifiersOf(query));
+		if (query.getSort() == null) {
+			skip(records, offset);
+			return new PagedIterator<T>(new EntityIterator<T>(type, converter, records, fields), 0, rows);
+		}
+
+		EntitySorter<T> sorter = new EntitySorter<T>(CompiledPropertyComparator.of(type, query.getSort()),
+				entityMapper(type, fields), this.sortSpillThreshold, this.sortSpillDirectory);
+		try {
+			if (rows > 0) {
+				List<T> top = sorter.top(records, offset + rows);
+				return new PagedIterator<T>(top.iterator(), offset, rows);
+			}
+			return new PagedIterator<T>(sorter.sort(records), offset, rows);
+		}
+		catch (AerospikeException o_O) {
+			DataAccessException translatedException = exceptionTranslator
+					.translateExceptionIfPossible(o_O);
+			throw translatedException == null ? o_O : translatedException;
+		}
+		finally {
+			closeQuietly(records);
+		}
+	}
+
+	private <T> Function<KeyRecord, T> entityMapper(final Class<T> type) {
+		return entityMapper(type, null);
+	}
+
+	private <T> Function<KeyRecord, T> entityMapper(final Class<T> type, final Collection<String> fields) {
+		return new Function<KeyRecord, T>() {
+
+			@Override
+			public T apply(KeyRecord keyRecord) {
+				AerospikeData data = AerospikeData.forRead(keyRecord.key, null);
+				data.setRecord(keyRecord.record);
+				return converter.read(type, data, fields);
 			}
+		};
+	}
+
+	private static void closeQuietly(KeyRecordIterator records) {
+		try {
+			records.close();
+		}
+		catch (IOException e) {
+			// the records have been read
 		}
+	}
+	@Override
+	public QueryPlan explain(Query<?> query, Class<?> type) {
+		Assert.notNull(query, "Query must not be null!");
+		Assert.notNull(type, "Type must not be null!");
+		return queryEngine.explain(this.namespace, getSetName(type), qualifiersOf(query));
+	}
 
-		final Iterable<T> results = findAllUsingQuery(type, secondaryFilter, qualifiers.toArray(new Qualifier[qualifiers.size()]));
-		List<?> returnedList = IterableConverter.toList(results);
-		if(results!=null && query.getSort()!=null){
-			Comparator comparator = aerospikePropertyComparator(query);
-			Collections.sort(returnedList, comparator);
+	/*
+	 * The query engine chooses the secondary index filter, a copy is handed
+	 * over so the query stays reusable.
+	 */
+	private Qualifier[] qualifiersOf(Query<?> query) {
+		List<Qualifier> qualifiers = query.getQueryObject();
+		if (qualifiers == null) {
+			return new Qualifier[0];
 		}
-		return (Iterable<T>) returnedList;
+		return qualifiers.toArray(new Qualifier[qualifiers.size()]);
 	}
+
 	@SuppressWarnings({ "rawtypes", "unchecked" })
 	public Comparator<?> aerospikePropertyComparator(Query<?> query ) {
 
@@ -601,57 +1090,208 @@ public class AerospikeTemplate implements AerospikeOperations {
 	public <T> Iterable<T> findInRange(int offset, int rows, Sort sort,
 			Class<T> type) {
 		Assert.notNull(type, "Type for count must not be null!");
-		final long rowCount = rows;
-		final AtomicLong count = new AtomicLong(0);
-		final Iterable<T> results = findAllUsingQuery(type, null, (Qualifier[])null);
-		final Iterator<T> iterator = results.iterator();
-		/*
-		 * skip over offset
-		 */
+		if (rows <= 0) {
+			return Collections.emptyList();
+		}
+		KeyRecordIterator records = this.queryEngine.select(this.namespace, getSetName(type), null, (Qualifier[]) null);
+		try {
+			if (sort != null) {
+				EntitySorter<T> sorter = new EntitySorter<T>(CompiledPropertyComparator.of(type, sort),
+						entityMapper(type), this.sortSpillThreshold, this.sortSpillDirectory);
+				List<T> top = sorter.top(records, offset + rows);
+				return top.subList(Math.min(offset, top.size()), top.size());
+			}
+			/*
+			 * skipped records are not converted
+			 */
+			skip(records, offset);
+			List<T> result = new ArrayList<T>(rows);
+			Function<KeyRecord, T> mapper = entityMapper(type);
+			while (result.size() < rows && records.hasNext()) {
+				result.add(mapper.apply(records.next()));
+			}
+			return result;
+		}
+		catch (AerospikeException o_O) {
+			DataAccessException translatedException = exceptionTranslator
+					.translateExceptionIfPossible(o_O);
+			throw translatedException == null ? o_O : translatedException;
+		}
+		finally {
+			closeQuietly(records);
+		}
+	}
 
-		for (int skip = 0; skip < offset; skip++) {
-			if (iterator.hasNext())
-				iterator.next();
+	private static void skip(Iterator<KeyRecord> records, long count) {
+		for (long skipped = 0; skipped < count && records.hasNext(); skipped++) {
+			records.next();
 		}
-		/*
-		 * setup the iterable litimed by 'rows'
-		 */
+	}
+
+	@Override
+	public <T> ContinuationSlice<T> findAll(String continuation, int size, Class<T> type) {
+		Assert.isTrue(size > 0, "Size must be greater than zero!");
+		Assert.notNull(type, "Type must not be null!");
 
-		Iterable<T> returnList = new Iterable<T>() {
+		Node[] nodes = client.getNodes();
+		Arrays.sort(nodes, new Comparator<Node>() {
 
 			@Override
-			public Iterator<T> iterator() {
-				return new Iterator<T>() {
+			public int compare(Node left, Node right) {
+				return left.getName().compareTo(right.getName());
+			}
+		});
+		int nodeIndex = 0;
+		byte[] after = null;
+		if (continuation != null) {
+			ScanPosition resumed = ScanPosition.decode(continuation);
+			nodeIndex = -1;
+			for (int i = 0; i < nodes.length; i++) {
+				if (nodes[i].getName().equals(resumed.nodeName))
+					nodeIndex = i;
+			}
+			if (nodeIndex < 0) {
+				throw new InvalidDataAccessApiUsageException("Node " + resumed.nodeName
+						+ " of the continuation is no longer part of the cluster");
+			}
+			after = resumed.digest;
+		}
 
-					@Override
-					public boolean hasNext() {
-						if (count.get() == rowCount) {
-							((EntityIterator<T>) iterator).close();
-							return false;
-						}
-						else {
-							return iterator.hasNext();
-						}
+		String setName = getSetName(type);
+		Function<KeyRecord, T> mapper = entityMapper(type);
+		List<T> content = new ArrayList<T>(size);
+		try {
+			for (; nodeIndex < nodes.length; nodeIndex++, after = null) {
+				DigestWindow window = new DigestWindow(after, size - content.size());
+				ScanPolicy scanPolicy = new ScanPolicy();
+				scanPolicy.includeBinData = false;
+				client.scanNode(scanPolicy, nodes[nodeIndex], this.namespace, setName, window);
+
+				List<byte[]> digests = window.digests();
+				if (!digests.isEmpty()) {
+					Key[] keys = new Key[digests.size()];
+					for (int i = 0; i < keys.length; i++) {
+						keys[i] = new Key(this.namespace, digests.get(i), setName, null);
 					}
-
-					@Override
-					public T next() {
-						if (count.addAndGet(1) <= rowCount) {
-							return iterator.next();
-						}
-						else {
-							return null;
-						}
+					Record[] records = client.get(this.batchPolicy, keys);
+					for (int i = 0; i < keys.length; i++) {
+						/*
+						 * a record deleted since the scan is simply left out
+						 */
+						if (records[i] != null)
+							content.add(mapper.apply(new KeyRecord(keys[i], records[i])));
 					}
+				}
+				if (window.hasMore()) {
+					String next = new ScanPosition(nodes[nodeIndex].getName(), digests.get(digests.size() - 1)).encode();
+					return new ContinuationSlice<T>(content, size, next);
+				}
+				if (content.size() == size) {
+					String next = null;
+					if (nodeIndex + 1 < nodes.length)
+						next = new ScanPosition(nodes[nodeIndex + 1].getName(), null).encode();
+					return new ContinuationSlice<T>(content, size, next);
+				}
+			}
+		}
+		catch (AerospikeException o_O) {
+			DataAccessException translatedException = exceptionTranslator
+					.translateExceptionIfPossible(o_O);
+			throw translatedException == null ? o_O : translatedException;
+		}
+		return new ContinuationSlice<T>(content, size, null);
+	}
 
-					@Override
-					public void remove() {
+	/**
+	 * Compares digests as unsigned bytes, the order of the slices of a node.
+	 */
+	static int compareDigests(byte[] left, byte[] right) {
+		int length = Math.min(left.length, right.length);
+		for (int i = 0; i < length; i++) {
+			int difference = (left[i] & 0xff) - (right[i] & 0xff);
+			if (difference != 0)
+				return difference;
+		}
+		return left.length - right.length;
+	}
 
-					}
-				};
+	/**
+	 * Keeps the smallest digests of a node scan that follow the digest a slice resumes after.
+	 */
+	private static class DigestWindow implements ScanCallback {
+		private static final Comparator<byte[]> DESCENDING = new Comparator<byte[]>() {
+
+			@Override
+			public int compare(byte[] left, byte[] right) {
+				return compareDigests(right, left);
 			}
 		};
-		return (Iterable<T>) returnList;// TODO:create a sort
+
+		private final byte[] after;
+		private final int limit;
+		private final PriorityQueue<byte[]> smallest;
+		private long following;
+
+		DigestWindow(byte[] after, int limit) {
+			this.after = after;
+			this.limit = limit;
+			this.smallest = new PriorityQueue<byte[]>(limit, DESCENDING);
+		}
+
+		@Override
+		public synchronized void scanCallback(Key key, Record record) throws AerospikeException {
+			if (after != null && compareDigests(key.digest, after) <= 0)
+				return;
+			following++;
+			if (smallest.size() < limit) {
+				smallest.add(key.digest);
+			} else if (compareDigests(key.digest, smallest.peek()) < 0) {
+				smallest.poll();
+				smallest.add(key.digest);
+			}
+		}
+
+		synchronized List<byte[]> digests() {
+			List<byte[]> digests = new ArrayList<byte[]>(smallest);
+			Collections.sort(digests, Collections.reverseOrder(DESCENDING));
+			return digests;
+		}
+
+		synchronized boolean hasMore() {
+			return following > limit;
+		}
+	}
+
+	/**
+	 * Position of a scan: the node being read and the digest of its last record returned, {@literal null} before the
+	 * first one.
+	 */
+	private static class ScanPosition {
+		final String nodeName;
+		final byte[] digest;
+
+		ScanPosition(String nodeName, byte[] digest) {
+			this.nodeName = nodeName;
+			this.digest = digest;
+		}
+
+		String encode() {
+			String value = nodeName + ":" + (digest == null ? "" : Base64.getUrlEncoder().withoutPadding().encodeToString(digest));
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+		}
+
+		static ScanPosition decode(String continuation) {
+			try {
+				String value = new String(Base64.getUrlDecoder().decode(continuation), StandardCharsets.UTF_8);
+				int separator = value.lastIndexOf(':');
+				String digest = value.substring(separator + 1);
+				return new ScanPosition(value.substring(0, separator),
+						digest.isEmpty() ? null : Base64.getUrlDecoder().decode(digest));
+			}
+			catch (RuntimeException e) {
+				throw new InvalidDataAccessApiUsageException("Invalid continuation " + continuation, e);
+			}
+		}
 	}
 
 	@Override
@@ -672,30 +1312,26 @@ public class AerospikeTemplate implements AerospikeOperations {
 	@Override
 	public long count(Class<?> type, String setName) {
 		Assert.notNull(type, "Type for count must not be null!");
-		Node[] nodes = client.getNodes();
-		int replicationCount = 2;
-		int nodeCount = nodes.length;
-		int n_objects = 0;
-		for (Node node : nodes) {
-			String infoString = Info.request(node,
-					"sets/" + this.namespace + "/" + setName);
-			String n_objectsString = infoString.substring(
-					infoString.indexOf("=") + 1, infoString.indexOf(":"));
-			n_objects = Integer.parseInt(n_objectsString);
+		try {
+			return queryEngine.countObjects(this.namespace, setName);
+		}
+		catch (AerospikeException o_O) {
+			DataAccessException translatedException = exceptionTranslator
+					.translateExceptionIfPossible(o_O);
+			throw translatedException == null ? o_O : translatedException;
 		}
-
-		return (nodeCount > 1) ? n_objects / replicationCount : n_objects;
 	}
 
 	protected <T> Iterable<T> findAllUsingQuery(Class<T> type, Filter filter, Qualifier... qualifiers) {
+		return findAllUsingQuery(type, filter, null, qualifiers);
+	}
+
+	protected <T> Iterable<T> findAllUsingQuery(Class<T> type, Filter filter, FilterMode filterMode, Qualifier... qualifiers) {
 		final Class<T> classType = type;
-		Statement stmt = new Statement();
-		stmt.setNamespace(this.namespace);
-		stmt.setSetName(this.getSetName(type));
 		Iterable<T> results = null;
 
 		final KeyRecordIterator recIterator = this.queryEngine.select(
-				this.namespace, this.getSetName(type), filter, qualifiers);
+				this.namespace, this.getSetName(type), filter, filterMode, qualifiers);
 
 		results = new Iterable<T>() {
 
@@ -712,13 +1348,24 @@ public class AerospikeTemplate implements AerospikeOperations {
 		private KeyRecordIterator keyRecordIterator;
 		private MappingAerospikeConverter converter;
 		private Class<T> type;
+		private Collection<String> fields;
 		
 		public EntityIterator(Class<T> type,
 				MappingAerospikeConverter converter,
 				KeyRecordIterator keyRecordIterator) {
+			this(type, converter, keyRecordIterator, null);
+		}
+
+		/**
+		 * @param fields the properties to populate, {@literal null} for all of them.
+		 */
+		public EntityIterator(Class<T> type,
+				MappingAerospikeConverter converter,
+				KeyRecordIterator keyRecordIterator, Collection<String> fields) {
 			this.converter = converter;
 			this.type = type;
 			this.keyRecordIterator = keyRecordIterator;
+			this.fields = fields;
 		}
 
 		@Override
@@ -731,7 +1378,10 @@ public class AerospikeTemplate implements AerospikeOperations {
 			KeyRecord keyRecord = this.keyRecordIterator.next();
 			AerospikeData data = AerospikeData.forRead(keyRecord.key, null);
 			data.setRecord(keyRecord.record);
-			return converter.read(type, data);
+			if (lazyLoading && fields == null) {
+				return converter.readLazily(type, data);
+			}
+			return converter.read(type, data, fields);
 		}
 
 		@Override
@@ -751,6 +1401,53 @@ public class AerospikeTemplate implements AerospikeOperations {
 		}
 	}
 
+	/**
+	 * Skips the first offset elements of another iterator and returns at most rows elements.
+	 */
+	private static class PagedIterator<T> implements CloseableIterator<T> {
+		private final Iterator<T> iterator;
+		private final int rows;
+		private int returned;
+
+		PagedIterator(Iterator<T> iterator, int offset, int rows) {
+			this.iterator = iterator;
+			this.rows = rows;
+			for (int skip = 0; skip < offset && iterator.hasNext(); skip++) {
+				iterator.next();
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (rows > 0 && returned >= rows) {
+				close();
+				return false;
+			}
+			return iterator.hasNext();
+		}
+
+		@Override
+		public T next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			returned++;
+			return iterator.next();
+		}
+
+		@Override
+		public void close() {
+			if (iterator instanceof CloseableIterator) {
+				((CloseableIterator<?>) iterator).close();
+			}
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public <T> T prepend(T objectToPrependTo, String fieldName, String value) {
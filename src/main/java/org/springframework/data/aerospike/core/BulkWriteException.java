@@ -0,0 +1,41 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.aerospike.core;
+
+import org.springframework.dao.DataAccessException;
+
+/**
+ * Thrown when some records of a bulk write failed. All other records of the batch have been written, the
+ * {@link BulkWriteResult} tells which ones did not.
+ *
+ * @author Peter Milne
+ */
+public class BulkWriteException extends DataAccessException {
+
+	private static final long serialVersionUID = 3263815734589113548L;
+
+	private final BulkWriteResult result;
+
+	public BulkWriteException(BulkWriteResult result) {
+		super(result.getFailures().size() + " record(s) of the bulk write failed, "
+				+ result.getSuccessCount() + " written", result.getFailures().get(0).getCause());
+		this.result = result;
+	}
+
+	public BulkWriteResult getResult() {
+		return result;
+	}
+}
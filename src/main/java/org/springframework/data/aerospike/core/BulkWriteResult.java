@@ -0,0 +1,93 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.aerospike.core;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a bulk write. Records that could not be written are reported one by one instead of aborting the whole
+ * batch.
+ *
+ * @author Peter Milne
+ */
+public class BulkWriteResult {
+
+	private final long successCount;
+	private final List<Failure> failures;
+
+	public BulkWriteResult(long successCount, List<Failure> failures) {
+		this.successCount = successCount;
+		this.failures = failures == null ? Collections.<Failure> emptyList()
+				: Collections.unmodifiableList(failures);
+	}
+
+	/**
+	 * @return the number of records written successfully.
+	 */
+	public long getSuccessCount() {
+		return successCount;
+	}
+
+	/**
+	 * @return the records that could not be written, never {@literal null}.
+	 */
+	public List<Failure> getFailures() {
+		return failures;
+	}
+
+	public boolean hasFailures() {
+		return !failures.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return "BulkWriteResult [successCount=" + successCount + ", failureCount=" + failures.size() + "]";
+	}
+
+	/**
+	 * A single record that could not be written.
+	 */
+	public static class Failure {
+
+		private final Object entity;
+		private final RuntimeException cause;
+
+		public Failure(Object entity, RuntimeException cause) {
+			this.entity = entity;
+			this.cause = cause;
+		}
+
+		/**
+		 * @return the entity that was about to be written.
+		 */
+		public Object getEntity() {
+			return entity;
+		}
+
+		/**
+		 * @return the (translated) exception raised for this record.
+		 */
+		public RuntimeException getCause() {
+			return cause;
+		}
+
+		@Override
+		public String toString() {
+			return "Failure [entity=" + entity + ", cause=" + cause + "]";
+		}
+	}
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.aerospike.core;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.domain.Sort.Order;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link Comparator} ordering entities by the properties of a {@link Sort}, with the semantics of
+ * {@link org.springframework.beans.support.PropertyComparator} ignoring case: strings compare case-insensitively and
+ * objects with a {@literal null} property sort last. The property paths are resolved once into {@link MethodHandle}s
+ * of the getters or fields instead of being looked up reflectively on every comparison.
+ *
+ * @author Peter Milne
+ */
+final class CompiledPropertyComparator<T> implements Comparator<T> {
+
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	private final List<PropertyOrder> orders;
+
+	private CompiledPropertyComparator(List<PropertyOrder> orders) {
+		this.orders = orders;
+	}
+
+	/**
+	 * Creates a comparator for the given type.
+	 *
+	 * @param type the type of the compared entities.
+	 * @param sort must not be {@literal null}.
+	 * @return the comparator.
+	 * @throws IllegalArgumentException if a property of the sort cannot be read from the type.
+	 */
+	static <T> CompiledPropertyComparator<T> of(Class<T> type, Sort sort) {
+		List<PropertyOrder> orders = new ArrayList<PropertyOrder>();
+		for (Order order : sort) {
+			orders.add(new PropertyOrder(accessor(type, order.getProperty()), !Direction.DESC.equals(order.getDirection())));
+		}
+		return new CompiledPropertyComparator<T>(orders);
+	}
+
+	/*
+	 * chains the accessors of a dotted property path
+	 */
+	private static MethodHandle[] accessor(Class<?> type, String path) {
+		String[] names = StringUtils.delimitedListToStringArray(path, ".");
+		MethodHandle[] handles = new MethodHandle[names.length];
+		Class<?> owner = type;
+		for (int i = 0; i < names.length; i++) {
+			MethodHandle handle = accessor(owner, names[i], path);
+			owner = handle.type().returnType();
+			handles[i] = handle.asType(GETTER_TYPE);
+		}
+		return handles;
+	}
+
+	private static MethodHandle accessor(Class<?> owner, String name, String path) {
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		try {
+			PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(owner, name);
+			Method getter = descriptor == null ? null : descriptor.getReadMethod();
+			if (getter != null) {
+				ReflectionUtils.makeAccessible(getter);
+				return lookup.unreflect(getter);
+			}
+			Field field = ReflectionUtils.findField(owner, name);
+			if (field != null) {
+				ReflectionUtils.makeAccessible(field);
+				return lookup.unreflectGetter(field);
+			}
+		}
+		catch (IllegalAccessException e) {
+			throw new IllegalArgumentException("Cannot access property " + path + " of " + owner.getName(), e);
+		}
+		throw new IllegalArgumentException("No property " + path + " found on " + owner.getName());
+	}
+
+	@Override
+	public int compare(T left, T right) {
+		for (PropertyOrder order : orders) {
+			int result = order.compare(left, right);
+			if (result != 0) {
+				return result;
+			}
+		}
+		return 0;
+	}
+
+	private static class PropertyOrder {
+
+		private final MethodHandle[] path;
+		private final boolean ascending;
+
+		PropertyOrder(MethodHandle[] path, boolean ascending) {
+			this.path = path;
+			this.ascending = ascending;
+		}
+
+		@SuppressWarnings("unchecked")
+		int compare(Object left, Object right) {
+			Object v1 = value(left);
+			Object v2 = value(right);
+			int result;
+			if (v1 instanceof String && v2 instanceof String) {
+				result = ((String) v1).compareToIgnoreCase((String) v2);
+			}
+			else if (v1 != null) {
+				result = v2 != null ? ((Comparable<Object>) v1).compareTo(v2) : -1;
+			}
+			else {
+				result = v2 != null ? 1 : 0;
+			}
+			return ascending ? result : -result;
+		}
+
+		/*
+		 * a null on the path reads as a null property
+		 */
+		private Object value(Object target) {
+			Object value = target;
+			try {
+				for (MethodHandle handle : path) {
+					if (value == null) {
+						return null;
+					}
+					value = handle.invokeExact(value);
+				}
+			}
+			catch (RuntimeException e) {
+				throw e;
+			}
+			catch (Error e) {
+				throw e;
+			}
+			catch (Throwable e) {
+				throw new IllegalStateException("Cannot read sort property", e);
+			}
+			return value;
+		}
+	}
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.aerospike.core;
+
+import java.util.List;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+/**
+ * A page of a set scan that can be resumed. The next page is requested with the opaque {@link #getContinuation()}
+ * token instead of a page number, so reading it does not read the previous pages again.
+ *
+ * @author Peter Milne
+ */
+public class ContinuationSlice<T> extends SliceImpl<T> {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String continuation;
+
+	public ContinuationSlice(List<T> content, int size, String continuation) {
+		super(content, new PageRequest(0, Math.max(size, 1)), continuation != null);
+		this.continuation = continuation;
+	}
+
+	/**
+	 * @return the token resuming the scan after this slice, {@literal null} if the scan is complete.
+	 */
+	public String getContinuation() {
+		return continuation;
+	}
+}
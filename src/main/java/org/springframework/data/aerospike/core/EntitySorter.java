@@ -0,0 +1,497 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.aerospike.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.util.CloseableIterator;
+
+import com.aerospike.client.Key;
+import com.aerospike.client.Record;
+import com.aerospike.client.Value;
+import com.aerospike.client.query.KeyRecord;
+
+/**
+ * Sorts the entities read from a stream of records. A bounded sort keeps only the first k entities in a heap; a full
+ * sort buffers up to a threshold of records in memory and spills every full buffer as a sorted run of records to a
+ * temporary file, the runs are merged while iterating. When there are more runs than the fan-in, groups of runs are
+ * merged into longer runs first, so that no more than fan-in files are open at a time. Spilled records are converted
+ * again when they are read back.
+ *
+ * @author Peter Milne
+ */
+class EntitySorter<T> {
+
+	static final int DEFAULT_MAX_FAN_IN = 64;
+
+	private final Comparator<? super T> comparator;
+	private final Function<KeyRecord, T> mapper;
+	private final int spillThreshold;
+	private final File spillDirectory;
+	private final int maxFanIn;
+
+	/**
+	 * @param comparator the order of the entities.
+	 * @param mapper converts a record.
+	 * @param spillThreshold number of records kept in memory before a run is spilled.
+	 * @param spillDirectory directory of the run files, {@literal null} for the default temporary directory.
+	 */
+	EntitySorter(Comparator<? super T> comparator, Function<KeyRecord, T> mapper, int spillThreshold,
+			File spillDirectory) {
+		this(comparator, mapper, spillThreshold, spillDirectory, DEFAULT_MAX_FAN_IN);
+	}
+
+	/**
+	 * @param comparator the order of the entities.
+	 * @param mapper converts a record.
+	 * @param spillThreshold number of records kept in memory before a run is spilled.
+	 * @param spillDirectory directory of the run files, {@literal null} for the default temporary directory.
+	 * @param maxFanIn maximum number of runs merged at once, must be at least two.
+	 */
+	EntitySorter(Comparator<? super T> comparator, Function<KeyRecord, T> mapper, int spillThreshold,
+			File spillDirectory, int maxFanIn) {
+		if (maxFanIn < 2) {
+			throw new IllegalArgumentException("Fan-in must be at least two");
+		}
+		this.comparator = comparator;
+		this.mapper = mapper;
+		this.spillThreshold = spillThreshold;
+		this.spillDirectory = spillDirectory;
+		this.maxFanIn = maxFanIn;
+	}
+
+	/**
+	 * Returns the first entities in sort order.
+	 *
+	 * @param records the records to sort.
+	 * @param limit the number of entities to keep, must be greater than zero.
+	 * @return at most limit sorted entities.
+	 */
+	List<T> top(Iterator<KeyRecord> records, int limit) {
+		PriorityQueue<T> heap = new PriorityQueue<T>(Math.min(limit, 1024), Collections.reverseOrder(comparator));
+		while (records.hasNext()) {
+			KeyRecord record = records.next();
+			if (record == null) {
+				continue;
+			}
+			T entity = mapper.apply(record);
+			if (heap.size() < limit) {
+				heap.add(entity);
+			}
+			else if (comparator.compare(entity, heap.peek()) < 0) {
+				heap.poll();
+				heap.add(entity);
+			}
+		}
+		List<T> result = new ArrayList<T>(heap);
+		Collections.sort(result, comparator);
+		return result;
+	}
+
+	/**
+	 * Sorts all entities, spilling to disk when there are more records than the threshold. Equal entities keep the
+	 * order of their records.
+	 *
+	 * @param records the records to sort.
+	 * @return an iterator over the sorted entities, deleting the run files when closed.
+	 */
+	CloseableIterator<T> sort(Iterator<KeyRecord> records) {
+		List<File> runs = new ArrayList<File>();
+		List<Sortable<T>> buffer = new ArrayList<Sortable<T>>();
+		try {
+			while (records.hasNext()) {
+				KeyRecord record = records.next();
+				if (record == null) {
+					continue;
+				}
+				buffer.add(new Sortable<T>(mapper.apply(record), record));
+				if (buffer.size() >= spillThreshold) {
+					runs.add(spill(buffer));
+					buffer.clear();
+				}
+			}
+			/*
+			 * the run in memory takes a slot of the final merge
+			 */
+			while (runs.size() + 1 > maxFanIn) {
+				runs = mergePass(runs);
+			}
+		}
+		catch (RuntimeException e) {
+			delete(runs);
+			throw e;
+		}
+		sort(buffer);
+
+		List<RunCursor<T>> cursors = new ArrayList<RunCursor<T>>(runs.size() + 1);
+		try {
+			for (File run : runs) {
+				cursors.add(new FileCursor(cursors.size(), run));
+			}
+		}
+		catch (RuntimeException e) {
+			for (RunCursor<T> cursor : cursors) {
+				cursor.close();
+			}
+			delete(runs);
+			throw e;
+		}
+		cursors.add(new MemoryCursor<T>(cursors.size(), buffer));
+		return new MergeIterator(cursors);
+	}
+
+	/**
+	 * Merges consecutive groups of runs, so that the order of equal entities is kept.
+	 *
+	 * @param runs the run files, deleted once merged.
+	 * @return the merged runs.
+	 */
+	private List<File> mergePass(List<File> runs) {
+		List<File> merged = new ArrayList<File>(runs.size() / maxFanIn + 1);
+		try {
+			for (int from = 0; from < runs.size(); from += maxFanIn) {
+				List<File> group = runs.subList(from, Math.min(from + maxFanIn, runs.size()));
+				merged.add(group.size() == 1 ? group.get(0) : merge(group));
+			}
+			return merged;
+		}
+		catch (RuntimeException e) {
+			for (File run : merged) {
+				if (!runs.contains(run)) {
+					run.delete();
+				}
+			}
+			throw e;
+		}
+	}
+
+	private File merge(List<File> group) {
+		List<FileCursor> cursors = new ArrayList<FileCursor>(group.size());
+		File run = null;
+		try {
+			for (File file : group) {
+				cursors.add(new FileCursor(cursors.size(), file));
+			}
+			PriorityQueue<RunCursor<T>> queue = new PriorityQueue<RunCursor<T>>(cursors.size(), cursorOrder());
+			for (FileCursor cursor : cursors) {
+				if (cursor.advance()) {
+					queue.add(cursor);
+				}
+			}
+			run = File.createTempFile("aerospike-sort-", ".run", spillDirectory);
+			ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(run)));
+			try {
+				while (!queue.isEmpty()) {
+					FileCursor cursor = (FileCursor) queue.poll();
+					write(out, cursor.record);
+					if (cursor.advance()) {
+						queue.add(cursor);
+					}
+				}
+			}
+			finally {
+				out.close();
+			}
+			return run;
+		}
+		catch (IOException e) {
+			if (run != null) {
+				run.delete();
+			}
+			throw new DataAccessResourceFailureException("Cannot merge sorted records to " + run, e);
+		}
+		catch (RuntimeException e) {
+			if (run != null) {
+				run.delete();
+			}
+			throw e;
+		}
+		finally {
+			for (FileCursor cursor : cursors) {
+				cursor.close();
+			}
+		}
+	}
+
+	/**
+	 * Orders cursors by their head entity, the index of the run breaks ties so that the merge is stable.
+	 */
+	private Comparator<RunCursor<T>> cursorOrder() {
+		return new Comparator<RunCursor<T>>() {
+
+			@Override
+			public int compare(RunCursor<T> left, RunCursor<T> right) {
+				int result = comparator.compare(left.head, right.head);
+				return result != 0 ? result : Integer.compare(left.index, right.index);
+			}
+		};
+	}
+
+	private void sort(List<Sortable<T>> buffer) {
+		Collections.sort(buffer, new Comparator<Sortable<T>>() {
+
+			@Override
+			public int compare(Sortable<T> left, Sortable<T> right) {
+				return comparator.compare(left.entity, right.entity);
+			}
+		});
+	}
+
+	private File spill(List<Sortable<T>> buffer) {
+		sort(buffer);
+		File run = null;
+		try {
+			run = File.createTempFile("aerospike-sort-", ".run", spillDirectory);
+			ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(run)));
+			try {
+				for (Sortable<T> sortable : buffer) {
+					write(out, sortable.record);
+				}
+			}
+			finally {
+				out.close();
+			}
+			return run;
+		}
+		catch (IOException e) {
+			if (run != null) {
+				run.delete();
+			}
+			throw new DataAccessResourceFailureException("Cannot spill sorted records to " + run, e);
+		}
+	}
+
+	private static void write(ObjectOutputStream out, KeyRecord keyRecord) throws IOException {
+		Key key = keyRecord.key;
+		out.writeUTF(key.namespace);
+		out.writeObject(key.setName);
+		out.writeObject(key.digest);
+		out.writeObject(key.userKey == null ? null : key.userKey.getObject());
+		out.writeInt(keyRecord.record.generation);
+		out.writeInt(keyRecord.record.expiration);
+		out.writeObject(keyRecord.record.bins);
+		/*
+		 * records are written once, do not keep references to them
+		 */
+		out.reset();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static KeyRecord read(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		String namespace = in.readUTF();
+		String setName = (String) in.readObject();
+		byte[] digest = (byte[]) in.readObject();
+		Object userKey = in.readObject();
+		int generation = in.readInt();
+		int expiration = in.readInt();
+		Map<String, Object> bins = (Map<String, Object>) in.readObject();
+		Key key = new Key(namespace, digest, setName, userKey == null ? null : Value.get(userKey));
+		return new KeyRecord(key, new Record(bins, generation, expiration));
+	}
+
+	private static void delete(List<File> runs) {
+		for (File run : runs) {
+			run.delete();
+		}
+	}
+
+	private static class Sortable<T> {
+
+		final T entity;
+		final KeyRecord record;
+
+		Sortable(T entity, KeyRecord record) {
+			this.entity = entity;
+			this.record = record;
+		}
+	}
+
+	/**
+	 * Position in a sorted run. The index of the run breaks ties so that the merge is stable.
+	 */
+	private abstract static class RunCursor<T> {
+
+		final int index;
+		T head;
+
+		RunCursor(int index) {
+			this.index = index;
+		}
+
+		/**
+		 * Moves to the next entity of the run.
+		 *
+		 * @return false when the run is exhausted.
+		 */
+		abstract boolean advance();
+
+		abstract void close();
+	}
+
+	private static class MemoryCursor<T> extends RunCursor<T> {
+
+		private final Iterator<Sortable<T>> entities;
+
+		MemoryCursor(int index, List<Sortable<T>> entities) {
+			super(index);
+			this.entities = entities.iterator();
+		}
+
+		@Override
+		boolean advance() {
+			if (!entities.hasNext()) {
+				head = null;
+				return false;
+			}
+			head = entities.next().entity;
+			return true;
+		}
+
+		@Override
+		void close() {
+			head = null;
+		}
+	}
+
+	private class FileCursor extends RunCursor<T> {
+
+		private final File run;
+		private final ObjectInputStream in;
+		KeyRecord record;
+
+		FileCursor(int index, File run) {
+			super(index);
+			this.run = run;
+			try {
+				this.in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(run)));
+			}
+			catch (IOException e) {
+				throw new DataAccessResourceFailureException("Cannot read sorted records from " + run, e);
+			}
+		}
+
+		@Override
+		boolean advance() {
+			try {
+				record = read(in);
+				head = mapper.apply(record);
+				return true;
+			}
+			catch (EOFException e) {
+				close();
+				return false;
+			}
+			catch (IOException e) {
+				close();
+				throw new DataAccessResourceFailureException("Cannot read sorted records from " + run, e);
+			}
+			catch (ClassNotFoundException e) {
+				close();
+				throw new DataAccessResourceFailureException("Cannot read sorted records from " + run, e);
+			}
+		}
+
+		@Override
+		void close() {
+			head = null;
+			record = null;
+			try {
+				in.close();
+			}
+			catch (IOException e) {
+				// the run is deleted anyway
+			}
+			run.delete();
+		}
+	}
+
+	private class MergeIterator implements CloseableIterator<T> {
+
+		private final List<RunCursor<T>> cursors;
+		private final PriorityQueue<RunCursor<T>> queue;
+
+		MergeIterator(List<RunCursor<T>> cursors) {
+			this.cursors = cursors;
+			this.queue = new PriorityQueue<RunCursor<T>>(cursors.size(), cursorOrder());
+			try {
+				for (RunCursor<T> cursor : cursors) {
+					if (cursor.advance()) {
+						queue.add(cursor);
+					}
+				}
+			}
+			catch (RuntimeException e) {
+				close();
+				throw e;
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return !queue.isEmpty();
+		}
+
+		@Override
+		public T next() {
+			RunCursor<T> cursor = queue.poll();
+			if (cursor == null) {
+				throw new NoSuchElementException();
+			}
+			T result = cursor.head;
+			try {
+				if (cursor.advance()) {
+					queue.add(cursor);
+				}
+			}
+			catch (RuntimeException e) {
+				close();
+				throw e;
+			}
+			return result;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void close() {
+			queue.clear();
+			for (RunCursor<T> cursor : cursors) {
+				cursor.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.aerospike.core;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import com.aerospike.client.cluster.Node;
+import com.aerospike.client.query.KeyRecord;
+import com.aerospike.helper.query.KeyRecordIterator;
+
+/**
+ * Iterates over the merged results of one query per cluster {@link Node}. Every node is drained by its own reader
+ * thread, the records are handed in chunks to a {@link ForkJoinPool} for conversion and the converted chunks are
+ * returned in completion order. The number of chunks read but not yet consumed is bounded, so a slow consumer throttles
+ * the readers instead of buffering the whole set.
+ *
+ * @author Peter Milne
+ */
+class ParallelEntityIterator<T> implements CloseableIterator<T> {
+
+	static final int CHUNK_SIZE = 256;
+	private static final long POLL_MILLIS = 100;
+	private static final List<Object> END = Collections.emptyList();
+
+	private static ExecutorService defaultReaderExecutor;
+
+	private final Node[] nodes;
+	private final Function<Node, KeyRecordIterator> query;
+	private final Function<KeyRecord, T> mapper;
+	private final Executor readerExecutor;
+	private final ForkJoinPool conversionPool;
+	private final Semaphore window;
+	private final BlockingQueue<List<?>> chunks = new LinkedBlockingQueue<List<?>>();
+	private final ConcurrentLinkedQueue<KeyRecordIterator> openIterators = new ConcurrentLinkedQueue<KeyRecordIterator>();
+	private final AtomicInteger pending = new AtomicInteger();
+	private final AtomicReference<RuntimeException> failure = new AtomicReference<RuntimeException>();
+
+	private volatile boolean closed;
+	private boolean finished;
+	private Iterator<T> current;
+
+	/**
+	 * @param nodes the nodes to query.
+	 * @param query opens the query of a single node.
+	 * @param mapper converts a record, called concurrently.
+	 * @param readerExecutor runs one reader per node, {@literal null} for a shared pool of daemon threads.
+	 * @param conversionPool runs the conversions, {@literal null} for the common pool.
+	 * @param maxBufferedRecords upper bound of records read but not yet consumed.
+	 */
+	ParallelEntityIterator(Node[] nodes, Function<Node, KeyRecordIterator> query, Function<KeyRecord, T> mapper,
+			Executor readerExecutor, ForkJoinPool conversionPool, int maxBufferedRecords) {
+		this.nodes = nodes;
+		this.query = query;
+		this.mapper = mapper;
+		this.readerExecutor = readerExecutor == null ? defaultReaderExecutor() : readerExecutor;
+		this.conversionPool = conversionPool == null ? ForkJoinPool.commonPool() : conversionPool;
+		this.window = new Semaphore(Math.max(1, maxBufferedRecords / CHUNK_SIZE));
+	}
+
+	private static synchronized Executor defaultReaderExecutor() {
+		if (defaultReaderExecutor == null) {
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("aerospike-scan-");
+			threadFactory.setDaemon(true);
+			defaultReaderExecutor = Executors.newCachedThreadPool(threadFactory);
+		}
+		return defaultReaderExecutor;
+	}
+
+	/**
+	 * Starts one reader per node.
+	 *
+	 * @return this iterator.
+	 */
+	ParallelEntityIterator<T> start() {
+		pending.set(nodes.length + 1);
+		for (final Node node : nodes) {
+			try {
+				readerExecutor.execute(new Runnable() {
+
+					@Override
+					public void run() {
+						read(node);
+					}
+				});
+			}
+			catch (RejectedExecutionException e) {
+				fail(e);
+				done();
+			}
+		}
+		done();
+		return this;
+	}
+
+	private void read(Node node) {
+		KeyRecordIterator records = null;
+		try {
+			if (closed) {
+				return;
+			}
+			records = query.apply(node);
+			openIterators.add(records);
+			List<KeyRecord> chunk = new ArrayList<KeyRecord>(CHUNK_SIZE);
+			while (!closed && records.hasNext()) {
+				KeyRecord record = records.next();
+				if (record == null) {
+					continue;
+				}
+				chunk.add(record);
+				if (chunk.size() == CHUNK_SIZE) {
+					convert(chunk);
+					chunk = new ArrayList<KeyRecord>(CHUNK_SIZE);
+				}
+			}
+			if (!chunk.isEmpty()) {
+				convert(chunk);
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			close();
+		}
+		catch (RuntimeException e) {
+			fail(e);
+		}
+		finally {
+			if (records != null) {
+				openIterators.remove(records);
+				closeQuietly(records);
+			}
+			done();
+		}
+	}
+
+	/*
+	 * holds one permit of the window until the consumer has taken the
+	 * converted chunk
+	 */
+	private void convert(final List<KeyRecord> records) throws InterruptedException {
+		while (!window.tryAcquire(POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+			if (closed) {
+				return;
+			}
+		}
+		pending.incrementAndGet();
+		try {
+			conversionPool.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					try {
+						if (closed) {
+							return;
+						}
+						List<T> entities = new ArrayList<T>(records.size());
+						for (KeyRecord record : records) {
+							entities.add(mapper.apply(record));
+						}
+						chunks.add(entities);
+					}
+					catch (RuntimeException e) {
+						fail(e);
+					}
+					finally {
+						done();
+					}
+				}
+			});
+		}
+		catch (RejectedExecutionException e) {
+			fail(e);
+			done();
+		}
+	}
+
+	private void done() {
+		if (pending.decrementAndGet() == 0) {
+			chunks.add(END);
+		}
+	}
+
+	private void fail(RuntimeException e) {
+		if (failure.compareAndSet(null, e)) {
+			closed = true;
+			chunks.add(END);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean hasNext() {
+		while (current == null || !current.hasNext()) {
+			if (finished) {
+				return false;
+			}
+			List<?> chunk;
+			try {
+				chunk = chunks.take();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				close();
+				throw new IllegalStateException("Interrupted while waiting for records", e);
+			}
+			RuntimeException e = failure.get();
+			if (e != null) {
+				close();
+				throw e;
+			}
+			if (chunk == END) {
+				finished = true;
+				return false;
+			}
+			window.release();
+			current = (Iterator<T>) chunk.iterator();
+		}
+		return true;
+	}
+
+	@Override
+	public T next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return current.next();
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Stops the readers and closes the node queries that are still open.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		finished = true;
+		current = null;
+		KeyRecordIterator records;
+		while ((records = openIterators.poll()) != null) {
+			closeQuietly(records);
+		}
+		chunks.clear();
+	}
+
+	private static void closeQuietly(KeyRecordIterator records) {
+		try {
+			records.close();
+		}
+		catch (IOException e) {
+			// nothing left to read from
+		}
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.aerospike.core;
+
+import java.io.Serializable;
+
+import org.springframework.data.aerospike.repository.query.Query;
+import org.springframework.data.mapping.context.MappingContext;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link AerospikeOperations}. Nothing is sent to the cluster until the returned
+ * publisher is subscribed to.
+ *
+ * @author Peter Milne
+ */
+public interface ReactiveAerospikeOperations {
+
+	/**
+	 * The Set name used for the specified class by this template.
+	 *
+	 * @param entityClass must not be {@literal null}.
+	 * @return
+	 */
+	String getSetName(Class<?> entityClass);
+
+	/**
+	 * @return mapping context in use.
+	 */
+	MappingContext<?, ?> getMappingContext();
+
+	/**
+	 * Insert operation using the WritePolicy.recordExisits policy of CREATE_ONLY
+	 *
+	 * @param objectToInsert must not be {@literal null}.
+	 * @return emits the inserted object once the write has completed.
+	 */
+	<T> Mono<T> insert(T objectToInsert);
+
+	/**
+	 * Creates or replaces the record of the given object.
+	 *
+	 * @param objectToSave must not be {@literal null}.
+	 * @return emits the saved object once the write has completed.
+	 */
+	<T> Mono<T> save(T objectToSave);
+
+	/**
+	 * @param id must not be {@literal null}.
+	 * @param type must not be {@literal null}.
+	 * @return emits the object or completes empty if there is no record for the id.
+	 */
+	<T> Mono<T> findById(Serializable id, Class<T> type);
+
+	/**
+	 * Streams all objects of the given type. Records are pulled from the cluster as the subscriber requests them.
+	 *
+	 * @param type must not be {@literal null}.
+	 * @return
+	 */
+	<T> Flux<T> findAll(Class<T> type);
+
+	/**
+	 * Streams the objects matching the given query. Records are pulled from the cluster as the subscriber requests
+	 * them; a sorted query has to read all matches before emitting the first one.
+	 *
+	 * @param query must not be {@literal null}.
+	 * @param type must not be {@literal null}.
+	 * @return
+	 */
+	<T> Flux<T> find(Query<?> query, Class<T> type);
+
+	/**
+	 * @param id must not be {@literal null}.
+	 * @param type must not be {@literal null}.
+	 * @return emits whether a record existed for the id.
+	 */
+	Mono<Boolean> delete(Serializable id, Class<?> type);
+
+	/**
+	 * @param objectToDelete must not be {@literal null}.
+	 * @return emits whether a record existed for the object.
+	 */
+	Mono<Boolean> delete(Object objectToDelete);
+
+	/**
+	 * @param type must not be {@literal null}.
+	 * @return emits the number of records in the set of the given type.
+	 */
+	Mono<Long> count(Class<?> type);
+
+	/**
+	 * @param query must not be {@literal null}.
+	 * @param type must not be {@literal null}.
+	 * @return emits the number of records matching the query, counted on the server regardless of its offset and rows.
+	 */
+	Mono<Long> count(Query<?> query, Class<?> type);
+}
@@ -0,0 +1,470 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.aerospike.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.aerospike.convert.AerospikeData;
+import org.springframework.data.aerospike.convert.MappingAerospikeConverter;
+import org.springframework.data.aerospike.mapping.AerospikeMappingContext;
+import org.springframework.data.aerospike.mapping.AerospikePersistentEntity;
+import org.springframework.data.aerospike.mapping.AerospikePersistentProperty;
+import org.springframework.data.aerospike.mapping.AerospikeSimpleTypes;
+import org.springframework.data.aerospike.mapping.BasicAerospikePersistentEntity;
+import org.springframework.data.aerospike.repository.query.Query;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.util.Assert;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.Bin;
+import com.aerospike.client.Key;
+import com.aerospike.client.Record;
+import com.aerospike.client.async.AsyncClient;
+import com.aerospike.client.listener.DeleteListener;
+import com.aerospike.client.listener.RecordListener;
+import com.aerospike.client.listener.WriteListener;
+import com.aerospike.client.policy.RecordExistsAction;
+import com.aerospike.client.policy.WritePolicy;
+import com.aerospike.client.query.KeyRecord;
+import com.aerospike.helper.query.FilterMode;
+import com.aerospike.helper.query.KeyRecordIterator;
+import com.aerospike.helper.query.Qualifier;
+import com.aerospike.helper.query.QueryEngine;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.SynchronousSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Primary implementation of {@link ReactiveAerospikeOperations}. Single record commands are issued through the
+ * {@link AsyncClient} and complete on its selector threads. Queries go through the {@link QueryEngine}, whose
+ * {@link KeyRecordIterator} is drained on demand on a {@link Scheduler}, so a slow subscriber holds back the
+ * cluster instead of having records buffered in memory.
+ *
+ * @author Peter Milne
+ */
+public class ReactiveAerospikeTemplate implements ReactiveAerospikeOperations {
+
+	private static final MappingAerospikeConverter DEFAULT_CONVERTER = new MappingAerospikeConverter();
+	private static final AerospikeExceptionTranslator DEFAULT_EXCEPTION_TRANSLATOR = new DefaultAerospikeExceptionTranslator();
+	private static final int DEFAULT_SORT_SPILL_THRESHOLD = 100000;
+
+	private final MappingContext<BasicAerospikePersistentEntity<?>, AerospikePersistentProperty> mappingContext;
+	private final AsyncClient client;
+	private final MappingAerospikeConverter converter;
+	private final String namespace;
+	private final QueryEngine queryEngine;
+
+	private AerospikeExceptionTranslator exceptionTranslator;
+	private WritePolicy insertPolicy;
+	private Scheduler queryScheduler;
+	private int sortSpillThreshold = DEFAULT_SORT_SPILL_THRESHOLD;
+	private File sortSpillDirectory;
+
+	/**
+	 * Creates a new {@link ReactiveAerospikeTemplate} for the given {@link AsyncClient}.
+	 *
+	 * @param client must not be {@literal null}.
+	 * @param namespace must not be {@literal null} or empty.
+	 */
+	public ReactiveAerospikeTemplate(AsyncClient client, String namespace) {
+		Assert.notNull(client, "Aerospike client must not be null!");
+		Assert.hasLength(namespace, "Namespace cannot be null");
+
+		this.client = client;
+		this.converter = DEFAULT_CONVERTER;
+		this.exceptionTranslator = DEFAULT_EXCEPTION_TRANSLATOR;
+		this.namespace = namespace;
+		this.mappingContext = new AerospikeMappingContext();
+		this.insertPolicy = new WritePolicy(this.client.writePolicyDefault);
+		this.insertPolicy.recordExistsAction = RecordExistsAction.CREATE_ONLY;
+		this.queryEngine = new QueryEngine(this.client);
+		this.queryScheduler = Schedulers.elastic();
+	}
+
+	@Override
+	public <T> Mono<T> insert(T objectToInsert) {
+		Assert.notNull(objectToInsert, "Object to insert must not be null!");
+		return write(objectToInsert, this.insertPolicy);
+	}
+
+	@Override
+	public <T> Mono<T> save(T objectToSave) {
+		Assert.notNull(objectToSave, "Object to save must not be null!");
+		return write(objectToSave, null);
+	}
+
+	private <T> Mono<T> write(final T object, final WritePolicy policy) {
+		return Mono.create(new Consumer<MonoSink<T>>() {
+
+			@Override
+			public void accept(final MonoSink<T> sink) {
+				try {
+					AerospikeData data = converter.forWrite(namespace, object);
+					Bin[] bins = converter.writeBins(object, data);
+					Key key = data.getKey();
+					client.put(policy, new WriteListener() {
+
+						@Override
+						public void onSuccess(Key key) {
+							sink.success(object);
+						}
+
+						@Override
+						public void onFailure(AerospikeException exception) {
+							sink.error(translate(exception));
+						}
+					}, key, bins);
+				}
+				catch (AerospikeException o_O) {
+					sink.error(translate(o_O));
+				}
+			}
+		});
+	}
+
+	@Override
+	public <T> Mono<T> findById(Serializable id, final Class<T> type) {
+		Assert.notNull(id, "Id must not be null!");
+		Assert.notNull(type, "Type must not be null!");
+		final Key key = new Key(this.namespace, getSetName(type), id.toString());
+		return Mono.create(new Consumer<MonoSink<T>>() {
+
+			@Override
+			public void accept(final MonoSink<T> sink) {
+				try {
+					client.get(null, new RecordListener() {
+
+						@Override
+						public void onSuccess(Key key, Record record) {
+							if (record == null) {
+								sink.success();
+								return;
+							}
+							try {
+								sink.success(read(type, key, record));
+							}
+							catch (RuntimeException e) {
+								sink.error(e);
+							}
+						}
+
+						@Override
+						public void onFailure(AerospikeException exception) {
+							sink.error(translate(exception));
+						}
+					}, key);
+				}
+				catch (AerospikeException o_O) {
+					sink.error(translate(o_O));
+				}
+			}
+		});
+	}
+
+	@Override
+	public <T> Flux<T> findAll(Class<T> type) {
+		Assert.notNull(type, "Type must not be null!");
+		return select(type, null, new Qualifier[0]);
+	}
+
+	@Override
+	public <T> Flux<T> find(Query<?> query, Class<T> type) {
+		Assert.notNull(query, "Query must not be null!");
+		Assert.notNull(type, "Type must not be null!");
+
+		List<Qualifier> qualifiers = query.getQueryObject() == null ? new ArrayList<Qualifier>()
+				: query.getQueryObject();
+
+		Qualifier[] qualifierArray = qualifiers.toArray(new Qualifier[qualifiers.size()]);
+		int offset = Math.max(query.getOffset(), 0);
+		int rows = query.getRows();
+		Flux<T> results = query.getSort() == null ? select(type, query.getFilterMode(), qualifierArray)
+				: selectSorted(type, query.getFilterMode(), qualifierArray, query.getSort(), offset, rows);
+		results = results.skip(offset);
+		return rows > 0 ? results.take(rows) : results;
+	}
+
+	/*
+	 * keeps the first offset + rows entities in a heap when the rows are limited, otherwise sorts with runs spilled to
+	 * disk beyond the threshold
+	 */
+	private <T> Flux<T> selectSorted(final Class<T> type, final FilterMode filterMode, final Qualifier[] qualifiers,
+			Sort sort, final int offset, final int rows) {
+		final String setName = getSetName(type);
+		final EntitySorter<T> sorter = new EntitySorter<T>(CompiledPropertyComparator.of(type, sort),
+				new Function<KeyRecord, T>() {
+
+					@Override
+					public T apply(KeyRecord keyRecord) {
+						return read(type, keyRecord.key, keyRecord.record);
+					}
+				}, this.sortSpillThreshold, this.sortSpillDirectory);
+		return Flux.generate(new Callable<Iterator<T>>() {
+
+			@Override
+			public Iterator<T> call() {
+				KeyRecordIterator records = null;
+				try {
+					records = queryEngine.select(namespace, setName, null, filterMode, qualifiers);
+					return rows > 0 ? sorter.top(records, offset + rows).iterator() : sorter.sort(records);
+				}
+				catch (AerospikeException o_O) {
+					throw translate(o_O);
+				}
+				finally {
+					closeQuietly(records);
+				}
+			}
+		}, new BiFunction<Iterator<T>, SynchronousSink<T>, Iterator<T>>() {
+
+			@Override
+			public Iterator<T> apply(Iterator<T> iterator, SynchronousSink<T> sink) {
+				if (iterator.hasNext()) {
+					sink.next(iterator.next());
+				}
+				else {
+					sink.complete();
+				}
+				return iterator;
+			}
+		}, new Consumer<Iterator<T>>() {
+
+			@Override
+			public void accept(Iterator<T> iterator) {
+				if (iterator instanceof CloseableIterator) {
+					((CloseableIterator<T>) iterator).close();
+				}
+			}
+		}).subscribeOn(this.queryScheduler);
+	}
+
+	private <T> Flux<T> select(final Class<T> type, final FilterMode filterMode, final Qualifier[] qualifiers) {
+		final String setName = getSetName(type);
+		return Flux.generate(new Callable<KeyRecordIterator>() {
+
+			@Override
+			public KeyRecordIterator call() {
+				try {
+					return queryEngine.select(namespace, setName, null, filterMode, qualifiers);
+				}
+				catch (AerospikeException o_O) {
+					throw translate(o_O);
+				}
+			}
+		}, new BiFunction<KeyRecordIterator, SynchronousSink<T>, KeyRecordIterator>() {
+
+			@Override
+			public KeyRecordIterator apply(KeyRecordIterator iterator, SynchronousSink<T> sink) {
+				try {
+					if (iterator.hasNext()) {
+						KeyRecord keyRecord = iterator.next();
+						sink.next(read(type, keyRecord.key, keyRecord.record));
+					}
+					else {
+						sink.complete();
+					}
+				}
+				catch (AerospikeException o_O) {
+					sink.error(translate(o_O));
+				}
+				return iterator;
+			}
+		}, new Consumer<KeyRecordIterator>() {
+
+			@Override
+			public void accept(KeyRecordIterator iterator) {
+				closeQuietly(iterator);
+			}
+		}).subscribeOn(this.queryScheduler);
+	}
+
+	private static void closeQuietly(KeyRecordIterator records) {
+		if (records == null) {
+			return;
+		}
+		try {
+			records.close();
+		}
+		catch (IOException e) {
+			// nothing left to release
+		}
+	}
+
+	@Override
+	public Mono<Boolean> delete(Serializable id, Class<?> type) {
+		Assert.notNull(id, "Id must not be null!");
+		Assert.notNull(type, "Type must not be null!");
+		AerospikeData data = AerospikeData.forWrite(this.namespace);
+		data.setID(id);
+		data.setSetName(AerospikeSimpleTypes.getColletionName(type));
+		return deleteKey(data.getKey());
+	}
+
+	@Override
+	public Mono<Boolean> delete(Object objectToDelete) {
+		Assert.notNull(objectToDelete, "Object to delete must not be null!");
+		AerospikeData data = AerospikeData.forWrite(this.namespace);
+		converter.write(objectToDelete, data);
+		return deleteKey(data.getKey());
+	}
+
+	private Mono<Boolean> deleteKey(final Key key) {
+		return Mono.create(new Consumer<MonoSink<Boolean>>() {
+
+			@Override
+			public void accept(final MonoSink<Boolean> sink) {
+				try {
+					client.delete(null, new DeleteListener() {
+
+						@Override
+						public void onSuccess(Key key, boolean existed) {
+							sink.success(existed);
+						}
+
+						@Override
+						public void onFailure(AerospikeException exception) {
+							sink.error(translate(exception));
+						}
+					}, key);
+				}
+				catch (AerospikeException o_O) {
+					sink.error(translate(o_O));
+				}
+			}
+		});
+	}
+
+	@Override
+	public Mono<Long> count(Class<?> type) {
+		Assert.notNull(type, "Type for count must not be null!");
+		final String setName = getSetName(type);
+		return Mono.fromCallable(new Callable<Long>() {
+
+			@Override
+			public Long call() {
+				try {
+					return queryEngine.countObjects(namespace, setName);
+				}
+				catch (AerospikeException o_O) {
+					throw translate(o_O);
+				}
+			}
+		}).subscribeOn(this.queryScheduler);
+	}
+
+	@Override
+	public Mono<Long> count(Query<?> query, Class<?> type) {
+		Assert.notNull(query, "Query must not be null!");
+		Assert.notNull(type, "Type must not be null!");
+		final String setName = getSetName(type);
+		List<Qualifier> qualifiers = query.getQueryObject() == null ? new ArrayList<Qualifier>()
+				: query.getQueryObject();
+		final Qualifier[] qualifierArray = qualifiers.toArray(new Qualifier[qualifiers.size()]);
+		return Mono.fromCallable(new Callable<Long>() {
+
+			@Override
+			public Long call() {
+				try {
+					return queryEngine.count(namespace, setName, qualifierArray);
+				}
+				catch (AerospikeException o_O) {
+					throw translate(o_O);
+				}
+			}
+		}).subscribeOn(this.queryScheduler);
+	}
+
+	@Override
+	public String getSetName(Class<?> entityClass) {
+		AerospikePersistentEntity<?> entity = converter.getMappingContext().getPersistentEntity(entityClass);
+		return entity.getSetName();
+	}
+
+	@Override
+	public MappingContext<?, ?> getMappingContext() {
+		return this.mappingContext;
+	}
+
+	public String getNamespace() {
+		return namespace;
+	}
+
+	/**
+	 * Configures the {@link AerospikeExceptionTranslator} to be used.
+	 *
+	 * @param exceptionTranslator can be {@literal null}.
+	 */
+	public void setExceptionTranslator(AerospikeExceptionTranslator exceptionTranslator) {
+		this.exceptionTranslator = exceptionTranslator == null ? DEFAULT_EXCEPTION_TRANSLATOR : exceptionTranslator;
+	}
+
+	/**
+	 * Configures how many records a sorted query without a row limit keeps in memory. Larger results are sorted in runs
+	 * spilled to temporary files and merged while emitting.
+	 *
+	 * @param sortSpillThreshold must be greater than zero.
+	 */
+	public void setSortSpillThreshold(int sortSpillThreshold) {
+		Assert.isTrue(sortSpillThreshold > 0, "Sort spill threshold must be greater than zero!");
+		this.sortSpillThreshold = sortSpillThreshold;
+	}
+
+	/**
+	 * Configures the directory of the files spilled by sorted queries.
+	 *
+	 * @param sortSpillDirectory can be {@literal null} to use the default temporary directory.
+	 */
+	public void setSortSpillDirectory(File sortSpillDirectory) {
+		this.sortSpillDirectory = sortSpillDirectory;
+	}
+
+	/**
+	 * Configures the {@link Scheduler} draining query results. Defaults to {@link Schedulers#elastic()}.
+	 *
+	 * @param queryScheduler must not be {@literal null}.
+	 */
+	public void setQueryScheduler(Scheduler queryScheduler) {
+		Assert.notNull(queryScheduler, "Query scheduler must not be null!");
+		this.queryScheduler = queryScheduler;
+	}
+
+	private <T> T read(Class<T> type, Key key, Record record) {
+		AerospikeData data = AerospikeData.forRead(key, null);
+		data.setRecord(record);
+		return converter.read(type, data);
+	}
+
+	private RuntimeException translate(AerospikeException e) {
+		DataAccessException translatedException = exceptionTranslator.translateExceptionIfPossible(e);
+		return translatedException == null ? e : translatedException;
+	}
+}
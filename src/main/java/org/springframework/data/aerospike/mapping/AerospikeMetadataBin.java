@@ -22,10 +22,17 @@ public class AerospikeMetadataBin {
 	public static final String TYPE_BIN_NAME = "spring_class";
 	public static final String SPRING_ID_BIN = "SpringID";
 
-	private Map<String, Object> map = new HashMap<String, Object>();
+	private Map<String, Object> map;
 
 	public AerospikeMetadataBin() {
-		// TODO Auto-generated constructor stub
+		this.map = new HashMap<String, Object>();
+	}
+
+	/**
+	 * @param expectedEntries number of entries the metadata will hold, sizes the map so that it is not rehashed.
+	 */
+	public AerospikeMetadataBin(int expectedEntries) {
+		this.map = new HashMap<String, Object>((int) (expectedEntries / 0.75f) + 1);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -41,6 +48,10 @@ public class AerospikeMetadataBin {
 		map.put(key, value);
 	}
 
+	public boolean isEmpty() {
+		return map.isEmpty();
+	}
+
 	public Object getAerospikeMetaDataUsingKey(String key){
 		return map.get(key);
 	}
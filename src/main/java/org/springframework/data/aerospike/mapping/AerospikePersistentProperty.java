@@ -27,4 +27,11 @@ public interface AerospikePersistentProperty extends PersistentProperty<Aerospik
 	boolean usePropertyAccess();
 	boolean isExplicitIdProperty();
 
+	/**
+	 * Returns how the value of the property is stored in its bin.
+	 * 
+	 * @return the {@link Encoding} of the {@link Field} annotation, {@link Encoding#DEFAULT} if there is none.
+	 */
+	Encoding getEncoding();
+
 }
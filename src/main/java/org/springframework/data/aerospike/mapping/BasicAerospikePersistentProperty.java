@@ -129,6 +129,12 @@ public class BasicAerospikePersistentProperty extends AnnotationBasedPersistentP
 		return StringUtils.hasText(getAnnotatedFieldName());
 	}
 
+	@Override
+	public Encoding getEncoding() {
+		org.springframework.data.aerospike.mapping.Field annotation = findAnnotation(org.springframework.data.aerospike.mapping.Field.class);
+		return annotation == null ? Encoding.DEFAULT : annotation.encoding();
+	}
+
 	private String getAnnotatedFieldName() {
 
 		org.springframework.data.aerospike.mapping.Field annotation = findAnnotation(org.springframework.data.aerospike.mapping.Field.class);
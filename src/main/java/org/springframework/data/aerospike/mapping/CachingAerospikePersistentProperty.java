@@ -18,6 +18,7 @@ package org.springframework.data.aerospike.mapping;
 import java.beans.PropertyDescriptor;
 import java.lang.reflect.Field;
 
+import org.springframework.core.convert.converter.Converter;
 import org.springframework.data.mapping.PersistentEntity;
 import org.springframework.data.mapping.model.FieldNamingStrategy;
 import org.springframework.data.mapping.model.SimpleTypeHolder;
@@ -34,6 +35,9 @@ public class CachingAerospikePersistentProperty extends BasicAerospikePersistent
 	private String fieldName;
 	private Boolean usePropertyAccess;
 	private Boolean isTransient;
+	private Encoding encoding;
+	private volatile Converter<Object, Object> readConverter;
+	private volatile Converter<Object, Object> writeConverter;
 
 	/**
 	 * Creates a new {@link CachingAerospikePersistentProperty}.
@@ -90,6 +94,16 @@ public class CachingAerospikePersistentProperty extends BasicAerospikePersistent
 		return this.usePropertyAccess;
 	}
 
+	@Override
+	public Encoding getEncoding() {
+
+		if (this.encoding == null) {
+			this.encoding = super.getEncoding();
+		}
+
+		return this.encoding;
+	}
+
 	@Override
 	public boolean isTransient() {
 
@@ -100,4 +114,26 @@ public class CachingAerospikePersistentProperty extends BasicAerospikePersistent
 		return this.isTransient;
 	}
 
+	/**
+	 * @return the converter of stored values to the type of this property, {@literal null} until one is set.
+	 */
+	public Converter<Object, Object> getReadConverter() {
+		return readConverter;
+	}
+
+	public void setReadConverter(Converter<Object, Object> readConverter) {
+		this.readConverter = readConverter;
+	}
+
+	/**
+	 * @return the converter of values of this property to their stored form, {@literal null} until one is set.
+	 */
+	public Converter<Object, Object> getWriteConverter() {
+		return writeConverter;
+	}
+
+	public void setWriteConverter(Converter<Object, Object> writeConverter) {
+		this.writeConverter = writeConverter;
+	}
+
 }
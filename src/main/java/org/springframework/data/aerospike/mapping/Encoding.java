@@ -0,0 +1,26 @@
+/**
+ *
+ */
+package org.springframework.data.aerospike.mapping;
+
+/**
+ * How the value of a property is stored in its bin.
+ *
+ * @author Peter Milne
+ */
+public enum Encoding {
+
+	/**
+	 * Simple values are stored as they are, collections as lists and maps and nested entities as maps holding their
+	 * metadata.
+	 */
+	DEFAULT,
+
+	/**
+	 * The value, including nested entities and collections of them, is stored as a compact binary blob. The property
+	 * names of every nested type are written once per blob instead of once per object, no metadata is stored. Blobs of
+	 * {@link java.util.List}, {@link java.util.Collection} and {@link java.util.Map} properties are decoded on first
+	 * access.
+	 */
+	COMPACT
+}
@@ -27,4 +27,11 @@ public @interface Field {
 	 */
 	String value() default "";
 
+	/**
+	 * How the value of the field is stored in its bin.
+	 * 
+	 * @return
+	 */
+	Encoding encoding() default Encoding.DEFAULT;
+
 }
@@ -17,6 +17,7 @@ package org.springframework.data.aerospike.repository;
 
 import java.io.Serializable;
 
+import org.springframework.data.aerospike.core.ContinuationSlice;
 import org.springframework.data.repository.NoRepositoryBean;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.Repository;
@@ -40,4 +41,20 @@ public interface AerospikeRepository<T, ID extends Serializable> extends PagingA
 	 */
 	<T> void createIndex(Class<T> domainType, String indexName, String binName,	IndexType indexType);
 
+	/**
+	 * Returns the next slice of all entities, starting after the last entity of the previous slice. Slices are
+	 * best-effort: entities written while paging may be missed, and entities that migrate between cluster nodes may be
+	 * skipped or returned twice.
+	 * <p>
+	 * This is not server-side pagination. Every slice scans all the keys of a cluster node again and keeps the
+	 * {@code size} entities that follow the continuation, so each slice costs a scan of the node's keys and paging
+	 * through {@code N} entities scans about {@code N * N / size} keys. Prefer large slices, or
+	 * {@link #findAll()} to read all entities at once.
+	 * 
+	 * @param continuation the continuation of the previous slice, {@literal null} for the first slice.
+	 * @param size the maximum number of entities in the slice.
+	 * @return the slice, its continuation is {@literal null} after the last one.
+	 */
+	ContinuationSlice<T> findAll(String continuation, int size);
+
 }
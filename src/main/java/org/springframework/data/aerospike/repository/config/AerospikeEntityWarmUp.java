@@ -0,0 +1,127 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.aerospike.repository.config;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.data.aerospike.core.AerospikeTemplate;
+import org.springframework.data.aerospike.mapping.Document;
+import org.springframework.data.repository.core.support.RepositoryFactoryInformation;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Builds the mapping metadata of the entities of an application once all singletons are created, so that the first
+ * requests do not pay for it. The entities are the {@link Document} types found in the base packages and the domain
+ * types of the repositories in the context, they are warmed up in every {@link AerospikeTemplate} of the context.
+ * Registered by {@link EnableAerospikeRepositories} with the base packages of the repositories.
+ *
+ * @author Peter Milne
+ */
+public class AerospikeEntityWarmUp implements SmartInitializingSingleton, ApplicationContextAware {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AerospikeEntityWarmUp.class);
+
+	private ApplicationContext applicationContext;
+	private List<String> basePackages = Collections.emptyList();
+	private Set<Class<?>> entityTypes = Collections.emptySet();
+	private long warmUpMillis;
+
+	/**
+	 * Configures the packages scanned for {@link Document} types.
+	 *
+	 * @param basePackages must not be {@literal null}.
+	 */
+	public void setBasePackages(List<String> basePackages) {
+		Assert.notNull(basePackages, "Base packages must not be null!");
+		this.basePackages = basePackages;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.context.ApplicationContextAware#setApplicationContext(org.springframework.context.ApplicationContext)
+	 */
+	@Override
+	public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
+		this.applicationContext = applicationContext;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.beans.factory.SmartInitializingSingleton#afterSingletonsInstantiated()
+	 */
+	@Override
+	public void afterSingletonsInstantiated() {
+		long start = System.nanoTime();
+
+		Set<Class<?>> types = new LinkedHashSet<Class<?>>(scanDocuments());
+		for (RepositoryFactoryInformation<?, ?> repository : applicationContext.getBeansOfType(
+				RepositoryFactoryInformation.class).values()) {
+			types.add(repository.getEntityInformation().getJavaType());
+		}
+		Collection<AerospikeTemplate> templates = applicationContext.getBeansOfType(AerospikeTemplate.class).values();
+		for (AerospikeTemplate template : templates) {
+			template.warmUp(types);
+		}
+
+		this.entityTypes = Collections.unmodifiableSet(types);
+		this.warmUpMillis = (System.nanoTime() - start) / 1000000;
+		LOGGER.info("Warmed up {} entity types in {} template(s) in {} ms", types.size(), templates.size(), warmUpMillis);
+	}
+
+	/**
+	 * @return the entity types warmed up, empty before the singletons of the context are created.
+	 */
+	public Set<Class<?>> getEntityTypes() {
+		return entityTypes;
+	}
+
+	/**
+	 * @return how long the warm-up took in milliseconds, including the scan of the base packages.
+	 */
+	public long getWarmUpMillis() {
+		return warmUpMillis;
+	}
+
+	private List<Class<?>> scanDocuments() {
+		ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false,
+				applicationContext.getEnvironment());
+		scanner.setResourceLoader(applicationContext);
+		scanner.addIncludeFilter(new AnnotationTypeFilter(Document.class));
+
+		List<Class<?>> documents = new ArrayList<Class<?>>();
+		for (String basePackage : basePackages) {
+			for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+				documents.add(ClassUtils.resolveClassName(candidate.getBeanClassName(), applicationContext.getClassLoader()));
+			}
+		}
+		return documents;
+	}
+}
@@ -16,9 +16,13 @@
 package org.springframework.data.aerospike.repository.config;
 
 import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
 import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.core.annotation.AnnotationAttributes;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.data.aerospike.repository.query.AerospikeQueryCreator;
@@ -27,6 +31,7 @@ import org.springframework.data.keyvalue.repository.config.QueryCreatorType;
 import org.springframework.data.repository.config.AnnotationRepositoryConfigurationSource;
 import org.springframework.data.repository.config.RepositoryBeanDefinitionRegistrarSupport;
 import org.springframework.data.repository.config.RepositoryConfigurationExtension;
+import org.springframework.data.repository.config.RepositoryConfigurationSource;
 
 /**
  * Map specific {@link RepositoryBeanDefinitionRegistrarSupport} implementation.
@@ -60,6 +65,8 @@ public class AerospikeRepositoriesRegistrar extends RepositoryBeanDefinitionRegi
 	 */
 	private static class AerospikeRepositoryConfigurationExtension extends KeyValueRepositoryConfigurationExtension {
 
+		private static final String ENTITY_WARM_UP_BEAN_NAME = "aerospikeEntityWarmUp";
+
 		/*
 		 * (non-Javadoc)
 		 * @see org.springframework.data.keyvalue.repository.config.KeyValueRepositoryConfigurationExtension#getModuleName()
@@ -87,6 +94,30 @@ public class AerospikeRepositoriesRegistrar extends RepositoryBeanDefinitionRegi
 			return "aerospikeTemplate";
 		}
 		
+		/*
+		 * (non-Javadoc)
+		 * @see org.springframework.data.keyvalue.repository.config.KeyValueRepositoryConfigurationExtension#registerBeansForRoot(org.springframework.beans.factory.support.BeanDefinitionRegistry, org.springframework.data.repository.config.RepositoryConfigurationSource)
+		 */
+		@Override
+		public void registerBeansForRoot(BeanDefinitionRegistry registry, RepositoryConfigurationSource configurationSource) {
+
+			super.registerBeansForRoot(registry, configurationSource);
+
+			if (registry.containsBeanDefinition(ENTITY_WARM_UP_BEAN_NAME)) {
+				return;
+			}
+
+			List<String> basePackages = new ArrayList<String>();
+			for (String basePackage : configurationSource.getBasePackages()) {
+				basePackages.add(basePackage);
+			}
+
+			AbstractBeanDefinition definition = BeanDefinitionBuilder.rootBeanDefinition(AerospikeEntityWarmUp.class)
+					.addPropertyValue("basePackages", basePackages).getBeanDefinition();
+			definition.setSource(configurationSource.getSource());
+			registry.registerBeanDefinition(ENTITY_WARM_UP_BEAN_NAME, definition);
+		}
+
 		@Override
 		public void postProcess(BeanDefinitionBuilder builder, AnnotationRepositoryConfigurationSource config) {
 
@@ -4,6 +4,8 @@
 package org.springframework.data.aerospike.repository.query;
 
 import java.lang.reflect.Constructor;
+import java.util.List;
+import java.util.regex.Pattern;
 
 import org.springframework.beans.BeanUtils;
 import org.springframework.data.aerospike.core.AerospikeOperations;
@@ -15,8 +17,12 @@ import org.springframework.data.repository.query.ParameterAccessor;
 import org.springframework.data.repository.query.ParametersParameterAccessor;
 import org.springframework.data.repository.query.QueryMethod;
 import org.springframework.data.repository.query.RepositoryQuery;
+import org.springframework.data.repository.query.ResultProcessor;
+import org.springframework.data.repository.query.ReturnedType;
 import org.springframework.data.repository.query.parser.AbstractQueryCreator;
 import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.data.util.StreamUtils;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.spel.standard.SpelExpression;
 import org.springframework.util.ClassUtils;
@@ -29,11 +35,16 @@ import org.springframework.util.ClassUtils;
  *
  */
 public class AerospikePartTreeQuery implements RepositoryQuery {
-	
+
+	private static final String EXISTS_PREFIX = "exists";
+	private static final Pattern EXISTS_TEMPLATE = Pattern.compile("^" + EXISTS_PREFIX + "(\\p{Lu}.*?)??By");
+
 	private final EvaluationContextProvider evaluationContextProvider;
 	private final QueryMethod queryMethod;
 	private final AerospikeOperations aerospikeOperations;
 	private final Class<? extends AbstractQueryCreator<?, ?>> queryCreator;
+	private final PartTree tree;
+	private final boolean existsProjection;
 
 	private Query<?> query;
 
@@ -44,6 +55,17 @@ public class AerospikePartTreeQuery implements RepositoryQuery {
 		this.aerospikeOperations = aerospikeOperations;
 		this.evaluationContextProvider = evalContextProvider;
 		this.queryCreator = queryCreator;
+
+		/*
+		 * exists queries are parsed as find queries, only the keys of the
+		 * records are read when they are executed
+		 */
+		String name = queryMethod.getName();
+		this.existsProjection = EXISTS_TEMPLATE.matcher(name).find();
+		if (existsProjection) {
+			name = "find" + name.substring(EXISTS_PREFIX.length());
+		}
+		this.tree = new PartTree(name, queryMethod.getEntityInformation().getJavaType());
 	}
 	
 	/* (non-Javadoc)
@@ -61,8 +83,33 @@ public class AerospikePartTreeQuery implements RepositoryQuery {
 	@Override
 	public Object execute(Object[] parameters) {
 		Query<?> query = prepareQuery(parameters);
+		ResultProcessor processor = queryMethod.getResultProcessor();
+
+		/*
+		 * closed interface and DTO projections only read the bins they use
+		 */
+		ReturnedType returnedType = processor.getReturnedType();
+		if (returnedType.isProjecting() && !returnedType.getInputProperties().isEmpty()) {
+			query.setFields(returnedType.getInputProperties());
+		}
+
+		Class<?> domainType = queryMethod.getEntityInformation().getJavaType();
+
+		if (existsProjection) {
+
+			return aerospikeOperations.exists(query, domainType);
+
+		} else if (tree.isDelete()) {
+
+			return delete(query, domainType, processor);
+
+		} else if (tree.isCountProjection()) {
 
-		if (queryMethod.isPageQuery() || queryMethod.isSliceQuery()) {
+			int count = aerospikeOperations.count(query, queryMethod.getEntityInformation().getJavaType());
+			Class<?> returnType = ClassUtils.resolvePrimitiveIfNecessary(queryMethod.getReturnedObjectType());
+			return Integer.class.equals(returnType) ? (Object) count : (Object) Long.valueOf(count);
+
+		} else if (queryMethod.isPageQuery() || queryMethod.isSliceQuery()) {
 
 			Pageable page = (Pageable) parameters[queryMethod.getParameters().getPageableIndex()];
 			query.setOffset(page.getOffset());
@@ -73,22 +120,54 @@ public class AerospikePartTreeQuery implements RepositoryQuery {
 			long count = queryMethod.isSliceQuery() ? 0 : aerospikeOperations.count(query, queryMethod.getEntityInformation()
 					.getJavaType());
 
-			return new PageImpl(IterableConverter.toList(result), page, count);
+			return processor.processResult(new PageImpl(IterableConverter.toList(result), page, count));
+
+		} else if (queryMethod.isStreamQuery()) {
+
+			return processor.processResult(StreamUtils.createStreamFromIterator(
+					this.aerospikeOperations.stream(query, queryMethod.getEntityInformation().getJavaType())));
 
 		} else if (queryMethod.isCollectionQuery()) {
 
-			return this.aerospikeOperations.find(query, queryMethod.getEntityInformation().getJavaType());
+			return processor.processResult(
+					IterableConverter.toList(this.aerospikeOperations.find(query, queryMethod.getEntityInformation().getJavaType())));
 
-		} else if (queryMethod.isQueryForEntity()) {
+		} else if (queryMethod.isQueryForEntity() || returnedType.isProjecting()) {
 
-			Iterable<?> result = this.aerospikeOperations.find(query, queryMethod.getEntityInformation().getJavaType());
-			return result.iterator().hasNext() ? result.iterator().next() : null;
+			CloseableIterator<?> result = this.aerospikeOperations.stream(query, queryMethod.getEntityInformation().getJavaType());
+			try {
+				return processor.processResult(result.hasNext() ? result.next() : null);
+			} finally {
+				result.close();
+			}
 
 		}
 
 		throw new UnsupportedOperationException("Query method not supported.");
 	}
 
+	/*
+	 * deletes reading only the keys of the records, unless the deleted
+	 * objects are returned
+	 */
+	@SuppressWarnings("rawtypes")
+	private Object delete(Query<?> query, Class<?> domainType, ResultProcessor processor) {
+		if (queryMethod.isCollectionQuery()) {
+			List<?> deleted = IterableConverter.toList(aerospikeOperations.find(query, domainType));
+			for (Object object : deleted) {
+				aerospikeOperations.delete(object);
+			}
+			return processor.processResult(deleted);
+		}
+
+		long deleted = aerospikeOperations.delete(query, domainType);
+		Class<?> returnType = ClassUtils.resolvePrimitiveIfNecessary(queryMethod.getReturnedObjectType());
+		if (Void.class.equals(returnType)) {
+			return null;
+		}
+		return Integer.class.equals(returnType) ? (Object) (int) Math.min(deleted, Integer.MAX_VALUE) : (Object) deleted;
+	}
+
 	/**
 	 * @param parameters
 	 * @return
@@ -128,8 +207,6 @@ public class AerospikePartTreeQuery implements RepositoryQuery {
 
 	public Query<?> createQuery(ParametersParameterAccessor accessor) {
 
-		PartTree tree = new PartTree(getQueryMethod().getName(), getQueryMethod().getEntityInformation().getJavaType());
-
 		Constructor<? extends AbstractQueryCreator<?, ?>> constructor = (Constructor<? extends AbstractQueryCreator<?, ?>>) ClassUtils
 				.getConstructorIfAvailable(queryCreator, PartTree.class, ParameterAccessor.class);
 		return (Query<?>) BeanUtils.instantiateClass(constructor, tree, accessor).createQuery();
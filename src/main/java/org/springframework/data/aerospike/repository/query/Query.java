@@ -3,6 +3,9 @@
  */
 package org.springframework.data.aerospike.repository.query;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -12,6 +15,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Sort.Order;
 import org.springframework.data.keyvalue.core.query.KeyValueQuery;
 
+import com.aerospike.helper.query.FilterMode;
 import com.aerospike.helper.query.Qualifier;
 
 /**
@@ -27,6 +31,8 @@ public class Query<T> {
 	private Sort sort;
 	private int offset = -1;
 	private int rows = -1;
+	private FilterMode filterMode;
+	private List<String> fields;
 	private final Map<String, CriteriaDefinition> criteria = new LinkedHashMap<String, CriteriaDefinition>();
 
 	/**
@@ -171,6 +177,59 @@ public class Query<T> {
 		return this;
 	}
 
+	/**
+	 * @return the {@link FilterMode} for qualifiers not served by a secondary index, {@literal null} for the query
+	 *         engine default.
+	 */
+	public FilterMode getFilterMode() {
+		return filterMode;
+	}
+
+	/**
+	 * Selects how qualifiers not served by a secondary index are evaluated.
+	 * 
+	 * @param filterMode can be {@literal null} to use the query engine default.
+	 */
+	public void setFilterMode(FilterMode filterMode) {
+		this.filterMode = filterMode;
+	}
+
+	/**
+	 * @see Query#setFilterMode(FilterMode)
+	 * @param filterMode
+	 * @return
+	 */
+	public Query<T> filterMode(FilterMode filterMode) {
+		setFilterMode(filterMode);
+		return this;
+	}
+
+	/**
+	 * @return the names of the properties to read, {@literal null} to read all of them.
+	 */
+	public List<String> getFields() {
+		return fields;
+	}
+
+	/**
+	 * Restricts the properties that are read, only their bins are fetched from the server.
+	 * 
+	 * @param fields property names, {@literal null} to read all properties.
+	 */
+	public void setFields(Collection<String> fields) {
+		this.fields = fields == null ? null : new ArrayList<String>(fields);
+	}
+
+	/**
+	 * @see Query#setFields(Collection)
+	 * @param fields
+	 * @return
+	 */
+	public Query<T> fields(String... fields) {
+		setFields(fields == null ? null : Arrays.asList(fields));
+		return this;
+	}
+
 	/**
 	 * @see Query#setOffset(int)
 	 * @param offset
@@ -7,6 +7,9 @@ import java.util.Collections;
 import java.util.List;
 
 import org.springframework.data.aerospike.core.AerospikeOperations;
+import org.springframework.data.aerospike.core.BulkWriteException;
+import org.springframework.data.aerospike.core.BulkWriteResult;
+import org.springframework.data.aerospike.core.ContinuationSlice;
 import org.springframework.data.aerospike.repository.AerospikeRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -49,8 +52,9 @@ public class SimpleAerospikeRepository<T, ID extends Serializable> implements Ae
 		Assert.notNull(entities, "The given Iterable of entities not be null!");
 
 		List<S> result = convertIterableToList(entities);
-		for (S entity : result) {
-			save(entity);
+		BulkWriteResult writeResult = operations.bulkSave(result, getDomainClass());
+		if (writeResult.hasFailures()) {
+			throw new BulkWriteException(writeResult);
 		}
 
 		return result;
@@ -110,9 +114,26 @@ public class SimpleAerospikeRepository<T, ID extends Serializable> implements Ae
 			return new PageImpl<T>(result, null, result.size());
 		}
 
-		Iterable<T> content = operations.findInRange(pageable.getOffset(), pageable.getPageSize(), pageable.getSort(),entityInformation.getJavaType());
+		List<T> content = IterableConverter.toList(operations.findInRange(pageable.getOffset(), pageable.getPageSize(), pageable.getSort(),entityInformation.getJavaType()));
 
-		return new PageImpl<T>(IterableConverter.toList(content), pageable, this.operations.count(entityInformation.getJavaType(),getDomainClass().getSimpleName()));
+		/*
+		 * a partial page tells the total without asking the cluster
+		 */
+		long total;
+		if (content.size() < pageable.getPageSize() && (!content.isEmpty() || pageable.getOffset() == 0)) {
+			total = pageable.getOffset() + content.size();
+		} else {
+			total = this.operations.count(entityInformation.getJavaType(),getDomainClass().getSimpleName());
+		}
+		return new PageImpl<T>(content, pageable, total);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.springframework.data.aerospike.repository.AerospikeRepository#findAll(java.lang.String, int)
+	 */
+	@Override
+	public ContinuationSlice<T> findAll(String continuation, int size) {
+		return operations.findAll(continuation, size, entityInformation.getJavaType());
 	}
 
 	/* (non-Javadoc)
@@ -136,18 +157,8 @@ public class SimpleAerospikeRepository<T, ID extends Serializable> implements Ae
 	 */
 	@Override
 	public Iterable<T> findAll(Iterable<ID> ids) {
-		List<T> result = new ArrayList<T>();
-
-		for (ID id : ids) {
-
-			T candidate = findOne(id);
-
-			if (candidate != null) {
-				result.add(candidate);
-			}
-		}
-
-		return result;
+		Assert.notNull(ids, "The given Iterable of ids must not be null!");
+		return operations.findByIds(convertIterableToList(ids), getDomainClass());
 	}
 
 	/* (non-Javadoc)
@@ -186,6 +186,32 @@ function query_meta(stream, origArgs)
   return stream : filter(filter_records) : map(add_records)
 end
 
+------------------------------------------------------------------------------------------
+--  Returns The Number Of Records For Specified Filters
+------------------------------------------------------------------------------------------
+function count_records(stream, origArgs)
+  local filterFuncStr = origArgs["filterFuncStr"]
+
+  local filterFunc = nil
+  if filterFuncStr ~= nil then
+    filterFunc = load(filterFuncStr)
+  end
+
+  local function filter_records(rec)
+    return filter_record(rec, filterFuncStr, filterFunc)
+  end
+
+  local function count(total, rec)
+    return total + 1
+  end
+
+  local function sum(a, b)
+    return a + b
+  end
+
+  return stream : filter(filter_records) : aggregate(0, count) : reduce(sum)
+end
+
 ------------------------------------------------------------------------------------------
 --  Returns All bin names
 ------------------------------------------------------------------------------------------
@@ -0,0 +1,28 @@
+package com.aerospike.helper.query;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class InfoValueTest {
+
+	@Test
+	public void readsTheObjectsOfOldAndNewSetStatistics() {
+		assertEquals(10, QueryEngine.infoValue("ns_name=test:set_name=demo:n_objects=10:set-delete=false", ":", "objects", "n_objects"));
+		assertEquals(7, QueryEngine.infoValue("ns=test:set=demo:objects=7:tombstones=0:deleting=false;", ":", "objects", "n_objects"));
+	}
+
+	@Test
+	public void prefersTheFirstNamedValue() {
+		String namespace = "objects=20;replication-factor=3;effective_replication_factor=2;stop-writes=false";
+
+		assertEquals(2, QueryEngine.infoValue(namespace, ";", "effective_replication_factor", "replication-factor"));
+		assertEquals(3, QueryEngine.infoValue(namespace, ";", "repl-factor", "replication-factor"));
+	}
+
+	@Test
+	public void readsZeroWhenNothingIsListed() {
+		assertEquals(0, QueryEngine.infoValue("", ":", "objects"));
+		assertEquals(0, QueryEngine.infoValue("set-delete=false", ":", "objects"));
+	}
+}
@@ -0,0 +1,102 @@
+package com.aerospike.helper.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.junit.Test;
+
+import com.aerospike.client.Key;
+import com.aerospike.client.Record;
+import com.aerospike.client.Value;
+import com.aerospike.client.query.KeyRecord;
+import com.aerospike.helper.query.Qualifier.FilterOperation;
+
+/**
+ *
+ *
+ * @author Peter Milne
+ *
+ */
+public class QualifierPredicatesTest {
+
+	private static KeyRecord record(Object... binsAndValues) {
+		Map<String, Object> bins = new HashMap<String, Object>();
+		for (int i = 0; i < binsAndValues.length; i += 2) {
+			bins.put((String) binsAndValues[i], binsAndValues[i + 1]);
+		}
+		return new KeyRecord(new Key("test", "Person", "key"), new Record(bins, 3, 0));
+	}
+
+	private static boolean matches(Qualifier qualifier, KeyRecord record) {
+		return QualifierPredicates.compile(qualifier).test(record);
+	}
+
+	@Test
+	public void comparesIntegersAcrossNumberTypes() {
+		KeyRecord record = record("age", 25L);
+
+		assertTrue(matches(new Qualifier("age", FilterOperation.EQ, Value.get(25)), record));
+		assertTrue(matches(new Qualifier("age", FilterOperation.GT, Value.get(24)), record));
+		assertTrue(matches(new Qualifier("age", FilterOperation.LTEQ, Value.get(25)), record));
+		assertFalse(matches(new Qualifier("age", FilterOperation.LT, Value.get(25)), record));
+		assertTrue(matches(new Qualifier("age", FilterOperation.BETWEEN, Value.get(20), Value.get(30)), record));
+	}
+
+	@Test
+	public void missingBinOnlyMatchesNotEqual() {
+		KeyRecord record = record("firstName", "Sven");
+
+		assertFalse(matches(new Qualifier("age", FilterOperation.EQ, Value.get(25)), record));
+		assertFalse(matches(new Qualifier("age", FilterOperation.LT, Value.get(25)), record));
+		assertTrue(matches(new Qualifier("age", FilterOperation.NOTEQ, Value.get(25)), record));
+	}
+
+	@Test
+	public void mismatchingTypesNeverMatch() {
+		KeyRecord record = record("age", "25");
+
+		assertFalse(matches(new Qualifier("age", FilterOperation.EQ, Value.get(25)), record));
+		assertFalse(matches(new Qualifier("age", FilterOperation.LT, Value.get(30)), record));
+	}
+
+	@Test
+	public void evaluatesStringsAndCollections() {
+		Map<String, Object> map = new HashMap<String, Object>();
+		map.put("city", "Paris");
+		KeyRecord record = record("firstName", "Sven", "tags", Arrays.asList("a", "b"), "scores", Arrays.asList(3L, 9L), "address", map);
+
+		assertTrue(matches(new Qualifier("firstName", FilterOperation.START_WITH, Value.get("Sv")), record));
+		assertTrue(matches(new Qualifier("firstName", FilterOperation.ENDS_WITH, Value.get("en")), record));
+		assertTrue(matches(new Qualifier("tags", FilterOperation.LIST_CONTAINS, Value.get("b")), record));
+		assertTrue(matches(new Qualifier("scores", FilterOperation.LIST_BETWEEN, Value.get(5), Value.get(10)), record));
+		assertTrue(matches(new Qualifier("address", FilterOperation.MAP_KEYS_CONTAINS, Value.get("city")), record));
+		assertFalse(matches(new Qualifier("address", FilterOperation.MAP_VALUES_CONTAINS, Value.get("Rome")), record));
+	}
+
+	@Test
+	public void generationIsReadFromRecordMetadata() {
+		assertTrue(matches(new GenerationQualifier(FilterOperation.GTEQ, Value.get(3)), record()));
+	}
+
+	@Test
+	public void leavesPrimaryKeyAndExpiryToLua() {
+		KeyQualifier key = new KeyQualifier(Value.get("key"));
+		Qualifier age = new Qualifier("age", FilterOperation.EQ, Value.get(25));
+		List<Qualifier> notCompiled = new ArrayList<Qualifier>();
+
+		Predicate<KeyRecord> predicate = QualifierPredicates.compileAll(new Qualifier[] { key, age, null }, notCompiled);
+
+		assertNull(QualifierPredicates.compile(key));
+		assertEquals(Arrays.<Qualifier>asList(key), notCompiled);
+		assertTrue(predicate.test(record("age", 25L)));
+	}
+}
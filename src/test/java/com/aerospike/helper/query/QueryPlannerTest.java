@@ -0,0 +1,113 @@
+package com.aerospike.helper.query;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.aerospike.client.Value;
+import com.aerospike.helper.model.Index;
+import com.aerospike.helper.query.Qualifier.FilterOperation;
+
+/**
+ *
+ *
+ * @author Peter Milne
+ *
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class QueryPlannerTest {
+
+	@Mock QueryEngine queryEngine;
+
+	Index ageIndex = new Index("ns=test:set=Person:indexname=Person_age_index:bin=age:type=NUMERIC:indextype=NONE");
+	Index nameIndex = new Index("ns=test:set=Person:indexname=Person_firstName_index:bin=firstName:type=STRING:indextype=NONE");
+
+	QueryPlanner planner;
+
+	@Before
+	public void setUp() {
+		when(queryEngine.getIndex("test", "Person", "age")).thenReturn(ageIndex);
+		when(queryEngine.getIndex("test", "Person", "firstName")).thenReturn(nameIndex);
+		planner = new QueryPlanner(queryEngine) {
+			@Override
+			protected IndexStats fetchIndexStats(String namespace, Index index) {
+				// age has 10 distinct values, firstName 10000, both over 100000 records
+				long keys = index == ageIndex ? 10 : 10000;
+				return new IndexStats(keys, 100000, System.currentTimeMillis());
+			}
+		};
+	}
+
+	@Test
+	public void picksQualifierWithFewestEstimatedRecords() {
+		Qualifier age = new Qualifier("age", FilterOperation.EQ, Value.get(25));
+		Qualifier name = new Qualifier("firstName", FilterOperation.EQ, Value.get("Sven"));
+
+		QueryPlan plan = planner.plan("test", "Person", age, name);
+
+		assertThat(plan.getStrategy(), is(QueryPlan.Strategy.SECONDARY_INDEX));
+		assertThat(plan.getIndexQualifier(), is(name));
+		assertThat(plan.getEstimatedRecords(), is(10L));
+		assertThat(plan.getResidualQualifiers(), is(new Qualifier[] { age }));
+		assertThat(plan.getCandidates().size(), is(2));
+	}
+
+	@Test
+	public void usesRangeWhenEqualityIsNotIndexed() {
+		Qualifier age = new Qualifier("age", FilterOperation.BETWEEN, Value.get(20), Value.get(21));
+		Qualifier name = new Qualifier("firstName", FilterOperation.EQ, Value.get("Sven"));
+		when(queryEngine.getIndex("test", "Person", "firstName")).thenReturn(null);
+
+		QueryPlan plan = planner.plan("test", "Person", name, age);
+
+		assertThat(plan.getIndexQualifier(), is(age));
+		assertThat(plan.getResidualQualifiers(), is(new Qualifier[] { name }));
+	}
+
+	@Test
+	public void ignoresIndexOfMismatchingType() {
+		Qualifier age = new Qualifier("age", FilterOperation.EQ, Value.get("25"));
+
+		QueryPlan plan = planner.plan("test", "Person", age);
+
+		assertThat(plan.getStrategy(), is(QueryPlan.Strategy.SCAN));
+		assertNull(plan.getFilter());
+		assertThat(plan.getResidualQualifiers(), is(new Qualifier[] { age }));
+	}
+
+	@Test
+	public void cachesMissingIndexStatistics() {
+		final int[] fetches = new int[1];
+		QueryPlanner planner = new QueryPlanner(queryEngine) {
+			@Override
+			protected IndexStats fetchIndexStats(String namespace, Index index) {
+				fetches[0]++;
+				return null;
+			}
+		};
+		Qualifier age = new Qualifier("age", FilterOperation.EQ, Value.get(25));
+
+		planner.plan("test", "Person", age);
+		QueryPlan plan = planner.plan("test", "Person", age);
+
+		assertThat(fetches[0], is(1));
+		assertThat(plan.getStrategy(), is(QueryPlan.Strategy.SECONDARY_INDEX));
+	}
+
+	@Test
+	public void doesNotModifyQualifiers() {
+		Qualifier age = new Qualifier("age", FilterOperation.EQ, Value.get(25));
+		Qualifier[] qualifiers = new Qualifier[] { age };
+
+		planner.plan("test", "Person", qualifiers);
+
+		assertThat(qualifiers[0], is(age));
+	}
+}
@@ -0,0 +1,40 @@
+package com.aerospike.helper.query;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.aerospike.helper.model.Module;
+
+public class UtilityModuleTest {
+
+	byte[] bundled = "function count_records(stream)\nend\n".getBytes(StandardCharsets.UTF_8);
+
+	@Test
+	public void modulesListedWithAnotherHashAreStale() {
+		Module registered = new Module("filename=as_utility.lua,hash=874473d6583f6c4d16ce5ff3e14f2dca75bee062,type=LUA");
+
+		assertTrue(QueryEngine.isStale(registered, bundled));
+	}
+
+	@Test
+	public void modulesListedWithTheBundledHashAreCurrent() {
+		Module registered = new Module("filename=as_utility.lua,hash=" + QueryEngine.sha1(bundled).toUpperCase() + ",type=LUA");
+
+		assertFalse(QueryEngine.isStale(registered, bundled));
+	}
+
+	@Test
+	public void modulesListedWithoutHashAreComparedByContent() {
+		Module registered = new Module("filename=as_utility.lua,type=LUA");
+		registered.setSource("function select_records(stream)\nend\n");
+
+		assertTrue(QueryEngine.isStale(registered, bundled));
+
+		registered.setSource(new String(bundled, StandardCharsets.UTF_8));
+		assertFalse(QueryEngine.isStale(registered, bundled));
+	}
+}
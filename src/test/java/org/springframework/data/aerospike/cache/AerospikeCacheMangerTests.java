@@ -32,6 +32,7 @@ import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.aerospike.config.TestConfig;
+import org.springframework.data.aerospike.convert.MappingAerospikeConverter;
 import org.springframework.data.aerospike.core.AerospikeTemplate;
 import org.springframework.data.aerospike.repository.config.EnableAerospikeRepositories;
 import org.springframework.test.context.ContextConfiguration;
@@ -134,6 +135,29 @@ public class AerospikeCacheMangerTests {
 		}
 	}
 
+	@Test
+	public void readsEntriesWrittenBeforeTheCodecWasEnabled() {
+		String cacheName = "codec-switch-cache";
+		AerospikeCacheManager plain = new AerospikeCacheManager(client);
+		plain.afterPropertiesSet();
+		plain.getCache(cacheName).put("before", new CachedObject("bar"));
+
+		AerospikeCacheManager encoding = new AerospikeCacheManager(client);
+		encoding.setCacheValueCodec(new CompactCacheValueCodec(new MappingAerospikeConverter()));
+		encoding.afterPropertiesSet();
+		Cache cache = encoding.getCache(cacheName);
+		try {
+			assertEquals("bar", cache.get("before", CachedObject.class).getValue());
+
+			cache.put("after", new CachedObject("baz"));
+			assertEquals("baz", cache.get("after", CachedObject.class).getValue());
+		}
+		finally {
+			cache.evict("before");
+			cache.evict("after");
+		}
+	}
+
 	private void cleanupForCacheableTest() {
 		client.delete(null, new Key("test", AerospikeCacheManager.DEFAULT_SET_NAME, "foo"));
 	}
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.aerospike.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.aerospike.TestConstants;
+import org.springframework.data.aerospike.config.TestConfig;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.aerospike.client.AerospikeClient;
+import com.aerospike.client.Bin;
+import com.aerospike.client.Key;
+import com.aerospike.client.Record;
+
+/**
+ * @author Peter Milne
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestConfig.class})
+public class AerospikeCacheTests {
+
+	@Autowired AerospikeClient client;
+
+	AerospikeCache cache;
+
+	@Before
+	public void setUp() {
+		cache = new AerospikeCache(TestConstants.AS_NAMESPACE, "cache-tests", client, -1);
+	}
+
+	@Test
+	public void clearsSynchronously() {
+		cache.setSynchronousClear(true);
+		cache.put("foo", "bar");
+		cache.put("baz", "qux");
+
+		cache.clear();
+
+		assertTrue("Clear didn't complete", cache.getClearTask().isDone());
+		assertNull("Cache wasn't cleared", cache.get("foo"));
+		assertNull("Cache wasn't cleared", cache.get("baz"));
+	}
+
+	@Test
+	public void reportsTheProgressOfClearing() throws InterruptedException {
+		cache.put("foo", "bar");
+
+		CacheClearTask task = cache.clearAsync();
+
+		assertTrue("Clear didn't complete", task.waitTillComplete(10, TimeUnit.SECONDS));
+		assertTrue("Clear neither truncated nor scanned",
+				task.isTruncated() || task.getCompletedNodeCount() == client.getNodes().length);
+		assertNull("Cache wasn't cleared", cache.get("foo"));
+	}
+
+	@Test
+	public void clearsTheNearCache() {
+		cache.setSynchronousClear(true);
+		cache.setNearCache(new NearCache(10, 60000, NearCache.SINGLETON_WEIGHER), false);
+		cache.put("foo", "bar");
+		assertEquals("bar", cache.get("foo").get());
+
+		cache.clear();
+
+		assertEquals(0, cache.getNearCache().size());
+		assertNull("Cache wasn't cleared", cache.get("foo"));
+	}
+
+	@Test
+	public void readsTheCachedValuesOfManyKeys() {
+		Map<String, String> values = new HashMap<String, String>();
+		values.put("getAll-1", "one");
+		values.put("getAll-2", "two");
+		cache.putAll(values);
+
+		Map<String, String> cached = cache.getAll(Arrays.asList("getAll-1", "getAll-2", "getAll-3"), String.class);
+
+		assertEquals(values, cached);
+		assertFalse(cached.containsKey("getAll-3"));
+		assertEquals("one", cache.get("getAll-1").get());
+	}
+
+	@Test
+	public void loadsOnlyTheValuesThatAreNotCached() {
+		cache.put("load-1", "cached");
+		cache.evict("load-2");
+		final List<Collection<String>> loads = new ArrayList<Collection<String>>();
+
+		Map<String, String> values = cache.getAll(Arrays.asList("load-1", "load-2"), String.class,
+				new Function<Collection<String>, Map<String, String>>() {
+
+					@Override
+					public Map<String, String> apply(Collection<String> keys) {
+						loads.add(keys);
+						Map<String, String> loaded = new HashMap<String, String>();
+						for (String key : keys) {
+							loaded.put(key, "loaded");
+						}
+						return loaded;
+					}
+				});
+
+		assertEquals("cached", values.get("load-1"));
+		assertEquals("loaded", values.get("load-2"));
+		assertEquals(1, loads.size());
+		assertEquals(Arrays.asList("load-2"), new ArrayList<String>(loads.get(0)));
+		assertEquals("loaded", cache.get("load-2").get());
+	}
+
+	@Test
+	public void readsManyKeysFromTheNearCache() {
+		cache.setNearCache(new NearCache(10, 60000, NearCache.SINGLETON_WEIGHER), false);
+		cache.put("near-1", "one");
+		cache.getAll(Arrays.asList("near-1"), String.class);
+
+		Map<String, String> cached = cache.getAll(Arrays.asList("near-1"), String.class);
+
+		assertEquals("one", cached.get("near-1"));
+		assertEquals(1, cache.getNearCache().getHitCount());
+	}
+
+	@Test
+	public void loadsAMissingValueOnceForConcurrentReads() throws Exception {
+		cache.evict("single-flight");
+		final AtomicInteger loads = new AtomicInteger();
+		final CountDownLatch start = new CountDownLatch(1);
+		final Callable<String> loader = new Callable<String>() {
+
+			@Override
+			public String call() throws Exception {
+				loads.incrementAndGet();
+				Thread.sleep(200);
+				return "loaded";
+			}
+		};
+		ExecutorService readers = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<String>> reads = new ArrayList<Future<String>>();
+			for (int i = 0; i < 8; i++) {
+				reads.add(readers.submit(new Callable<String>() {
+
+					@Override
+					public String call() throws Exception {
+						start.await();
+						return cache.get("single-flight", loader);
+					}
+				}));
+			}
+			start.countDown();
+			for (Future<String> read : reads) {
+				assertEquals("loaded", read.get(10, TimeUnit.SECONDS));
+			}
+		}
+		finally {
+			readers.shutdownNow();
+		}
+		assertEquals(1, loads.get());
+		assertEquals("loaded", cache.get("single-flight").get());
+	}
+
+	@Test
+	public void wrapsTheFailureOfTheValueLoader() {
+		cache.evict("failing-load");
+		final IllegalStateException failure = new IllegalStateException("boom");
+
+		try {
+			cache.get("failing-load", new Callable<String>() {
+
+				@Override
+				public String call() {
+					throw failure;
+				}
+			});
+			fail("Expected ValueLoadingException");
+		}
+		catch (AerospikeCache.ValueLoadingException e) {
+			assertEquals("failing-load", e.getKey());
+			assertEquals(failure, e.getCause());
+		}
+		assertNull(cache.get("failing-load"));
+	}
+
+	@Test
+	public void waitsForTheValueLoadedByTheHolderOfTheLoadLock() throws Exception {
+		cache.evict("locked-load");
+		cache.setLoadLockTimeout(5000);
+		Key lockKey = new Key(TestConstants.AS_NAMESPACE, "cache-tests-locks", "locked-load");
+		client.put(null, lockKey, new Bin("lock", 1));
+		ExecutorService otherProcess = Executors.newSingleThreadExecutor();
+		try {
+			otherProcess.submit(new Callable<Void>() {
+
+				@Override
+				public Void call() throws Exception {
+					Thread.sleep(200);
+					cache.put("locked-load", "other");
+					return null;
+				}
+			});
+
+			String value = cache.get("locked-load", new Callable<String>() {
+
+				@Override
+				public String call() {
+					return "mine";
+				}
+			});
+
+			assertEquals("other", value);
+		}
+		finally {
+			otherProcess.shutdownNow();
+			client.delete(null, lockKey);
+		}
+	}
+
+	@Test
+	public void doesNotCacheAValueReadBeforeALocalPut() throws Exception {
+		final CountDownLatch read = new CountDownLatch(1);
+		final CountDownLatch written = new CountDownLatch(1);
+		final AerospikeCache racingCache = new AerospikeCache(TestConstants.AS_NAMESPACE, "cache-tests", client, -1) {
+
+			@Override
+			protected Object readValue(Key dbKey, Record record, Class<?> type) {
+				Object value = super.readValue(dbKey, record, type);
+				if ("old".equals(value) && read.getCount() > 0) {
+					read.countDown();
+					try {
+						written.await(10, TimeUnit.SECONDS);
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				return value;
+			}
+		};
+		racingCache.setNearCache(new NearCache(10, 60000, NearCache.SINGLETON_WEIGHER), false);
+		racingCache.put("race", "old");
+		ExecutorService reader = Executors.newSingleThreadExecutor();
+		try {
+			Future<String> stale = reader.submit(new Callable<String>() {
+
+				@Override
+				public String call() {
+					return racingCache.get("race", new Callable<String>() {
+
+						@Override
+						public String call() {
+							return "loaded";
+						}
+					});
+				}
+			});
+			assertTrue("Reader didn't read", read.await(10, TimeUnit.SECONDS));
+			racingCache.put("race", "new");
+			written.countDown();
+
+			assertEquals("old", stale.get(10, TimeUnit.SECONDS));
+		}
+		finally {
+			reader.shutdownNow();
+		}
+		assertEquals("new", racingCache.get("race").get());
+	}
+
+	@Test
+	public void onlyAnUnknownCommandDisablesTruncation() {
+		assertTrue(AerospikeCache.isUnknownCommand(null));
+		assertTrue(AerospikeCache.isUnknownCommand(""));
+		assertTrue(AerospikeCache.isUnknownCommand("ERROR::unrecognized command"));
+		assertFalse(AerospikeCache.isUnknownCommand("ERROR:80:not authorized"));
+		assertFalse(AerospikeCache.isUnknownCommand("ERROR:4:set not found"));
+	}
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.aerospike.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.aerospike.cache.CacheValueCodecTest.Order;
+import org.springframework.data.aerospike.convert.AerospikeData;
+import org.springframework.data.aerospike.convert.MappingAerospikeConverter;
+
+import com.aerospike.client.Bin;
+import com.aerospike.client.Record;
+
+/**
+ * Compares the {@link CacheValueCodec}s with the bins the converter writes for cached values.
+ * {@link #main(String[])} prints the size of the values in each encoding and then measures the throughput of encoding
+ * and decoding them.
+ *
+ * @author Peter Milne
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheValueCodecBenchmark {
+
+	private static final String SET = "cache";
+
+	@Param({ "1", "50" })
+	int lines;
+
+	@Param({ "converter", "jdk", "compact", "compact-deflate" })
+	String encoding;
+
+	MappingAerospikeConverter converter;
+	CacheValueCodec codec;
+	Order order;
+	byte[] blob;
+	AerospikeData data;
+
+	@Setup
+	public void setUp() {
+		converter = new MappingAerospikeConverter();
+		codec = codec(encoding, converter);
+		order = CacheValueCodecTest.order(lines);
+		if (codec != null) {
+			blob = codec.encode(order);
+		}
+		else {
+			data = forRead(write(converter, order));
+		}
+	}
+
+	@Benchmark
+	public Object encode() {
+		return codec != null ? codec.encode(order) : write(converter, order);
+	}
+
+	@Benchmark
+	public Object decode() {
+		return codec != null ? codec.decode(blob, Object.class) : converter.read(Order.class, data);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		MappingAerospikeConverter converter = new MappingAerospikeConverter();
+		for (int count : new int[] { 1, 50 }) {
+			Order order = CacheValueCodecTest.order(count);
+			StringBuilder sizes = new StringBuilder(count + " lines:");
+			for (String encoding : new String[] { "converter", "jdk", "compact", "compact-deflate" }) {
+				CacheValueCodec codec = codec(encoding, converter);
+				int size = codec != null ? codec.encode(order).length : size(write(converter, order));
+				sizes.append(' ').append(encoding).append(' ').append(size).append(" bytes");
+			}
+			System.out.println(sizes);
+		}
+		new Runner(new OptionsBuilder().include(CacheValueCodecBenchmark.class.getSimpleName()).build()).run();
+	}
+
+	private static CacheValueCodec codec(String encoding, MappingAerospikeConverter converter) {
+		if ("jdk".equals(encoding)) {
+			return new JdkSerializationCacheValueCodec();
+		}
+		if ("compact".equals(encoding)) {
+			return new CompactCacheValueCodec(converter);
+		}
+		if ("compact-deflate".equals(encoding)) {
+			return new CompressingCacheValueCodec(new CompactCacheValueCodec(converter), 256);
+		}
+		return null;
+	}
+
+	private static AerospikeData write(MappingAerospikeConverter converter, Object value) {
+		AerospikeData data = AerospikeData.forWrite(SET);
+		data.setID("key");
+		converter.write(value, data);
+		return data;
+	}
+
+	private static AerospikeData forRead(AerospikeData written) {
+		Map<String, Object> bins = new HashMap<String, Object>();
+		for (Bin bin : written.getBins()) {
+			bins.put(bin.name, bin.value.getObject());
+		}
+		AerospikeData data = AerospikeData.forRead(written.getKey(), null);
+		data.setRecord(new Record(bins, 1, 0));
+		return data;
+	}
+
+	private static int size(AerospikeData data) {
+		int size = 0;
+		for (Bin bin : data.getBins()) {
+			size += bin.name.length() + bin.value.estimateSize();
+		}
+		return size;
+	}
+}
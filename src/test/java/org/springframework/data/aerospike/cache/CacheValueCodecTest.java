@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.aerospike.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.data.aerospike.convert.MappingAerospikeConverter;
+
+/**
+ * @author Peter Milne
+ */
+public class CacheValueCodecTest {
+
+	CompactCacheValueCodec compact = new CompactCacheValueCodec(new MappingAerospikeConverter());
+
+	@Test
+	public void roundTripsEntitiesInTheCompactEncoding() {
+		Order order = order(3);
+
+		Order decoded = (Order) compact.decode(compact.encode(order), Object.class);
+
+		assertEquals("Order-1", decoded.id);
+		assertEquals(3, decoded.lines.size());
+		assertEquals("Product-2", decoded.lines.get(2).product);
+		assertEquals(3, decoded.lines.get(2).quantity);
+	}
+
+	@Test
+	public void readsSimpleValuesAsTheRequestedType() {
+		assertEquals(Long.valueOf(42), compact.decode(compact.encode(42), Object.class));
+		assertEquals(Integer.valueOf(42), compact.decode(compact.encode(42), Integer.class));
+		assertEquals("foo", compact.decode(compact.encode("foo"), String.class));
+	}
+
+	@Test
+	public void roundTripsSerializableValues() {
+		JdkSerializationCacheValueCodec codec = new JdkSerializationCacheValueCodec();
+
+		Order decoded = (Order) codec.decode(codec.encode(order(2)), Object.class);
+
+		assertEquals("Product-1", decoded.lines.get(1).product);
+	}
+
+	@Test
+	public void compressesBlobsFromTheThreshold() {
+		CompressingCacheValueCodec codec = new CompressingCacheValueCodec(compact, 256);
+		Order small = order(1);
+		Order large = order(50);
+
+		byte[] smallBlob = codec.encode(small);
+		byte[] largeBlob = codec.encode(large);
+
+		assertArrayEquals(compact.encode(small), Arrays.copyOfRange(smallBlob, 1, smallBlob.length));
+		assertTrue("Blob wasn't compressed", largeBlob.length < compact.encode(large).length / 2);
+		assertEquals("Product-49", ((Order) codec.decode(largeBlob, Object.class)).lines.get(49).product);
+		assertEquals("Product-0", ((Order) codec.decode(smallBlob, Object.class)).lines.get(0).product);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsUnknownCompression() {
+		new CompressingCacheValueCodec(compact, 0).decode(new byte[] { 7 }, Object.class);
+	}
+
+	static Order order(int lines) {
+		Order order = new Order();
+		order.id = "Order-1";
+		order.lines = new ArrayList<Line>();
+		for (int i = 0; i < lines; i++) {
+			Line line = new Line();
+			line.product = "Product-" + i;
+			line.description = "Description of product " + i;
+			line.quantity = i + 1;
+			line.price = 9.99d;
+			order.lines.add(line);
+		}
+		return order;
+	}
+
+	@SuppressWarnings("serial")
+	public static class Order implements Serializable {
+		String id;
+		List<Line> lines;
+	}
+
+	@SuppressWarnings("serial")
+	public static class Line implements Serializable {
+		String product;
+		String description;
+		int quantity;
+		double price;
+	}
+}
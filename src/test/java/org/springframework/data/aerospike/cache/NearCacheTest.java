@@ -0,0 +1,201 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.aerospike.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author Peter Milne
+ */
+public class NearCacheTest {
+
+	long now;
+	LongSupplier clock;
+
+	@Before
+	public void setUp() {
+		clock = new LongSupplier() {
+
+			@Override
+			public long getAsLong() {
+				return now;
+			}
+		};
+	}
+
+	@Test
+	public void countsHitsAndMisses() {
+		NearCache cache = new NearCache(10, 1000, NearCache.SINGLETON_WEIGHER, clock);
+
+		assertNull(cache.get("foo"));
+		cache.put("foo", "bar", 1);
+		assertEquals("bar", cache.get("foo").getValue());
+		assertEquals(1, cache.get("foo").getGeneration());
+
+		assertEquals(2, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+	}
+
+	@Test
+	public void evictsTheLeastRecentlyReadEntriesBeyondTheMaxWeight() {
+		NearCache cache = new NearCache(2, 1000, NearCache.SINGLETON_WEIGHER, clock);
+		cache.put("a", "1", 1);
+		now++;
+		cache.put("b", "2", 1);
+		now++;
+		cache.get("a");
+		now++;
+		cache.put("c", "3", 1);
+
+		assertNotNull(cache.get("a"));
+		assertNull(cache.get("b"));
+		assertNotNull(cache.get("c"));
+		assertEquals(1, cache.getEvictionCount());
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void weighsEntries() {
+		NearCache cache = new NearCache(10, 1000, new NearCache.Weigher() {
+
+			@Override
+			public int weigh(Object key, Object value) {
+				return ((String) value).length();
+			}
+		}, clock);
+		cache.put("a", "12345", 1);
+		now++;
+		cache.put("b", "1234", 1);
+		assertEquals(9, cache.getWeight());
+
+		now++;
+		cache.put("a", "12", 2);
+		assertEquals(6, cache.getWeight());
+
+		now++;
+		cache.put("c", "123456", 1);
+		assertNull(cache.get("b"));
+		assertEquals(8, cache.getWeight());
+	}
+
+	@Test
+	public void expiresEntriesAfterTheirTimeToLive() {
+		NearCache cache = new NearCache(10, 1000, NearCache.SINGLETON_WEIGHER, clock);
+		cache.put("foo", "bar", 1);
+
+		now += TimeUnit.MILLISECONDS.toNanos(999);
+		assertNotNull(cache.get("foo"));
+		now += TimeUnit.MILLISECONDS.toNanos(1);
+		assertNull(cache.get("foo"));
+
+		assertEquals(1, cache.getExpirationCount());
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void countsStaleEntriesAsMisses() {
+		NearCache cache = new NearCache(10, 1000, NearCache.SINGLETON_WEIGHER, clock);
+		cache.put("foo", "bar", 1);
+
+		assertNotNull(cache.get("foo"));
+		cache.rejectStale("foo");
+
+		assertNull(cache.get("foo"));
+		assertEquals(0, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+	}
+
+	@Test
+	public void dropsInvalidatedEntries() {
+		NearCache cache = new NearCache(10, 1000, NearCache.SINGLETON_WEIGHER, clock);
+		cache.put("foo", "bar", 1);
+		cache.put("baz", "qux", 1);
+
+		cache.invalidate("foo");
+		assertNull(cache.get("foo"));
+		assertEquals(1, cache.getWeight());
+
+		cache.clear();
+		assertNull(cache.get("baz"));
+		assertEquals(0, cache.getWeight());
+	}
+
+	@Test
+	public void skipsValuesReadBeforeAnInvalidationOfTheirKey() {
+		NearCache cache = new NearCache(10, 1000, NearCache.SINGLETON_WEIGHER, clock);
+		long stamp = cache.stamp("foo");
+
+		cache.invalidate("foo");
+
+		assertFalse(cache.put("foo", "old", 1, stamp));
+		assertNull(cache.get("foo"));
+		assertTrue(cache.put("foo", "new", 2, cache.stamp("foo")));
+		assertEquals("new", cache.get("foo").getValue());
+	}
+
+	@Test
+	public void keepsItsWeightUnderConcurrentReadsAndWrites() throws Exception {
+		final NearCache cache = new NearCache(100, 60000, NearCache.SINGLETON_WEIGHER);
+		ExecutorService threads = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> tasks = new ArrayList<Future<?>>();
+			for (int t = 0; t < 8; t++) {
+				final int offset = t;
+				tasks.add(threads.submit(new Runnable() {
+
+					@Override
+					public void run() {
+						for (int i = 0; i < 10000; i++) {
+							String key = "key-" + ((i + offset) % 300);
+							if (cache.get(key) == null) {
+								cache.put(key, "value", 1);
+							}
+							if (i % 7 == 0) {
+								cache.invalidate(key);
+							}
+						}
+					}
+				}));
+			}
+			for (Future<?> task : tasks) {
+				task.get(30, TimeUnit.SECONDS);
+			}
+		}
+		finally {
+			threads.shutdownNow();
+		}
+
+		assertEquals(80000, cache.getHitCount() + cache.getMissCount());
+		assertEquals(cache.size(), cache.getWeight());
+		assertTrue(cache.getWeight() <= 100);
+	}
+}
@@ -11,11 +11,12 @@ import org.springframework.data.aerospike.TestConstants;
 import org.springframework.data.aerospike.cache.AerospikeCacheManager;
 import org.springframework.data.aerospike.cache.AerospikeCacheMangerTests.CachingComponent;
 import org.springframework.data.aerospike.core.AerospikeTemplate;
+import org.springframework.data.aerospike.core.ReactiveAerospikeTemplate;
 import org.springframework.data.aerospike.repository.ContactRepository;
 import org.springframework.data.aerospike.repository.config.EnableAerospikeRepositories;
 
-import com.aerospike.client.AerospikeClient;
-import com.aerospike.client.policy.ClientPolicy;
+import com.aerospike.client.async.AsyncClient;
+import com.aerospike.client.async.AsyncClientPolicy;
 
 /**
  *
@@ -29,13 +30,13 @@ import com.aerospike.client.policy.ClientPolicy;
 @EnableCaching
 public class TestConfig extends CachingConfigurerSupport {
 
-	public @Bean(destroyMethod = "close") AerospikeClient aerospikeClient() {
+	public @Bean(destroyMethod = "close") AsyncClient aerospikeClient() {
 
-		ClientPolicy policy = new ClientPolicy();
+		AsyncClientPolicy policy = new AsyncClientPolicy();
 		policy.failIfNotConnected = true;
 		policy.timeout = TestConstants.AS_TIMEOUT;
 
-		AerospikeClient client = new AerospikeClient(policy, TestConstants.AS_CLUSTER, TestConstants.AS_PORT); //AWS us-east
+		AsyncClient client = new AsyncClient(policy, TestConstants.AS_CLUSTER, TestConstants.AS_PORT); //AWS us-east
 		client.writePolicyDefault.expiration = -1;
 		return client;
 	}
@@ -44,6 +45,10 @@ public class TestConfig extends CachingConfigurerSupport {
 		return new AerospikeTemplate(aerospikeClient(), TestConstants.AS_NAMESPACE); // TODO verify correct place for namespace
 	}
 
+	public @Bean ReactiveAerospikeTemplate reactiveAerospikeTemplate() {
+		return new ReactiveAerospikeTemplate(aerospikeClient(), TestConstants.AS_NAMESPACE);
+	}
+
 	public @Bean AerospikeCacheManager cacheManager() {
 		return new AerospikeCacheManager(aerospikeClient());
 	}
@@ -0,0 +1,53 @@
+/**
+ *
+ */
+package org.springframework.data.aerospike.convert;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.aerospike.client.Bin;
+import com.aerospike.client.Record;
+
+/**
+ * Writes entities into {@link AerospikeData} and turns the written bins into the record a read would return, without
+ * a server.
+ *
+ * @author Peter Milne
+ */
+public final class AerospikeDataTestUtils {
+
+	public static final String NAMESPACE = "test";
+
+	private AerospikeDataTestUtils() {
+	}
+
+	/**
+	 * Writes the entity with the given converter.
+	 */
+	public static AerospikeData write(MappingAerospikeConverter converter, Object source) {
+		AerospikeData data = AerospikeData.forWrite(NAMESPACE);
+		converter.write(source, data);
+		return data;
+	}
+
+	/**
+	 * The values of the written bins by name, as the client returns them.
+	 */
+	public static Map<String, Object> bins(AerospikeData written) {
+		Map<String, Object> bins = new HashMap<String, Object>();
+		for (Bin bin : written.getBins()) {
+			bins.put(bin.name, bin.value.getObject());
+		}
+		return bins;
+	}
+
+	/**
+	 * The record of the written bins, to be read back.
+	 */
+	public static AerospikeData forRead(AerospikeData written) {
+		AerospikeData data = AerospikeData.forRead(written.getKey(), null);
+		data.setRecord(new Record(bins(written), 1, 0));
+		return data;
+	}
+}
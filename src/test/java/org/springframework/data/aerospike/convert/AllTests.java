@@ -16,8 +16,13 @@ import org.junit.runners.Suite.SuiteClasses;
  */
 @RunWith(Suite.class)
 @SuiteClasses({ AerospikeDataTest.class,
+		CompactCodecTest.class,
+		CompiledEntityMapperTest.class,
+		LazyEntityFactoryTest.class,
 		MappingAerospikeConverterConversionTest.class,
-		MappingAerospikeConverterTest.class })
+		MappingAerospikeConverterTest.class,
+		PropertyConverterTest.class,
+		TemporalEncodingTest.class })
 public class AllTests {
 
 }
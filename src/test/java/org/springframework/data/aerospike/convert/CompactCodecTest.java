@@ -0,0 +1,185 @@
+/**
+ *
+ */
+package org.springframework.data.aerospike.convert;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.aerospike.mapping.Encoding;
+import org.springframework.data.aerospike.mapping.Field;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.util.ClassTypeInformation;
+
+import com.aerospike.client.Bin;
+import com.aerospike.client.Record;
+
+/**
+ * @author Peter Milne
+ */
+public class CompactCodecTest {
+
+	private static final String AEROSPIKE_NAME_SPACE = "AerospikeNameSpace";
+
+	MappingAerospikeConverter converter;
+	CompactCodec codec;
+
+	@Before
+	public void setUp() {
+		converter = new MappingAerospikeConverter();
+		codec = converter.getCompactCodec();
+	}
+
+	@Test
+	public void decodesNestedObjectGraphs() {
+		Order order = order();
+
+		Order result = (Order) codec.decode(codec.encode(order), ClassTypeInformation.from(Order.class));
+
+		assertThat(result.id, is("Order-1"));
+		assertThat(result.created, is(new Date(1000L)));
+		assertThat(result.status, is(Status.SHIPPED));
+		assertThat(result.customer.name, is("Dave"));
+		assertThat(result.lines.size(), is(2));
+		assertThat(result.lines.get(1).product, is("Pen"));
+		assertThat(result.lines.get(1).quantity, is(3));
+		assertThat(result.lines.get(1).price, is(1.5d));
+		assertThat(result.attributes.get("gift"), is(true));
+	}
+
+	@Test
+	public void decodesCollectionsOnFirstAccess() {
+		Order order = order();
+		byte[] blob = codec.encode(order.lines);
+
+		Object lines = codec.read(blob, ClassTypeInformation.from(Order.class).getProperty("lines"));
+
+		assertThat(lines, instanceOf(List.class));
+		assertThat(((List<?>) lines).size(), is(2));
+		assertThat(((Line) ((List<?>) lines).get(0)).product, is("Book"));
+	}
+
+	@Test
+	public void storesCompactPropertiesAsSmallerBlobs() {
+		Order order = order();
+		for (int i = 0; i < 20; i++) {
+			order.lines.add(new Line("Product-" + i, i, i * 0.25d));
+		}
+		CompactOrder compact = new CompactOrder();
+		compact.id = order.id;
+		compact.lines = order.lines;
+
+		int mapSize = size(write(order), "lines");
+		int compactSize = size(write(compact), "lines");
+
+		assertThat(compactSize, lessThan(mapSize));
+	}
+
+	@Test
+	public void readsCompactProperties() {
+		CompactOrder compact = new CompactOrder();
+		compact.id = "Order-1";
+		compact.lines = order().lines;
+
+		AerospikeData written = write(compact);
+		Map<String, Object> bins = new HashMap<String, Object>();
+		for (Bin bin : written.getBins()) {
+			bins.put(bin.name, bin.value.getObject());
+		}
+		AerospikeData data = AerospikeData.forRead(written.getKey(), null);
+		data.setRecord(new Record(bins, 1, 0));
+
+		CompactOrder result = converter.read(CompactOrder.class, data);
+
+		assertThat(bins.get("lines"), instanceOf(byte[].class));
+		assertThat(result.lines.get(0).product, is("Book"));
+		assertThat(result.lines.get(1).quantity, is(3));
+	}
+
+	private AerospikeData write(Object source) {
+		AerospikeData data = AerospikeData.forWrite(AEROSPIKE_NAME_SPACE);
+		converter.write(source, data);
+		return data;
+	}
+
+	/*
+	 * the serialized size of a bin, as the client would send it
+	 */
+	private static int size(AerospikeData data, String name) {
+		for (Bin bin : data.getBins()) {
+			if (bin.name.equals(name)) {
+				return bin.value.estimateSize();
+			}
+		}
+		throw new AssertionError("No bin " + name);
+	}
+
+	private static Order order() {
+		Order order = new Order();
+		order.id = "Order-1";
+		order.created = new Date(1000L);
+		order.status = Status.SHIPPED;
+		order.customer = new Customer("Dave");
+		order.lines = new ArrayList<Line>(Arrays.asList(new Line("Book", 1, 12.5d), new Line("Pen", 3, 1.5d)));
+		order.attributes = new HashMap<String, Boolean>();
+		order.attributes.put("gift", true);
+		return order;
+	}
+
+	enum Status {
+		NEW, SHIPPED
+	}
+
+	static class Order {
+		@Id String id;
+		Date created;
+		Status status;
+		Customer customer;
+		List<Line> lines;
+		Map<String, Boolean> attributes;
+	}
+
+	static class CompactOrder {
+		@Id String id;
+		@Field(encoding = Encoding.COMPACT) List<Line> lines;
+	}
+
+	static class Customer {
+		final String name;
+
+		Customer(String name) {
+			this.name = name;
+		}
+	}
+
+	/*
+	 * lists are written as they are, the client serializes their elements
+	 */
+	@SuppressWarnings("serial")
+	static class Line implements Serializable {
+		String product;
+		int quantity;
+		double price;
+
+		Line() {
+		}
+
+		Line(String product, int quantity, double price) {
+			this.product = product;
+			this.quantity = quantity;
+			this.price = price;
+		}
+	}
+}
@@ -0,0 +1,145 @@
+/**
+ *
+ */
+package org.springframework.data.aerospike.convert;
+
+import static org.springframework.data.aerospike.convert.AerospikeDataTestUtils.forRead;
+import static org.springframework.data.aerospike.convert.AerospikeDataTestUtils.write;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.aerospike.mapping.Encoding;
+import org.springframework.data.aerospike.mapping.Field;
+import org.springframework.data.annotation.Id;
+
+import com.aerospike.client.Bin;
+
+/**
+ * Compares nested entities stored as maps with {@link Encoding#COMPACT} blobs. {@link #main(String[])} prints the
+ * size of the bins of both encodings and then measures the throughput of writing and reading them; the
+ * {@code gc.alloc.rate.norm} column of the GC profiler is the number of bytes allocated per operation.
+ *
+ * @author Peter Milne
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompactEncodingBenchmark {
+
+	@Param({ "1", "20" })
+	int lines;
+
+	MappingAerospikeConverter converter;
+	MapOrder mapOrder;
+	CompactOrder compactOrder;
+	AerospikeData mapData;
+	AerospikeData compactData;
+
+	@Setup
+	public void setUp() {
+		converter = new MappingAerospikeConverter();
+		mapOrder = new MapOrder();
+		mapOrder.id = "Order-1";
+		mapOrder.lines = lines(lines);
+		compactOrder = new CompactOrder();
+		compactOrder.id = "Order-1";
+		compactOrder.lines = lines(lines);
+
+		mapData = forRead(write(converter, mapOrder));
+		compactData = forRead(write(converter, compactOrder));
+	}
+
+	@Benchmark
+	public Object writeMaps() {
+		return write(converter, mapOrder);
+	}
+
+	@Benchmark
+	public Object writeCompact() {
+		return write(converter, compactOrder);
+	}
+
+	@Benchmark
+	public Object readMaps() {
+		return converter.read(MapOrder.class, mapData).lines.get(lines - 1);
+	}
+
+	@Benchmark
+	public Object readCompact() {
+		return converter.read(CompactOrder.class, compactData).lines.get(lines - 1);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		MappingAerospikeConverter converter = new MappingAerospikeConverter();
+		for (int count : new int[] { 1, 20 }) {
+			MapOrder mapOrder = new MapOrder();
+			mapOrder.id = "Order-1";
+			mapOrder.lines = lines(count);
+			CompactOrder compactOrder = new CompactOrder();
+			compactOrder.id = "Order-1";
+			compactOrder.lines = lines(count);
+			System.out.println(count + " lines: maps " + size(write(converter, mapOrder)) + " bytes, compact "
+					+ size(write(converter, compactOrder)) + " bytes");
+		}
+		new Runner(new OptionsBuilder().include(CompactEncodingBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+
+	private static List<Line> lines(int count) {
+		List<Line> lines = new ArrayList<Line>();
+		for (int i = 0; i < count; i++) {
+			Line line = new Line();
+			line.product = "Product-" + i;
+			line.description = "Description of product " + i;
+			line.quantity = i + 1;
+			line.price = 9.99d;
+			lines.add(line);
+		}
+		return lines;
+	}
+
+	private static int size(AerospikeData data) {
+		int size = 0;
+		for (Bin bin : data.getBins()) {
+			size += bin.name.length() + bin.value.estimateSize();
+		}
+		return size;
+	}
+
+	public static class MapOrder {
+		@Id String id;
+		List<Line> lines;
+	}
+
+	public static class CompactOrder {
+		@Id String id;
+		@Field(encoding = Encoding.COMPACT) List<Line> lines;
+	}
+
+	public static class Line {
+		String product;
+		String description;
+		int quantity;
+		double price;
+	}
+}
@@ -0,0 +1,202 @@
+/**
+ *
+ */
+package org.springframework.data.aerospike.convert;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.springframework.data.aerospike.convert.AerospikeDataTestUtils.forRead;
+import static org.springframework.data.aerospike.convert.AerospikeDataTestUtils.write;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.aerospike.mapping.AerospikeMetadataBin;
+import org.springframework.data.annotation.Id;
+
+import com.aerospike.client.Bin;
+import com.aerospike.client.Key;
+import com.aerospike.client.Record;
+
+/**
+ * @author Peter Milne
+ */
+public class CompiledEntityMapperTest {
+
+	private static final String AEROSPIKE_NAME_SPACE = "AerospikeNameSpace";
+
+	MappingAerospikeConverter reflective;
+	MappingAerospikeConverter compiled;
+
+	@Before
+	public void setUp() {
+		reflective = new MappingAerospikeConverter();
+		compiled = new MappingAerospikeConverter();
+		compiled.setCompiledMappers(true);
+	}
+
+	@Test
+	public void writesTheBinsOfTheReflectiveMapping() {
+		Sample sample = sample();
+
+		List<Bin> expected = write(reflective, sample).getBins();
+		List<Bin> actual = write(compiled, sample).getBins();
+
+		assertThat(actual, containsInAnyOrder(expected.toArray()));
+	}
+
+	@Test
+	public void readsTheEntityOfTheReflectiveMapping() {
+		AerospikeData written = write(reflective, sample());
+
+		Sample expected = reflective.read(Sample.class, forRead(written));
+		Sample actual = compiled.read(Sample.class, forRead(written));
+
+		assertThat(actual.id, is(expected.id));
+		assertThat(actual.name, is(expected.name));
+		assertThat(actual.count, is(expected.count));
+		assertThat(actual.total, is(expected.total));
+		assertThat(actual.active, is(expected.active));
+		assertThat(actual.ratio, is(expected.ratio));
+		assertThat(actual.created, is(expected.created));
+		assertThat(actual.tags, is(expected.tags));
+		assertThat(actual.missing, is(nullValue()));
+	}
+
+	@Test
+	public void convertsStoredValuesOfAnotherType() {
+		Map<String, Object> bins = new HashMap<String, Object>();
+		bins.put("count", 7L);
+		bins.put("active", 0L);
+		bins.put("ratio", 2L);
+
+		AerospikeData data = AerospikeData.forRead(new Key(AEROSPIKE_NAME_SPACE, "Sample", "Sample-1"), null);
+		data.setRecord(new Record(bins, 1, 0));
+		Sample sample = compiled.read(Sample.class, data);
+
+		assertThat(sample.count, is(7));
+		assertThat(sample.active, is(false));
+		assertThat(sample.ratio, is(2.0d));
+	}
+
+	@Test
+	public void mapsPrimitivePropertiesLikeTheReflectiveMapping() {
+		Metrics metrics = new Metrics();
+		metrics.id = 7L;
+		metrics.hits = 3;
+		metrics.errors = 2;
+		metrics.bytes = 1L << 40;
+		metrics.load = 0.75d;
+		metrics.share = 0.25f;
+		metrics.up = true;
+
+		List<Bin> expected = write(reflective, metrics).getBins();
+		List<Bin> actual = write(compiled, metrics).getBins();
+
+		Map<String, Object> metaData = new HashMap<String, Object>();
+		metaData.put(MappingAerospikeConverter.SPRING_ID_BIN, 7L);
+		Map<String, Object> bins = new HashMap<String, Object>();
+		bins.put("hits", 3L);
+		bins.put("errors", 2L);
+		bins.put("bytes", 1L << 40);
+		bins.put("load", 0.75d);
+		bins.put("share", 0.25d);
+		bins.put("up", 1L);
+		bins.put(AerospikeMetadataBin.AEROSPIKE_META_DATA, metaData);
+		AerospikeData data = AerospikeData.forRead(new Key(AEROSPIKE_NAME_SPACE, "Metrics", 7L), null);
+		data.setRecord(new Record(bins, 1, 0));
+		Metrics result = compiled.read(Metrics.class, data);
+
+		assertThat(actual, containsInAnyOrder(expected.toArray()));
+		assertThat(result.id, is(7L));
+		assertThat(result.hits, is(3));
+		assertThat(result.errors, is((short) 2));
+		assertThat(result.bytes, is(1L << 40));
+		assertThat(result.load, is(0.75d));
+		assertThat(result.share, is(0.25f));
+		assertThat(result.up, is(true));
+	}
+
+	@Test
+	public void rejectsStoredValuesOutOfRangeLikeTheReflectiveMapping() {
+		Map<String, Object> bins = new HashMap<String, Object>();
+		bins.put("hits", 1L << 40);
+		AerospikeData data = AerospikeData.forRead(new Key(AEROSPIKE_NAME_SPACE, "Metrics", 7L), null);
+		data.setRecord(new Record(bins, 1, 0));
+
+		assertThat(readFailure(compiled, data), is((Object) readFailure(reflective, data)));
+	}
+
+	@Test
+	public void mapsEntitiesWithConstructorArgumentsReflectively() {
+		Immutable immutable = new Immutable("Immutable-1", "Biff");
+		AerospikeData written = write(compiled, immutable);
+
+		Immutable result = compiled.read(Immutable.class, forRead(written));
+
+		assertThat(written.getBins(), containsInAnyOrder(write(reflective, immutable).getBins().toArray()));
+		assertThat(result.name, is("Biff"));
+	}
+
+	private static Sample sample() {
+		Sample sample = new Sample();
+		sample.id = "Sample-1";
+		sample.name = "Biff";
+		sample.count = 42;
+		sample.total = 1L << 40;
+		sample.active = true;
+		sample.ratio = 0.5d;
+		sample.created = new Date(1000L);
+		sample.tags = Collections.singletonMap("colour", "red");
+		return sample;
+	}
+
+	private static Object readFailure(MappingAerospikeConverter converter, AerospikeData data) {
+		try {
+			converter.read(Metrics.class, data);
+		}
+		catch (RuntimeException e) {
+			return e.getClass();
+		}
+		throw new AssertionError("Read " + data + " without failing");
+	}
+
+	static class Sample {
+		@Id String id;
+		String name;
+		int count;
+		long total;
+		boolean active;
+		Double ratio;
+		Date created;
+		Map<String, String> tags;
+		String missing;
+	}
+
+	static class Metrics {
+		@Id long id;
+		int hits;
+		short errors;
+		long bytes;
+		double load;
+		float share;
+		boolean up;
+	}
+
+	static class Immutable {
+		@Id final String id;
+		final String name;
+
+		Immutable(String id, String name) {
+			this.id = id;
+			this.name = name;
+		}
+	}
+}
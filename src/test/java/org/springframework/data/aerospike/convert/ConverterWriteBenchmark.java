@@ -0,0 +1,103 @@
+/**
+ *
+ */
+package org.springframework.data.aerospike.convert;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.annotation.Id;
+
+/**
+ * Compares the bins written per entity by {@link MappingAerospikeConverter#write(Object, AerospikeData)} followed by
+ * {@link AerospikeData#getBinsAsArray()} with {@link MappingAerospikeConverter#writeBins(Object, AerospikeData)}. Run
+ * {@link #main(String[])} from the test classpath; the {@code gc.alloc.rate.norm} column of the GC profiler is the
+ * number of bytes allocated per write. On JDK 8 it was 5576 bytes for {@link #writeAndCopyBins(Blackhole)}, 5344
+ * for {@link #writeBins(Blackhole)} and 2048 for {@link #writeBinsCompiled(Blackhole)}.
+ *
+ * @author Peter Milne
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConverterWriteBenchmark {
+
+	private static final String NAMESPACE = "test";
+
+	MappingAerospikeConverter converter;
+	MappingAerospikeConverter compiledConverter;
+	Customer customer;
+
+	@Setup
+	public void setUp() {
+		converter = new MappingAerospikeConverter();
+		compiledConverter = new MappingAerospikeConverter();
+		compiledConverter.setCompiledMappers(true);
+
+		customer = new Customer();
+		customer.id = "Customer-1";
+		customer.firstName = "Dave";
+		customer.lastName = "Matthews";
+		customer.email = "dave@example.com";
+		customer.street = "Broadway";
+		customer.city = "New York";
+		customer.age = 42;
+		customer.visits = 1234567L;
+		customer.balance = 100.5d;
+		customer.active = true;
+	}
+
+	@Benchmark
+	public void writeAndCopyBins(Blackhole blackhole) {
+		AerospikeData data = AerospikeData.forWrite(NAMESPACE);
+		converter.write(customer, data);
+		blackhole.consume(data.getBinsAsArray());
+	}
+
+	@Benchmark
+	public void writeBins(Blackhole blackhole) {
+		AerospikeData data = converter.forWrite(NAMESPACE, customer);
+		blackhole.consume(converter.writeBins(customer, data));
+	}
+
+	@Benchmark
+	public void writeBinsCompiled(Blackhole blackhole) {
+		AerospikeData data = compiledConverter.forWrite(NAMESPACE, customer);
+		blackhole.consume(compiledConverter.writeBins(customer, data));
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(ConverterWriteBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+
+	public static class Customer {
+		@Id String id;
+		String firstName;
+		String lastName;
+		String email;
+		String street;
+		String city;
+		int age;
+		long visits;
+		double balance;
+		boolean active;
+	}
+}
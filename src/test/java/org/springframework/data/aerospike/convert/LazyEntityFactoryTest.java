@@ -0,0 +1,137 @@
+/**
+ *
+ */
+package org.springframework.data.aerospike.convert;
+
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.aerospike.mapping.AerospikeMetadataBin;
+import org.springframework.data.annotation.Id;
+
+import com.aerospike.client.Bin;
+import com.aerospike.client.Key;
+import com.aerospike.client.Record;
+
+/**
+ * @author Peter Milne
+ */
+public class LazyEntityFactoryTest {
+
+	MappingAerospikeConverter converter;
+
+	@Before
+	public void setUp() {
+		converter = new MappingAerospikeConverter();
+	}
+
+	@Test
+	public void convertsPropertiesOnFirstAccess() {
+		Person person = converter.readLazily(Person.class, record());
+
+		assertThat(person.getClass(), is(not((Object) Person.class)));
+		assertThat(person.id, is("Person-1"));
+		assertThat(person.name, is(nullValue()));
+		assertThat(person.getName(), is("Dave"));
+		assertThat(person.age, is(0));
+		assertThat(person.describe(), is("Dave 42"));
+	}
+
+	@Test
+	public void keepsPropertiesSetBeforeTheirFirstAccess() {
+		Person person = converter.readLazily(Person.class, record());
+
+		person.setName("Oliver");
+
+		assertThat(person.getName(), is("Oliver"));
+		assertThat(person.describe(), is("Oliver 42"));
+	}
+
+	@Test
+	public void keepsInitializedValuesOfPropertiesWithoutBins() {
+		Person person = converter.readLazily(Person.class, record());
+
+		assertThat(person.getTags(), is(empty()));
+		assertThat(converter.read(Person.class, record()).getTags(), is(empty()));
+	}
+
+	@Test
+	public void writesAllPropertiesOfLazyEntities() {
+		Person person = converter.readLazily(Person.class, record());
+
+		AerospikeData data = AerospikeData.forWrite("test");
+		data.setID("Person-1");
+		converter.write(person, data);
+
+		Map<String, Object> bins = new HashMap<String, Object>();
+		for (Bin bin : data.getBins()) {
+			bins.put(bin.name, bin.value.getObject());
+		}
+		assertThat(bins.get("name"), is((Object) "Dave"));
+		assertThat(((Number) bins.get("age")).intValue(), is(42));
+		assertThat(converter.getMappingContext().getPersistentEntity(person.getClass()).getType(),
+				is((Object) Person.class));
+	}
+
+	@Test
+	public void readsEntitiesThatCannotBeSubclassedRightAway() {
+		Map<String, Object> bins = new HashMap<String, Object>();
+		bins.put("name", "Dave");
+		AerospikeData data = AerospikeData.forRead(new Key("test", "person", "Person-1"), null);
+		data.setRecord(new Record(bins, 1, 0));
+
+		FinalPerson person = converter.readLazily(FinalPerson.class, data);
+
+		assertThat(person.getClass(), is((Object) FinalPerson.class));
+		assertThat(person.name, is("Dave"));
+	}
+
+	private static AerospikeData record() {
+		Map<String, Object> bins = new HashMap<String, Object>();
+		bins.put("name", "Dave");
+		bins.put("age", 42L);
+		Map<String, Object> metaData = new HashMap<String, Object>();
+		metaData.put(MappingAerospikeConverter.SPRING_ID_BIN, "Person-1");
+		bins.put(AerospikeMetadataBin.AEROSPIKE_META_DATA, metaData);
+		AerospikeData data = AerospikeData.forRead(new Key("test", "person", "Person-1"), null);
+		data.setRecord(new Record(bins, 1, 0));
+		return data;
+	}
+
+	public static class Person {
+		@Id String id;
+		String name;
+		int age;
+		List<String> tags = new ArrayList<String>();
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public List<String> getTags() {
+			return tags;
+		}
+
+		public String describe() {
+			return name + " " + age;
+		}
+	}
+
+	static final class FinalPerson {
+		String name;
+	}
+}
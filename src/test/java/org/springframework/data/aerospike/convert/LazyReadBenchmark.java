@@ -0,0 +1,112 @@
+/**
+ *
+ */
+package org.springframework.data.aerospike.convert;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.annotation.Id;
+
+import com.aerospike.client.Key;
+import com.aerospike.client.Record;
+
+/**
+ * Compares {@link MappingAerospikeConverter#read(Class, AerospikeData)} with
+ * {@link MappingAerospikeConverter#readLazily(Class, AerospikeData)} for callers touching a single property, and
+ * all of them, of each entity. Run {@link #main(String[])} from the test classpath; the {@code gc.alloc.rate.norm}
+ * column of the GC profiler is the number of bytes allocated per entity.
+ *
+ * @author Peter Milne
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LazyReadBenchmark {
+
+	MappingAerospikeConverter converter;
+	Map<String, Object> bins;
+	Key key;
+
+	@Setup
+	public void setUp() {
+		converter = new MappingAerospikeConverter();
+		key = new Key("test", "customer", "Customer-1");
+		bins = new HashMap<String, Object>();
+		bins.put("id", "Customer-1");
+		bins.put("firstName", "Dave");
+		bins.put("lastName", "Matthews");
+		bins.put("email", "dave@example.com");
+		bins.put("street", "Broadway");
+		bins.put("city", "New York");
+		bins.put("age", 42L);
+	}
+
+	@Benchmark
+	public Object eagerOneProperty() {
+		return converter.read(Customer.class, data()).getCity();
+	}
+
+	@Benchmark
+	public Object lazyOneProperty() {
+		return converter.readLazily(Customer.class, data()).getCity();
+	}
+
+	@Benchmark
+	public Object eagerAllProperties() {
+		return converter.read(Customer.class, data()).toString();
+	}
+
+	@Benchmark
+	public Object lazyAllProperties() {
+		return converter.readLazily(Customer.class, data()).toString();
+	}
+
+	private AerospikeData data() {
+		AerospikeData data = AerospikeData.forRead(key, null);
+		data.setRecord(new Record(bins, 1, 0));
+		return data;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(LazyReadBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+
+	public static class Customer {
+		@Id String id;
+		String firstName;
+		String lastName;
+		String email;
+		String street;
+		String city;
+		int age;
+
+		public String getCity() {
+			return city;
+		}
+
+		@Override
+		public String toString() {
+			return firstName + " " + lastName + " <" + email + "> " + street + ", " + city + " " + age;
+		}
+	}
+}
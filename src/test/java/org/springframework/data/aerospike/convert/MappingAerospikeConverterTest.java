@@ -110,6 +110,67 @@ public class MappingAerospikeConverterTest {
 		assertTrue(dbObject.getBins().contains(new Bin("street", "Broadway")));
 	}
 
+	@Test
+	public void writesTheSameBinsIntoAnArray() {
+		Address address = new Address();
+		address.city = "New York";
+		address.street = "Broadway";
+
+		AerospikeData dbObject = AerospikeData.forWrite(AEROSPIKE_NAME_SPACE);
+		dbObject.setID(AEROSPIKE_KEY);
+		converter.write(address, dbObject);
+
+		for (int i = 0; i < 2; i++) {
+			AerospikeData data = converter.forWrite(AEROSPIKE_NAME_SPACE, address);
+			data.setID(AEROSPIKE_KEY);
+			Bin[] bins = converter.writeBins(address, data);
+			assertThat(Arrays.asList(bins), containsInAnyOrder(dbObject.getBinsAsArray()));
+			assertTrue(data.getBins().isEmpty());
+		}
+	}
+
+	@Test
+	public void readsRegisteredTypeAliases() {
+		converter.registerTypeAlias(Address.class, "a");
+		Address address = new Address();
+		address.city = "New York";
+
+		AerospikeData dbObject = AerospikeData.forWrite(AEROSPIKE_NAME_SPACE);
+		dbObject.setID(AEROSPIKE_KEY);
+		converter.write(address, dbObject);
+
+		assertThat(returnBinPropertyValue(dbObject, AerospikeMetadataBin.TYPE_BIN_NAME), is((Object) "a"));
+		Object result = converter.read(InterfaceType.class, forRead(dbObject));
+		assertThat(result, is((Object) address));
+	}
+
+	@Test
+	public void writesTypeAliasAnnotation() {
+		Aliased aliased = new Aliased();
+		aliased.name = "Dave";
+
+		AerospikeData dbObject = AerospikeData.forWrite(AEROSPIKE_NAME_SPACE);
+		dbObject.setID(AEROSPIKE_KEY);
+		converter.write(aliased, dbObject);
+
+		assertThat(returnBinPropertyValue(dbObject, AerospikeMetadataBin.TYPE_BIN_NAME), is((Object) "_"));
+		assertThat(converter.read(Aliased.class, forRead(dbObject)).name, is("Dave"));
+	}
+
+	@Test
+	public void omitsTypeHintsOfFinalTypes() {
+		converter.setOmitNonPolymorphicTypeHints(true);
+		FinalType value = new FinalType();
+		value.name = "Dave";
+
+		AerospikeData dbObject = AerospikeData.forWrite(AEROSPIKE_NAME_SPACE);
+		dbObject.setID(AEROSPIKE_KEY);
+		converter.write(value, dbObject);
+
+		assertThat(returnBinPropertyValue(dbObject, AerospikeMetadataBin.TYPE_BIN_NAME), is(nullValue()));
+		assertThat(converter.read(FinalType.class, forRead(dbObject)).name, is("Dave"));
+	}
+
 	@SuppressWarnings("serial")
 	@Test
 	public void convertsAerospikeDataToAddressCorrectly() {
@@ -474,6 +535,27 @@ public class MappingAerospikeConverterTest {
 		assertThat(contactItem.addresses, nullValue());
 	}
 
+	@Test
+	public void warmUpBuildsReferencedEntitiesAndPropertyConverters() {
+		converter.warmUp(Collections.<Class<?>>singletonList(Person.class));
+
+		assertTrue(converter.getMappingContext().hasPersistentEntityFor(Address.class));
+		AerospikePersistentEntity<?> address = converter.getMappingContext().getPersistentEntity(Address.class);
+		CachingAerospikePersistentProperty street = (CachingAerospikePersistentProperty) address
+				.getPersistentProperty("street");
+		assertThat(street.getReadConverter(), is(notNullValue()));
+		assertThat(street.getWriteConverter(), is(notNullValue()));
+
+		Person person = new Person();
+		person.id = "Person-1";
+		person.firstname = "Dave";
+		AerospikeData data = AerospikeData.forWrite(AEROSPIKE_NAME_SPACE);
+		data.setID(person.id);
+		converter.write(person, data);
+
+		Person read = converter.read(Person.class, forRead(data));
+		assertThat(read.firstname, is("Dave"));
+	}
 
 	/**
 	 * @param bins
@@ -487,6 +569,15 @@ public class MappingAerospikeConverterTest {
 		return map;
 	}
 
+	/*
+	 * the written bins as a record read from the database
+	 */
+	private AerospikeData forRead(AerospikeData written) {
+		AerospikeData data = AerospikeData.forRead(written.getKey(), null);
+		data.setRecord(new Record(listToMap(written.getBins()), 1, 0));
+		return data;
+	}
+
 	/**
 	 * @param aerospikeData
 	 * @param property
@@ -725,6 +816,10 @@ public class MappingAerospikeConverterTest {
 		String name;
 	}
 
+	static final class FinalType {
+		String name;
+	}
+
 	static class ThrowableWrapper {
 		Throwable throwable;
 	}
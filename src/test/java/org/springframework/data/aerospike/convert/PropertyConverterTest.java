@@ -0,0 +1,88 @@
+/**
+ *
+ */
+package org.springframework.data.aerospike.convert;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.aerospike.mapping.CachingAerospikePersistentProperty;
+
+import com.aerospike.client.Key;
+import com.aerospike.client.Record;
+
+/**
+ * @author Peter Milne
+ */
+public class PropertyConverterTest {
+
+	MappingAerospikeConverter converter;
+	PropertyConverter.Lookup lookup;
+
+	@Before
+	public void setUp() {
+		converter = new MappingAerospikeConverter();
+		lookup = (PropertyConverter.Lookup) converter.getConversionService();
+	}
+
+	@Test
+	public void keepsTheReadConverterOnTheProperty() {
+		Sample first = converter.read(Sample.class, record(5L, "SHIPPED"));
+		CachingAerospikePersistentProperty count = property("count");
+		Sample second = converter.read(Sample.class, record(7L, "NEW"));
+
+		assertThat(first.count, is(5));
+		assertThat(first.status, is(Status.SHIPPED));
+		assertThat(second.count, is(7));
+		assertThat(second.status, is(Status.NEW));
+		assertThat(count.getReadConverter(), is(notNullValue()));
+		assertThat(property("count").getReadConverter(), is(sameInstance(count.getReadConverter())));
+	}
+
+	@Test
+	public void returnsValuesOfTheTargetTypeAsTheyAre() {
+		Object value = "Dave";
+
+		assertThat(PropertyConverter.forReading(property("name"), lookup).convert(value), is(sameInstance(value)));
+	}
+
+	@Test
+	public void returnsUnconvertibleValuesAsTheyAreOnWrite() {
+		Object value = new Sample();
+
+		assertThat(PropertyConverter.forWriting(property("name"), lookup).convert(value), is(sameInstance(value)));
+		assertThat(PropertyConverter.forWriting(property("status"), lookup).convert(Status.NEW), is((Object) "NEW"));
+	}
+
+	private CachingAerospikePersistentProperty property(String name) {
+		return (CachingAerospikePersistentProperty) converter.getMappingContext().getPersistentEntity(Sample.class)
+				.getPersistentProperty(name);
+	}
+
+	private static AerospikeData record(long count, String status) {
+		Map<String, Object> bins = new HashMap<String, Object>();
+		bins.put("count", count);
+		bins.put("status", status);
+		bins.put("name", "Dave");
+		AerospikeData data = AerospikeData.forRead(new Key("test", "sample", "1"), null);
+		data.setRecord(new Record(bins, 1, 0));
+		return data;
+	}
+
+	enum Status {
+		NEW, SHIPPED
+	}
+
+	static class Sample {
+		String name;
+		int count;
+		Status status;
+	}
+}
@@ -0,0 +1,132 @@
+/**
+ *
+ */
+package org.springframework.data.aerospike.convert;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.springframework.data.aerospike.convert.AerospikeDataTestUtils.bins;
+import static org.springframework.data.aerospike.convert.AerospikeDataTestUtils.forRead;
+import static org.springframework.data.aerospike.convert.AerospikeDataTestUtils.write;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.annotation.Id;
+
+/**
+ * @author Peter Milne
+ */
+public class TemporalEncodingTest {
+
+	MappingAerospikeConverter converter;
+
+	@Before
+	public void setUp() {
+		converter = new MappingAerospikeConverter();
+	}
+
+	@Test
+	public void writesEpochMillis() {
+		converter.setTemporalEncoding(TemporalEncoding.EPOCH_MILLIS);
+		Event event = event();
+
+		Map<String, Object> bins = bins(write(converter, event));
+
+		assertThat(bins.get("instant"), is((Object) 1500000000123L));
+		assertThat(bins.get("date"), is((Object) 1500000000123L));
+		assertThat(bins.get("localDateTime"), is((Object) TemporalEncoding.EPOCH_MILLIS.encode(event.localDateTime)));
+		assertThat(bins.get("zonedDateTime"), is((Object) 1500000000123L));
+	}
+
+	@Test
+	public void readsWhatItWrites() {
+		for (TemporalEncoding encoding : new TemporalEncoding[] { TemporalEncoding.EPOCH_MILLIS,
+				TemporalEncoding.EPOCH_NANOS }) {
+			converter.setTemporalEncoding(encoding);
+			Event event = event();
+
+			Event result = converter.read(Event.class, forRead(write(converter, event)));
+
+			assertThat(result.instant, is(event.instant));
+			assertThat(result.date, is(event.date));
+			assertThat(result.localDateTime, is(event.localDateTime));
+			assertThat(result.zonedDateTime, is(event.zonedDateTime));
+		}
+	}
+
+	@Test
+	public void encodesSubclassesOfDate() {
+		converter.setTemporalEncoding(TemporalEncoding.EPOCH_NANOS);
+		Audit audit = new Audit();
+		audit.id = "Audit-1";
+		audit.createdAt = Timestamp.from(Instant.ofEpochSecond(1500000000L, 123456789L));
+
+		AerospikeData written = write(converter, audit);
+		Audit result = converter.read(Audit.class, forRead(written));
+
+		assertThat(bins(written).get("createdAt"), is((Object) 1500000000123456789L));
+		assertThat(result.createdAt, is(audit.createdAt));
+	}
+
+	@Test
+	public void keepsNanosecondsWithEpochNanos() {
+		Instant instant = Instant.ofEpochSecond(-1L, 5L);
+
+		long encoded = TemporalEncoding.EPOCH_NANOS.encode(instant);
+
+		assertThat(encoded, is(-999999995L));
+		assertThat(TemporalEncoding.EPOCH_NANOS.decode(encoded, Instant.class), is((Object) instant));
+	}
+
+	@Test
+	public void readsStringsWrittenBeforeSwitchingToEpochs() {
+		Schedule schedule = new Schedule();
+		schedule.id = "Schedule-1";
+		schedule.localDateTime = LocalDateTime.of(2017, 7, 14, 2, 40);
+		AerospikeData written = write(converter, schedule);
+		assertThat(bins(written).get("localDateTime"), instanceOf(String.class));
+
+		converter.setTemporalEncoding(TemporalEncoding.EPOCH_MILLIS);
+		Schedule result = converter.read(Schedule.class, forRead(written));
+
+		assertThat(result.localDateTime, is(schedule.localDateTime));
+	}
+
+	private static Event event() {
+		Instant instant = Instant.ofEpochMilli(1500000000123L);
+		Event event = new Event();
+		event.id = "Event-1";
+		event.instant = instant;
+		event.date = new Date(instant.toEpochMilli());
+		event.localDateTime = LocalDateTime.of(2017, 7, 14, 2, 40, 0, 123000000);
+		event.zonedDateTime = ZonedDateTime.ofInstant(instant, ZoneOffset.UTC);
+		return event;
+	}
+
+	static class Event {
+		@Id String id;
+		Instant instant;
+		Date date;
+		LocalDateTime localDateTime;
+		ZonedDateTime zonedDateTime;
+	}
+
+	static class Audit {
+		@Id String id;
+		Timestamp createdAt;
+	}
+
+	static class Schedule {
+		@Id String id;
+		LocalDateTime localDateTime;
+	}
+}
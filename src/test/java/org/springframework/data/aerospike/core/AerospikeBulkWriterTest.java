@@ -0,0 +1,104 @@
+package org.springframework.data.aerospike.core;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.aerospike.convert.AerospikeData;
+import org.springframework.data.aerospike.convert.MappingAerospikeConverter;
+import org.springframework.data.annotation.Id;
+
+import com.aerospike.client.AerospikeClient;
+import com.aerospike.client.Bin;
+
+/**
+ *
+ *
+ * @author Peter Milne
+ *
+ */
+public class AerospikeBulkWriterTest {
+
+	ExecutorService executor;
+	AerospikeBulkWriter writer;
+
+	@Before
+	public void setUp() {
+		/*
+		 * the mocked client has no cluster, so every put fails, in the order the puts are made
+		 */
+		AerospikeClient client = mock(AerospikeClient.class);
+		MappingAerospikeConverter converter = new MappingAerospikeConverter() {
+
+			@Override
+			public Bin[] writeBins(Object source, AerospikeData data) {
+				/*
+				 * the first version would be overtaken by the second one if both were written at once
+				 */
+				if (source instanceof Versioned && ((Versioned) source).version == 1) {
+					try {
+						Thread.sleep(200);
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				return super.writeBins(source, data);
+			}
+		};
+		executor = Executors.newFixedThreadPool(4);
+		writer = new AerospikeBulkWriter(client, converter, new DefaultAerospikeExceptionTranslator(), "test", executor, 4);
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void writesVersionsOfTheSameIdInTheOrderOfTheBatch() {
+		Versioned first = new Versioned("Versioned-1", 1);
+		Versioned second = new Versioned("Versioned-1", 2);
+
+		BulkWriteResult result = writer.write(Arrays.asList(first, second), null, null);
+
+		List<Object> written = new ArrayList<Object>();
+		for (BulkWriteResult.Failure failure : result.getFailures()) {
+			written.add(failure.getEntity());
+		}
+		assertThat(written, contains((Object) first, second));
+	}
+
+	@Test
+	public void writesDifferentIdsAtOnce() {
+		Versioned first = new Versioned("Versioned-1", 1);
+		Versioned second = new Versioned("Versioned-2", 2);
+
+		BulkWriteResult result = writer.write(Arrays.asList(first, second), null, null);
+
+		List<Object> written = new ArrayList<Object>();
+		for (BulkWriteResult.Failure failure : result.getFailures()) {
+			written.add(failure.getEntity());
+		}
+		assertThat(written, contains((Object) second, first));
+	}
+
+	static class Versioned {
+		@Id String id;
+		int version;
+
+		Versioned(String id, int version) {
+			this.id = id;
+			this.version = version;
+		}
+	}
+}
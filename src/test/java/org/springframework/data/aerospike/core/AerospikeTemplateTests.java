@@ -3,16 +3,25 @@
  */
 package org.springframework.data.aerospike.core;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.junit.After;
 import org.junit.Assert;
@@ -25,15 +34,23 @@ import org.springframework.dao.RecoverableDataAccessException;
 import org.springframework.data.aerospike.config.TestConfig;
 import org.springframework.data.aerospike.repository.query.Criteria;
 import org.springframework.data.aerospike.repository.query.Query;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.keyvalue.core.IterableConverter;
+import org.springframework.data.util.CloseableIterator;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import com.aerospike.client.AerospikeClient;
+import com.aerospike.client.Language;
 import com.aerospike.client.Value;
 import com.aerospike.client.query.Filter;
 import com.aerospike.client.query.IndexType;
+import com.aerospike.helper.query.FilterMode;
 import com.aerospike.helper.query.Qualifier;
 import com.aerospike.helper.query.Qualifier.FilterOperation;
+import com.aerospike.helper.query.QueryEngine;
+import com.aerospike.helper.query.QueryPlan;
 
 /**
  *
@@ -90,6 +107,22 @@ public class AerospikeTemplateTests {
 		assertNull(person1);
 	}
 
+	@Test
+	public void findByIdsKeepsOrderAndSkipsMissing() {
+		Person personSven01 = new Person("Sven-01","ZLastName",25);
+		Person personSven02 = new Person("Sven-02","QLastName",21);
+		Person personSven03 = new Person("Sven-03","ALastName",24);
+
+		template.insert(personSven01);
+		template.insert(personSven02);
+		template.insert(personSven03);
+		template.setMaxBatchSize(2);
+
+		List<Person> result = template.findByIds(Arrays.asList("Sven-03", "Sven-99", "Sven-01", "Sven-02"), Person.class);
+
+		assertThat(result, is(Arrays.asList(personSven03, personSven01, personSven02)));
+	}
+
 	@Test (expected = DataIntegrityViolationException.class)
 	public void throwsExceptionForDuplicateIds() {
 		Person person = new Person("Person-02","Amol");
@@ -111,6 +144,22 @@ public class AerospikeTemplateTests {
 		template.insertAll(records);
 	}
 
+	@Test
+	public void bulkInsertReportsFailedRecordsAndWritesTheRest() {
+		Person person = new Person("Biff-02", "Amol", 28);
+		Person other = new Person("Biff-03", "Jean", 31);
+		template.insert(person);
+		template.setMaxInFlightWrites(2);
+
+		BulkWriteResult result = template.bulkInsert(Arrays.asList(person, other));
+
+		assertThat(result.getSuccessCount(), is(1L));
+		assertThat(result.getFailures().size(), is(1));
+		assertThat(result.getFailures().get(0).getEntity(), is((Object) person));
+		assertThat(result.getFailures().get(0).getCause() instanceof DataIntegrityViolationException, is(true));
+		assertThat(template.findById("Biff-03", Person.class), is(other));
+	}
+
 	@Test 
 	public void findMultipleFiltersQualifierOnly(){
 		template.createIndex(Person.class, "Person_firstName_index", "firstName",IndexType.STRING );
@@ -172,6 +221,229 @@ public class AerospikeTemplateTests {
 		Assert.assertEquals(4, count);
 	}
 
+	@SuppressWarnings("rawtypes")
+	@Test
+	public void explainPicksMostSelectiveIndex() {
+		template.createIndex(Person.class, "Person_firstName_index", "firstName",IndexType.STRING );
+		template.createIndex(Person.class, "Person_age_index", "age",IndexType.NUMERIC );
+
+		for (int i = 0; i < 8; i++) {
+			template.insert(new Person("Sven-0" + i, "FirstName" + i, 25));
+		}
+
+		Query query = new Query(Criteria.where("age").is(25, "age").and("firstName").is("FirstName3", "firstName"));
+
+		QueryPlan plan = template.explain(query, Person.class);
+		assertThat(plan.getStrategy(), is(QueryPlan.Strategy.SECONDARY_INDEX));
+		assertThat(plan.getIndexQualifier().getField(), is("firstName"));
+		assertThat(plan.getResidualQualifiers().length, is(1));
+
+		List<Person> result = IterableConverter.toList(template.find(query, Person.class));
+		assertThat(result, is(Arrays.asList(new Person("Sven-03", "FirstName3", 25))));
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	@Test
+	public void clientFilterModeMatchesLuaFilterMode() {
+		template.createIndex(Person.class, "Person_firstName_index", "firstName",IndexType.STRING );
+
+		template.insert(new Person("Sven-01", "John", 25));
+		template.insert(new Person("Sven-02", "John", 21));
+		template.insert(new Person("Sven-03", "John", 35));
+		template.insert(new Person("Sven-04", "Jane", 25));
+
+		Qualifier name = new Qualifier("firstName", FilterOperation.EQ, Value.get("John"));
+		Qualifier age = new Qualifier("age", FilterOperation.GT, Value.get(22));
+
+		List<Person> luaResult = IterableConverter.toList(template.findAllUsingQuery(Person.class, null, FilterMode.LUA, name, age));
+		List<Person> clientResult = IterableConverter.toList(template.findAllUsingQuery(Person.class, null, FilterMode.CLIENT, name, age));
+
+		assertThat(clientResult.size(), is(2));
+		assertThat(clientResult, containsInAnyOrder(luaResult.toArray()));
+
+		Query query = new Query(Criteria.where("firstName").is("John", "firstName")).filterMode(FilterMode.CLIENT);
+		assertThat(IterableConverter.toList(template.find(query, Person.class)).size(), is(3));
+	}
+
+	@Test
+	public void countsQueryResultsOnTheServer() {
+		template.insert(new Person("Sven-01", "John", 25));
+		template.insert(new Person("Sven-02", "John", 21));
+		template.insert(new Person("Sven-03", "Peter", 24));
+
+		Query query = new Query(Criteria.where("firstName").is("John", "firstName"));
+		query.setOffset(1);
+		query.setRows(1);
+
+		assertThat(template.count(query, Person.class), is(2));
+		assertThat(template.count(new Query(Criteria.where("firstName").is("Paul", "firstName")), Person.class), is(0));
+	}
+
+	@Test
+	public void replacesAStaleUtilityModuleBeforeCounting() throws Exception {
+		File stale = File.createTempFile("as_utility", ".lua");
+		try {
+			Files.write(stale.toPath(), "function select_records(stream)\n  return stream\nend\n".getBytes(StandardCharsets.UTF_8));
+			client.register(null, stale.getPath(), "as_utility.lua", Language.LUA).waitTillComplete();
+		}
+		finally {
+			stale.delete();
+		}
+		template.insert(new Person("Sven-01", "John", 25));
+		template.insert(new Person("Sven-02", "Peter", 24));
+
+		new QueryEngine(client);
+
+		assertThat(template.count(new Query(Criteria.where("firstName").is("John", "firstName")), Person.class), is(1));
+	}
+
+	@Test
+	public void findAppliesSortOffsetAndRows() {
+		template.insert(new Person("Sven-01", "John", 25));
+		template.insert(new Person("Sven-02", "John", 21));
+		template.insert(new Person("Sven-03", "John", 24));
+		template.insert(new Person("Sven-04", "John", 23));
+
+		Query query = new Query(Criteria.where("firstName").is("John", "firstName"));
+		query.setSort(new Sort(Direction.DESC, "age"));
+		query.setOffset(1);
+		query.setRows(2);
+		List<Person> page = IterableConverter.toList(template.find(query, Person.class));
+
+		assertThat(page, contains(new Person("Sven-03", "John", 24), new Person("Sven-04", "John", 23)));
+
+		template.setSortSpillThreshold(1);
+		Query unlimited = new Query(Criteria.where("firstName").is("John", "firstName"));
+		unlimited.setSort(new Sort("age"));
+		List<Person> all = IterableConverter.toList(template.find(unlimited, Person.class));
+		template.setSortSpillThreshold(100000);
+
+		assertThat(all.size(), is(4));
+		assertThat(all.get(0).getAge(), is(21));
+		assertThat(all.get(3).getAge(), is(25));
+	}
+
+	@Test
+	public void findByIdReadsOnlyRequestedFields() {
+		Person person = new Person("Sven-01", "John", 25);
+		person.setEmailAddress("john@example.com");
+		template.insert(person);
+
+		Person result = template.findById("Sven-01", Person.class, Arrays.asList("emailAddress"));
+
+		assertThat(result.getId(), is("Sven-01"));
+		assertThat(result.getEmailAddress(), is("john@example.com"));
+		assertNull(result.getFirstName());
+		assertThat(result.getAge(), is(0));
+	}
+
+	@Test
+	public void findReadsOnlyQueryFields() {
+		template.insert(new Person("Sven-01", "John", 25));
+		template.insert(new Person("Sven-02", "John", 21));
+
+		Query query = new Query(Criteria.where("firstName").is("John", "firstName"));
+		query.setSort(new Sort("age"));
+		query.fields("id");
+		List<Person> result = IterableConverter.toList(template.find(query, Person.class));
+
+		assertThat(result.size(), is(2));
+		assertThat(result.get(0).getId(), is("Sven-02"));
+		assertThat(result.get(0).getAge(), is(21));
+		assertNull(result.get(0).getFirstName());
+	}
+
+	@Test
+	public void continuationSlicesReturnEveryRecordOnce() {
+		List<Person> persons = new ArrayList<Person>();
+		for (int i = 0; i < 25; i++) {
+			persons.add(new Person("Slice-" + i, "LastName", i));
+		}
+		template.insertAll(persons);
+
+		List<Person> result = new ArrayList<Person>();
+		String continuation = null;
+		do {
+			ContinuationSlice<Person> slice = template.findAll(continuation, 10, Person.class);
+			assertThat(slice.getContent().size() <= 10, is(true));
+			result.addAll(slice.getContent());
+			continuation = slice.getContinuation();
+		} while (continuation != null);
+
+		assertThat(result, containsInAnyOrder(persons.toArray()));
+	}
+
+	@Test
+	public void continuationSlicesSurviveWritesBetweenSlices() {
+		List<Person> persons = new ArrayList<Person>();
+		for (int i = 0; i < 30; i++) {
+			persons.add(new Person("Resume-" + i, "LastName", i));
+		}
+		template.insertAll(persons);
+
+		List<Person> result = new ArrayList<Person>();
+		Set<String> ids = new HashSet<String>();
+		String continuation = null;
+		int slices = 0;
+		do {
+			ContinuationSlice<Person> slice = template.findAll(continuation, 7, Person.class);
+			for (Person person : slice.getContent()) {
+				assertThat("returned twice: " + person.getId(), ids.add(person.getId()), is(true));
+			}
+			result.addAll(slice.getContent());
+			continuation = slice.getContinuation();
+
+			/*
+			 * new records land anywhere in the scan order of the nodes
+			 */
+			for (int i = 0; i < 5; i++) {
+				template.insert(new Person("Resume-new-" + slices + "-" + i, "LastName", i));
+			}
+			slices++;
+		} while (continuation != null);
+
+		assertThat(result.containsAll(persons), is(true));
+	}
+
+	@Test
+	public void findInRangeAppliesSort() {
+		template.insert(new Person("Sven-01", "John", 25));
+		template.insert(new Person("Sven-02", "John", 21));
+		template.insert(new Person("Sven-03", "John", 24));
+
+		List<Person> result = IterableConverter.toList(template.findInRange(1, 5, new Sort("age"), Person.class));
+
+		assertThat(result, contains(new Person("Sven-03", "John", 24), new Person("Sven-01", "John", 25)));
+	}
+
+	@Test
+	public void findAllParallelReturnsEveryRecordOnce() {
+		List<Person> persons = new ArrayList<Person>();
+		for (int i = 0; i < 600; i++) {
+			persons.add(new Person("Parallel-" + i, "LastName", i));
+		}
+		template.insertAll(persons);
+		template.setMaxBufferedScanRecords(256);
+
+		List<Person> result = new ArrayList<Person>();
+		CloseableIterator<Person> iterator = template.findAllParallel(Person.class);
+		try {
+			while (iterator.hasNext()) {
+				result.add(iterator.next());
+			}
+		}
+		finally {
+			iterator.close();
+		}
+
+		assertThat(result.size(), is(persons.size()));
+		assertThat(result, containsInAnyOrder(persons.toArray()));
+
+		template.setParallelScan(true);
+		assertThat(template.findAll(Person.class).size(), is(persons.size()));
+		template.setParallelScan(false);
+	}
+
 	@SuppressWarnings("rawtypes")
 	@Test 
 	public void checkIndexingString() {
@@ -509,6 +781,21 @@ public class AerospikeTemplateTests {
 		assertThat(template.exists(queryNotExist, Person.class),is(false));
 	}
 
+	@SuppressWarnings("rawtypes")
+	@Test
+	public void deletesTheObjectsMatchingAQuery() {
+		template.createIndex(Person.class, "Person_firstName_index", "firstName",IndexType.STRING );
+
+		template.insert(new Person("Sven-01", "ZLastName", 25));
+		template.insert(new Person("Sven-02", "ALastName", 50));
+		template.insert(new Person("Sven-03", "ALastName", 24));
+
+		Query query = new Query(Criteria.where("firstName").is("ALastName","firstName"));
+		assertThat(template.delete(query, Person.class), is(2L));
+		assertThat(template.exists(query, Person.class), is(false));
+		assertThat(template.findById("Sven-01", Person.class), is(notNullValue()));
+	}
+
 	@SuppressWarnings("rawtypes")
 	@Test
 	public void updateConsidersMappingAnnotations() {
@@ -16,7 +16,7 @@ import org.junit.runners.Suite.SuiteClasses;
  */
 @RunWith(Suite.class)
 @SuiteClasses({ AerospikeTemplateIntegrationTests.class,
-		AerospikeTemplateTests.class })
+		AerospikeTemplateTests.class, ReactiveAerospikeTemplateTests.class })
 public class AllTests {
 
 }
@@ -0,0 +1,126 @@
+package org.springframework.data.aerospike.core;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.util.CloseableIterator;
+
+import com.aerospike.client.Key;
+import com.aerospike.client.Record;
+import com.aerospike.client.query.KeyRecord;
+
+/**
+ *
+ *
+ * @author Peter Milne
+ *
+ */
+public class EntitySorterTest {
+
+	@Rule public TemporaryFolder spillDirectory = new TemporaryFolder();
+
+	private static final Function<KeyRecord, Person> TO_PERSON = new Function<KeyRecord, Person>() {
+
+		@Override
+		public Person apply(KeyRecord keyRecord) {
+			Map<String, Object> bins = keyRecord.record.bins;
+			return new Person((String) bins.get("id"), (String) bins.get("firstName"),
+					((Long) bins.get("age")).intValue());
+		}
+	};
+
+	List<KeyRecord> records;
+
+	@Before
+	public void setUp() {
+		records = new ArrayList<KeyRecord>();
+		String[] names = { "dave", "Carter", "alicia", "Boyd", "leroi", "Stefan", "oliver", "Donny", "Leroi", "carter" };
+		for (int i = 0; i < names.length; i++) {
+			Map<String, Object> bins = new HashMap<String, Object>();
+			bins.put("id", "Person-" + i);
+			bins.put("firstName", names[i]);
+			bins.put("age", (long) (i % 3));
+			records.add(new KeyRecord(new Key("test", "Person", "Person-" + i), new Record(bins, 1, 0)));
+		}
+	}
+
+	private EntitySorter<Person> sorter(Sort sort, int spillThreshold) {
+		return new EntitySorter<Person>(CompiledPropertyComparator.of(Person.class, sort), TO_PERSON, spillThreshold,
+				spillDirectory.getRoot());
+	}
+
+	private static List<String> ids(Iterable<Person> persons) {
+		List<String> ids = new ArrayList<String>();
+		for (Person person : persons) {
+			ids.add(person.getId());
+		}
+		return ids;
+	}
+
+	@Test
+	public void keepsFirstEntitiesOfBoundedSort() {
+		List<Person> top = sorter(new Sort("firstName"), 100).top(records.iterator(), 3);
+
+		assertThat(ids(top), contains("Person-2", "Person-3", "Person-1"));
+	}
+
+	@Test
+	public void mergesSpilledRunsInStableOrder() {
+		CloseableIterator<Person> sorted = sorter(new Sort(Direction.DESC, "age"), 3).sort(records.iterator());
+		List<Person> result = new ArrayList<Person>();
+		while (sorted.hasNext()) {
+			result.add(sorted.next());
+		}
+		sorted.close();
+
+		assertThat(ids(result), contains("Person-2", "Person-5", "Person-8", "Person-1", "Person-4", "Person-7",
+				"Person-0", "Person-3", "Person-6", "Person-9"));
+		assertThat(spillDirectory.getRoot().list().length, is(0));
+	}
+
+	@Test
+	public void mergesRunsInPassesOfBoundedFanIn() {
+		EntitySorter<Person> sorter = new EntitySorter<Person>(
+				CompiledPropertyComparator.of(Person.class, new Sort(Direction.DESC, "age")), TO_PERSON, 1,
+				spillDirectory.getRoot(), 3);
+		CloseableIterator<Person> sorted = sorter.sort(records.iterator());
+
+		assertThat(spillDirectory.getRoot().list().length <= 2, is(true));
+
+		List<Person> result = new ArrayList<Person>();
+		while (sorted.hasNext()) {
+			result.add(sorted.next());
+		}
+		sorted.close();
+
+		assertThat(ids(result), contains("Person-2", "Person-5", "Person-8", "Person-1", "Person-4", "Person-7",
+				"Person-0", "Person-3", "Person-6", "Person-9"));
+		assertThat(spillDirectory.getRoot().list().length, is(0));
+	}
+
+	@Test
+	public void closeDeletesRunsOfAnUnfinishedSort() {
+		CloseableIterator<Person> sorted = sorter(new Sort("firstName"), 2).sort(records.iterator());
+		File[] runs = spillDirectory.getRoot().listFiles();
+
+		assertThat(sorted.next().getFirstName(), is("alicia"));
+		sorted.close();
+
+		assertThat(runs.length, is(5));
+		assertThat(spillDirectory.getRoot().list().length, is(0));
+	}
+}
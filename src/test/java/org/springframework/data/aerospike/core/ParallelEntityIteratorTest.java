@@ -0,0 +1,143 @@
+package org.springframework.data.aerospike.core;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.Key;
+import com.aerospike.client.Record;
+import com.aerospike.client.cluster.Node;
+import com.aerospike.client.query.KeyRecord;
+import com.aerospike.helper.query.KeyRecordIterator;
+
+/**
+ *
+ *
+ * @author Peter Milne
+ *
+ */
+public class ParallelEntityIteratorTest {
+
+	private static final Function<KeyRecord, String> USER_KEY = new Function<KeyRecord, String>() {
+
+		@Override
+		public String apply(KeyRecord keyRecord) {
+			return keyRecord.key.userKey.toString();
+		}
+	};
+
+	/*
+	 * returns count records, or never ends if count is negative
+	 */
+	private static class NodeRecords extends KeyRecordIterator {
+		private final String prefix;
+		private final int count;
+		private final CountDownLatch closed = new CountDownLatch(1);
+		private int index;
+
+		NodeRecords(String prefix, int count) {
+			super("test");
+			this.prefix = prefix;
+			this.count = count;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return count < 0 || index < count;
+		}
+
+		@Override
+		public KeyRecord next() {
+			return new KeyRecord(new Key("test", "Person", prefix + index++), new Record(null, 1, 0));
+		}
+
+		@Override
+		public void close() throws IOException {
+			closed.countDown();
+		}
+	}
+
+	@Test
+	public void mergesRecordsOfAllNodes() {
+		final Node[] nodes = new Node[] { mock(Node.class), mock(Node.class), mock(Node.class) };
+
+		ParallelEntityIterator<String> iterator = new ParallelEntityIterator<String>(nodes,
+				new Function<Node, KeyRecordIterator>() {
+
+					/*
+					 * Node.toString() is final, the mocks are told apart by identity
+					 */
+					@Override
+					public KeyRecordIterator apply(Node node) {
+						int index = 0;
+						while (nodes[index] != node) {
+							index++;
+						}
+						return new NodeRecords("node" + index + "-", 1000);
+					}
+				}, USER_KEY, null, null, 300).start();
+
+		Set<String> keys = new HashSet<String>();
+		while (iterator.hasNext()) {
+			keys.add(iterator.next());
+		}
+		iterator.close();
+
+		assertThat(keys.size(), is(3000));
+		assertTrue(keys.contains("node0-999"));
+	}
+
+	@Test(expected = AerospikeException.class)
+	public void rethrowsFailureOfANode() {
+		Node[] nodes = new Node[] { mock(Node.class), mock(Node.class) };
+		final Node failing = nodes[1];
+
+		ParallelEntityIterator<String> iterator = new ParallelEntityIterator<String>(nodes,
+				new Function<Node, KeyRecordIterator>() {
+
+					@Override
+					public KeyRecordIterator apply(Node node) {
+						if (node == failing)
+							throw new AerospikeException("node failed");
+						return new NodeRecords("ok-", 10);
+					}
+				}, USER_KEY, null, null, 256).start();
+
+		while (iterator.hasNext()) {
+			iterator.next();
+		}
+	}
+
+	@Test
+	public void closeStopsTheReaders() throws InterruptedException {
+		final NodeRecords endless = new NodeRecords("endless-", -1);
+
+		ParallelEntityIterator<String> iterator = new ParallelEntityIterator<String>(new Node[] { mock(Node.class) },
+				new Function<Node, KeyRecordIterator>() {
+
+					@Override
+					public KeyRecordIterator apply(Node node) {
+						return endless;
+					}
+				}, USER_KEY, null, null, 256).start();
+
+		for (int i = 0; i < 1000; i++) {
+			iterator.next();
+		}
+		iterator.close();
+
+		assertTrue(endless.closed.await(5, TimeUnit.SECONDS));
+		assertThat(iterator.hasNext(), is(false));
+	}
+}
@@ -0,0 +1,164 @@
+/**
+ *
+ */
+package org.springframework.data.aerospike.core;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.aerospike.config.TestConfig;
+import org.springframework.data.aerospike.repository.query.Criteria;
+import org.springframework.data.aerospike.repository.query.Query;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.aerospike.client.query.IndexType;
+
+/**
+ *
+ *
+ * @author Peter Milne
+ *
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestConfig.class})
+public class ReactiveAerospikeTemplateTests {
+
+	@Autowired ReactiveAerospikeTemplate reactiveTemplate;
+	@Autowired AerospikeTemplate template;
+
+	@Before
+	public void setUp() throws Exception {
+		template.delete(Person.class);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		template.delete(Person.class);
+	}
+
+	@Test
+	public void insertAndFindById() {
+		Person person = new Person("Reactive-01", "Oliver", 25);
+
+		reactiveTemplate.insert(person).block();
+
+		assertThat(reactiveTemplate.findById("Reactive-01", Person.class).block(), is(person));
+		assertNull(reactiveTemplate.findById("Reactive-99", Person.class).block());
+	}
+
+	@Test(expected = DataIntegrityViolationException.class)
+	public void insertRejectsDuplicateId() {
+		Person person = new Person("Reactive-02", "Amol", 28);
+
+		reactiveTemplate.insert(person).block();
+		reactiveTemplate.insert(person).block();
+	}
+
+	@Test
+	public void saveOverwritesAndDeleteReportsExistence() {
+		Person person = new Person("Reactive-03", "Jean", 21);
+		reactiveTemplate.save(person).block();
+		person.setAge(22);
+		reactiveTemplate.save(person).block();
+
+		assertThat(reactiveTemplate.findById("Reactive-03", Person.class).block().getAge(), is(22));
+		assertThat(reactiveTemplate.delete(person).block(), is(true));
+		assertThat(reactiveTemplate.delete("Reactive-03", Person.class).block(), is(false));
+	}
+
+	@Test
+	public void findStreamsMatchingRecordsInSortOrder() {
+		template.createIndex(Person.class, "Person_firstName_index", "firstName", IndexType.STRING);
+		Person personSven01 = new Person("Sven-01", "Sven", 25);
+		Person personSven02 = new Person("Sven-02", "Sven", 21);
+		Person personOther = new Person("Other-01", "ALastName", 24);
+		reactiveTemplate.insert(personSven01).block();
+		reactiveTemplate.insert(personSven02).block();
+		reactiveTemplate.insert(personOther).block();
+
+		Query<?> query = new Query<Object>(Criteria.where("firstName").is("Sven", "firstName"));
+		query.setSort(new Sort("age"));
+		List<Person> result = reactiveTemplate.find(query, Person.class).collectList().block();
+
+		assertThat(result.size(), is(2));
+		assertThat(result.get(0), is(personSven02));
+		assertThat(result.get(1), is(personSven01));
+		assertThat(reactiveTemplate.count(query, Person.class).block(), is(2L));
+	}
+
+	@Test
+	public void findAllStreamsEveryRecord() {
+		Person one = new Person("Reactive-04", "Jean", 21);
+		Person two = new Person("Reactive-05", "Jean2", 22);
+		reactiveTemplate.insert(one).block();
+		reactiveTemplate.insert(two).block();
+
+		assertThat(reactiveTemplate.findAll(Person.class).collectList().block(), containsInAnyOrder(one, two));
+		assertThat(reactiveTemplate.findAll(Person.class).take(1).collectList().block().size(), is(1));
+	}
+
+	@Test
+	public void sortedFindPagesAndSpillsLargeResults() {
+		for (int age = 30; age > 25; age--) {
+			reactiveTemplate.insert(new Person("Sorted-" + age, "Sorted", age)).block();
+		}
+		Query<?> paged = new Query<Object>(Criteria.where("firstName").is("Sorted", "firstName"));
+		paged.setSort(new Sort("age"));
+		paged.setOffset(1);
+		paged.setRows(2);
+		Query<?> all = new Query<Object>(Criteria.where("firstName").is("Sorted", "firstName"));
+		all.setSort(new Sort("age"));
+
+		reactiveTemplate.setSortSpillThreshold(2);
+		try {
+			assertThat(ages(reactiveTemplate.find(paged, Person.class).collectList().block()), contains(27, 28));
+			assertThat(ages(reactiveTemplate.find(all, Person.class).collectList().block()), contains(26, 27, 28, 29, 30));
+		}
+		finally {
+			reactiveTemplate.setSortSpillThreshold(100000);
+		}
+	}
+
+	@Test
+	public void countsTheRecordsOfASet() {
+		reactiveTemplate.insert(new Person("Reactive-06", "Jean", 21)).block();
+		reactiveTemplate.insert(new Person("Reactive-07", "Jean", 22)).block();
+		reactiveTemplate.insert(new Person("Reactive-08", "Jean", 23)).block();
+
+		assertThat(reactiveTemplate.count(Person.class).block(), is(3L));
+	}
+
+	@Test
+	public void countsMatchingRecordsOnTheServer() {
+		reactiveTemplate.insert(new Person("Count-01", "Counted", 21)).block();
+		reactiveTemplate.insert(new Person("Count-02", "Counted", 22)).block();
+		reactiveTemplate.insert(new Person("Count-03", "Other", 23)).block();
+
+		Query<?> query = new Query<Object>(Criteria.where("firstName").is("Counted", "firstName"));
+		query.setRows(1);
+
+		assertThat(reactiveTemplate.count(query, Person.class).block(), is(2L));
+	}
+
+	private static List<Integer> ages(List<Person> persons) {
+		List<Integer> ages = new ArrayList<Integer>();
+		for (Person person : persons) {
+			ages.add(person.getAge());
+		}
+		return ages;
+	}
+}
@@ -112,6 +112,13 @@ public abstract class AbstractPersonRepositoryIntegrationTests {
 		assertThat(result, hasItem(carter));
 	}
 
+	@Test
+	public void countsPersonsByLastnameAndFirstname() {
+		assertThat(repository.countByLastname("Moore"), is(2L));
+		assertThat(repository.countByLastname("Unknown"), is(0L));
+		assertThat(repository.countByFirstname("Dave"), is(1));
+	}
+
 	@Test
 	public void deletesPersonCorrectly() throws Exception {
 		repository.delete(dave);
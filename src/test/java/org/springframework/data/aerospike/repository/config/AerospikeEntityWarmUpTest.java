@@ -0,0 +1,69 @@
+/**
+ *
+ */
+package org.springframework.data.aerospike.repository.config;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.data.aerospike.core.AerospikeTemplate;
+import org.springframework.data.aerospike.repository.Address;
+import org.springframework.data.aerospike.repository.AnnotatedPerson;
+
+/**
+ * @author Peter Milne
+ */
+public class AerospikeEntityWarmUpTest {
+
+	StaticApplicationContext context;
+	AerospikeTemplate template;
+	AerospikeEntityWarmUp warmUp;
+
+	@Before
+	public void setUp() {
+		template = mock(AerospikeTemplate.class);
+		context = new StaticApplicationContext();
+		context.getBeanFactory().registerSingleton("aerospikeTemplate", template);
+		context.refresh();
+
+		warmUp = new AerospikeEntityWarmUp();
+		warmUp.setApplicationContext(context);
+	}
+
+	@After
+	public void tearDown() {
+		context.close();
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void warmsUpTheDocumentsOfTheBasePackages() {
+		warmUp.setBasePackages(Collections.singletonList(AnnotatedPerson.class.getPackage().getName()));
+
+		warmUp.afterSingletonsInstantiated();
+
+		ArgumentCaptor<Collection> types = ArgumentCaptor.forClass(Collection.class);
+		verify(template).warmUp(types.capture());
+		assertThat((Collection<Object>) types.getValue(), hasItem((Object) AnnotatedPerson.class));
+		assertThat((Collection<Object>) types.getValue(), not(hasItem((Object) Address.class)));
+		assertThat(warmUp.getEntityTypes(), hasItem(AnnotatedPerson.class));
+		assertThat(warmUp.getWarmUpMillis(), is(greaterThanOrEqualTo(0L)));
+	}
+
+	@Test
+	public void warmsUpNothingWithoutBasePackagesNorRepositories() {
+		warmUp.afterSingletonsInstantiated();
+
+		verify(template).warmUp(Collections.<Class<?>> emptySet());
+		assertThat(warmUp.getEntityTypes(), is(empty()));
+	}
+}
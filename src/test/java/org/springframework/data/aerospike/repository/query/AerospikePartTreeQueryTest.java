@@ -1,10 +1,27 @@
 /**
- * 
+ *
  */
 package org.springframework.data.aerospike.repository.query;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.aerospike.core.AerospikeOperations;
+import org.springframework.data.aerospike.repository.Person;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.support.DefaultRepositoryMetadata;
+import org.springframework.data.repository.query.DefaultEvaluationContextProvider;
+import org.springframework.data.repository.query.QueryMethod;
 
 /**
  *
@@ -15,11 +32,14 @@ import org.junit.Before;
  */
 public class AerospikePartTreeQueryTest {
 
+	AerospikeOperations operations;
+
 	/**
 	 * @throws java.lang.Exception
 	 */
 	@Before
 	public void setUp() throws Exception {
+		operations = mock(AerospikeOperations.class);
 	}
 
 	/**
@@ -29,8 +49,58 @@ public class AerospikePartTreeQueryTest {
 	public void tearDown() throws Exception {
 	}
 
-	/**
-	 * Test method for {@link org.springframework.data.aerospike.repository.query.AerospikePartTreeQuery#AerospikePartTreeQuery(org.springframework.data.repository.query.QueryMethod, org.springframework.data.repository.query.EvaluationContextProvider, org.springframework.data.aerospike.core.AerospikeOperations, java.lang.Class)}.
-	 */
+	@Test
+	public void existsQueriesOnlyReadTheKeys() throws Exception {
+		when(operations.exists(any(Query.class), eq(Person.class))).thenReturn(true);
+
+		Object result = queryFor("existsByLastname", String.class).execute(new Object[] { "Matthews" });
+
+		assertThat(result, is((Object) true));
+		verify(operations).exists(any(Query.class), eq(Person.class));
+		verify(operations, never()).find(any(Query.class), eq(Person.class));
+		verify(operations, never()).stream(any(Query.class), eq(Person.class));
+	}
+
+	@Test
+	public void deleteQueriesReturningCountsOnlyReadTheKeys() throws Exception {
+		when(operations.delete(any(Query.class), eq(Person.class))).thenReturn(2L);
+
+		assertThat(queryFor("deleteByLastname", String.class).execute(new Object[] { "Matthews" }), is((Object) 2L));
+		assertThat(queryFor("removeByFirstname", String.class).execute(new Object[] { "Dave" }), is((Object) 2));
+		assertThat(queryFor("deletePersonByLastname", String.class).execute(new Object[] { "Matthews" }), is(nullValue()));
+		verify(operations, times(3)).delete(any(Query.class), eq(Person.class));
+		verify(operations, never()).find(any(Query.class), eq(Person.class));
+	}
 
+	@Test
+	public void deleteQueriesReturningTheDeletedObjectsReadThem() throws Exception {
+		Person dave = new Person("Dave-01", "Dave", "Matthews");
+		when(operations.find(any(Query.class), eq(Person.class))).thenReturn(Arrays.asList(dave));
+
+		Object result = queryFor("removePersonByLastname", String.class).execute(new Object[] { "Matthews" });
+
+		assertThat(result, is((Object) Arrays.asList(dave)));
+		verify(operations).delete(dave);
+		verify(operations, never()).delete(any(Query.class), eq(Person.class));
+	}
+
+	private AerospikePartTreeQuery queryFor(String methodName, Class<?>... parameterTypes) throws Exception {
+		QueryMethod method = new QueryMethod(KeysOnlyRepository.class.getMethod(methodName, parameterTypes),
+				new DefaultRepositoryMetadata(KeysOnlyRepository.class), new SpelAwareProxyProjectionFactory());
+		return new AerospikePartTreeQuery(method, DefaultEvaluationContextProvider.INSTANCE, operations,
+				AerospikeQueryCreator.class);
+	}
+
+	interface KeysOnlyRepository extends Repository<Person, String> {
+
+		boolean existsByLastname(String lastname);
+
+		long deleteByLastname(String lastname);
+
+		int removeByFirstname(String firstname);
+
+		void deletePersonByLastname(String lastname);
+
+		List<Person> removePersonByLastname(String lastname);
+	}
 }
@@ -15,7 +15,7 @@ import org.junit.runners.Suite.SuiteClasses;
  *
  */
 @RunWith(Suite.class)
-@SuiteClasses({})
+@SuiteClasses({ AerospikePartTreeQueryTest.class })
 public class AllTests {
 
 }
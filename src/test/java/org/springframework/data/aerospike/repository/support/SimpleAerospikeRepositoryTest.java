@@ -14,9 +14,11 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.After;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -31,6 +33,9 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.data.aerospike.convert.AerospikeConverter;
 import org.springframework.data.aerospike.core.AerospikeOperations;
 import org.springframework.data.aerospike.core.AerospikeTemplate;
+import org.springframework.data.aerospike.core.BulkWriteException;
+import org.springframework.data.aerospike.core.BulkWriteResult;
+import org.springframework.data.aerospike.core.ContinuationSlice;
 import org.springframework.data.aerospike.core.Person;
 import org.springframework.data.aerospike.mapping.AerospikePersistentEntity;
 import org.springframework.data.domain.Page;
@@ -198,6 +203,32 @@ public class SimpleAerospikeRepositoryTest {
 		org.junit.Assert.assertEquals(pagereturn,page);
 	}
 
+	@SuppressWarnings({ "serial", "unchecked" })
+	@Test
+	public <T> void testFindAllPageableDoesNotCountPartialPage() {
+		List<Person> persons = new ArrayList<Person>(){{
+			add(new Person("one", "Jean", 21));
+		}};
+		doReturn(persons).when(operations).findInRange(2,2,null,Person.class);
+
+		Page<T> pagereturn = (Page<T>) simpleAerospikeRepository.findAll(new PageRequest(1, 2));
+
+		org.junit.Assert.assertEquals(3, pagereturn.getTotalElements());
+		Mockito.verify(operations,times(0)).count((Class<T>) Mockito.anyVararg(), anyString());
+	}
+
+	@Test
+	public void testFindAllWithContinuation() {
+		ContinuationSlice<Person> slice = new ContinuationSlice<Person>(Arrays.asList(testPerson), 1, "next");
+		Mockito.when(operations.findAll("previous", 1, Person.class)).thenReturn(slice);
+
+		ContinuationSlice<?> result = simpleAerospikeRepository.findAll("previous", 1);
+
+		org.junit.Assert.assertEquals("next", result.getContinuation());
+		org.junit.Assert.assertTrue(result.hasNext());
+		org.junit.Assert.assertEquals(Arrays.asList(testPerson), result.getContent());
+	}
+
 	/**
 	 * Test method for {@link org.springframework.data.aerospike.repository.support.SimpleAerospikeRepository#exists(java.io.Serializable)}.
 	 */
@@ -247,6 +278,66 @@ public class SimpleAerospikeRepositoryTest {
 		assertThat(fetchList, containsInAnyOrder(new Person("one", "Jean", 21),new Person("two", "Jean2", 22),new Person("three", "Jean3", 23)));
 	}
 
+	/**
+	 * Test method for {@link org.springframework.data.aerospike.repository.support.SimpleAerospikeRepository#findAll(java.lang.Iterable)}.
+	 */
+	@SuppressWarnings({ "serial", "unchecked" })
+	@Test
+	public void testFindAllIterableOfIDUsesBatchRead() {
+		List<Person> persons = new ArrayList<Person>(){{
+			add(new Person("one", "Jean", 21));
+			add(new Person("two", "Jean2", 22));
+		}};
+		List<String> IDs = new ArrayList<String>(){{
+			add("one");
+			add("two");
+		}};
+
+		doReturn(persons).when(operations).findByIds(IDs, Person.class);
+		List<Person> fetchList = (List<Person>) ((SimpleAerospikeRepository<Person, String>) simpleAerospikeRepository).findAll(IDs);
+
+		Mockito.verify(operations, times(1)).findByIds(IDs, Person.class);
+		Mockito.verify(operations, Mockito.never()).findById(anyString(), Mockito.<Class<Person>>any(), Mockito.<Class<Person>>any());
+		assertThat(fetchList, is(persons));
+	}
+
+	@SuppressWarnings({ "serial", "unchecked" })
+	@Test
+	public void testSaveIterableUsesBulkWrite() {
+		List<Person> persons = new ArrayList<Person>(){{
+			add(new Person("one", "Jean", 21));
+			add(new Person("two", "Jean2", 22));
+		}};
+
+		doReturn(new BulkWriteResult(2, null)).when(operations).bulkSave(persons, Person.class);
+		List<Person> saved = ((SimpleAerospikeRepository<Person, String>) simpleAerospikeRepository).save(persons);
+
+		Mockito.verify(operations, times(1)).bulkSave(persons, Person.class);
+		assertThat(saved, is(persons));
+	}
+
+	@SuppressWarnings({ "serial", "unchecked" })
+	@Test
+	public void testSaveIterableReportsFailedRecords() {
+		final Person failed = new Person("two", "Jean2", 22);
+		List<Person> persons = new ArrayList<Person>(){{
+			add(new Person("one", "Jean", 21));
+			add(failed);
+		}};
+		List<BulkWriteResult.Failure> failures = new ArrayList<BulkWriteResult.Failure>();
+		failures.add(new BulkWriteResult.Failure(failed, new IllegalStateException("write failed")));
+
+		doReturn(new BulkWriteResult(1, failures)).when(operations).bulkSave(persons, Person.class);
+
+		try {
+			((SimpleAerospikeRepository<Person, String>) simpleAerospikeRepository).save(persons);
+			Assert.fail("Expected BulkWriteException");
+		} catch (BulkWriteException e) {
+			assertThat(e.getResult().getSuccessCount(), is(1L));
+			assertThat(e.getResult().getFailures().get(0).getEntity(), is((Object) failed));
+		}
+	}
+
 	/**
 	 * Test method for {@link org.springframework.data.aerospike.repository.support.SimpleAerospikeRepository#delete(java.io.Serializable)}.
 	 */